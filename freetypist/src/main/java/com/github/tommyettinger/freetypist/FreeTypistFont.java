@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2024 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tommyettinger.freetypist;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.utils.IntFloatMap;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.IntSet;
+import com.badlogic.gdx.utils.Null;
+import com.github.tommyettinger.textra.Font;
+
+/**
+ * A {@link Font} that uses FreeType to create each glyph the first time it is needed, instead of needing every glyph
+ * generated ahead of time. This is meant for text that can use any script, like user-generated chat, where generating
+ * every CJK glyph up front would be far too slow and too large. Looking up a char in {@link #mapping} that hasn't been
+ * seen yet (which is what markup and drawing do) rasterizes it into growing {@link PixmapPacker} pages, and adds it and
+ * its kerning to this Font. Chars the font file doesn't have are remembered, so they are only looked for once.
+ * <br>
+ * By default, the page texture is updated right after each new glyph is drawn into it. If many new glyphs can show up
+ * at once, you can {@link #setDeferUploads(boolean) defer uploads} and call {@link #update()} once per frame, before
+ * drawing; that uploads each changed page once, however many glyphs were added to it. Glyphs added since the last
+ * update() are invisible until it is called.
+ * <br>
+ * Copies made with {@link Font#Font(Font)} (as widgets and styles make) keep creating glyphs as needed; copies made
+ * with {@link Font#Font(Font, boolean)} that share tables also share new glyphs with this Font until either one changes
+ * its glyph tables. The FreeTypeFontGenerator must not be disposed while this
+ * Font or any copy of it is in use. Iterating over {@link #mapping} only sees glyphs that have been created so far.
+ */
+public class FreeTypistFont extends Font {
+    private final BitmapFont bitmapFont;
+    private final PixmapPacker packer;
+    private final boolean ownsPacker;
+    private final FreeTypeFontGenerator.FreeTypeFontParameter parameter;
+    private boolean deferUploads = false;
+    private boolean ownsBitmapFont = true;
+
+    /**
+     * Creates a FreeTypistFont that makes glyphs as needed with the given generator and parameter. Any chars in
+     * {@code parameter.characters} are generated now; setting that to just a few chars (or "") makes this faster to
+     * create. This sets {@code parameter.incremental} to true, and if {@code parameter.packer} is null, sets it to a
+     * new PixmapPacker with 1024x1024 pages that this Font owns.
+     *
+     * @param generator a FreeTypeFontGenerator that must stay undisposed while this Font is used
+     * @param parameter the settings to generate glyphs with; will be modified as described above
+     */
+    public FreeTypistFont(FreeTypeFontGenerator generator, FreeTypeFontGenerator.FreeTypeFontParameter parameter) {
+        this(parameter.packer == null, generate(generator, parameter), parameter);
+    }
+
+    private FreeTypistFont(boolean ownsPacker, BitmapFont bitmapFont,
+                           FreeTypeFontGenerator.FreeTypeFontParameter parameter) {
+        super(bitmapFont);
+        this.bitmapFont = bitmapFont;
+        this.ownsPacker = ownsPacker;
+        this.parameter = parameter;
+        this.packer = parameter.packer;
+        if (kerning == null && parameter.kerning) kerning = new IntFloatMap(128);
+        mapping = new IncrementalGlyphMap(this, mapping);
+    }
+
+    private static BitmapFont generate(FreeTypeFontGenerator generator,
+                                       FreeTypeFontGenerator.FreeTypeFontParameter parameter) {
+        parameter.incremental = true;
+        if (parameter.packer == null) {
+            PixmapPacker packer = new PixmapPacker(1024, 1024, Pixmap.Format.RGBA8888, 1, false,
+                    new PixmapPacker.SkylineStrategy());
+            // matches what FreeTypeFontGenerator does with its own packers, so linear filtering blends edges well
+            packer.setTransparentColor(parameter.borderWidth > 0 ? parameter.borderColor : parameter.color);
+            packer.getTransparentColor().a = 0;
+            parameter.packer = packer;
+        }
+        return generator.generateFont(parameter);
+    }
+
+    /**
+     * Gets the BitmapFont that creates glyphs for this Font; it can be used with scene2d.ui widgets that need a
+     * BitmapFont, and will share glyphs with this.
+     *
+     * @return the BitmapFont this creates glyphs with
+     */
+    public BitmapFont getBitmapFont() {
+        return bitmapFont;
+    }
+
+    /**
+     * @return true if new glyphs only appear after {@link #update()} is called
+     */
+    public boolean isDeferUploads() {
+        return deferUploads;
+    }
+
+    /**
+     * If true, glyphs created from now on are drawn into their pages, but the page textures aren't updated until
+     * {@link #update()} is called, which should then be done once per frame before drawing. If false (the default),
+     * each page texture is updated as soon as a glyph is added to it.
+     *
+     * @param deferUploads true to update page textures only in {@link #update()}
+     * @return this, for chaining
+     */
+    public FreeTypistFont setDeferUploads(boolean deferUploads) {
+        this.deferUploads = deferUploads;
+        if (!deferUploads) update();
+        return this;
+    }
+
+    /**
+     * Uploads each page that has had glyphs added since it was last uploaded, and adds any new pages to
+     * {@link #parents}. This does nothing if no glyphs have been added. Call this once per frame, before drawing, if
+     * {@link #setDeferUploads(boolean) uploads are deferred}.
+     */
+    public void update() {
+        packer.updateTextureRegions(parents, parameter.minFilter, parameter.magFilter, parameter.genMipMaps);
+    }
+
+    /**
+     * @return true if disposing this Font also disposes its BitmapFont and pages
+     */
+    public boolean ownsBitmapFont() {
+        return ownsBitmapFont;
+    }
+
+    /**
+     * Sets whether disposing this Font also disposes the BitmapFont from {@link #getBitmapFont()} and its pages. This
+     * should be false if something else, such as a Skin, will dispose that BitmapFont. Defaults to true.
+     *
+     * @param ownsBitmapFont true if this Font should dispose its BitmapFont
+     * @return this, for chaining
+     */
+    public FreeTypistFont setOwnsBitmapFont(boolean ownsBitmapFont) {
+        this.ownsBitmapFont = ownsBitmapFont;
+        return this;
+    }
+
+    /**
+     * If {@link #ownsBitmapFont()}, disposes the BitmapFont's data, which disposes its PixmapPacker, and also disposes
+     * the page textures if the packer was made by this Font. If the BitmapFont is owned by something else but the
+     * packer was made by this Font, this still disposes the packer (along with any pages that don't have a texture yet),
+     * and the page textures too unless the BitmapFont {@link BitmapFont#ownsTexture() owns them}. Anything
+     * {@link Font#dispose()} disposes is always disposed. The FreeTypeFontGenerator is not disposed.
+     */
+    @Override
+    public void dispose() {
+        super.dispose();
+        if (ownsBitmapFont) {
+            if (ownsPacker) disposePages();
+            ((FreeTypeFontGenerator.FreeTypeBitmapFontData) bitmapFont.getData()).dispose();
+            bitmapFont.dispose();
+        } else if (ownsPacker) {
+            if (!bitmapFont.ownsTexture()) disposePages();
+            ((FreeTypeFontGenerator.FreeTypeBitmapFontData) bitmapFont.getData()).dispose();
+        }
+    }
+
+    private void disposePages() {
+        // a packer's page textures dispose their Pixmaps, and the packer only disposes Pixmaps without textures
+        for (PixmapPacker.Page page : packer.getPages()) {
+            if (page.getTexture() != null) page.getTexture().dispose();
+        }
+    }
+
+    /**
+     * The mapping of a FreeTypistFont, which asks its BitmapFontData for any char it doesn't have yet. Copies of this
+     * share the BitmapFontData, so a glyph made for one copy is only rasterized once.
+     */
+    private static final class IncrementalGlyphMap extends IntMap<GlyphRegion> implements Font.GlyphMapping {
+        private final FreeTypistFont source;
+        private final Font font;
+        private final BitmapFont.BitmapFontData data;
+        /**
+         * Chars the font file doesn't have; shared by all copies.
+         */
+        private final IntSet missing;
+        /**
+         * Chars FreeType has made glyphs for, which are the only ones that can have kerning; shared by all copies.
+         */
+        private final IntSet produced;
+        private final float yAdjust;
+
+        IncrementalGlyphMap(FreeTypistFont font, IntMap<GlyphRegion> existing) {
+            super(Math.max(existing.size, 64));
+            this.source = font;
+            this.font = font;
+            this.data = font.bitmapFont.getData();
+            this.missing = new IntSet();
+            this.produced = new IntSet(Math.max(existing.size, 64));
+            for (BitmapFont.Glyph[] page : data.glyphs) {
+                if (page == null) continue;
+                for (BitmapFont.Glyph glyph : page) {
+                    if (glyph != null) produced.add(glyph.id);
+                }
+            }
+            // the same adjustment Font(BitmapFont) applies to every glyph it copies
+            this.yAdjust = font.yAdjust - (font.bitmapFont.getAscent() + font.bitmapFont.getDescent());
+            putAll(existing);
+        }
+
+        private IncrementalGlyphMap(IncrementalGlyphMap other, Font font) {
+            super(Math.max(other.size, 64));
+            this.source = other.source;
+            this.font = font;
+            this.data = other.data;
+            this.missing = other.missing;
+            this.produced = other.produced;
+            this.yAdjust = other.yAdjust;
+            for (Entry<GlyphRegion> e : other) {
+                if (e.value != null) super.put(e.key, new GlyphRegion(e.value));
+            }
+        }
+
+        @Override
+        public IntMap<GlyphRegion> copyFor(Font font) {
+            return new IncrementalGlyphMap(this, font);
+        }
+
+        @Override
+        public GlyphRegion get(int key) {
+            GlyphRegion gr = super.get(key);
+            if (gr != null || super.containsKey(key)) return gr;
+            return create(key);
+        }
+
+        @Override
+        public GlyphRegion get(int key, @Null GlyphRegion defaultValue) {
+            GlyphRegion gr = get(key);
+            return gr == null ? defaultValue : gr;
+        }
+
+        @Override
+        public boolean containsKey(int key) {
+            return get(key) != null;
+        }
+
+        private @Null GlyphRegion create(int key) {
+            if (key < 0 || key > 0xFFFF || missing.contains(key)) return null;
+            char c = (char) key;
+            BitmapFont.Glyph glyph = data.getGlyph(c);
+            if (glyph == null || (glyph == data.missingGlyph && glyph.id != c)) {
+                missing.add(key);
+                return null;
+            }
+            if (!source.deferUploads) source.update();
+            // FreeType adds a region when it starts a new page, which copies with their own parents don't have yet
+            syncParents();
+            TextureRegion page = source.bitmapFont.getRegions().get(glyph.page);
+            GlyphRegion gr = new GlyphRegion(page, glyph.srcX, glyph.srcY, glyph.width, glyph.height);
+            gr.offsetX = glyph.xoffset + font.xAdjust;
+            gr.offsetY = (-glyph.height - glyph.yoffset) + yAdjust;
+            gr.xAdvance = glyph.xadvance + font.widthAdjust;
+            super.put(key, gr);
+            IntFloatMap kerning = font.kerning;
+            if (kerning != null) {
+                // the new glyph's kerning with every glyph FreeType made before it, in both directions; chars from
+                // atlases or added by Font itself never have kerning, so they aren't looked at
+                IntSet.IntSetIterator it = new IntSet.IntSetIterator(produced);
+                while (it.hasNext) {
+                    int other = it.next();
+                    if (other == key) continue;
+                    int k = glyph.getKerning((char) other);
+                    if (k != 0) {
+                        kerning.put(key << 16 | other, k);
+                        if (key == '[') kerning.put(2 << 16 | other, k);
+                    }
+                    BitmapFont.Glyph otherGlyph = data.getGlyph((char) other);
+                    if (otherGlyph != null && (k = otherGlyph.getKerning(c)) != 0) {
+                        kerning.put(other << 16 | key, k);
+                        if (other == '[') kerning.put(2 << 16 | key, k);
+                    }
+                }
+            }
+            produced.add(key);
+            return gr;
+        }
+
+        private void syncParents() {
+            if (font.parents == source.bitmapFont.getRegions()) return;
+            for (TextureRegion region : source.bitmapFont.getRegions()) {
+                if (!font.parents.contains(region, true)) font.parents.add(region);
+            }
+        }
+    }
+}
@@ -26,6 +26,8 @@ import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonWriter;
+import com.badlogic.gdx.utils.ObjectMap;
 import com.badlogic.gdx.utils.SerializationException;
 import com.github.tommyettinger.textra.Font;
 import com.github.tommyettinger.textra.BitmapFontSupport;
@@ -37,6 +39,24 @@ import com.github.tommyettinger.textra.BitmapFontSupport;
  * If you are using Asset Manager, use {@link FreeTypistSkinLoader}
  */
 public class FreeTypistSkin extends Skin {
+    /**
+     * Page textures loaded by this skin's font serializers, by file path. Each is only loaded once, however many fonts
+     * use it, and this skin disposes them when it is disposed. This and the other caches are created in
+     * {@link #getJsonLoader(FileHandle)}, because Skin's constructors load JSON before field initializers would run.
+     */
+    private ObjectMap<String, Texture> loadedPages;
+    /**
+     * Fonts loaded from files, by file path and adjustments or by generator settings; each Font this adds to the skin
+     * is a copy of one of these, except for the first Font made by each FreeType generator entry, which is added itself.
+     * This skin owns these originals: the ones it didn't add are disposed in {@link #dispose()}, after the copies.
+     */
+    private ObjectMap<String, Font> loadedFonts;
+    /**
+     * BitmapFonts loaded from files, by file path and settings; any later BitmapFont with the same key shares data and
+     * pages with one of these.
+     */
+    private ObjectMap<String, BitmapFont> loadedBitmapFonts;
+
     /** Creates an empty skin. */
     public FreeTypistSkin() {
     }
@@ -68,6 +88,53 @@ public class FreeTypistSkin extends Skin {
         super(atlas);
     }
     
+    /**
+     * Gets the page texture from the given image file, loading it only if this skin hasn't loaded it already.
+     * @param imageFile an image file, typically a PNG, used as a font's page
+     * @return the Texture for imageFile, owned by this skin
+     */
+    private Texture loadPage(FileHandle imageFile) {
+        String key = imageFile.path();
+        Texture page = loadedPages.get(key);
+        if (page == null) loadedPages.put(key, page = new Texture(imageFile));
+        return page;
+    }
+
+    /**
+     * Copies a Font from {@link #loadedFonts} to add to this skin. The copy gets its own shader, if it needs one, and
+     * leaves the original's {@link Font#whiteBlock} to the original, so disposing every Font in this skin never
+     * disposes the same GPU object twice.
+     * @param original a Font from loadedFonts
+     * @return a copy of original that can be disposed on its own
+     */
+    private static Font copyOf(Font original) {
+        Font copy = new Font(original);
+        copy.setDistanceField(copy.getDistanceField());
+        copy.whiteBlock = null;
+        return copy;
+    }
+
+    /**
+     * Disposes everything {@link Skin#dispose()} does, as well as any page textures and original Fonts loaded for fonts
+     * in this skin.
+     */
+    @Override
+    public void dispose() {
+        super.dispose();
+        if (loadedPages == null) return;
+        for (Texture page : loadedPages.values()) {
+            page.dispose();
+        }
+        for (Font original : loadedFonts.values()) {
+            // originals that were added to the skin were already disposed by super.dispose()
+            if (find(original) == null)
+                original.dispose();
+        }
+        loadedPages.clear();
+        loadedFonts.clear();
+        loadedBitmapFonts.clear();
+    }
+
     /**
      * Overrides the default JSON loader to process FreeType fonts from a Skin JSON.
      * @param skinFile The JSON file to be processed.
@@ -77,6 +144,11 @@ public class FreeTypistSkin extends Skin {
     protected Json getJsonLoader(final FileHandle skinFile) {
         Json json = super.getJsonLoader(skinFile);
         final Skin skin = this;
+        if (loadedPages == null) {
+            loadedPages = new ObjectMap<>();
+            loadedFonts = new ObjectMap<>();
+            loadedBitmapFonts = new ObjectMap<>();
+        }
 
         json.setSerializer(Font.class, new Json.ReadOnlySerializer<Font>() {
             @Override
@@ -101,10 +173,15 @@ public class FreeTypistSkin extends Skin {
 
                 // Use a region with the same name as the font, else use a PNG file in the same directory as the FNT file.
                 String regionName = path.substring(Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\'))+1, path.lastIndexOf('.'));
+                // Fonts loaded from the same file with the same adjustments are copies of one original, and share its pages.
+                String key = path + '|' + xAdjust + '|' + yAdjust + '|' + widthAdjust + '|' + heightAdjust + '|' + makeGridGlyphs;
                 try {
                     Font font;
+                    Font loaded = loadedFonts.get(key);
                     Array<TextureRegion> regions = skin.getRegions(regionName);
-                    if (regions != null && regions.notEmpty()) {
+                    if (loaded != null) {
+                        font = copyOf(loaded);
+                    } else if (regions != null && regions.notEmpty()) {
                         if(fw)
                             font = new Font(path, regions.first(), xAdjust, yAdjust, widthAdjust, heightAdjust, makeGridGlyphs, true);
                         else
@@ -122,9 +199,9 @@ public class FreeTypistSkin extends Skin {
                             FileHandle imageFile = Gdx.files.internal(path).sibling(regionName + ".png");
                             if (imageFile.exists()) {
                                 if(fw)
-                                    font = new Font(path, new TextureRegion(new Texture(imageFile)), xAdjust, yAdjust, widthAdjust, heightAdjust, makeGridGlyphs, true);
+                                    font = new Font(path, new TextureRegion(loadPage(imageFile)), xAdjust, yAdjust, widthAdjust, heightAdjust, makeGridGlyphs, true);
                                 else
-                                    font = new Font(path, new TextureRegion(new Texture(imageFile)), Font.DistanceFieldType.STANDARD, xAdjust, yAdjust, widthAdjust, heightAdjust, makeGridGlyphs);
+                                    font = new Font(path, new TextureRegion(loadPage(imageFile)), Font.DistanceFieldType.STANDARD, xAdjust, yAdjust, widthAdjust, heightAdjust, makeGridGlyphs);
                             } else {
                                 if(fw)
                                     throw new RuntimeException("Missing image file or TextureRegion.");
@@ -133,6 +210,11 @@ public class FreeTypistSkin extends Skin {
                             }
                         }
                     }
+                    if (loaded == null) {
+                        // keep an unscaled original to copy from
+                        loadedFonts.put(key, font);
+                        font = copyOf(font);
+                    }
                     font.useIntegerPositions(useIntegerPositions);
                     // Scaled size is the desired cap height to scale the font to.
                     if (scaledSize != -1) font.scaleTo(font.originalCellWidth * scaledSize / font.originalCellHeight, scaledSize);
@@ -161,6 +243,11 @@ public class FreeTypistSkin extends Skin {
 
                 // Use a region with the same name as the font, else use a PNG file in the same directory as the FNT file.
                 String regionName = fontFile.nameWithoutExtension();
+                // BitmapFonts loaded from the same file with the same settings share their data and pages.
+                String key = fontFile.path() + '|' + flip + '|' + markupEnabled + '|' + useIntegerPositions + '|' + scaledSize;
+                BitmapFont loaded = loadedBitmapFonts.get(key);
+                if (loaded != null)
+                    return new BitmapFont(loaded.getData(), loaded.getRegions(), loaded.usesIntegerPositions());
                 try {
                     BitmapFont font;
                     Array<TextureRegion> regions = skin.getRegions(regionName);
@@ -183,9 +270,10 @@ public class FreeTypistSkin extends Skin {
                             if (imageFile.exists()) {
                                 if(fw)
                                     font = BitmapFontSupport.loadStructuredJson(fontFile,
-                                            new TextureRegion(new Texture(imageFile)), flip);
+                                            new TextureRegion(loadPage(imageFile)), flip);
                                 else
-                                    font = new BitmapFont(fontFile, imageFile, flip);
+                                    font = new BitmapFont(new BitmapFont.BitmapFontData(fontFile, flip),
+                                            new TextureRegion(loadPage(imageFile)), true);
                             } else {
                                 if(fw)
                                     font = BitmapFontSupport.loadStructuredJson(fontFile, "", flip);
@@ -198,6 +286,7 @@ public class FreeTypistSkin extends Skin {
                     font.setUseIntegerPositions(useIntegerPositions);
                     // Scaled size is the desired cap height to scale the font to.
                     if (scaledSize != -1) font.getData().setScale(scaledSize / font.getCapHeight());
+                    loadedBitmapFonts.put(key, font);
                     return font;
                 } catch (RuntimeException ex) {
                     throw new SerializationException("Error loading bitmap font: " + fontFile, ex);
@@ -212,6 +301,16 @@ public class FreeTypistSkin extends Skin {
                 String path = json.readValue("font", String.class, jsonData);
                 jsonData.remove("font");
 
+                // The same font file with the same parameters is only generated once; later entries share it.
+                String key = skinFile.sibling(path).path() + '|' + jsonData.toJson(JsonWriter.OutputType.minimal);
+                BitmapFont loaded = loadedBitmapFonts.get(key);
+                if (loaded != null) {
+                    skin.add(jsonData.name, new BitmapFont(loaded.getData(), loaded.getRegions(), loaded.usesIntegerPositions()));
+                    skin.add(jsonData.name, copyOf(loadedFonts.get(key)), Font.class);
+                    // the generator was already added to the skin, and must only be disposed once
+                    return null;
+                }
+
                 FreeTypeFontGenerator.Hinting hinting = FreeTypeFontGenerator.Hinting.valueOf(json.readValue("hinting",
                         String.class, "Medium", jsonData));
                 jsonData.remove("hinting");
@@ -230,15 +329,23 @@ public class FreeTypistSkin extends Skin {
                 parameter.magFilter = magFilter;
                 FreeTypeFontGenerator generator = new FreeTypeFontGenerator(skinFile.sibling(path));
                 FreeTypeFontGenerator.setMaxTextureSize(FreeTypeFontGenerator.NO_MAXIMUM);
-                BitmapFont font = generator.generateFont(parameter);
-                skin.add(jsonData.name, font);
-                skin.add(jsonData.name, new Font(font));
                 if (parameter.incremental) {
-                    generator.dispose();
-                    return null;
-                } else {
+                    // glyphs are made as they are needed, so the generator is kept and disposed with the skin
+                    FreeTypistFont font = new FreeTypistFont(generator, parameter);
+                    font.getBitmapFont().setOwnsTexture(true);
+                    skin.add(jsonData.name, font.getBitmapFont());
+                    skin.add(jsonData.name, font.setOwnsBitmapFont(false), Font.class);
+                    loadedBitmapFonts.put(key, font.getBitmapFont());
+                    loadedFonts.put(key, font);
                     return generator;
                 }
+                BitmapFont bitmapFont = generator.generateFont(parameter);
+                Font font = new Font(bitmapFont);
+                skin.add(jsonData.name, bitmapFont);
+                skin.add(jsonData.name, font);
+                loadedBitmapFonts.put(key, bitmapFont);
+                loadedFonts.put(key, font);
+                return generator;
             }
         });
 
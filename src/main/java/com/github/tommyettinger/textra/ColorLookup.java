@@ -19,6 +19,7 @@ package com.github.tommyettinger.textra;
 
 import com.badlogic.gdx.graphics.Colors;
 import com.github.tommyettinger.textra.utils.ColorUtils;
+import com.github.tommyettinger.textra.utils.StringIntCache;
 
 /**
  * Allows looking up an RGBA8888 int color given a String key, returning either the color or 256 if none was found.
@@ -27,6 +28,7 @@ import com.github.tommyettinger.textra.utils.ColorUtils;
  * <br>
  * The default here is {@link #DESCRIPTIVE}, which allows using multiple color names, plus adjectives. There
  * is also {@link #INSTANCE}, which is older and only looks up one color name at a time from {@link Colors} in libGDX.
+ * If your own ColorLookup is slow, you can wrap it in a {@link Caching} lookup so repeated keys are only looked up once.
  */
 public interface ColorLookup {
     /**
@@ -57,4 +59,57 @@ public interface ColorLookup {
      * @return an RGBA8888 color; if 256, this can be considered to not know how to look up the given key.
      */
     int getRgba(String key);
+
+    /**
+     * A ColorLookup that remembers what another ColorLookup returned for recently-used keys, so looking up the same key
+     * again doesn't need to call the other ColorLookup. This only holds a limited number of keys, forgetting some as
+     * new ones are added, and can be used from multiple threads. The wrapped lookup should always return the same color
+     * for the same key, or {@link #clear()} should be called when it changes. {@link #DESCRIPTIVE} already caches its
+     * results, so it doesn't need this.
+     */
+    final class Caching implements ColorLookup {
+        private final ColorLookup lookup;
+        private final StringIntCache cache;
+
+        /**
+         * Caches up to 256 keys for the given ColorLookup.
+         * @param lookup the ColorLookup to cache; must not be null
+         */
+        public Caching(ColorLookup lookup) {
+            this(lookup, 256);
+        }
+
+        /**
+         * Caches about {@code capacity} keys for the given ColorLookup.
+         * @param lookup the ColorLookup to cache; must not be null
+         * @param capacity how many keys to remember, at least; rounded up to a power of two
+         */
+        public Caching(ColorLookup lookup, int capacity) {
+            this.lookup = lookup;
+            this.cache = new StringIntCache(capacity);
+        }
+
+        @Override
+        public int getRgba(String key) {
+            final long cached = cache.get(key);
+            if (cached != -1L) return (int) cached;
+            final int rgba = lookup.getRgba(key);
+            cache.put(key, rgba);
+            return rgba;
+        }
+
+        /**
+         * Forgets all cached colors, so each key will be looked up again from the wrapped ColorLookup.
+         */
+        public void clear() {
+            cache.clear();
+        }
+
+        /**
+         * @return the ColorLookup this caches
+         */
+        public ColorLookup getLookup() {
+            return lookup;
+        }
+    }
 }
@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2023 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.tommyettinger.textra;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * The result of parsing the tokens of a {@link TypingLabel}'s text, stored so that it can be installed into any
+ * TypingLabel using the same {@link Font} without running the {@link Parser} again. This holds the intermediate text
+ * (with all replacement tokens substituted), the marked-up glyphs, and each regular token along with the parameters
+ * any effect was given; effects are never shared between labels, and each install gets Effects in a fresh state.
+ * <br>
+ * Any variables that were looked up while parsing are recorded along with the values they had; if any of those
+ * variables resolves to a different value now (from {@link TypingListener#replaceVariable(String)},
+ * {@link TypingLabel#getVariables()}, or {@link TypingConfig#GLOBAL_VARS}), this is considered stale and the text is
+ * parsed again. A bounded cache of these is kept automatically by TypingLabel; its size is controlled by
+ * {@link TypingConfig#COMPILED_TEXT_CACHE_LIMIT}. The cache is cleared whenever an effect is registered or
+ * unregistered, and can be cleared manually with {@link #clearCache()} (which you should do if you change settings
+ * like {@link TypingConfig#DEFAULT_SPEED_PER_CHAR} after text has been parsed).
+ * <br>
+ * Instances of this class are immutable after construction, other than the stamp used to order cache evictions.
+ */
+public final class CompiledTypingText {
+    private static final ObjectMap<String, CompiledTypingText> CACHE = new ObjectMap<>();
+    /**
+     * Counts cache uses; each entry records the count when it was last used, and the lowest is evicted first.
+     */
+    private static long uses;
+
+    /**
+     * The preprocessed text, including any default token, that was parsed to produce this.
+     */
+    public final String source;
+    /**
+     * The Font this was marked up with; this can only be installed into labels using the same Font.
+     */
+    public final Font font;
+    private final int clearColor;
+    private final float scaleX, scaleY, cellHeight;
+    private long lastUsed;
+    private final String intermediateText;
+    private final Layout layout;
+    private final Layout workingLayout;
+    private final String[] variableNames;
+    private final String[] variableValues;
+    private final String[] complexVariables;
+    private final VariableSlot[] slots;
+
+    private final String[] tokens;
+    private final TokenCategory[] categories;
+    private final int[] indices;
+    private final int[] endIndices;
+    private final float[] floatValues;
+    private final String[] stringValues;
+    private final String[][] params;
+    private final String[] effectKeys;
+
+    /**
+     * Captures the current parsed state of {@code label}, which should have just had its tokens parsed from
+     * {@code source}.
+     * @param label a TypingLabel that has just parsed {@code source}
+     * @param source the preprocessed text that was parsed
+     */
+    CompiledTypingText(TypingLabel label, String source) {
+        this.source = source;
+        this.font = label.font;
+        this.clearColor = Color.rgba8888(label.getClearColor());
+        this.scaleX = font.scaleX;
+        this.scaleY = font.scaleY;
+        this.cellHeight = font.cellHeight;
+        this.intermediateText = label.getIntermediateText().toString();
+        this.layout = new Layout(label.layout);
+        this.workingLayout = new Layout(label.workingLayout);
+        final int vs = label.usedVariables.size;
+        variableNames = new String[vs];
+        variableValues = new String[vs];
+        int v = 0;
+        for (ObjectMap.Entry<String, String> e : label.usedVariables) {
+            variableNames[v] = e.key;
+            variableValues[v++] = e.value;
+        }
+        complexVariables = new String[label.complexVariables.size];
+        v = 0;
+        for (String name : label.complexVariables) {
+            complexVariables[v++] = name;
+        }
+        slots = new VariableSlot[label.variableSlots.size];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new VariableSlot(label.variableSlots.get(i));
+        }
+        final Array<TokenEntry> entries = label.tokenEntries;
+        final int n = entries.size;
+        tokens = new String[n];
+        categories = new TokenCategory[n];
+        indices = new int[n];
+        endIndices = new int[n];
+        floatValues = new float[n];
+        stringValues = new String[n];
+        params = new String[n][];
+        effectKeys = new String[n];
+        for (int i = 0; i < n; i++) {
+            TokenEntry entry = entries.get(i);
+            tokens[i] = entry.token;
+            categories[i] = entry.category;
+            indices[i] = entry.index;
+            endIndices[i] = entry.endIndex;
+            floatValues[i] = entry.floatValue;
+            stringValues[i] = entry.stringValue;
+            params[i] = entry.params;
+            effectKeys[i] = entry.effectKey;
+        }
+    }
+
+    /**
+     * Checks whether this can be installed into the given label as-is. This is false if the label uses a different
+     * Font or clear color, if that Font's scale or cellHeight changed since this was compiled, or if any variable this
+     * depended on now resolves to something else.
+     * @param label a TypingLabel that could have this installed
+     * @return true if {@link #installInto(TypingLabel)} would produce the same result as parsing again
+     */
+    public boolean isValidFor(TypingLabel label) {
+        if (label.font != font || Color.rgba8888(label.getClearColor()) != clearColor) return false;
+        if (font.scaleX != scaleX || font.scaleY != scaleY || font.cellHeight != cellHeight) return false;
+        for (int i = 0; i < variableNames.length; i++) {
+            String name = variableNames[i];
+            String current = null;
+            if (label.getTypingListener() != null)
+                current = label.getTypingListener().replaceVariable(name);
+            if (current == null)
+                current = label.getVariables().get(name.toUpperCase());
+            if (current == null)
+                current = TypingConfig.GLOBAL_VARS.get(name.toUpperCase());
+            if (current == null ? variableValues[i] != null : !current.equals(variableValues[i]))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Installs the parsed text, glyphs, and tokens this holds into {@code label}, replacing its token entries. Each
+     * effect token gets an Effect in its freshly-constructed state, either
+     * reused from the label's pool or newly produced for {@code label}. This takes time proportional to the length of the
+     * text plus the number of tokens, and does not use any regular expressions. This doesn't check
+     * {@link #isValidFor(TypingLabel)}; the caller should do that.
+     * @param label a TypingLabel that will have its current tokens and glyphs replaced
+     */
+    public void installInto(TypingLabel label) {
+        label.freeTokenEntries();
+        label.usedVariables.clear();
+        for (int i = 0; i < variableNames.length; i++) {
+            label.usedVariables.put(variableNames[i], variableValues[i]);
+        }
+        label.complexVariables.clear();
+        label.complexVariables.addAll(complexVariables);
+        label.variableSlots.clear();
+        for (int i = 0; i < slots.length; i++) {
+            label.variableSlots.add(new VariableSlot(slots[i]));
+        }
+        label.setIntermediateText(intermediateText, false, false);
+
+        boolean copied = copyOrMarkup(layout, label.layout, label.layout.targetWidth);
+        if (label.wrap) {
+            copied &= copyOrMarkup(workingLayout, label.workingLayout, label.getWidth());
+        } else {
+            copied &= copyOrMarkup(workingLayout, label.workingLayout, 0f);
+            label.setWidth(label.workingLayout.getWidth() + (label.style != null && label.style.background != null ?
+                    label.style.background.getLeftWidth() + label.style.background.getRightWidth() : 0.0f));
+        }
+        if (!copied) {
+            // The glyphs were marked up again, so slot positions can't be trusted; variables will need a full parse.
+            for (int i = 0; i < label.variableSlots.size; i++) {
+                label.complexVariables.add(label.variableSlots.get(i).key);
+            }
+            label.variableSlots.clear();
+        }
+
+        label.tokenEntries.ensureCapacity(tokens.length);
+        for (int i = 0; i < tokens.length; i++) {
+            TokenEntry entry = TokenEntry.obtain(tokens[i], categories[i], indices[i], endIndices[i], floatValues[i], stringValues[i]);
+            if (categories[i] == TokenCategory.EFFECT_START) {
+                entry.params = params[i];
+                entry.effectKey = effectKeys[i];
+                entry.effect = label.obtainEffect(tokens[i], params[i], effectKeys[i]);
+            }
+            label.tokenEntries.add(entry);
+        }
+    }
+
+    private boolean copyOrMarkup(Layout from, Layout to, float targetWidth) {
+        to.setTargetWidth(targetWidth);
+        if (from.targetWidth != targetWidth || from.maxLines != to.maxLines || !eq(from.ellipsis, to.ellipsis)) {
+            font.markup(Parser.handleBracketMinusMarkup(intermediateText), to.clear());
+            return false;
+        }
+        to.lines.clear();
+        for (int i = 0, n = from.lines.size; i < n; i++) {
+            Line o = from.lines.get(i), ln = new Line();
+            ln.glyphs.addAll(o.glyphs);
+            to.lines.add(ln.size(o.width, o.height));
+        }
+        to.atLimit = from.atLimit;
+        to.baseColor = from.baseColor;
+        return true;
+    }
+
+    private static boolean eq(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    /**
+     * Gets a cached CompiledTypingText for the given preprocessed source, if one exists and is
+     * {@link #isValidFor(TypingLabel) valid for} {@code label}. Using an entry makes it the last to be evicted.
+     * @param label the TypingLabel that would have the result installed
+     * @param source preprocessed text, as produced by {@link Parser#preprocess(String)}
+     * @return a valid cached CompiledTypingText, or null if there isn't one
+     */
+    public static CompiledTypingText getCached(TypingLabel label, String source) {
+        if (TypingConfig.COMPILED_TEXT_CACHE_LIMIT <= 0) return null;
+        CompiledTypingText compiled = CACHE.get(source);
+        if (compiled == null || !compiled.isValidFor(label)) return null;
+        compiled.lastUsed = ++uses;
+        return compiled;
+    }
+
+    /**
+     * Compiles the current parsed state of {@code label} (which must have just parsed {@code source}) and adds it to
+     * the cache, evicting the least-recently-used entries if the cache is over
+     * {@link TypingConfig#COMPILED_TEXT_CACHE_LIMIT}. If that limit is 0 or less, this does nothing and returns null.
+     * @param label a TypingLabel that just parsed {@code source}
+     * @param source the preprocessed text that was parsed
+     * @return the new CompiledTypingText, or null if caching is disabled
+     */
+    public static CompiledTypingText compile(TypingLabel label, String source) {
+        final int limit = TypingConfig.COMPILED_TEXT_CACHE_LIMIT;
+        if (limit <= 0) return null;
+        CompiledTypingText compiled = new CompiledTypingText(label, source);
+        compiled.lastUsed = ++uses;
+        CACHE.put(source, compiled);
+        while (CACHE.size > limit) {
+            evictLeastRecentlyUsed();
+        }
+        return compiled;
+    }
+
+    /**
+     * Removes the cached entry that was used least recently. This scans the whole cache, but only runs when a new
+     * entry pushes the cache over its limit, never when an entry is found by {@link #getCached(TypingLabel, String)}.
+     */
+    private static void evictLeastRecentlyUsed() {
+        String oldest = null;
+        long oldestUse = Long.MAX_VALUE;
+        for (ObjectMap.Entry<String, CompiledTypingText> e : CACHE) {
+            if (e.value.lastUsed < oldestUse) {
+                oldestUse = e.value.lastUsed;
+                oldest = e.key;
+            }
+        }
+        if (oldest != null) CACHE.remove(oldest);
+    }
+
+    /**
+     * Removes every cached CompiledTypingText. This is called automatically when effects are registered or
+     * unregistered in {@link TypingConfig}.
+     */
+    public static void clearCache() {
+        CACHE.clear();
+    }
+}
@@ -0,0 +1,492 @@
+/*
+ * Copyright (c) 2024 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.tommyettinger.textra;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.ObjectFloatMap;
+
+/**
+ * A {@link Batch} that wraps another Batch (usually a SpriteBatch) and holds back quads drawn with
+ * {@link #draw(Texture, float[], int, int)}, which is how {@link Font} draws every glyph, so they can be sent to the
+ * wrapped Batch grouped by shader, distance field smoothing, and Texture. This is meant for a Stage that mixes
+ * standard, SDF, and MSDF fonts; normally each {@link TextraLabel} or {@link TypingLabel} that uses a different kind of
+ * font than the previous one switches shaders and flushes, but here, switching shaders only changes which group later
+ * glyphs go into. Use it by giving it to a Stage, as with {@code new Stage(viewport, new DeferredTextBatch(new SpriteBatch()))}.
+ * <br>
+ * Paint order is kept wherever it matters: a quad only joins an earlier group if it doesn't overlap anything in a
+ * different group drawn after that one, and other draw() methods (which are passed to the wrapped Batch right away)
+ * first send any held quads they overlap. Anything that changes how the wrapped Batch draws, like
+ * {@link #flush()}, {@link #setTransformMatrix(Matrix4)}, {@link #setProjectionMatrix(Matrix4)}, or blending changes,
+ * sends all held quads first, so clipping with ScissorStack and transformed Groups still work. All held quads are sent
+ * in {@link #end()}, which a Stage calls at the end of {@link com.badlogic.gdx.scenes.scene2d.Stage#draw()}.
+ * <br>
+ * The smoothing is the {@code u_smoothing} uniform that Font's distance field and alpha shaders use; Font sets it with
+ * {@link #setSmoothing(float)} instead of setting the uniform directly. If you change uniforms on your own shader
+ * while drawing, call {@link #flush()} first so quads that were drawn before the change are sent before it.
+ */
+public class DeferredTextBatch implements Batch {
+    /**
+     * A run of held quads that all use the same shader, smoothing, and Texture, and will be sent together.
+     */
+    private static final class Group {
+        ShaderProgram shader;
+        float smoothing;
+        Texture texture;
+        final FloatArray vertices = new FloatArray(false, 400);
+        /**
+         * Bounding rectangles of runs of quads added to this group one after another, 4 floats per rectangle, as
+         * minX, minY, maxX, maxY.
+         */
+        final FloatArray rects = new FloatArray(false, 16);
+        float minX, minY, maxX, maxY;
+
+        boolean overlaps(float x0, float y0, float x1, float y1) {
+            if (x0 >= maxX || x1 <= minX || y0 >= maxY || y1 <= minY) return false;
+            final float[] r = rects.items;
+            for (int i = 0, n = rects.size; i < n; i += 4) {
+                if (x0 < r[i + 2] && x1 > r[i] && y0 < r[i + 3] && y1 > r[i + 1]) return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The Batch that actually draws; this is the one given to the constructor.
+     */
+    public final Batch batch;
+    /**
+     * How many floats each vertex takes up in arrays given to {@link #draw(Texture, float[], int, int)}; 5 for
+     * SpriteBatch.
+     */
+    public final int vertexSize;
+    private final ShaderProgram defaultShader;
+    private ShaderProgram shader = null;
+    private float smoothing = Float.NaN;
+
+    private final Array<Group> groups = new Array<>(false, 16, Group.class);
+    private final Array<Group> freeGroups = new Array<>(false, 16, Group.class);
+    /**
+     * The group the last held quad went into, or null if the last quad started a new rectangle anyway.
+     */
+    private Group lastGroup = null;
+    /**
+     * The u_smoothing value last set on each shader while drawing, so it is only set again when it changes.
+     */
+    private final ObjectFloatMap<ShaderProgram> appliedSmoothing = new ObjectFloatMap<>(8);
+
+    /**
+     * Wraps {@code batch}, which should use SpriteBatch's vertex layout (5 floats per vertex) and should not have a
+     * custom shader set yet.
+     *
+     * @param batch the Batch that will actually draw; usually a SpriteBatch
+     */
+    public DeferredTextBatch(Batch batch) {
+        this(batch, 5);
+    }
+
+    /**
+     * Wraps {@code batch}, which should not have a custom shader set yet, and uses {@code vertexSize} floats per vertex
+     * in {@link #draw(Texture, float[], int, int)}. Only the first two floats of each vertex (x and y) are read here.
+     *
+     * @param batch the Batch that will actually draw
+     * @param vertexSize how many floats each vertex uses, such as 6 for a Batch with one extra attribute
+     */
+    public DeferredTextBatch(Batch batch, int vertexSize) {
+        this.batch = batch;
+        this.vertexSize = vertexSize;
+        this.defaultShader = batch.getShader();
+    }
+
+    /**
+     * Sets the value of the {@code u_smoothing} uniform that quads drawn after this (with the current shader) should
+     * use. This is called by {@link Font} instead of setting the uniform on its shader.
+     *
+     * @param smoothing the value for the {@code u_smoothing} uniform
+     */
+    public void setSmoothing(float smoothing) {
+        this.smoothing = smoothing;
+    }
+
+    /**
+     * @return the current {@code u_smoothing} value, or NaN if the current shader doesn't use one
+     */
+    public float getSmoothing() {
+        return smoothing;
+    }
+
+    /**
+     * @return how many groups of quads are being held right now, each of which will be sent with one draw call
+     */
+    public int getHeldGroups() {
+        return groups.size;
+    }
+
+    private static boolean sameSmoothing(float a, float b) {
+        return a == b || (a != a && b != b);
+    }
+
+    @Override
+    public void draw(Texture texture, float[] spriteVertices, int offset, int count) {
+        if (count <= 0) return;
+        final int stride = vertexSize;
+        float x0 = spriteVertices[offset], y0 = spriteVertices[offset + 1], x1 = x0, y1 = y0;
+        for (int i = offset + stride, end = offset + count; i < end; i += stride) {
+            final float x = spriteVertices[i], y = spriteVertices[i + 1];
+            if (x < x0) x0 = x;
+            else if (x > x1) x1 = x;
+            if (y < y0) y0 = y;
+            else if (y > y1) y1 = y;
+        }
+
+        Group target = null;
+        for (int i = groups.size - 1; i >= 0; i--) {
+            Group g = groups.get(i);
+            if (g.texture == texture && g.shader == shader && sameSmoothing(g.smoothing, smoothing)) {
+                target = g;
+                break;
+            }
+            if (g.overlaps(x0, y0, x1, y1)) break;
+        }
+        if (target == null) {
+            target = freeGroups.size == 0 ? new Group() : freeGroups.pop();
+            target.shader = shader;
+            target.smoothing = smoothing;
+            target.texture = texture;
+            target.minX = x0;
+            target.minY = y0;
+            target.maxX = x1;
+            target.maxY = y1;
+            groups.add(target);
+        } else {
+            target.minX = Math.min(target.minX, x0);
+            target.minY = Math.min(target.minY, y0);
+            target.maxX = Math.max(target.maxX, x1);
+            target.maxY = Math.max(target.maxY, y1);
+        }
+        final FloatArray rects = target.rects;
+        if (target == lastGroup && rects.size != 0) {
+            final float[] r = rects.items;
+            final int last = rects.size - 4;
+            r[last] = Math.min(r[last], x0);
+            r[last + 1] = Math.min(r[last + 1], y0);
+            r[last + 2] = Math.max(r[last + 2], x1);
+            r[last + 3] = Math.max(r[last + 3], y1);
+        } else {
+            rects.add(x0, y0, x1, y1);
+        }
+        lastGroup = target;
+        target.vertices.addAll(spriteVertices, offset, count);
+    }
+
+    /**
+     * Sends every held quad to the wrapped Batch, one group at a time, and forgets them.
+     */
+    private void submit() {
+        if (groups.size == 0) return;
+        for (int i = 0; i < groups.size; i++) {
+            Group g = groups.get(i);
+            apply(g.shader, g.smoothing);
+            batch.draw(g.texture, g.vertices.items, 0, g.vertices.size);
+            g.vertices.clear();
+            g.rects.clear();
+            g.texture = null;
+            g.shader = null;
+        }
+        freeGroups.addAll(groups);
+        groups.clear();
+        lastGroup = null;
+    }
+
+    /**
+     * Makes the wrapped Batch use the given shader and smoothing, flushing only if something changed.
+     */
+    private void apply(ShaderProgram shader, float smoothing) {
+        batch.setShader(shader);
+        if (shader != null && smoothing == smoothing
+                && appliedSmoothing.get(shader, Float.NaN) != smoothing) {
+            batch.flush();
+            shader.setUniformf("u_smoothing", smoothing);
+            appliedSmoothing.put(shader, smoothing);
+        }
+    }
+
+    /**
+     * Called before anything is drawn straight to the wrapped Batch, with the rectangle it covers; held quads are sent
+     * first if any of them overlap it, so it doesn't end up under quads that were drawn before it.
+     */
+    private void drawDirectly(float x0, float y0, float x1, float y1) {
+        if (x0 > x1) {
+            float t = x0;
+            x0 = x1;
+            x1 = t;
+        }
+        if (y0 > y1) {
+            float t = y0;
+            y0 = y1;
+            y1 = t;
+        }
+        for (int i = 0; i < groups.size; i++) {
+            if (groups.get(i).overlaps(x0, y0, x1, y1)) {
+                submit();
+                break;
+            }
+        }
+        lastGroup = null;
+        apply(shader, smoothing);
+    }
+
+    /**
+     * Like {@link #drawDirectly(float, float, float, float)} for a rectangle that may be scaled and rotated around its
+     * origin; this uses a square that holds the rectangle at any rotation.
+     */
+    private void drawDirectly(float x, float y, float originX, float originY, float width, float height,
+                              float scaleX, float scaleY) {
+        final float rx = Math.max(Math.abs(originX), Math.abs(width - originX)) * Math.abs(scaleX);
+        final float ry = Math.max(Math.abs(originY), Math.abs(height - originY)) * Math.abs(scaleY);
+        final float radius = (float) Math.sqrt(rx * rx + ry * ry);
+        final float cx = x + originX, cy = y + originY;
+        drawDirectly(cx - radius, cy - radius, cx + radius, cy + radius);
+    }
+
+    @Override
+    public void begin() {
+        appliedSmoothing.clear();
+        batch.begin();
+    }
+
+    @Override
+    public void end() {
+        submit();
+        batch.setShader(shader);
+        batch.end();
+    }
+
+    @Override
+    public void flush() {
+        submit();
+        batch.flush();
+    }
+
+    @Override
+    public void setShader(ShaderProgram shader) {
+        if (shader == defaultShader) shader = null;
+        if (this.shader != shader) {
+            this.shader = shader;
+            smoothing = Float.NaN;
+        }
+        if (!batch.isDrawing()) batch.setShader(shader);
+    }
+
+    @Override
+    public ShaderProgram getShader() {
+        return shader == null ? defaultShader : shader;
+    }
+
+    @Override
+    public void setColor(Color tint) {
+        batch.setColor(tint);
+    }
+
+    @Override
+    public void setColor(float r, float g, float b, float a) {
+        batch.setColor(r, g, b, a);
+    }
+
+    @Override
+    public Color getColor() {
+        return batch.getColor();
+    }
+
+    @Override
+    public void setPackedColor(float packedColor) {
+        batch.setPackedColor(packedColor);
+    }
+
+    @Override
+    public float getPackedColor() {
+        return batch.getPackedColor();
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float originX, float originY, float width, float height,
+                     float scaleX, float scaleY, float rotation, int srcX, int srcY, int srcWidth, int srcHeight,
+                     boolean flipX, boolean flipY) {
+        drawDirectly(x, y, originX, originY, width, height, scaleX, scaleY);
+        batch.draw(texture, x, y, originX, originY, width, height, scaleX, scaleY, rotation, srcX, srcY, srcWidth,
+                srcHeight, flipX, flipY);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height, int srcX, int srcY, int srcWidth,
+                     int srcHeight, boolean flipX, boolean flipY) {
+        drawDirectly(x, y, x + width, y + height);
+        batch.draw(texture, x, y, width, height, srcX, srcY, srcWidth, srcHeight, flipX, flipY);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, int srcX, int srcY, int srcWidth, int srcHeight) {
+        drawDirectly(x, y, x + srcWidth, y + srcHeight);
+        batch.draw(texture, x, y, srcX, srcY, srcWidth, srcHeight);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height, float u, float v, float u2,
+                     float v2) {
+        drawDirectly(x, y, x + width, y + height);
+        batch.draw(texture, x, y, width, height, u, v, u2, v2);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y) {
+        drawDirectly(x, y, x + texture.getWidth(), y + texture.getHeight());
+        batch.draw(texture, x, y);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height) {
+        drawDirectly(x, y, x + width, y + height);
+        batch.draw(texture, x, y, width, height);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y) {
+        drawDirectly(x, y, x + region.getRegionWidth(), y + region.getRegionHeight());
+        batch.draw(region, x, y);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y, float width, float height) {
+        drawDirectly(x, y, x + width, y + height);
+        batch.draw(region, x, y, width, height);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y, float originX, float originY, float width, float height,
+                     float scaleX, float scaleY, float rotation) {
+        drawDirectly(x, y, originX, originY, width, height, scaleX, scaleY);
+        batch.draw(region, x, y, originX, originY, width, height, scaleX, scaleY, rotation);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y, float originX, float originY, float width, float height,
+                     float scaleX, float scaleY, float rotation, boolean clockwise) {
+        drawDirectly(x, y, originX, originY, width, height, scaleX, scaleY);
+        batch.draw(region, x, y, originX, originY, width, height, scaleX, scaleY, rotation, clockwise);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float width, float height, Affine2 transform) {
+        final float x1 = transform.m00 * width, y1 = transform.m10 * width;
+        final float x2 = transform.m01 * height, y2 = transform.m11 * height;
+        final float x0 = transform.m02, y0 = transform.m12;
+        drawDirectly(x0 + Math.min(0f, x1) + Math.min(0f, x2), y0 + Math.min(0f, y1) + Math.min(0f, y2),
+                x0 + Math.max(0f, x1) + Math.max(0f, x2), y0 + Math.max(0f, y1) + Math.max(0f, y2));
+        batch.draw(region, width, height, transform);
+    }
+
+    @Override
+    public void disableBlending() {
+        submit();
+        batch.disableBlending();
+    }
+
+    @Override
+    public void enableBlending() {
+        submit();
+        batch.enableBlending();
+    }
+
+    @Override
+    public void setBlendFunction(int srcFunc, int dstFunc) {
+        submit();
+        batch.setBlendFunction(srcFunc, dstFunc);
+    }
+
+    @Override
+    public void setBlendFunctionSeparate(int srcFuncColor, int dstFuncColor, int srcFuncAlpha, int dstFuncAlpha) {
+        submit();
+        batch.setBlendFunctionSeparate(srcFuncColor, dstFuncColor, srcFuncAlpha, dstFuncAlpha);
+    }
+
+    @Override
+    public int getBlendSrcFunc() {
+        return batch.getBlendSrcFunc();
+    }
+
+    @Override
+    public int getBlendDstFunc() {
+        return batch.getBlendDstFunc();
+    }
+
+    @Override
+    public int getBlendSrcFuncAlpha() {
+        return batch.getBlendSrcFuncAlpha();
+    }
+
+    @Override
+    public int getBlendDstFuncAlpha() {
+        return batch.getBlendDstFuncAlpha();
+    }
+
+    @Override
+    public Matrix4 getProjectionMatrix() {
+        return batch.getProjectionMatrix();
+    }
+
+    @Override
+    public Matrix4 getTransformMatrix() {
+        return batch.getTransformMatrix();
+    }
+
+    @Override
+    public void setProjectionMatrix(Matrix4 projection) {
+        submit();
+        batch.setProjectionMatrix(projection);
+    }
+
+    @Override
+    public void setTransformMatrix(Matrix4 transform) {
+        submit();
+        batch.setTransformMatrix(transform);
+    }
+
+    @Override
+    public boolean isBlendingEnabled() {
+        return batch.isBlendingEnabled();
+    }
+
+    @Override
+    public boolean isDrawing() {
+        return batch.isDrawing();
+    }
+
+    /**
+     * Disposes the wrapped Batch.
+     */
+    @Override
+    public void dispose() {
+        batch.dispose();
+    }
+}
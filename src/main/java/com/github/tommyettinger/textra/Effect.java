@@ -18,11 +18,17 @@ package com.github.tommyettinger.textra;
 
 import com.badlogic.gdx.math.Interpolation;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Pool;
 
 /**
  * Abstract text effect.
+ * <br>
+ * Effects are pooled per {@link TypingLabel}, keyed by their token name and parameters, so an Effect may be used again
+ * after its label restarts. Any state an Effect builds up while it runs, as opposed to state determined by its
+ * parameters, must be cleared by {@link #reset()}; subclasses that keep such state should override reset() and call
+ * {@code super.reset()}.
  */
-public abstract class Effect {
+public abstract class Effect implements Pool.Poolable {
     private static final float FADEOUT_SPLIT = 0.25f;
     protected final TypingLabel label;
     public int indexStart = -1;
@@ -36,6 +42,11 @@ public abstract class Effect {
      */
     public String name;
 
+    /**
+     * The key this was pooled under by its label, or null if it wasn't obtained from a label's pool.
+     */
+    String poolKey;
+
     public Effect(TypingLabel label) {
         this.label = label;
     }
@@ -49,6 +60,18 @@ public abstract class Effect {
         totalTime += delta;
     }
 
+    /**
+     * Returns this Effect to the state it was in right after construction, so it can be used again with the same
+     * label and parameters. This resets {@link #indexStart}, {@link #indexEnd}, and the elapsed time; it does not
+     * change {@link #duration} or anything else that was set from parameters.
+     */
+    @Override
+    public void reset() {
+        indexStart = -1;
+        indexEnd = -1;
+        totalTime = 0f;
+    }
+
     /**
      * Applies the effect to the given glyph.
      */
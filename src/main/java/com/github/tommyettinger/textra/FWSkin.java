@@ -17,15 +17,27 @@ package com.github.tommyettinger.textra;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FileTextureData;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonReader;
 import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.Null;
+import com.badlogic.gdx.utils.ObjectMap;
 import com.badlogic.gdx.utils.SerializationException;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
+import com.badlogic.gdx.utils.reflect.ClassReflection;
+import com.badlogic.gdx.utils.reflect.ReflectionException;
+import com.github.tommyettinger.textra.utils.LZBReader;
 
 /**
  * A subclass of {@link Skin} that includes a serializer for Structured JSON Fonts, which are typically generated by
@@ -35,9 +47,42 @@ import com.badlogic.gdx.utils.SerializationException;
  * {@link BitmapFont}s from those files as well.
  * <br>
  * If you are using {@link com.badlogic.gdx.assets.AssetManager}, use {@link FWSkinLoader}.
+ * <br>
+ * Before the skin JSON is read, the font files it uses are read and parsed, and their page images decoded, on up to
+ * {@link #LOAD_THREADS} threads at once. Only creating the Textures happens on the thread loading the skin.
  */
 
 public class FWSkin extends Skin {
+    /**
+     * How many threads {@link #load(FileHandle)} may use to read font files and decode their page images before the
+     * skin JSON is read. If this is less than 1, each font is instead loaded entirely while the JSON is read, like
+     * {@link Skin} does. Defaults to 4.
+     */
+    public static int LOAD_THREADS = 4;
+
+    /**
+     * Page textures loaded by this skin's font serializers, by file path. Each is only loaded once, however many fonts
+     * use it, and this skin disposes them when it is disposed. This and the other caches are created in
+     * {@link #load(FileHandle)} or {@link #getJsonLoader(FileHandle)}, because Skin's constructors load JSON before field initializers would run.
+     */
+    private ObjectMap<String, Texture> loadedPages;
+    /**
+     * Fonts loaded from files, by file path and adjustments; each Font this adds to the skin is a copy of one of these.
+     * This skin owns these originals, which hold the shared {@link Font#whiteBlock} textures, and disposes them in
+     * {@link #dispose()}, after the copies.
+     */
+    private ObjectMap<String, Font> loadedFonts;
+    /**
+     * BitmapFonts loaded from files, by file path and settings; any later BitmapFont with the same key shares data and
+     * pages with one of these.
+     */
+    private ObjectMap<String, BitmapFont> loadedBitmapFonts;
+    /**
+     * Work started by {@link #load(FileHandle)} before the JSON is read, by a key made of a prefix and a file path.
+     * This is only non-empty while a skin file is loading.
+     */
+    private ObjectMap<String, AsyncResult<?>> preloaded;
+
     /** Creates an empty skin. */
     public FWSkin() {
     }
@@ -69,6 +114,220 @@ public class FWSkin extends Skin {
         super(atlas);
     }
     
+    private void createCaches() {
+        if (loadedPages == null) {
+            loadedPages = new ObjectMap<>();
+            loadedFonts = new ObjectMap<>();
+            loadedBitmapFonts = new ObjectMap<>();
+            preloaded = new ObjectMap<>();
+        }
+    }
+
+    /**
+     * Gets the page texture from the given image file, loading it only if this skin hasn't loaded it already.
+     * @param imageFile an image file, typically a PNG, used as a font's page
+     * @return the Texture for imageFile, owned by this skin
+     */
+    private Texture loadPage(FileHandle imageFile) {
+        String key = imageFile.path();
+        Texture page = loadedPages.get(key);
+        if (page == null) {
+            Pixmap pixmap = takePreloaded("png:" + key, true);
+            // FileTextureData keeps the Texture managed, so it can be reloaded from the file if the context is lost
+            page = pixmap == null ? new Texture(imageFile) : new Texture(new FileTextureData(imageFile, pixmap, null, false));
+            loadedPages.put(key, page);
+        }
+        return page;
+    }
+
+    /**
+     * Loads a Structured JSON or LZB-compressed Font, using the parsed file if it was read in advance.
+     */
+    private Font newStructuredFont(FileHandle fontFile, TextureRegion region, float xAdjust, float yAdjust,
+                                   float widthAdjust, float heightAdjust, boolean makeGridGlyphs) {
+        StructuredJsonData data = takePreloaded("json:" + fontFile.path(), false);
+        if (data == null)
+            return new Font(fontFile, region, xAdjust, yAdjust, widthAdjust, heightAdjust, makeGridGlyphs, true);
+        return new Font(fontFile.nameWithoutExtension(), data, region, xAdjust, yAdjust, widthAdjust, heightAdjust, makeGridGlyphs);
+    }
+
+    /**
+     * Loads a standard AngelCode BMFont Font, using the text of the .fnt file if it was read in advance.
+     */
+    private Font newFntFont(String path, Array<TextureRegion> regions, float xAdjust, float yAdjust,
+                            float widthAdjust, float heightAdjust, boolean makeGridGlyphs) {
+        String fnt = takePreloaded("fnt:" + path, false);
+        if (fnt == null)
+            return new Font(path, regions, Font.DistanceFieldType.STANDARD, xAdjust, yAdjust, widthAdjust, heightAdjust, makeGridGlyphs);
+        return new Font(fnt, regions, xAdjust, yAdjust, widthAdjust, heightAdjust, makeGridGlyphs);
+    }
+
+    /**
+     * Loads the data for a BitmapFont from a .fnt file, using data parsed in advance if there is any.
+     */
+    private BitmapFont.BitmapFontData newBitmapFontData(FileHandle fontFile, boolean flip) {
+        BitmapFont.BitmapFontData data = takePreloaded("bmf:" + flip + ':' + fontFile.path(), true);
+        return data == null ? new BitmapFont.BitmapFontData(fontFile, flip) : data;
+    }
+
+    /**
+     * Gets the result of work started before the JSON was read, waiting for it if needed.
+     * @param key a prefix and a file path, as given to {@link #preload(AsyncExecutor, String, AsyncTask)}
+     * @param remove true if the result can only be used once, such as a Pixmap that will be owned by a Texture
+     * @return the result, or null if it wasn't preloaded or failed (in which case loading it normally reports why)
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T takePreloaded(String key, boolean remove) {
+        AsyncResult<?> result = remove ? preloaded.remove(key) : preloaded.get(key);
+        return result == null ? null : (T) await(result);
+    }
+
+    private static @Null Object await(AsyncResult<?> result) {
+        try {
+            return result.get();
+        } catch (GdxRuntimeException ex) {
+            return null;
+        }
+    }
+
+    private void preload(AsyncExecutor executor, String key, AsyncTask<?> task) {
+        if (!preloaded.containsKey(key)) preloaded.put(key, executor.submit(task));
+    }
+
+    /**
+     * Reads the font files used by Font and BitmapFont entries in the skin JSON, and decodes the page images those
+     * fonts will need, on up to {@link #LOAD_THREADS} threads. This doesn't wait for any of it to finish.
+     * @param skinFile the skin JSON file that is about to be loaded
+     * @return the executor running the work, or null if there is nothing to do
+     */
+    private @Null AsyncExecutor preloadFonts(final FileHandle skinFile) {
+        if (LOAD_THREADS < 1) return null;
+        JsonValue root;
+        try {
+            root = new JsonReader().parse(skinFile);
+        } catch (RuntimeException ex) {
+            // Skin.load() will report this properly.
+            return null;
+        }
+        AsyncExecutor executor = null;
+        for (JsonValue typeEntry = root.child; typeEntry != null; typeEntry = typeEntry.next) {
+            Class<?> type = getJsonClassTags().get(typeEntry.name);
+            try {
+                if (type == null) type = ClassReflection.forName(typeEntry.name);
+            } catch (ReflectionException ex) {
+                continue;
+            }
+            boolean isFont = type == Font.class;
+            if (!isFont && type != BitmapFont.class) continue;
+            for (JsonValue entry = typeEntry.child; entry != null; entry = entry.next) {
+                if (!entry.isObject()) continue;
+                String path = entry.getString("file", null);
+                if (path == null) continue;
+                FileHandle sibling = skinFile.sibling(path);
+                final FileHandle fontFile = sibling.exists() ? sibling : Gdx.files.internal(path);
+                if (!fontFile.exists()) continue;
+                if (executor == null) executor = new AsyncExecutor(LOAD_THREADS, "FWSkin");
+                final String fontPath = fontFile.path();
+                String extension = fontFile.extension();
+                boolean structured = "json".equalsIgnoreCase(extension) || "dat".equalsIgnoreCase(extension);
+                if (isFont && structured) {
+                    preload(executor, "json:" + fontPath, new AsyncTask<StructuredJsonData>() {
+                        @Override
+                        public StructuredJsonData call() {
+                            return "json".equalsIgnoreCase(fontFile.extension())
+                                    ? StructuredJsonData.read(fontFile.reader("UTF-8"))
+                                    : StructuredJsonData.read(new LZBReader(fontFile.read()));
+                        }
+                    });
+                } else if (isFont) {
+                    preload(executor, "fnt:" + fontPath, new AsyncTask<String>() {
+                        @Override
+                        public String call() {
+                            return fontFile.readString("UTF8");
+                        }
+                    });
+                } else if (!structured) {
+                    final boolean flip = entry.getBoolean("flip", false);
+                    preload(executor, "bmf:" + flip + ':' + fontPath, new AsyncTask<BitmapFont.BitmapFontData>() {
+                        @Override
+                        public BitmapFont.BitmapFontData call() {
+                            return new BitmapFont.BitmapFontData(fontFile, flip);
+                        }
+                    });
+                }
+                // Pages come from the skin's atlas if it has regions named after the font, else a PNG next to it.
+                String regionName = fontFile.nameWithoutExtension();
+                if (getRegions(regionName) != null || has(regionName, TextureRegion.class)) continue;
+                final FileHandle imageFile = (isFont ? Gdx.files.internal(fontPath) : fontFile).sibling(regionName + ".png");
+                if (loadedPages.containsKey(imageFile.path()) || !imageFile.exists()) continue;
+                preload(executor, "png:" + imageFile.path(), new AsyncTask<Pixmap>() {
+                    @Override
+                    public Pixmap call() {
+                        return new Pixmap(imageFile);
+                    }
+                });
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Adds all resources in the specified skin JSON file, as {@link Skin#load(FileHandle)} does. Font files and their
+     * page images are read and decoded on other threads first; see {@link #LOAD_THREADS}.
+     * @param skinFile The JSON file to be read.
+     */
+    @Override
+    public void load(FileHandle skinFile) {
+        createCaches();
+        AsyncExecutor executor = preloadFonts(skinFile);
+        try {
+            super.load(skinFile);
+        } finally {
+            if (executor != null) {
+                // anything not used by the JSON, such as pages that failed to load, still has to be cleaned up
+                for (AsyncResult<?> result : preloaded.values()) {
+                    Object item = await(result);
+                    if (item instanceof Pixmap) ((Pixmap) item).dispose();
+                }
+                preloaded.clear();
+                executor.dispose();
+            }
+        }
+    }
+
+    /**
+     * Copies a Font from {@link #loadedFonts} to add to this skin. The copy gets its own shader, if it needs one, and
+     * leaves the original's {@link Font#whiteBlock} to the original, so disposing every Font in this skin never
+     * disposes the same GPU object twice.
+     * @param original a Font from loadedFonts
+     * @return a copy of original that can be disposed on its own
+     */
+    private static Font copyOf(Font original) {
+        Font copy = new Font(original);
+        copy.setDistanceField(copy.getDistanceField());
+        copy.whiteBlock = null;
+        return copy;
+    }
+
+    /**
+     * Disposes everything {@link Skin#dispose()} does, as well as any page textures and original Fonts loaded for fonts
+     * in this skin.
+     */
+    @Override
+    public void dispose() {
+        super.dispose();
+        if (loadedPages == null) return;
+        for (Texture page : loadedPages.values()) {
+            page.dispose();
+        }
+        for (Font original : loadedFonts.values()) {
+            original.dispose();
+        }
+        loadedPages.clear();
+        loadedFonts.clear();
+        loadedBitmapFonts.clear();
+    }
+
     /**
      * Overrides the default JSON loader to process Structured JSON Fonts from a Skin JSON.
      * This allows Font and BitmapFont items to be loaded from either .fnt or .json files.
@@ -79,7 +338,7 @@ public class FWSkin extends Skin {
     protected Json getJsonLoader(final FileHandle skinFile) {
         Json json = super.getJsonLoader(skinFile);
         final Skin skin = this;
-
+        createCaches();
         json.setSerializer(Font.class, new Json.ReadOnlySerializer<Font>() {
             @Override
             public Font read(Json json, JsonValue jsonData, Class type) {
@@ -104,30 +363,35 @@ public class FWSkin extends Skin {
 
                 // Use a region with the same name as the font, else use a PNG file in the same directory as the FNT file.
                 String regionName = path.substring(Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\'))+1, path.lastIndexOf('.'));
+                // Fonts loaded from the same file with the same adjustments are copies of one original, and share its pages.
+                String key = path + '|' + xAdjust + '|' + yAdjust + '|' + widthAdjust + '|' + heightAdjust + '|' + makeGridGlyphs;
                 try {
                     Font font;
+                    Font loaded = loadedFonts.get(key);
                     Array<TextureRegion> regions = skin.getRegions(regionName);
-                    if (regions != null && regions.notEmpty()) {
+                    if (loaded != null) {
+                        font = copyOf(loaded);
+                    } else if (regions != null && regions.notEmpty()) {
                         if(fw || lzb)
-                            font = new Font(fontFile, regions.first(), xAdjust, yAdjust, widthAdjust, heightAdjust, makeGridGlyphs, true);
+                            font = newStructuredFont(fontFile, regions.first(), xAdjust, yAdjust, widthAdjust, heightAdjust, makeGridGlyphs);
                         else
-                            font = new Font(path, regions, Font.DistanceFieldType.STANDARD, xAdjust, yAdjust, widthAdjust, heightAdjust, makeGridGlyphs);
+                            font = newFntFont(path, regions, xAdjust, yAdjust, widthAdjust, heightAdjust, makeGridGlyphs);
                     } else {
                         TextureRegion region = skin.optional(regionName, TextureRegion.class);
                         if (region != null)
                         {
                             if(fw || lzb)
-                                font = new Font(fontFile, region, xAdjust, yAdjust, widthAdjust, heightAdjust, true, true);
+                                font = newStructuredFont(fontFile, region, xAdjust, yAdjust, widthAdjust, heightAdjust, true);
                             else
-                                font = new Font(path, region, Font.DistanceFieldType.STANDARD, xAdjust, yAdjust, widthAdjust, heightAdjust, makeGridGlyphs);
+                                font = newFntFont(path, Array.with(region), xAdjust, yAdjust, widthAdjust, heightAdjust, makeGridGlyphs);
                         }
                         else {
                             FileHandle imageFile = Gdx.files.internal(path).sibling(regionName + ".png");
                             if (imageFile.exists()) {
                                 if(fw || lzb)
-                                    font = new Font(fontFile, new TextureRegion(new Texture(imageFile)), xAdjust, yAdjust, widthAdjust, heightAdjust, makeGridGlyphs, true);
+                                    font = newStructuredFont(fontFile, new TextureRegion(loadPage(imageFile)), xAdjust, yAdjust, widthAdjust, heightAdjust, makeGridGlyphs);
                                 else
-                                    font = new Font(path, new TextureRegion(new Texture(imageFile)), Font.DistanceFieldType.STANDARD, xAdjust, yAdjust, widthAdjust, heightAdjust, makeGridGlyphs);
+                                    font = newFntFont(path, Array.with(new TextureRegion(loadPage(imageFile))), xAdjust, yAdjust, widthAdjust, heightAdjust, makeGridGlyphs);
                             } else {
                                 if(fw || lzb)
                                     throw new RuntimeException("Missing image file or TextureRegion.");
@@ -136,6 +400,11 @@ public class FWSkin extends Skin {
                             }
                         }
                     }
+                    if (loaded == null) {
+                        // keep an unscaled original to copy from
+                        loadedFonts.put(key, font);
+                        font = copyOf(font);
+                    }
                     font.useIntegerPositions(useIntegerPositions);
                     // Scaled size is the desired cap height to scale the font to.
                     if (scaledSize != -1) font.scaleHeightTo(scaledSize);
@@ -165,6 +434,11 @@ public class FWSkin extends Skin {
 
                 // Use a region with the same name as the font, else use a PNG file in the same directory as the FNT file.
                 String regionName = fontFile.nameWithoutExtension();
+                // BitmapFonts loaded from the same file with the same settings share their data and pages.
+                String key = fontFile.path() + '|' + flip + '|' + markupEnabled + '|' + useIntegerPositions + '|' + scaledSize;
+                BitmapFont loaded = loadedBitmapFonts.get(key);
+                if (loaded != null)
+                    return new BitmapFont(loaded.getData(), loaded.getRegions(), loaded.usesIntegerPositions());
                 try {
                     BitmapFont font;
                     Array<TextureRegion> regions = skin.getRegions(regionName);
@@ -172,7 +446,7 @@ public class FWSkin extends Skin {
                         if(fw || lzb)
                             font = BitmapFontSupport.loadStructuredJson(fontFile, regions.first(), flip);
                         else
-                            font = new BitmapFont(new BitmapFont.BitmapFontData(fontFile, flip), regions, true);
+                            font = new BitmapFont(newBitmapFontData(fontFile, flip), regions, true);
                     } else {
                         TextureRegion region = skin.optional(regionName, TextureRegion.class);
                         if (region != null)
@@ -180,16 +454,17 @@ public class FWSkin extends Skin {
                             if(fw || lzb)
                                 font = BitmapFontSupport.loadStructuredJson(fontFile, region, flip);
                             else
-                                font = new BitmapFont(fontFile, region, flip);
+                                font = new BitmapFont(newBitmapFontData(fontFile, flip), region, true);
                         }
                         else {
                             FileHandle imageFile = fontFile.sibling(regionName + ".png");
                             if (imageFile.exists()) {
                                 if(fw || lzb)
                                     font = BitmapFontSupport.loadStructuredJson(fontFile,
-                                            new TextureRegion(new Texture(imageFile)), flip);
+                                            new TextureRegion(loadPage(imageFile)), flip);
                                 else
-                                    font = new BitmapFont(fontFile, imageFile, flip);
+                                    font = new BitmapFont(newBitmapFontData(fontFile, flip),
+                                            new TextureRegion(loadPage(imageFile)), true);
                             } else {
                                 if(fw || lzb)
                                     font = BitmapFontSupport.loadStructuredJson(fontFile, "", flip);
@@ -202,6 +477,7 @@ public class FWSkin extends Skin {
                     font.setUseIntegerPositions(useIntegerPositions);
                     // Scaled size is the desired cap height to scale the font to.
                     if (scaledSize != -1) font.getData().setScale(scaledSize / font.getCapHeight());
+                    loadedBitmapFonts.put(key, font);
                     return font;
                 } catch (RuntimeException ex) {
                     throw new SerializationException("Error loading bitmap font: " + fontFile, ex);
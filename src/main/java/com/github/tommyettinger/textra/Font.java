@@ -108,6 +108,7 @@ public class Font implements Disposable {
 
     public void setDistanceField(DistanceFieldType distanceField) {
         this.distanceField = distanceField;
+        if (deferGraphics) return;
         if (distanceField == DistanceFieldType.MSDF) {
             shader = new ShaderProgram(vertexShader, msdfFragmentShader);
             if (!shader.isCompiled())
@@ -120,10 +121,45 @@ public class Font implements Disposable {
             shader = new ShaderProgram(vertexShader, sdfBlackOutlineFragmentShader);
             if (!shader.isCompiled())
                 Gdx.app.error("textratypist", "SDF_OUTLINE shader failed to compile: " + shader.getLog());
+        } else if (alphaPages) {
+            shader = new ShaderProgram(vertexShader, alphaFragmentShader);
+            if (!shader.isCompiled())
+                Gdx.app.error("textratypist", "Alpha shader failed to compile: " + shader.getLog());
         } else shader = null;
 
     }
 
+    /**
+     * Returns true if this is a {@link DistanceFieldType#STANDARD} font with texture pages in
+     * {@link Pixmap.Format#Alpha} format, such as when {@link #STANDARD_PAGE_FORMAT} was Alpha while this loaded.
+     * Such a Font uses {@link #alphaFragmentShader} as its {@link #shader}, and needs {@link #enableShader(Batch)}
+     * called before drawing it, as distance field fonts do.
+     *
+     * @return true if this font's pages only have an alpha channel
+     */
+    public boolean hasAlphaPages() {
+        return alphaPages;
+    }
+
+    /**
+     * Gets the format texture pages should be converted to while loading, or null to keep the format of the file.
+     */
+    Pixmap.Format getPageFormat() {
+        return distanceField == DistanceFieldType.STANDARD ? STANDARD_PAGE_FORMAT : null;
+    }
+
+    /**
+     * Checks if this is a standard font whose pages are in {@link Pixmap.Format#Alpha} format, and if so, sets up
+     * {@link #alphaFragmentShader}.
+     */
+    void checkAlphaPages() {
+        if (distanceField == DistanceFieldType.STANDARD && !alphaPages && parents != null && parents.notEmpty()
+                && parents.first().getTexture().getTextureData().getFormat() == Pixmap.Format.Alpha) {
+            alphaPages = true;
+            setDistanceField(distanceField);
+        }
+    }
+
     /**
      * Describes the region of a glyph in a larger TextureRegion, carrying a little more info about the offsets that
      * apply to where the glyph is rendered.
@@ -231,6 +267,23 @@ public class Font implements Disposable {
         }
     }
 
+    /**
+     * Implemented by subclasses of IntMap used as {@link #mapping} that create GlyphRegions as they are looked up,
+     * rather than holding every glyph from the start. This lets {@link #unshareTables()} copy such a map without
+     * losing glyphs that haven't been created yet.
+     */
+    public interface GlyphMapping {
+        /**
+         * Copies this map for use as the {@link #mapping} of {@code font}, copying every GlyphRegion created so far
+         * and continuing to create others as they are looked up. When this is called, {@code font} already has its
+         * own copies of its other tables, such as {@link #kerning}.
+         *
+         * @param font the Font that will use the copy
+         * @return a copy of this map that only {@code font} will use
+         */
+        IntMap<GlyphRegion> copyFor(Font font);
+    }
+
     /**
      * Holds up to 16 Font values, accessible by index or by name, that markup can switch between while rendering.
      * This uses the [@Name] syntax. It is suggested that multiple Font objects share the same FontFamily so users can
@@ -447,9 +500,31 @@ public class Font implements Disposable {
      * Maps char keys (stored as ints) to their corresponding {@link GlyphRegion} values. You can add arbitrary images
      * to this mapping if you create appropriate GlyphRegion values (as with
      * {@link GlyphRegion#GlyphRegion(TextureRegion, float, float, float, float)}), though they must map to a char.
+     * <br>
+     * For fonts with at least {@link #LAZY_GLYPH_THRESHOLD} glyphs, this only creates each GlyphRegion the first time
+     * it is looked up; iterating over this creates every GlyphRegion that hasn't been created yet.
+     * <br>
+     * A Font made with {@link #Font(Font, boolean)} and true for shareTables shares this (and {@link #kerning},
+     * {@link #nameLookup}, and {@link #namesByCharCode}) with the Font it copied until either one changes it, such as with
+     * {@link #addAtlas(TextureAtlas)} or {@link #fitCell(float, float, boolean)}. If you change this map or its
+     * GlyphRegions yourself, call {@link #unshareTables()} first.
      */
     public IntMap<GlyphRegion> mapping;
 
+    /**
+     * True if {@link #mapping}, {@link #kerning}, {@link #nameLookup}, and {@link #namesByCharCode} may be shared with
+     * another Font, because this Font was copied from it or it was copied from this one.
+     */
+    boolean sharedTables = false;
+
+    /**
+     * When a font file has at least this many glyphs, its {@link #mapping} only creates GlyphRegions as they are
+     * needed, instead of creating every one while loading. Fonts that cover CJK scripts can have tens of thousands of
+     * glyphs, and most programs will only ever show a small fraction of them. If this is 0 or less, every GlyphRegion
+     * is always created while loading. Changing this only affects fonts loaded afterwards. Defaults to 4096.
+     */
+    public static int LAZY_GLYPH_THRESHOLD = 4096;
+
     /**
      * Optional; maps the names of TextureRegions to the indices they use in {@link #mapping}, and usually assigned by
      * {@link #addAtlas(TextureAtlas)}. The keys in this map are case-insensitive.
@@ -476,6 +551,24 @@ public class Font implements Disposable {
     public Array<TextureRegion> parents;
     protected DistanceFieldType distanceField = DistanceFieldType.STANDARD;
 
+    /**
+     * If not null, the texture pages of {@link DistanceFieldType#STANDARD} fonts loaded from .fnt files (or SadConsole
+     * .font files) afterwards are converted to this format as they are loaded. This only makes sense as {@link Pixmap.Format#LuminanceAlpha},
+     * which halves the GPU memory each page uses and needs no shader, or {@link Pixmap.Format#Alpha}, which uses a
+     * quarter of the memory but needs {@link #alphaFragmentShader} (set up automatically, and enabled by
+     * {@link #enableShader(Batch)}). Either one only works well for pages that hold white glyphs on a transparent
+     * background, which is true of all the standard fonts in {@link KnownFonts}; LuminanceAlpha also keeps shades of
+     * gray. Distance field fonts are never converted. Defaults to null, which keeps pages in whatever format their
+     * image files use (usually RGBA8888).
+     */
+    public static Pixmap.Format STANDARD_PAGE_FORMAT = null;
+
+    /**
+     * True if this is a {@link DistanceFieldType#STANDARD} font with texture pages in {@link Pixmap.Format#Alpha}
+     * format, which need {@link #alphaFragmentShader} to be drawn with the right colors.
+     */
+    protected boolean alphaPages = false;
+
     /**
      * Effectively used to attach a Float value to each Batch that might be used to draw a Font, where the Float is the
      * current {@code u_smoothing} uniform value used by that Batch.
@@ -632,6 +725,17 @@ public class Font implements Disposable {
      */
     public Texture whiteBlock = null;
 
+    /**
+     * Only true while a {@link FontLoader} assembles this Font off the rendering thread. While this is true, anything
+     * that needs the rendering thread (creating the shader, creating {@link #whiteBlock} and the glyphs that use it,
+     * and setting texture filters) waits until {@link #finishLoading()} is called on the rendering thread.
+     */
+    boolean deferGraphics = false;
+    /**
+     * If true, {@link #finishLoading()} still needs to add block glyphs, using {@link #deferredGridGlyphs}.
+     */
+    private boolean deferredBlockGlyphs = false, deferredGridGlyphs = false;
+
     /**
      * Bit flag for bold mode, as a long.
      */
@@ -1090,6 +1194,29 @@ public class Font implements Disposable {
                     "}";
 
 
+    /**
+     * Fragment shader source for {@link DistanceFieldType#STANDARD} fonts with texture pages in
+     * {@link Pixmap.Format#Alpha} format, which would otherwise be drawn black. This is automatically used when
+     * {@link #enableShader(Batch)} is called and this Font {@link #hasAlphaPages() has alpha pages}. It takes only the
+     * alpha channel from the font's pages, so tinting and outline modes work as usual, and draws inline images (which
+     * aren't on the font's pages) normally.
+     */
+    public static final String alphaFragmentShader =
+            "#ifdef GL_ES\n" +
+                    "precision mediump float;\n" +
+                    "#endif\n" +
+                    "uniform sampler2D u_texture;\n" +
+                    "uniform float u_smoothing;\n" +
+                    "varying vec4 v_color;\n" +
+                    "varying vec2 v_texCoords;\n" +
+                    "void main() {\n" +
+                    "  if (u_smoothing > 0.0) {\n" +
+                    "    gl_FragColor = vec4(v_color.rgb, v_color.a * texture2D(u_texture, v_texCoords).a);\n" +
+                    "  } else {\n" +
+                    "    gl_FragColor = v_color * texture2D(u_texture, v_texCoords);\n" +
+                    "  }\n" +
+                    "}";
+
     /**
      * Fragment shader source meant for MSDF fonts. This is automatically used when {@link #enableShader(Batch)} is
      * called and the {@link #distanceField} is {@link DistanceFieldType#MSDF}. This shader will almost always fail to
@@ -1241,6 +1368,19 @@ public class Font implements Disposable {
      * @param toCopy another Font to copy
      */
     public Font(Font toCopy) {
+        this(toCopy, false);
+    }
+
+    /**
+     * Copy constructor; does not copy the font's {@link #shader} or {@link #colorLookup}, if it has them (it uses the
+     * same reference for the new Font). If shareTables is true, the glyph, kerning, and name tables are shared between
+     * the two Fonts until either one changes them (see {@link #unshareTables()}), which saves memory when making many
+     * copies of a large font at different sizes; otherwise, this fully copies everything else.
+     *
+     * @param toCopy another Font to copy
+     * @param shareTables if true, share the glyph, kerning, and name tables with toCopy until either Font changes them
+     */
+    public Font(Font toCopy, boolean shareTables) {
         this.distanceField = toCopy.distanceField;
         isMono = toCopy.isMono;
         actualCrispness = toCopy.actualCrispness;
@@ -1275,18 +1415,19 @@ public class Font implements Disposable {
         inlineImageOffsetX = toCopy.inlineImageOffsetX;
         inlineImageOffsetY = toCopy.inlineImageOffsetY;
         inlineImageXAdvance = toCopy.inlineImageXAdvance;
-
-        mapping = new IntMap<>(toCopy.mapping.size);
-        for (IntMap.Entry<GlyphRegion> e : toCopy.mapping) {
-            if (e.value == null) continue;
-            mapping.put(e.key, new GlyphRegion(e.value));
-        }
-        if(toCopy.nameLookup != null)
-            nameLookup = new CaseInsensitiveIntMap(toCopy.nameLookup);
-        if(toCopy.namesByCharCode != null)
-            namesByCharCode = new IntMap<>(toCopy.namesByCharCode);
+        alphaPages = toCopy.alphaPages;
+
+        mapping = toCopy.mapping;
+        nameLookup = toCopy.nameLookup;
+        namesByCharCode = toCopy.namesByCharCode;
+        kerning = toCopy.kerning;
+        sharedTables = true;
+        // if shared, these are copied by unshareTables() when either Font first changes them
+        if (shareTables)
+            toCopy.sharedTables = true;
+        else
+            unshareTables();
         defaultValue = toCopy.defaultValue;
-        kerning = toCopy.kerning == null ? null : new IntFloatMap(toCopy.kerning);
         solidBlock = toCopy.solidBlock;
         name = toCopy.name;
         integerPosition = toCopy.integerPosition;
@@ -1463,7 +1604,7 @@ public class Font implements Disposable {
         FileHandle textureHandle;
         if ((textureHandle = Gdx.files.internal(textureName)).exists()
                 || (textureHandle = Gdx.files.local(textureName)).exists()) {
-            parents = Array.with(new TextureRegion(new Texture(textureHandle)));
+            parents = Array.with(new TextureRegion(new Texture(textureHandle, getPageFormat(), false)));
             if (distanceField != DistanceFieldType.STANDARD) {
                 parents.first().getTexture().setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
             }
@@ -1823,6 +1964,25 @@ public class Font implements Disposable {
         loadSad(prefix == null ? "" : prefix, fntName);
     }
 
+    /**
+     * Constructs a standard Font from the full text of an AngelCode BMFont .fnt file that was already read, such as on
+     * another thread by {@link FWSkin}. If {@code textureRegions} is null, this loads the pages the .fnt file names.
+     *
+     * @param fnt            the full text of a .fnt file
+     * @param textureRegions the pages of the font, or null to load them by the names in the .fnt file
+     * @param xAdjust        how many pixels to offset each character's x-position by, moving to the right
+     * @param yAdjust        how many pixels to offset each character's y-position by, moving up
+     * @param widthAdjust    how many pixels to add to the used width of each character, using more to the right
+     * @param heightAdjust   how many pixels to add to the used height of each character, using more above
+     * @param makeGridGlyphs true if this should use its own way of rendering box-drawing/block-element glyphs, ignoring any in the font file
+     */
+    Font(String fnt, @Null Array<TextureRegion> textureRegions,
+         float xAdjust, float yAdjust, float widthAdjust, float heightAdjust, boolean makeGridGlyphs) {
+        this.setDistanceField(DistanceFieldType.STANDARD);
+        this.parents = textureRegions;
+        parseFNT(fnt, xAdjust, yAdjust, widthAdjust, heightAdjust, makeGridGlyphs);
+    }
+
     /**
      * The gritty parsing code that pulls relevant info from an AngelCode BMFont .fnt file and uses it to assemble the
      * many {@link GlyphRegion}s this has for each glyph.
@@ -1843,6 +2003,21 @@ public class Font implements Disposable {
         } else {
             throw new RuntimeException("Missing font file: " + fntName);
         }
+        parseFNT(fnt, xAdjust, yAdjust, widthAdjust, heightAdjust, makeGridGlyphs);
+    }
+
+    /**
+     * Does the work for {@link #loadFNT(String, float, float, float, float, boolean)} once the .fnt file has been read.
+     * If {@link #parents} is null or has fewer items than the .fnt file has pages, this loads the pages it names.
+     *
+     * @param fnt            the full text of a .fnt file
+     * @param xAdjust        added to the x-position for each glyph in the font
+     * @param yAdjust        added to the y-position for each glyph in the font
+     * @param widthAdjust    added to the glyph width for each glyph in the font
+     * @param heightAdjust   added to the glyph height for each glyph in the font
+     * @param makeGridGlyphs true if this should use its own way of rendering box-drawing/block-element glyphs, ignoring any in the font file
+     */
+    protected void parseFNT(String fnt, float xAdjust, float yAdjust, float widthAdjust, float heightAdjust, boolean makeGridGlyphs) {
         this.xAdjust = xAdjust;
         this.yAdjust = yAdjust;
         this.widthAdjust = widthAdjust;
@@ -1874,7 +2049,7 @@ public class Font implements Disposable {
                 String textureName = fnt.substring(idx = StringUtils.indexAfter(fnt, "file=\"", idx), idx = fnt.indexOf('"', idx));
                 if ((textureHandle = Gdx.files.internal(textureName)).exists()
                         || (textureHandle = Gdx.files.local(textureName)).exists()) {
-                    parents.add(new TextureRegion(new Texture(textureHandle)));
+                    parents.add(new TextureRegion(new Texture(textureHandle, getPageFormat(), false)));
                     if (getDistanceField() != DistanceFieldType.STANDARD)
                         parents.peek().getTexture().setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
                 } else {
@@ -1883,8 +2058,11 @@ public class Font implements Disposable {
 
             }
         }
+        checkAlphaPages();
         int size = StringUtils.intFromDec(fnt, idx = StringUtils.indexAfter(fnt, "\nchars count=", idx), idx = StringUtils.indexAfter(fnt, "\nchar id=", idx));
-        mapping = new IntMap<>(size);
+        final LazyGlyphMap.Builder lazyGlyphs = LAZY_GLYPH_THRESHOLD > 0 && size >= LAZY_GLYPH_THRESHOLD
+                ? new LazyGlyphMap.Builder(parents.toArray(TextureRegion.class), size + 1) : null;
+        mapping = lazyGlyphs != null ? null : new IntMap<>(size);
         float minWidth = Integer.MAX_VALUE;
         for (int i = 0; i < size; i++) {
             if (idx == fnt.length())
@@ -1906,16 +2084,14 @@ public class Font implements Disposable {
 //            h += heightAdjust;
             if (c != 9608) // full block
                 minWidth = Math.min(minWidth, a + widthAdjust);
-            GlyphRegion gr = new GlyphRegion(parents.get(p), x, y, w, h);
+            float ox;
             if (c == 10) {
                 a = 0;
-                gr.offsetX = 0;
+                ox = 0;
             } else if (makeGridGlyphs && BlockUtils.isBlockGlyph(c)) {
-                gr.offsetX = Float.NaN;
+                ox = Float.NaN;
             } else
-                gr.offsetX = xo + xAdjust;
-            gr.offsetY = yo + yAdjust;
-            gr.xAdvance = a + widthAdjust;
+                ox = xo + xAdjust;
 
             cellWidth = Math.max(a + widthAdjust, cellWidth);
             cellHeight = Math.max(h + heightAdjust, cellHeight);
@@ -1924,11 +2100,24 @@ public class Font implements Disposable {
 //                if(descent != (descent = Math.min(baseline - h - yo, descent)))
 //                    chosenDescender = c;
             }
+            if (lazyGlyphs != null) {
+                int rx = Math.round(x), ry = Math.round(y);
+                lazyGlyphs.add(c, p, rx, ry, rx + Math.round(w), ry + Math.round(h), ox, yo + yAdjust, a + widthAdjust);
+                if (c == '[') {
+                    lazyGlyphs.add(2, p, rx, ry, rx + Math.round(w), ry + Math.round(h), ox, yo + yAdjust, a + widthAdjust);
+                }
+                continue;
+            }
+            GlyphRegion gr = new GlyphRegion(parents.get(p), x, y, w, h);
+            gr.offsetX = ox;
+            gr.offsetY = yo + yAdjust;
+            gr.xAdvance = a + widthAdjust;
             mapping.put(c, gr);
             if (c == '[') {
                 mapping.put(2, gr);
             }
         }
+        if (lazyGlyphs != null) mapping = lazyGlyphs.build();
         descent += padBottom;
 //        System.out.println("Using descender from " + chosenDescender);
         idx = StringUtils.indexAfter(fnt, "\nkernings count=", 0);
@@ -1960,6 +2149,24 @@ public class Font implements Disposable {
         if (mapping.containsKey(' ')) {
             mapping.put('\r', mapping.get(' '));
         }
+        if (deferGraphics) {
+            deferredBlockGlyphs = true;
+            deferredGridGlyphs = makeGridGlyphs;
+        } else
+            addBlockGlyphs(makeGridGlyphs);
+        defaultValue = mapping.get(' ', mapping.get(0));
+        originalCellWidth = cellWidth;
+        originalCellHeight = cellHeight;
+        isMono = minWidth == cellWidth && kerning == null;
+    }
+
+    /**
+     * Used by {@link #parseFNT(String, float, float, float, float, boolean)} to add a solid block glyph if the font
+     * doesn't have one (using {@link #whiteBlock}), and to add box-drawing glyphs if makeGridGlyphs is true.
+     *
+     * @param makeGridGlyphs true if this should use its own way of rendering box-drawing/block-element glyphs
+     */
+    private void addBlockGlyphs(boolean makeGridGlyphs) {
         solidBlock =
                 mapping.containsKey(9608) ? '\u2588' : '\uFFFF';
         if (makeGridGlyphs) {
@@ -1991,10 +2198,6 @@ public class Font implements Disposable {
             mapping.put(solidBlock, new GlyphRegion(new TextureRegion(whiteBlock, 1, 1, 1, 1)));
             temp.dispose();
         }
-        defaultValue = mapping.get(' ', mapping.get(0));
-        originalCellWidth = cellWidth;
-        originalCellHeight = cellHeight;
-        isMono = minWidth == cellWidth && kerning == null;
     }
 
     /**
@@ -2021,11 +2224,12 @@ public class Font implements Disposable {
             String textureName = fnt.getString("FilePath");
             if ((textureHandle = Gdx.files.internal(prefix + textureName)).exists()
                     || (textureHandle = Gdx.files.local(prefix + textureName)).exists()) {
-                parents.add(parent = new TextureRegion(new Texture(textureHandle)));
+                parents.add(parent = new TextureRegion(new Texture(textureHandle, getPageFormat(), false)));
             } else {
                 throw new RuntimeException("Missing texture file: " + prefix + textureName);
             }
         } else parent = parents.first();
+        checkAlphaPages();
 
         int columns = fnt.getInt("Columns");
         int padding = fnt.getInt("GlyphPadding");
@@ -2210,6 +2414,24 @@ public class Font implements Disposable {
         }
     }
 
+    /**
+     * Constructs a Font from a Structured JSON font that was already parsed, such as on another thread by
+     * {@link FWSkin}. Reads the distance field type from the parsed data.
+     *
+     * @param name           the name to give this Font, usually the file name without its extension
+     * @param fnt            a parsed Structured JSON font file; it is not changed, so it can be used again
+     * @param textureRegion  a non-null TextureRegion, often taking up all of a Texture, that stores the images of the glyphs
+     * @param xAdjust        how many pixels to offset each character's x-position by, moving to the right
+     * @param yAdjust        how many pixels to offset each character's y-position by, moving up
+     * @param widthAdjust    how many pixels to add to the used width of each character, using more to the right
+     * @param heightAdjust   how many pixels to add to the used height of each character, using more above
+     * @param makeGridGlyphs true if this should use its own way of rendering box-drawing/block-element glyphs, ignoring any in the font file
+     */
+    Font(String name, StructuredJsonData fnt, TextureRegion textureRegion,
+         float xAdjust, float yAdjust, float widthAdjust, float heightAdjust, boolean makeGridGlyphs) {
+        parseJSON(name, fnt, textureRegion, xAdjust, yAdjust, widthAdjust, heightAdjust, makeGridGlyphs);
+    }
+
     /**
      * The bulk of the loading code for Structured JSON fonts.
      *
@@ -2224,26 +2446,51 @@ public class Font implements Disposable {
     protected void loadJSON(FileHandle jsonHandle, TextureRegion textureRegion,
                             float xAdjust, float yAdjust, float widthAdjust, float heightAdjust, boolean makeGridGlyphs)
     {
-        this.parents = Array.with(textureRegion);
-        this.xAdjust = xAdjust;
-        this.yAdjust = yAdjust;
-        this.widthAdjust = widthAdjust;
-        this.heightAdjust = heightAdjust;
-
-        JsonValue fnt;
-        JsonReader reader = new JsonReader();
+        // This streams the file (decompressing it as it goes, for .dat files), without building a JsonValue tree.
+        StructuredJsonData fnt;
         if("json".equalsIgnoreCase(jsonHandle.extension())){
-            fnt = reader.parse(jsonHandle);
+            fnt = StructuredJsonData.read(jsonHandle.reader("UTF-8"));
         } else if("dat".equalsIgnoreCase(jsonHandle.extension())) {
-            fnt = reader.parse(LZBDecompression.decompressFromBytes(jsonHandle.readBytes()));
+            fnt = StructuredJsonData.read(new LZBReader(jsonHandle.read()));
         } else {
             throw new RuntimeException("Not a .json or .dat font file: " + jsonHandle);
         }
+        parseJSON(jsonHandle.nameWithoutExtension(), fnt, textureRegion, xAdjust, yAdjust, widthAdjust, heightAdjust, makeGridGlyphs);
+    }
 
-        name = jsonHandle.nameWithoutExtension();
+    /**
+     * Does the work for {@link #loadJSON(FileHandle, TextureRegion, float, float, float, float, boolean)} once the
+     * Structured JSON has been parsed.
+     *
+     * @param name           the name to give this Font, usually the file name without its extension
+     * @param fnt            the root of a parsed structured JSON font file
+     * @param textureRegion  a non-null TextureRegion, often taking up all of a Texture, that stores the images of the glyphs
+     * @param xAdjust        how many pixels to offset each character's x-position by, moving to the right
+     * @param yAdjust        how many pixels to offset each character's y-position by, moving up
+     * @param widthAdjust    how many pixels to add to the used width of each character, using more to the right
+     * @param heightAdjust   how many pixels to add to the used height of each character, using more above
+     * @param makeGridGlyphs true if this should use its own way of rendering box-drawing/block-element glyphs, ignoring any in the font file
+     */
+    protected void parseJSON(String name, JsonValue fnt, TextureRegion textureRegion,
+                             float xAdjust, float yAdjust, float widthAdjust, float heightAdjust, boolean makeGridGlyphs) {
+        parseJSON(name, StructuredJsonData.from(fnt), textureRegion, xAdjust, yAdjust, widthAdjust, heightAdjust, makeGridGlyphs);
+    }
+
+    /**
+     * Does the work for {@link #parseJSON(String, JsonValue, TextureRegion, float, float, float, float, boolean)} and
+     * for {@link #loadJSON(FileHandle, TextureRegion, float, float, float, float, boolean)}, which streams the file
+     * into a StructuredJsonData instead of parsing it into a JsonValue.
+     */
+    void parseJSON(String name, StructuredJsonData fnt, TextureRegion textureRegion,
+                   float xAdjust, float yAdjust, float widthAdjust, float heightAdjust, boolean makeGridGlyphs) {
+        this.parents = Array.with(textureRegion);
+        this.xAdjust = xAdjust;
+        this.yAdjust = yAdjust;
+        this.widthAdjust = widthAdjust;
+        this.heightAdjust = heightAdjust;
+        this.name = name;
 
-        JsonValue atlas = fnt.get("atlas");
-        String dfType = atlas.getString("type", "");
+        String dfType = fnt.type;
         if("msdf".equals(dfType) || "mtsdf".equals(dfType)) {
             this.setDistanceField(DistanceFieldType.MSDF);
 //            setCrispness(20f / atlas.getFloat("distanceRange", 2f)); // maybe we don't need to read this?
@@ -2257,17 +2504,14 @@ public class Font implements Disposable {
         else // softmask, hardmask
             this.setDistanceField(DistanceFieldType.STANDARD);
 
-        float size = atlas.getFloat("size", 16f);
-
-        JsonValue metrics = fnt.get("metrics");
+        float size = fnt.size;
 
-        size *= metrics.getFloat("emSize", 1f);
+        size *= fnt.emSize;
 
-        float ascender = atlas.getFloat("ascender", 0.8f);
-        descent = size * atlas.getFloat("descender", -0.25f);
-        originalCellHeight = cellHeight = size * atlas.getFloat("lineHeight", 1f) + heightAdjust;
+        descent = size * fnt.descender;
+        originalCellHeight = cellHeight = size * fnt.lineHeight + heightAdjust;
 
-        underY = 0.5f * atlas.getFloat("underlineY", -0.1f);
+        underY = 0.5f * fnt.underlineY;
         strikeBreadth = underBreadth = -0.375f;
         if(makeGridGlyphs){
             underLength = strikeLength = 0.05f;
@@ -2282,63 +2526,74 @@ public class Font implements Disposable {
 //        strikeY = 0f;
         fancyY -= descent / size;
 
-        JsonValue glyphs = fnt.get("glyphs"), planeBounds, atlasBounds;
-        int count = glyphs.size;
+        final int count = fnt.codes.size;
+        final int[] codes = fnt.codes.items;
+        final float[] advances = fnt.advances.items, planeBounds = fnt.planeBounds.items, atlasBounds = fnt.atlasBounds.items;
 
-        mapping = new IntMap<>(count + 1);
+        final LazyGlyphMap.Builder lazyGlyphs = LAZY_GLYPH_THRESHOLD > 0 && count >= LAZY_GLYPH_THRESHOLD
+                ? new LazyGlyphMap.Builder(new TextureRegion[]{textureRegion}, count + 1) : null;
+        mapping = lazyGlyphs != null ? null : new IntMap<>(count + 1);
         float minWidth = Integer.MAX_VALUE;
-        for (JsonValue.JsonIterator it = glyphs.iterator(); it.hasNext(); ) {
-            JsonValue current = it.next();
-            int c =    current.getInt("unicode", 65535);
-            float a =  current.getFloat("advance", 1f) * size;
-            planeBounds = current.get("planeBounds");
-            atlasBounds = current.get("atlasBounds");
+        for (int i = 0, b = 0; i < count; i++, b += 4) {
+            int c =    codes[i];
+            float a =  advances[i] * size;
+            // bounds are stored as left, bottom, right, top; a NaN left means the glyph had no bounds of that kind
             float x, y, w, h, xo, yo;
-            if(atlasBounds != null) {
-                x = atlasBounds.getFloat("left", 0f);
-                w = atlasBounds.getFloat("right", 0f) - x;
-                y = textureRegion.getRegionHeight() - atlasBounds.getFloat("top", 0f);
-                h = textureRegion.getRegionHeight() - atlasBounds.getFloat("bottom", 0f) - y;
+            if(!Float.isNaN(atlasBounds[b])) {
+                x = atlasBounds[b];
+                w = atlasBounds[b + 2] - x;
+                y = textureRegion.getRegionHeight() - atlasBounds[b + 3];
+                h = textureRegion.getRegionHeight() - atlasBounds[b + 1] - y;
             } else {
                 x = y = w = h = 0f;
             }
-            if(planeBounds != null) {
-                xo = planeBounds.getFloat("left", 0f) * size;
-                yo = size - planeBounds.getFloat("top", 0f) * size - descent * 0.5f;
+            if(!Float.isNaN(planeBounds[b])) {
+                xo = planeBounds[b] * size;
+                yo = size - planeBounds[b + 3] * size - descent * 0.5f;
             } else {
                 xo = yo = 0f;
             }
 
             if (c != 9608) // full block
                 minWidth = Math.min(minWidth, a + widthAdjust);
-            GlyphRegion gr = new GlyphRegion(textureRegion, x, y, w, h);
+            float ox;
             if (c == 10) {
                 a = 0;
-                gr.offsetX = 0;
+                ox = 0;
             } else if (makeGridGlyphs && BlockUtils.isBlockGlyph(c)) {
-                gr.offsetX = Float.NaN;
+                ox = Float.NaN;
             } else
-                gr.offsetX = xo + xAdjust;
-            gr.offsetY = yo + yAdjust;
-            gr.xAdvance = a + widthAdjust;
+                ox = xo + xAdjust;
 
             cellWidth = Math.max(a + widthAdjust, cellWidth);
+            if (lazyGlyphs != null) {
+                int rx = Math.round(x), ry = Math.round(y);
+                lazyGlyphs.add(c, 0, rx, ry, rx + Math.round(w), ry + Math.round(h), ox, yo + yAdjust, a + widthAdjust);
+                if (c == '[') {
+                    lazyGlyphs.add(2, 0, rx, ry, rx + Math.round(w), ry + Math.round(h), ox, yo + yAdjust, a + widthAdjust);
+                }
+                continue;
+            }
+            GlyphRegion gr = new GlyphRegion(textureRegion, x, y, w, h);
+            gr.offsetX = ox;
+            gr.offsetY = yo + yAdjust;
+            gr.xAdvance = a + widthAdjust;
             mapping.put(c, gr);
             if (c == '[') {
                 mapping.put(2, gr);
             }
         }
+        if (lazyGlyphs != null) mapping = lazyGlyphs.build();
 
-        JsonValue kern = fnt.get("kerning");
-        if(kern == null || kern.isEmpty())
+        final int kernCount = fnt.kernFirsts.size;
+        if(kernCount == 0)
             kerning = null;
         else {
-            kerning = new IntFloatMap(kern.size);
-            for (JsonValue.JsonIterator it = kern.iterator(); it.hasNext(); ) {
-                JsonValue current = it.next();
-                int first = current.getInt("unicode1", 65535);
-                int second = current.getInt("unicode2", 65535);
-                float amount = current.getFloat("advance", 0f);
+            kerning = new IntFloatMap(kernCount);
+            for (int i = 0; i < kernCount; i++) {
+                int first = fnt.kernFirsts.get(i);
+                int second = fnt.kernSeconds.get(i);
+                float amount = fnt.kernAmounts.get(i);
                 kerning.put(first << 16 | second, amount);
                 if (first == '[') {
                     kerning.put(2 << 16 | second, amount);
@@ -2371,11 +2626,12 @@ public class Font implements Disposable {
             mapping.put(solidBlock, new GlyphRegion(new TextureRegion(textureRegion,
                     textureRegion.getRegionWidth() - 2, textureRegion.getRegionHeight() - 2, 1, 1), 0, cellHeight, cellWidth));
         }
-        defaultValue = mapping.get(' ', mapping.values().next());
+        defaultValue = mapping.get(' ');
+        if (defaultValue == null) defaultValue = mapping.values().next();
         originalCellWidth = cellWidth;
         originalCellHeight = cellHeight;
 
-        if (distanceField != DistanceFieldType.STANDARD) {
+        if (distanceField != DistanceFieldType.STANDARD && !deferGraphics) {
             textureRegion.getTexture().setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
 //            if(distanceField == DistanceFieldType.MSDF)
 //                distanceFieldCrispness = -8f / (float)Math.log(1f/originalCellHeight);
@@ -2391,6 +2647,80 @@ public class Font implements Disposable {
         inlineImageXAdvance = 4f;
     }
 
+    /**
+     * Creates a Font from a precompiled binary font file, as written by {@link PrecompiledFont#write(Font, FileHandle)}
+     * or {@link PrecompiledFont#convert(String, FileHandle)}, loading its texture pages by the names stored in the file.
+     * Pages are looked for next to the precompiled file first, then as internal files, then as local files. This
+     * doesn't parse any text, and memory-maps the file when the backend allows it, so it is much faster than loading
+     * a large .fnt or .json file.
+     *
+     * @param binaryHandle the FileHandle of a precompiled font file, usually ending in {@link PrecompiledFont#EXTENSION}
+     */
+    public Font(FileHandle binaryHandle) {
+        this(binaryHandle, null);
+    }
+
+    /**
+     * Creates a Font from a precompiled binary font file, as written by {@link PrecompiledFont#write(Font, FileHandle)}
+     * or {@link PrecompiledFont#convert(String, FileHandle)}, using the given TextureRegions as its pages (in the same
+     * order as the {@link #parents} of the Font that was written). If textureRegions is null, this loads the pages by
+     * the names stored in the file, like {@link #Font(FileHandle)}. This doesn't parse any text, and memory-maps the
+     * file when the backend allows it, so it is much faster than loading a large .fnt or .json file.
+     *
+     * @param binaryHandle the FileHandle of a precompiled font file, usually ending in {@link PrecompiledFont#EXTENSION}
+     * @param textureRegions the pages to use for the glyphs, such as regions in a TextureAtlas; may be null
+     */
+    public Font(FileHandle binaryHandle, @Null Array<TextureRegion> textureRegions) {
+        if (binaryHandle.exists()) {
+            loadBinary(binaryHandle, textureRegions);
+        } else {
+            throw new RuntimeException("Missing font file: " + binaryHandle);
+        }
+    }
+
+    /**
+     * The loading code for precompiled binary fonts; see {@link PrecompiledFont} for the format.
+     *
+     * @param binaryHandle the FileHandle of a precompiled font file
+     * @param textureRegions the pages to use for the glyphs, or null to load them by the names stored in the file
+     */
+    protected void loadBinary(FileHandle binaryHandle, @Null Array<TextureRegion> textureRegions) {
+        PrecompiledFont.read(this, PrecompiledFont.open(binaryHandle), binaryHandle, textureRegions);
+    }
+
+    /**
+     * Creates an empty Font that has yet to load anything, for use by {@link FontLoader}. Nothing here needs the
+     * rendering thread; after {@link #parseFNT(String, float, float, float, float, boolean)} or
+     * {@link #parseJSON(String, JsonValue, TextureRegion, float, float, float, float, boolean)} is called,
+     * {@link #finishLoading()} must be called on the rendering thread.
+     *
+     * @param distanceField determines how edges are drawn; the shader for this is only created by finishLoading()
+     */
+    Font(DistanceFieldType distanceField) {
+        deferGraphics = true;
+        setDistanceField(distanceField);
+    }
+
+    /**
+     * Does everything that had to wait for the rendering thread while this Font was being loaded with
+     * {@link #deferGraphics} set: creates the shader for the distance field type, sets the texture filters for
+     * distance field fonts, and adds any block glyphs that need {@link #whiteBlock}. Does nothing if this Font wasn't
+     * deferring anything.
+     */
+    void finishLoading() {
+        if (!deferGraphics) return;
+        deferGraphics = false;
+        setDistanceField(distanceField);
+        if (distanceField != DistanceFieldType.STANDARD && parents != null) {
+            for (TextureRegion parent : parents)
+                parent.getTexture().setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+        }
+        if (deferredBlockGlyphs) {
+            deferredBlockGlyphs = false;
+            addBlockGlyphs(deferredGridGlyphs);
+        }
+    }
+
     //// usage section
 
     /**
@@ -2487,6 +2817,7 @@ public class Font implements Disposable {
      * @return this Font, for chaining
      */
     public Font fitCell(float width, float height, boolean center) {
+        unshareTables();
 //        float hRatio = width / cellWidth;
 //        float vRatio = height / cellHeight;
 //        underX *= hRatio; strikeX *= hRatio;
@@ -2521,6 +2852,38 @@ public class Font implements Disposable {
         return this;
     }
 
+    /**
+     * Makes sure that {@link #mapping}, {@link #kerning}, {@link #nameLookup}, and {@link #namesByCharCode} belong to
+     * this Font alone, copying them (and every GlyphRegion in mapping) if they could be shared with another Font. Fonts
+     * made with {@link #Font(Font, boolean)} and true for shareTables share these with the Font they copied, so a dozen
+     * copies of one large font at different sizes only need one set of tables. Methods here that change these tables call this first, so you only
+     * need to call this if you change them yourself. This does nothing if the tables aren't shared.
+     *
+     * @return this Font, for chaining
+     */
+    public Font unshareTables() {
+        if (!sharedTables) return this;
+        sharedTables = false;
+        if (nameLookup != null)
+            nameLookup = new CaseInsensitiveIntMap(nameLookup);
+        if (namesByCharCode != null)
+            namesByCharCode = new IntMap<>(namesByCharCode);
+        if (kerning != null)
+            kerning = new IntFloatMap(kerning);
+        if (mapping instanceof GlyphMapping) {
+            // glyphs that haven't been created yet stay that way in the copy
+            mapping = ((GlyphMapping) mapping).copyFor(this);
+        } else if (mapping != null) {
+            IntMap<GlyphRegion> shared = mapping;
+            mapping = new IntMap<>(shared.size);
+            for (IntMap.Entry<GlyphRegion> e : shared) {
+                if (e.value == null) continue;
+                mapping.put(e.key, new GlyphRegion(e.value));
+            }
+        }
+        return this;
+    }
+
     public float getUnderlineX() {
         return underX;
     }
@@ -2843,7 +3206,7 @@ public class Font implements Disposable {
      */
     public Font addImage(String character, TextureRegion region, float offsetX, float offsetY, float xAdvance) {
         if(character != null && !character.isEmpty())
-            mapping.put(character.charAt(character.length() - 1), new GlyphRegion(region, offsetX, offsetY, xAdvance));
+            unshareTables().mapping.put(character.charAt(character.length() - 1), new GlyphRegion(region, offsetX, offsetY, xAdvance));
         return this;
     }
 
@@ -2864,7 +3227,7 @@ public class Font implements Disposable {
      */
     public Font addImage(String character, TextureRegion region) {
         if(character != null && !character.isEmpty())
-            mapping.put(character.charAt(character.length() - 1), new GlyphRegion(region));
+            unshareTables().mapping.put(character.charAt(character.length() - 1), new GlyphRegion(region));
         return this;
     }
 
@@ -2933,6 +3296,7 @@ public class Font implements Disposable {
      * @return this Font, for chaining
      */
     public Font addAtlas(TextureAtlas atlas, String prepend, String append, float offsetXChange, float offsetYChange, float xAdvanceChange) {
+        unshareTables();
         Array<TextureAtlas.AtlasRegion> regions = atlas.getRegions();
         if(nameLookup == null)
             nameLookup = new CaseInsensitiveIntMap(regions.size, 0.5f);
@@ -2989,6 +3353,64 @@ public class Font implements Disposable {
         return this;
     }
 
+    /**
+     * Adds all items in {@code atlas} to the private use area of {@link #mapping}, and stores their names, exactly as
+     * {@link #addAtlas(TextureAtlas)} would for the TextureAtlas the PrecompiledAtlas was made from, but faster. If
+     * this Font doesn't have any atlases yet, its name tables are copied from ones the PrecompiledAtlas builds once,
+     * which makes adding the same atlas to several Fonts much faster.
+     * @param atlas a PrecompiledAtlas that shouldn't have more than 6144 names; all of it will be used
+     * @return this Font, for chaining
+     */
+    public Font addAtlas(PrecompiledAtlas atlas) {
+        return addAtlas(atlas, "", "", 0, 0, 0);
+    }
+    /**
+     * Adds all items in {@code atlas} to the private use area of {@link #mapping}, and stores their names, exactly as
+     * {@link #addAtlas(TextureAtlas, float, float, float)} would for the TextureAtlas the PrecompiledAtlas was made
+     * from, but faster.
+     * <br>
+     * Changing offsetXChange with a positive value moves all GlyphRegions to the right.
+     * Changing offsetYChange with a positive value moves all GlyphRegions down (this is possibly unexpected).
+     * Changing xAdvanceChange with a positive value will shrink all GlyphRegions (this is probably unexpected).
+     * Each of the metric changes has a variable from this Font added to it; {@link #inlineImageOffsetX},
+     * {@link #inlineImageOffsetY}, and {@link #inlineImageXAdvance} all are added in here.
+     *
+     * @param atlas a PrecompiledAtlas that shouldn't have more than 6144 names; all of it will be used
+     * @param offsetXChange will be added to the {@link GlyphRegion#offsetX} of each added glyph; positive change moves a GlyphRegion to the right
+     * @param offsetYChange will be added to the {@link GlyphRegion#offsetY} of each added glyph; positive change moves a GlyphRegion down
+     * @param xAdvanceChange will be added to the {@link GlyphRegion#xAdvance} of each added glyph; positive change shrinks a GlyphRegion due to how size is calculated
+     * @return this Font, for chaining
+     */
+    public Font addAtlas(PrecompiledAtlas atlas, float offsetXChange, float offsetYChange, float xAdvanceChange) {
+        return addAtlas(atlas, "", "", offsetXChange, offsetYChange, xAdvanceChange);
+    }
+    /**
+     * Adds all items in {@code atlas} to the private use area of {@link #mapping}, and stores their names, exactly as
+     * {@link #addAtlas(TextureAtlas, String, String, float, float, float)} would for the TextureAtlas the
+     * PrecompiledAtlas was made from, but faster. Either or both of the Strings to prepend and append may be empty
+     * (or equivalently here, null); if both are empty and this Font doesn't have any atlases yet, its name tables are
+     * copied instead of built.
+     * <br>
+     * Changing offsetXChange with a positive value moves all GlyphRegions to the right.
+     * Changing offsetYChange with a positive value moves all GlyphRegions down (this is possibly unexpected).
+     * Changing xAdvanceChange with a positive value will shrink all GlyphRegions (this is probably unexpected).
+     * Each of the metric changes has a variable from this Font added to it; {@link #inlineImageOffsetX},
+     * {@link #inlineImageOffsetY}, and {@link #inlineImageXAdvance} all are added in here.
+     *
+     * @param atlas a PrecompiledAtlas that shouldn't have more than 6144 names; all of it will be used
+     * @param prepend will be prepended before each name in the atlas; if null, will be treated as ""
+     * @param append will be appended after each name in the atlas; if null, will be treated as ""
+     * @param offsetXChange will be added to the {@link GlyphRegion#offsetX} of each added glyph; positive change moves a GlyphRegion to the right
+     * @param offsetYChange will be added to the {@link GlyphRegion#offsetY} of each added glyph; positive change moves a GlyphRegion down
+     * @param xAdvanceChange will be added to the {@link GlyphRegion#xAdvance} of each added glyph; positive change shrinks a GlyphRegion due to how size is calculated
+     * @return this Font, for chaining
+     */
+    public Font addAtlas(PrecompiledAtlas atlas, String prepend, String append, float offsetXChange, float offsetYChange, float xAdvanceChange) {
+        unshareTables();
+        atlas.addTo(this, prepend, append, offsetXChange, offsetYChange, xAdvanceChange);
+        return this;
+    }
+
     /**
      * Gets the char that might be associated with {@code name} in at Atlas added to this (see
      * {@link #addAtlas(TextureAtlas)}, or returns the int -1 if the name could not be found. This will only return a
@@ -3020,17 +3442,14 @@ public class Font implements Disposable {
         if (batch.getShader() != shader) {
             if (distanceField == DistanceFieldType.MSDF) {
                 batch.setShader(shader);
-                float smoothing = 7f * actualCrispness * Math.max(cellHeight / originalCellHeight, cellWidth / originalCellWidth);
-                batch.flush();
-                shader.setUniformf("u_smoothing", smoothing);
-                smoothingValues.put(batch, smoothing);
+                setSmoothing(batch, 7f * actualCrispness * Math.max(cellHeight / originalCellHeight, cellWidth / originalCellWidth));
             } else if (distanceField == DistanceFieldType.SDF || getDistanceField() == DistanceFieldType.SDF_OUTLINE) {
                 batch.setShader(shader);
-                float smoothing = (actualCrispness / (Math.max(cellHeight / originalCellHeight,
-                        cellWidth / originalCellWidth) * 0.5f + 0.125f));
-                batch.flush();
-                shader.setUniformf("u_smoothing", smoothing);
-                smoothingValues.put(batch, smoothing);
+                setSmoothing(batch, (actualCrispness / (Math.max(cellHeight / originalCellHeight,
+                        cellWidth / originalCellWidth) * 0.5f + 0.125f)));
+            } else if (alphaPages) {
+                batch.setShader(shader);
+                setSmoothing(batch, 1f);
             } else {
                 batch.setShader(null);
                 smoothingValues.put(batch, 0f);
@@ -3053,20 +3472,30 @@ public class Font implements Disposable {
     public void enableDistanceFieldShader(Batch batch) {
         if (batch.getShader() == shader) {
             if (distanceField == DistanceFieldType.MSDF) {
-                float smoothing = 7f * actualCrispness * Math.max(cellHeight / originalCellHeight, cellWidth / originalCellWidth);
-                batch.flush();
-                shader.setUniformf("u_smoothing", smoothing);
-                smoothingValues.put(batch, smoothing);
+                setSmoothing(batch, 7f * actualCrispness * Math.max(cellHeight / originalCellHeight, cellWidth / originalCellWidth));
             } else if (distanceField == DistanceFieldType.SDF || getDistanceField() == DistanceFieldType.SDF_OUTLINE) {
-                float smoothing = (actualCrispness / (Math.max(cellHeight / originalCellHeight,
-                        cellWidth / originalCellWidth) * 0.5f + 0.125f));
-                batch.flush();
-                shader.setUniformf("u_smoothing", smoothing);
-                smoothingValues.put(batch, smoothing);
+                setSmoothing(batch, (actualCrispness / (Math.max(cellHeight / originalCellHeight,
+                        cellWidth / originalCellWidth) * 0.5f + 0.125f)));
+            } else if (alphaPages) {
+                setSmoothing(batch, 1f);
             }
         }
     }
 
+    /**
+     * Sets the {@code u_smoothing} uniform of {@link #shader}, which should already be set on batch, flushing first.
+     * A {@link DeferredTextBatch} is only told the new value, since it sets the uniform itself when it draws.
+     */
+    private void setSmoothing(Batch batch, float smoothing) {
+        if (batch instanceof DeferredTextBatch) {
+            ((DeferredTextBatch) batch).setSmoothing(smoothing);
+        } else {
+            batch.flush();
+            shader.setUniformf("u_smoothing", smoothing);
+        }
+        smoothingValues.put(batch, smoothing);
+    }
+
     /**
      * If a distance field font needs to have its distance field effect disabled temporarily (such as to draw an icon
      * or emoji), you can call this just before you start drawing the non-distance-field images. You should only call
@@ -3075,12 +3504,10 @@ public class Font implements Disposable {
      * @param batch a Batch that should be running (between {@link Batch#begin()} and {@link Batch#end()})
      */
     public void disableDistanceFieldShader(Batch batch) {
-        if(batch.getShader() == shader && distanceField != DistanceFieldType.STANDARD) {
+        if(batch.getShader() == shader && (distanceField != DistanceFieldType.STANDARD || alphaPages)) {
             Float smoothing = smoothingValues.get(batch);
             if(smoothing == null || smoothing == 0f) return;
-            batch.flush();
-            shader.setUniformf("u_smoothing", 0f);
-            smoothingValues.put(batch, 0f);
+            setSmoothing(batch, 0f);
         }
     }
 
@@ -4160,6 +4587,35 @@ public class Font implements Disposable {
         return p;//integerPosition ? MathUtils.round(p) : p;
     }
 
+    /**
+     * Gets the distance that {@link #drawGlyph(Batch, long, float, float, float, float, float, int)} would advance
+     * after drawing {@code glyph}, without drawing anything. Unlike {@link #xAdvance(long)}, this matches drawGlyph()
+     * exactly, including for box-drawing characters and glyphs from other fonts in this Font's {@link #family}. This
+     * does not consider kerning. It is useful for skipping glyphs that wouldn't be visible anyway.
+     *
+     * @param glyph a long storing a char, format, and color; typically part of a longer formatted text as a LongArray
+     * @return the distance in world units that drawing the given glyph would use up, along its line
+     */
+    public float drawnAdvance(long glyph) {
+        Font font = null;
+        if (family != null) font = family.connected[(int) (glyph >>> 16 & 15)];
+        if (font == null) font = this;
+        char c = (char) glyph;
+        if((glyph & SMALL_CAPS) == SMALL_CAPS) c = Category.caseUp(c);
+        GlyphRegion tr = font.mapping.get(c);
+        if (tr == null) return 0f;
+        if (tr.offsetX != tr.offsetX) return font.cellWidth;
+        float scale = ((glyph & ALTERNATE) != 0L) ? 1f : ((glyph + 0x300000L >>> 20 & 15) + 1) * 0.25f;
+        float changedW;
+        if(c >= 0xE000 && c < 0xF800)
+            changedW = scale * font.cellHeight;
+        else
+            changedW = tr.xAdvance * font.scaleX * scale;
+        if ((glyph & SUPERSCRIPT) != 0L && !font.isMono)
+            changedW *= 0.5f;
+        return changedW;
+    }
+
     /**
      * Draws the specified glyph with a Batch at the given x, y position. The glyph contains multiple types of data all
      * packed into one {@code long}: the bottom 16 bits store a {@code char}, the roughly 16 bits above that store
@@ -4253,7 +4709,7 @@ public class Font implements Disposable {
         if (tr == null) return 0f;
 
 
-        if(font.distanceField != DistanceFieldType.STANDARD && latestTexture != (latestTexture = tr.getTexture())) {
+        if((font.distanceField != DistanceFieldType.STANDARD || font.alphaPages) && latestTexture != (latestTexture = tr.getTexture())) {
             boolean located = false;
             for (int p = 0; p < font.parents.size; p++) {
                 if (font.parents.get(p).getTexture() == latestTexture) {
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2023 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.tommyettinger.textra;
+
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetLoaderParameters;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.AsynchronousAssetLoader;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.assets.loaders.TextureLoader;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.github.tommyettinger.textra.utils.LZBReader;
+import com.github.tommyettinger.textra.utils.StringUtils;
+
+/**
+ * An {@link com.badlogic.gdx.assets.loaders.AssetLoader} that loads a {@link Font} from an AngelCode BMFont .fnt file,
+ * a Structured JSON .json file, or an LZB-compressed Structured JSON .dat file, without blocking the rendering thread
+ * for longer than it takes to upload textures. The font file is read and parsed on the AssetManager's executor, the
+ * texture pages are loaded as {@link Texture} dependencies (so their images are decoded off the rendering thread
+ * too), and only the shader, texture filters, and any white block texture are created on the rendering thread. A
+ * .json or .dat font uses the .png file with the same name as its texture. Example code:
+ * <code>
+ *     AssetManager assetManager = new AssetManager();
+ *     assetManager.setLoader(Font.class, new FontLoader(assetManager.getFileHandleResolver()));
+ *     FontLoader.FontParameter emoji = new FontLoader.FontParameter();
+ *     emoji.atlases = new String[]{"Twemoji.atlas"};
+ *     assetManager.load("Gentium-standard.json", Font.class, emoji);
+ * </code>
+ * <br>
+ * Any atlases in {@link FontParameter#atlases} are read with UTF-8 encoding, as by
+ * {@link KnownFonts#loadUnicodeAtlas(FileHandle, FileHandle, boolean)}, have their pages loaded as Texture
+ * dependencies, and are added to the Font with {@link Font#addAtlas(TextureAtlas)}. This is how you would get the
+ * effect of {@link KnownFonts#addEmoji(Font)} or {@link KnownFonts#addGameIcons(Font)} with an AssetManager.
+ * <br>
+ * Unloading a Font from the AssetManager disposes the Font and unloads its textures, if nothing else uses them.
+ */
+public class FontLoader extends AsynchronousAssetLoader<Font, FontLoader.FontParameter> {
+    private static final FontParameter DEFAULT_PARAMETER = new FontParameter();
+
+    private String fntText;
+    private final Array<AssetDescriptor<Texture>> pages = new Array<>();
+    private final Array<TextureAtlas.TextureAtlasData> atlases = new Array<>();
+    private Font font;
+
+    /**
+     * Creates a loader with the associated resolver.
+     * @param resolver Allows {@link AssetManager} to load resources from anywhere or implement caching strategies.
+     */
+    public FontLoader(FileHandleResolver resolver) {
+        super(resolver);
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Array<AssetDescriptor> getDependencies(String fileName, FileHandle file, FontParameter parameter) {
+        if (parameter == null) parameter = DEFAULT_PARAMETER;
+        Array<AssetDescriptor> deps = new Array<>();
+        pages.clear();
+        atlases.clear();
+        fntText = null;
+        String extension = file.extension();
+        if ("fnt".equalsIgnoreCase(extension)) {
+            fntText = file.readString("UTF8");
+            int idx = StringUtils.indexAfter(fntText, "pages=", 0);
+            int pageCount = StringUtils.intFromDec(fntText, idx, idx = StringUtils.indexAfter(fntText, "\npage id=", idx));
+            for (int i = 0; i < pageCount; i++) {
+                String textureName = fntText.substring(idx = StringUtils.indexAfter(fntText, "file=\"", idx), idx = fntText.indexOf('"', idx));
+                FileHandle textureHandle = file.sibling(textureName);
+                if (!textureHandle.exists()) textureHandle = resolve(textureName);
+                if (parameter.distanceField == Font.DistanceFieldType.STANDARD && Font.STANDARD_PAGE_FORMAT != null) {
+                    TextureLoader.TextureParameter params = new TextureLoader.TextureParameter();
+                    params.format = Font.STANDARD_PAGE_FORMAT;
+                    pages.add(new AssetDescriptor<>(textureHandle, Texture.class, params));
+                } else {
+                    pages.add(new AssetDescriptor<>(textureHandle, Texture.class));
+                }
+            }
+        } else if ("json".equalsIgnoreCase(extension) || "dat".equalsIgnoreCase(extension)) {
+            pages.add(new AssetDescriptor<>(file.sibling(file.nameWithoutExtension() + ".png"), Texture.class));
+        } else {
+            throw new GdxRuntimeException("Not a .fnt, .json, or .dat font file: " + file);
+        }
+        deps.addAll(pages);
+
+        if (parameter.atlases != null) {
+            for (String atlasName : parameter.atlases) {
+                FileHandle atlasHandle = resolve(atlasName);
+                TextureAtlas.TextureAtlasData data = KnownFonts.loadUnicodeAtlasData(atlasHandle, atlasHandle.parent(), false);
+                for (TextureAtlas.TextureAtlasData.Page page : data.getPages()) {
+                    TextureLoader.TextureParameter params = new TextureLoader.TextureParameter();
+                    params.format = page.format;
+                    params.genMipMaps = page.useMipMaps;
+                    params.minFilter = page.minFilter;
+                    params.magFilter = page.magFilter;
+                    deps.add(new AssetDescriptor<>(page.textureFile, Texture.class, params));
+                }
+                atlases.add(data);
+            }
+        }
+        return deps;
+    }
+
+    @Override
+    public void loadAsync(AssetManager manager, String fileName, FileHandle file, FontParameter parameter) {
+        if (parameter == null) parameter = DEFAULT_PARAMETER;
+        Array<TextureRegion> regions = new Array<>(true, pages.size, TextureRegion.class);
+        for (AssetDescriptor<Texture> page : pages) {
+            regions.add(new TextureRegion(manager.get(page)));
+        }
+        if (fntText != null) {
+            font = new Font(parameter.distanceField);
+            font.parents = regions;
+            font.parseFNT(fntText, parameter.xAdjust, parameter.yAdjust, parameter.widthAdjust, parameter.heightAdjust,
+                    parameter.makeGridGlyphs);
+            fntText = null;
+        } else {
+            StructuredJsonData json;
+            if ("dat".equalsIgnoreCase(file.extension()))
+                json = StructuredJsonData.read(new LZBReader(file.read()));
+            else
+                json = StructuredJsonData.read(file.reader("UTF-8"));
+            font = new Font(Font.DistanceFieldType.STANDARD);
+            font.parseJSON(file.nameWithoutExtension(), json, regions.first(), parameter.xAdjust, parameter.yAdjust,
+                    parameter.widthAdjust, parameter.heightAdjust, parameter.makeGridGlyphs);
+        }
+    }
+
+    @Override
+    public Font loadSync(AssetManager manager, String fileName, FileHandle file, FontParameter parameter) {
+        Font font = this.font;
+        this.font = null;
+        font.finishLoading();
+        for (TextureAtlas.TextureAtlasData data : atlases) {
+            for (TextureAtlas.TextureAtlasData.Page page : data.getPages()) {
+                page.texture = manager.get(page.textureFile.path().replaceAll("\\\\", "/"), Texture.class);
+            }
+            font.addAtlas(new TextureAtlas(data));
+        }
+        atlases.clear();
+        pages.clear();
+        return font;
+    }
+
+    /**
+     * Optional settings for loading a {@link Font} with a {@link FontLoader}.
+     */
+    public static class FontParameter extends AssetLoaderParameters<Font> {
+        /**
+         * The distance field type to use for a .fnt file; .json and .dat files store their own type, so this is
+         * ignored for them. Defaults to {@link Font.DistanceFieldType#STANDARD}.
+         */
+        public Font.DistanceFieldType distanceField = Font.DistanceFieldType.STANDARD;
+        /**
+         * How many pixels to offset each character's x-position by, moving to the right.
+         */
+        public float xAdjust = 0f;
+        /**
+         * How many pixels to offset each character's y-position by, moving up.
+         */
+        public float yAdjust = 0f;
+        /**
+         * How many pixels to add to the used width of each character, using more to the right.
+         */
+        public float widthAdjust = 0f;
+        /**
+         * How many pixels to add to the used height of each character, using more above.
+         */
+        public float heightAdjust = 0f;
+        /**
+         * True if the Font should use its own way of rendering box-drawing/block-element glyphs, ignoring any in the
+         * font file. Defaults to true, as most fonts in {@link KnownFonts} use.
+         */
+        public boolean makeGridGlyphs = true;
+        /**
+         * The paths of any atlases (such as "Twemoji.atlas" or "Game-Icons.atlas", used by {@link KnownFonts}) to add
+         * to the Font with {@link Font#addAtlas(TextureAtlas)}, resolved by the loader's FileHandleResolver. Each
+         * atlas needs its page images in the same folder as the .atlas file. May be null.
+         */
+        public String[] atlases = null;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2023 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.tommyettinger.textra;
+
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Stores where each glyph of a {@link TypingLabel} is, in the label's local (un-rotated) coordinates, so that a point
+ * can be mapped to a glyph index without visiting every glyph. Lines are stored top to bottom by the y of their
+ * bottom edge, and each line stores the left x of each of its glyphs (which only increase along a line) and the right
+ * x of each glyph. Looking up a point takes a binary search on lines, then a binary search on that line's glyphs.
+ * <br>
+ * This is rebuilt by TypingLabel when its glyphs, size, or alignment change; effects that only move glyphs around
+ * temporarily (like shaking or waving) don't affect this.
+ */
+class GlyphHitIndex {
+    final FloatArray lineBottoms = new FloatArray();
+    final FloatArray lineHeights = new FloatArray();
+    /**
+     * The index of the first glyph in each line, counting across all lines.
+     */
+    final IntArray lineStarts = new IntArray();
+    final FloatArray glyphLefts = new FloatArray();
+    final FloatArray glyphRights = new FloatArray();
+
+    void clear() {
+        lineBottoms.clear();
+        lineHeights.clear();
+        lineStarts.clear();
+        glyphLefts.clear();
+        glyphRights.clear();
+    }
+
+    /**
+     * Starts a new line; glyphs added after this (until the next line) belong to it.
+     * @param bottom the y of the bottom edge of the line, in local coordinates
+     * @param height the height of the line
+     */
+    void addLine(float bottom, float height) {
+        lineBottoms.add(bottom);
+        lineHeights.add(height);
+        lineStarts.add(glyphLefts.size);
+    }
+
+    void addGlyph(float left, float right) {
+        glyphLefts.add(left);
+        glyphRights.add(right);
+    }
+
+    /**
+     * Gets the index of the glyph containing the given point, in local coordinates, or -1 if no glyph contains it.
+     * @param x the local x of the point to look up
+     * @param y the local y of the point to look up
+     * @return the index of the glyph at that point, counting across all lines, or -1 if there is none there
+     */
+    int find(float x, float y) {
+        final int lines = lineBottoms.size;
+        final float[] bottoms = lineBottoms.items;
+        // bottoms decrease with each line; find the first line with a bottom at or below y
+        int lo = 0, hi = lines - 1, line = -1;
+        while (lo <= hi) {
+            int mid = lo + hi >>> 1;
+            if (bottoms[mid] <= y) {
+                line = mid;
+                hi = mid - 1;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        if (line < 0 || y > bottoms[line] + lineHeights.items[line]) return -1;
+        final int start = lineStarts.items[line];
+        final int end = line + 1 < lines ? lineStarts.items[line + 1] : glyphLefts.size;
+        final float[] lefts = glyphLefts.items;
+        // find the last glyph on the line with a left edge at or before x
+        lo = start;
+        hi = end - 1;
+        int glyph = -1;
+        while (lo <= hi) {
+            int mid = lo + hi >>> 1;
+            if (lefts[mid] <= x) {
+                glyph = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        if (glyph < 0 || x > glyphRights.items[glyph]) return -1;
+        return glyph;
+    }
+}
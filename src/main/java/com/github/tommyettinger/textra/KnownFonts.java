@@ -21,6 +21,7 @@ import com.badlogic.gdx.LifecycleListener;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.utils.*;
 
@@ -59,6 +60,14 @@ import static com.github.tommyettinger.textra.Font.DistanceFieldType.*;
  * the icons from <a href="https://game-icons.net">game-icons.net</a> using {@link #addGameIcons(Font)}. There is a
  * <a href="https://tommyettinger.github.io/twemoji-atlas/">preview site for Twemoji, with names</a>, and another
  * <a href="https://tommyettinger.github.io/game-icons-net-atlas/">preview site for the game icons</a>.
+ * If a {@link PrecompiledAtlas} file (such as "Twemoji.tab", made with
+ * {@link PrecompiledAtlas#convert(FileHandle, FileHandle)}) is present next to where the .atlas file would be, it is
+ * loaded instead of the .atlas file, which is faster, especially when adding the same atlas to several Fonts.
+ * <br>
+ * Fonts loaded by the getXyz() methods stay loaded until the app is disposed. If your game switches between many
+ * Fonts, you can instead get them by name with {@link #acquire(String)} and give them back with
+ * {@link #release(String)}; then, if you set a budget with {@link #setMemoryBudget(long)}, Fonts that nothing has
+ * acquired are unloaded, least-recently-used first, whenever the estimate from {@link #getMemoryUsage()} goes over it.
  */
 @SuppressWarnings("CallToPrintStackTrace")
 public final class KnownFonts implements LifecycleListener {
@@ -1765,7 +1774,20 @@ public final class KnownFonts implements LifecycleListener {
      * @return a new TextureAtlas loaded from the given files.
      */
     public static TextureAtlas loadUnicodeAtlas(FileHandle packFile, FileHandle imagesDir, boolean flip) {
-        return new TextureAtlas(new TextureAtlas.TextureAtlasData(packFile, imagesDir, flip){
+        return new TextureAtlas(loadUnicodeAtlasData(packFile, imagesDir, flip));
+    }
+
+    /**
+     * Reads the data for a TextureAtlas with UTF-8 encoding, like {@link #loadUnicodeAtlas(FileHandle, FileHandle, boolean)},
+     * but without loading any Textures. This doesn't need to run on the rendering thread, so it can be used by
+     * {@link FontLoader} while loading asynchronously.
+     * @param packFile the FileHandle for the atlas file
+     * @param imagesDir the FileHandle for the folder that holds the images used by the atlas file
+     * @param flip If true, all regions loaded will be flipped for use with a perspective where 0,0 is the upper left corner.
+     * @return a new TextureAtlasData loaded from the given files, with no Textures loaded yet
+     */
+    public static TextureAtlas.TextureAtlasData loadUnicodeAtlasData(FileHandle packFile, FileHandle imagesDir, boolean flip) {
+        return new TextureAtlas.TextureAtlasData(packFile, imagesDir, flip){
             private int readEntry (String[] entry, @Null String line) {
                 if (line == null) return 0;
                 line = line.trim();
@@ -1982,10 +2004,24 @@ public final class KnownFonts implements LifecycleListener {
 //                };
 //                getRegions().sort(comp);
             }
-        });
+        };
+    }
+
+    /**
+     * Loads a {@link PrecompiledAtlas} with the given name plus {@link PrecompiledAtlas#EXTENSION}, using the asset
+     * prefix and looking for an internal file first, then a local one.
+     * @param baseName the name of an atlas without its file extension, such as "Twemoji"
+     * @return the loaded PrecompiledAtlas, or null if there is no such file
+     */
+    private static PrecompiledAtlas loadPrecompiledAtlas(String baseName) {
+        FileHandle file = Gdx.files.internal(instance.prefix + baseName + PrecompiledAtlas.EXTENSION);
+        if (!file.exists() && Gdx.files.isLocalStorageAvailable())
+            file = Gdx.files.local(instance.prefix + baseName + PrecompiledAtlas.EXTENSION);
+        return file.exists() ? new PrecompiledAtlas(file) : null;
     }
 
     private TextureAtlas twemoji;
+    private PrecompiledAtlas twemojiPrecompiled;
 
     /**
      * Takes a Font and adds the Twemoji icon set to it, making the glyphs available using {@code [+name]} syntax.
@@ -2124,18 +2160,25 @@ public final class KnownFonts implements LifecycleListener {
      */
     public static Font addEmoji(Font changing, String prepend, String append, float offsetXChange, float offsetYChange, float xAdvanceChange) {
         initialize();
-        if (instance.twemoji == null) {
+        if (instance.twemoji == null && instance.twemojiPrecompiled == null) {
             try {
-                FileHandle atlas = Gdx.files.internal(instance.prefix + "Twemoji.atlas");
-                if (!atlas.exists() && Gdx.files.isLocalStorageAvailable()) atlas = Gdx.files.local(instance.prefix + "Twemoji.atlas");
-                if (Gdx.files.internal(instance.prefix + "Twemoji.png").exists())
-                    instance.twemoji = loadUnicodeAtlas(atlas, atlas.parent(), false);
-                else if (Gdx.files.isLocalStorageAvailable() && Gdx.files.local(instance.prefix + "Twemoji.png").exists())
-                    instance.twemoji = loadUnicodeAtlas(atlas, atlas.parent(), false);
+                instance.twemojiPrecompiled = loadPrecompiledAtlas("Twemoji");
+                if (instance.twemojiPrecompiled == null) {
+                    FileHandle atlas = Gdx.files.internal(instance.prefix + "Twemoji.atlas");
+                    if (!atlas.exists() && Gdx.files.isLocalStorageAvailable()) atlas = Gdx.files.local(instance.prefix + "Twemoji.atlas");
+                    if (Gdx.files.internal(instance.prefix + "Twemoji.png").exists())
+                        instance.twemoji = loadUnicodeAtlas(atlas, atlas.parent(), false);
+                    else if (Gdx.files.isLocalStorageAvailable() && Gdx.files.local(instance.prefix + "Twemoji.png").exists())
+                        instance.twemoji = loadUnicodeAtlas(atlas, atlas.parent(), false);
+                }
             } catch (Exception e) {
                 e.printStackTrace();
             }
         }
+        if (instance.twemojiPrecompiled != null) {
+            return changing.addAtlas(instance.twemojiPrecompiled, prepend, append,
+                    offsetXChange, offsetYChange, xAdvanceChange);
+        }
         if (instance.twemoji != null) {
             return changing.addAtlas(instance.twemoji, prepend, append,
                     offsetXChange, offsetYChange, xAdvanceChange);
@@ -2144,6 +2187,7 @@ public final class KnownFonts implements LifecycleListener {
     }
 
     private TextureAtlas openMoji;
+    private PrecompiledAtlas openMojiPrecompiled;
 
     /**
      * Takes a Font and adds the OpenMoji icon set to it, making the glyphs available using {@code [+name]} syntax.
@@ -2326,18 +2370,25 @@ public final class KnownFonts implements LifecycleListener {
     public static Font addOpenMoji(Font changing, boolean color, String prepend, String append, float offsetXChange, float offsetYChange, float xAdvanceChange) {
         initialize();
         String baseName = "OpenMoji-" + (color ? "color" : "white");
-        if (instance.openMoji == null) {
+        if (instance.openMoji == null && instance.openMojiPrecompiled == null) {
             try {
-                FileHandle atlas = Gdx.files.internal(instance.prefix + baseName + ".atlas");
-                if (!atlas.exists() && Gdx.files.isLocalStorageAvailable()) atlas = Gdx.files.local(instance.prefix + baseName + ".atlas");
-                if (Gdx.files.internal(instance.prefix + baseName + ".png").exists())
-                    instance.openMoji = loadUnicodeAtlas(atlas, atlas.parent(), false);
-                else if (Gdx.files.isLocalStorageAvailable() && Gdx.files.local(instance.prefix + baseName + ".png").exists())
-                    instance.openMoji = loadUnicodeAtlas(atlas, atlas.parent(), false);
+                instance.openMojiPrecompiled = loadPrecompiledAtlas(baseName);
+                if (instance.openMojiPrecompiled == null) {
+                    FileHandle atlas = Gdx.files.internal(instance.prefix + baseName + ".atlas");
+                    if (!atlas.exists() && Gdx.files.isLocalStorageAvailable()) atlas = Gdx.files.local(instance.prefix + baseName + ".atlas");
+                    if (Gdx.files.internal(instance.prefix + baseName + ".png").exists())
+                        instance.openMoji = loadUnicodeAtlas(atlas, atlas.parent(), false);
+                    else if (Gdx.files.isLocalStorageAvailable() && Gdx.files.local(instance.prefix + baseName + ".png").exists())
+                        instance.openMoji = loadUnicodeAtlas(atlas, atlas.parent(), false);
+                }
             } catch (Exception e) {
                 e.printStackTrace();
             }
         }
+        if (instance.openMojiPrecompiled != null) {
+            return changing.addAtlas(instance.openMojiPrecompiled, prepend, append,
+                    offsetXChange, offsetYChange, xAdvanceChange);
+        }
         if (instance.openMoji != null) {
             return changing.addAtlas(instance.openMoji, prepend, append,
                     offsetXChange, offsetYChange, xAdvanceChange);
@@ -2346,6 +2397,7 @@ public final class KnownFonts implements LifecycleListener {
     }
 
     private TextureAtlas gameIcons;
+    private PrecompiledAtlas gameIconsPrecompiled;
 
     /**
      * Takes a Font and adds the <a href="https://game-icons.net/">Game-Icons.net</a> icon set to it, making the glyphs
@@ -2477,18 +2529,25 @@ public final class KnownFonts implements LifecycleListener {
      */
     public static Font addGameIcons(Font changing, String prepend, String append, float offsetXChange, float offsetYChange, float xAdvanceChange) {
         initialize();
-        if (instance.gameIcons == null) {
+        if (instance.gameIcons == null && instance.gameIconsPrecompiled == null) {
             try {
-                FileHandle atlas = Gdx.files.internal(instance.prefix + "Game-Icons.atlas");
-                if (!atlas.exists() && Gdx.files.isLocalStorageAvailable()) atlas = Gdx.files.local(instance.prefix + "Game-Icons.atlas");
-                if (Gdx.files.internal(instance.prefix + "Game-Icons.png").exists())
-                    instance.gameIcons = new TextureAtlas(atlas, atlas.parent(), false);
-                else if (Gdx.files.isLocalStorageAvailable() && Gdx.files.local(instance.prefix + "Game-Icons.png").exists())
-                    instance.gameIcons = new TextureAtlas(atlas, atlas.parent(), false);
+                instance.gameIconsPrecompiled = loadPrecompiledAtlas("Game-Icons");
+                if (instance.gameIconsPrecompiled == null) {
+                    FileHandle atlas = Gdx.files.internal(instance.prefix + "Game-Icons.atlas");
+                    if (!atlas.exists() && Gdx.files.isLocalStorageAvailable()) atlas = Gdx.files.local(instance.prefix + "Game-Icons.atlas");
+                    if (Gdx.files.internal(instance.prefix + "Game-Icons.png").exists())
+                        instance.gameIcons = new TextureAtlas(atlas, atlas.parent(), false);
+                    else if (Gdx.files.isLocalStorageAvailable() && Gdx.files.local(instance.prefix + "Game-Icons.png").exists())
+                        instance.gameIcons = new TextureAtlas(atlas, atlas.parent(), false);
+                }
             } catch (Exception e) {
                 e.printStackTrace();
             }
         }
+        if (instance.gameIconsPrecompiled != null) {
+            return changing.addAtlas(instance.gameIconsPrecompiled, prepend, append,
+                    offsetXChange - 20f, offsetYChange, xAdvanceChange);
+        }
         if (instance.gameIcons != null) {
             return changing.addAtlas(instance.gameIcons, prepend, append,
                     offsetXChange - 20f, offsetYChange, xAdvanceChange);
@@ -2539,6 +2598,374 @@ public final class KnownFonts implements LifecycleListener {
         throw new RuntimeException("Assets for getGameIconsFont() not found.");
     }
 
+    //// registry section
+
+    /**
+     * Tracks how many times a Font has been acquired with {@link #acquire(String)} and not released, plus how much
+     * memory it is estimated to use. Entries are kept in least-recently-acquired-first order.
+     */
+    private static final class RegistryEntry {
+        int references;
+        final long textureBytes, heapBytes;
+
+        RegistryEntry(long textureBytes, long heapBytes) {
+            this.textureBytes = textureBytes;
+            this.heapBytes = heapBytes;
+        }
+    }
+
+    private final OrderedMap<String, RegistryEntry> registry = new OrderedMap<>();
+    private long memoryBudget = Long.MAX_VALUE;
+    private long registryTextureBytes = 0L, registryHeapBytes = 0L;
+
+    /**
+     * Gets a copy of the known Font with the given name, like calling its getXyz() method, but also counts a reference
+     * to it so the cached Font can be unloaded once nothing uses it. The name is the one the Font is given here, such
+     * as {@code "Gentium"} or {@code "Iosevka Slab (SDF)"}, and is also what {@link Font#getName()} returns for it.
+     * Each call to this should be matched by one call to {@link #release(String)} with the same name, once the
+     * returned Font (and anything copied from it) won't be used anymore.
+     * <br>
+     * When the estimated memory used by KnownFonts goes over the budget set with {@link #setMemoryBudget(long)},
+     * Fonts with no references are unloaded, least-recently-acquired first, until usage is under budget again.
+     * Unloading disposes the Font's texture pages, so any Font that still uses them will stop drawing correctly.
+     * Because Fonts from the getXyz() method of the same name (or from {@link #getGameIconsFont(float, float)}, for
+     * {@code "A Starry"}) share those texture pages, you should only use this or those methods for any one Font.
+     *
+     * @param name the name of a known Font, such as {@code "Gentium"} or {@code "Iosevka Slab (SDF)"}
+     * @return a new copy of the named Font
+     * @throws IllegalArgumentException if no known Font has the given name
+     */
+    public static Font acquire(String name) {
+        initialize();
+        Font font = load(name);
+        RegistryEntry entry = instance.registry.remove(name);
+        if (entry == null) {
+            entry = new RegistryEntry(estimateTextureMemory(font), estimateHeapMemory(font));
+            instance.registryTextureBytes += entry.textureBytes;
+            instance.registryHeapBytes += entry.heapBytes;
+        }
+        entry.references++;
+        // putting it back moves it to the most-recently-acquired end
+        instance.registry.put(name, entry);
+        instance.trim();
+        return font;
+    }
+
+    /**
+     * Removes one reference to the known Font with the given name, which must have been acquired with
+     * {@link #acquire(String)}. When a Font has no more references, it stays loaded (so acquiring it again is fast),
+     * but it can be unloaded if KnownFonts goes over its memory budget.
+     *
+     * @param name the name of a Font previously given to {@link #acquire(String)}
+     * @throws IllegalStateException if the Font with the given name has no references
+     */
+    public static void release(String name) {
+        initialize();
+        RegistryEntry entry = instance.registry.get(name);
+        if (entry == null || entry.references == 0)
+            throw new IllegalStateException("The Font '" + name + "' has not been acquired.");
+        if (--entry.references == 0)
+            instance.trim();
+    }
+
+    /**
+     * Sets the number of bytes that Fonts and atlases held by KnownFonts should use, as estimated by
+     * {@link #getMemoryUsage()}. If usage is over the budget, Fonts that were acquired with {@link #acquire(String)}
+     * and have since been released are unloaded until it isn't, or until only Fonts that are in use remain. The
+     * default budget is {@link Long#MAX_VALUE}, which never unloads anything.
+     *
+     * @param bytes the memory budget in bytes; must be non-negative
+     */
+    public static void setMemoryBudget(long bytes) {
+        initialize();
+        if (bytes < 0L)
+            throw new IllegalArgumentException("The memory budget must be non-negative.");
+        instance.memoryBudget = bytes;
+        instance.trim();
+    }
+
+    /**
+     * Gets the memory budget in bytes set by {@link #setMemoryBudget(long)}; the default is {@link Long#MAX_VALUE}.
+     *
+     * @return the memory budget in bytes
+     */
+    public static long getMemoryBudget() {
+        initialize();
+        return instance.memoryBudget;
+    }
+
+    /**
+     * Gets the estimated number of bytes used by all Fonts loaded with {@link #acquire(String)}, whether or not they
+     * have references, plus the emoji and icon atlases loaded by methods like {@link #addEmoji(Font)}. This is the
+     * sum of {@link #getTextureMemoryUsage()} and {@link #getHeapMemoryUsage()}.
+     *
+     * @return the estimated memory usage in bytes
+     */
+    public static long getMemoryUsage() {
+        return getTextureMemoryUsage() + getHeapMemoryUsage();
+    }
+
+    /**
+     * Gets the estimated number of bytes of texture memory (usually on the GPU) used by all Fonts loaded with
+     * {@link #acquire(String)}, plus the emoji and icon atlases loaded by methods like {@link #addEmoji(Font)}.
+     *
+     * @return the estimated texture memory usage in bytes
+     */
+    public static long getTextureMemoryUsage() {
+        initialize();
+        return instance.registryTextureBytes + estimateTextureMemory(instance.twemoji)
+                + estimateTextureMemory(instance.openMoji) + estimateTextureMemory(instance.gameIcons)
+                + estimateTextureMemory(instance.twemojiPrecompiled) + estimateTextureMemory(instance.openMojiPrecompiled)
+                + estimateTextureMemory(instance.gameIconsPrecompiled);
+    }
+
+    /**
+     * Gets the estimated number of bytes of heap memory used for the glyph tables of all Fonts loaded with
+     * {@link #acquire(String)}. This doesn't include copies returned to callers, which each have their own tables.
+     *
+     * @return the estimated heap memory usage in bytes
+     */
+    public static long getHeapMemoryUsage() {
+        initialize();
+        return instance.registryHeapBytes;
+    }
+
+    /**
+     * Gets how many references are held to the Font with the given name by {@link #acquire(String)}, or -1 if it
+     * isn't currently loaded through acquire().
+     *
+     * @param name the name of a known Font, such as {@code "Gentium"}
+     * @return how many references are held to the named Font, or -1 if it isn't loaded
+     */
+    public static int getReferenceCount(String name) {
+        initialize();
+        RegistryEntry entry = instance.registry.get(name);
+        return entry == null ? -1 : entry.references;
+    }
+
+    /**
+     * Estimates how many bytes of texture memory the pages used by the given Font take up. Each texture is only
+     * counted once, even if it is used by several pages.
+     *
+     * @param font a Font, which may be null
+     * @return an estimate of the texture memory used by font, in bytes
+     */
+    public static long estimateTextureMemory(Font font) {
+        if (font == null) return 0L;
+        ObjectSet<Texture> counted = new ObjectSet<>(font.parents.size);
+        long bytes = 0L;
+        for (int i = 0; i < font.parents.size; i++) {
+            Texture texture = font.parents.get(i).getTexture();
+            if (counted.add(texture))
+                bytes += estimateTextureMemory(texture);
+        }
+        return bytes;
+    }
+
+    /**
+     * Estimates how many bytes of texture memory the pages of the given TextureAtlas take up.
+     *
+     * @param atlas a TextureAtlas, which may be null
+     * @return an estimate of the texture memory used by atlas, in bytes
+     */
+    public static long estimateTextureMemory(TextureAtlas atlas) {
+        if (atlas == null) return 0L;
+        long bytes = 0L;
+        for (Texture texture : atlas.getTextures()) {
+            bytes += estimateTextureMemory(texture);
+        }
+        return bytes;
+    }
+
+    /**
+     * Estimates how many bytes of texture memory the pages of the given PrecompiledAtlas take up.
+     *
+     * @param atlas a PrecompiledAtlas, which may be null
+     * @return an estimate of the texture memory used by atlas, in bytes
+     */
+    public static long estimateTextureMemory(PrecompiledAtlas atlas) {
+        if (atlas == null) return 0L;
+        long bytes = 0L;
+        for (Texture texture : atlas.getTextures()) {
+            bytes += estimateTextureMemory(texture);
+        }
+        return bytes;
+    }
+
+    private static long estimateTextureMemory(Texture texture) {
+        int bytesPerPixel = 4;
+        boolean mipMaps = false;
+        TextureData data = texture.getTextureData();
+        if (data != null) {
+            mipMaps = data.useMipMaps();
+            Pixmap.Format format = data.getFormat();
+            if (format == Pixmap.Format.Alpha || format == Pixmap.Format.Intensity)
+                bytesPerPixel = 1;
+            else if (format == Pixmap.Format.LuminanceAlpha || format == Pixmap.Format.RGB565
+                    || format == Pixmap.Format.RGBA4444)
+                bytesPerPixel = 2;
+            else if (format == Pixmap.Format.RGB888)
+                bytesPerPixel = 3;
+        }
+        long bytes = (long) texture.getWidth() * texture.getHeight() * bytesPerPixel;
+        // a full chain of mipmaps adds about a third more
+        return mipMaps ? bytes + bytes / 3 : bytes;
+    }
+
+    /**
+     * Estimates how many bytes of heap memory the glyph tables of the given Font take up, including its glyphs,
+     * kerning pairs, and any names for its glyphs. This is only an approximation, and doesn't include the Font itself
+     * or anything it shares with other Fonts, such as textures or a FontFamily.
+     *
+     * @param font a Font, which may be null
+     * @return an estimate of the heap memory used by font's glyph tables, in bytes
+     */
+    public static long estimateHeapMemory(Font font) {
+        if (font == null) return 0L;
+        long bytes = 0L;
+        if (font.mapping instanceof LazyGlyphMap)
+            bytes += ((LazyGlyphMap) font.mapping).estimateMemory(); // every row, not just created glyphs
+        else
+            bytes += 88L * font.mapping.size; // a GlyphRegion and a map slot per glyph
+        if (font.kerning != null)
+            bytes += 12L * font.kerning.size;
+        if (font.nameLookup != null)
+            bytes += 64L * font.nameLookup.size;
+        if (font.namesByCharCode != null)
+            bytes += 16L * font.namesByCharCode.size;
+        return bytes;
+    }
+
+    /**
+     * Unloads released Fonts from the registry, least-recently-acquired first, until memory usage is within budget.
+     */
+    private void trim() {
+        if (memoryBudget == Long.MAX_VALUE) return;
+        long usage = getMemoryUsage();
+        Array<String> names = registry.orderedKeys();
+        for (int i = 0; i < names.size && usage > memoryBudget; ) {
+            String name = names.get(i);
+            RegistryEntry entry = registry.get(name);
+            if (entry.references > 0) {
+                i++;
+                continue;
+            }
+            unload(name);
+            registry.removeIndex(i);
+            registryTextureBytes -= entry.textureBytes;
+            registryHeapBytes -= entry.heapBytes;
+            usage -= entry.textureBytes + entry.heapBytes;
+        }
+    }
+
+    /**
+     * Calls the getXyz() method for the Font with the given name.
+     */
+    private static Font load(String name) {
+        if (name == null)
+            throw new IllegalArgumentException("The name of a Font to acquire cannot be null.");
+        switch (name) {
+            case "A Starry": return getAStarry();
+            case "A Starry (MSDF)": return getAStarryMSDF();
+            case "Bitter": return getBitter();
+            case "Canada1500": return getCanada();
+            case "Cascadia Mono": return getCascadiaMono();
+            case "Cascadia Mono (MSDF)": return getCascadiaMonoMSDF();
+            case "Caveat": return getCaveat();
+            case "Cozette": return getCozette();
+            case "DejaVu Sans Mono (MSDF)": return getDejaVuSansMono();
+            case "Gentium": return getGentium();
+            case "Gentium (MSDF)": return getGentiumMSDF();
+            case "Gentium (SDF)": return getGentiumSDF();
+            case "Gentium Un-Italic": return getGentiumUnItalic();
+            case "Go Noto Universal": return getGoNotoUniversal();
+            case "Go Noto Universal (SDF)": return getGoNotoUniversalSDF();
+            case "Hanazono": return getHanazono();
+            case "IBM 8x16": return getIBM8x16();
+            case "Inconsolata LGC": return getInconsolata();
+            case "Inconsolata LGC (MSDF)": return getInconsolataMSDF();
+            case "Iosevka": return getIosevka();
+            case "Iosevka (MSDF)": return getIosevkaMSDF();
+            case "Iosevka (SDF)": return getIosevkaSDF();
+            case "Iosevka Slab": return getIosevkaSlab();
+            case "Iosevka Slab (MSDF)": return getIosevkaSlabMSDF();
+            case "Iosevka Slab (SDF)": return getIosevkaSlabSDF();
+            case "Kingthings Foundation": return getKingthingsFoundation();
+            case "Kingthings Petrock": return getKingthingsPetrock();
+            case "LanaPixel": return getLanaPixel();
+            case "Libertinus Serif": return getLibertinusSerif();
+            case "Now Alt": return getNowAlt();
+            case "OpenSans": return getOpenSans();
+            case "Oxanium": return getOxanium();
+            case "QuanPixel": return getQuanPixel();
+            case "Roboto Condensed": return getRobotoCondensed();
+            case "Tangerine": return getTangerine();
+            case "Tangerine (SDF)": return getTangerineSDF();
+            case "Yanone Kaffeesatz": return getYanoneKaffeesatz();
+            case "Yanone Kaffeesatz (MSDF)": return getYanoneKaffeesatzMSDF();
+            case "Yataghan (MSDF)": return getYataghanMSDF();
+        }
+        throw new IllegalArgumentException("No known Font has the name '" + name + "'.");
+    }
+
+    /**
+     * Disposes the cached Font with the given name, including its texture pages, and forgets it so the next request
+     * for it loads it again.
+     */
+    private void unload(String name) {
+        Font font;
+        switch (name) {
+            case "A Starry": font = astarry; astarry = null; break;
+            case "A Starry (MSDF)": font = astarryMSDF; astarryMSDF = null; break;
+            case "Bitter": font = bitter; bitter = null; break;
+            case "Canada1500": font = canada; canada = null; break;
+            case "Cascadia Mono": font = cascadiaMono; cascadiaMono = null; break;
+            case "Cascadia Mono (MSDF)": font = cascadiaMonoMSDF; cascadiaMonoMSDF = null; break;
+            case "Caveat": font = caveat; caveat = null; break;
+            case "Cozette": font = cozette; cozette = null; break;
+            case "DejaVu Sans Mono (MSDF)": font = dejaVuSansMono; dejaVuSansMono = null; break;
+            case "Gentium": font = gentium; gentium = null; break;
+            case "Gentium (MSDF)": font = gentiumMSDF; gentiumMSDF = null; break;
+            case "Gentium (SDF)": font = gentiumSDF; gentiumSDF = null; break;
+            case "Gentium Un-Italic": font = gentiumUnItalic; gentiumUnItalic = null; break;
+            case "Go Noto Universal": font = goNotoUniversal; goNotoUniversal = null; break;
+            case "Go Noto Universal (SDF)": font = goNotoUniversalSDF; goNotoUniversalSDF = null; break;
+            case "Hanazono": font = hanazono; hanazono = null; break;
+            case "IBM 8x16": font = ibm8x16; ibm8x16 = null; break;
+            case "Inconsolata LGC": font = inconsolata; inconsolata = null; break;
+            case "Inconsolata LGC (MSDF)": font = inconsolataMSDF; inconsolataMSDF = null; break;
+            case "Iosevka": font = iosevka; iosevka = null; break;
+            case "Iosevka (MSDF)": font = iosevkaMSDF; iosevkaMSDF = null; break;
+            case "Iosevka (SDF)": font = iosevkaSDF; iosevkaSDF = null; break;
+            case "Iosevka Slab": font = iosevkaSlab; iosevkaSlab = null; break;
+            case "Iosevka Slab (MSDF)": font = iosevkaSlabMSDF; iosevkaSlabMSDF = null; break;
+            case "Iosevka Slab (SDF)": font = iosevkaSlabSDF; iosevkaSlabSDF = null; break;
+            case "Kingthings Foundation": font = kingthingsFoundation; kingthingsFoundation = null; break;
+            case "Kingthings Petrock": font = kingthingsPetrock; kingthingsPetrock = null; break;
+            case "LanaPixel": font = lanaPixel; lanaPixel = null; break;
+            case "Libertinus Serif": font = libertinusSerif; libertinusSerif = null; break;
+            case "Now Alt": font = nowAlt; nowAlt = null; break;
+            case "OpenSans": font = openSans; openSans = null; break;
+            case "Oxanium": font = oxanium; oxanium = null; break;
+            case "QuanPixel": font = quanPixel; quanPixel = null; break;
+            case "Roboto Condensed": font = robotoCondensed; robotoCondensed = null; break;
+            case "Tangerine": font = tangerine; tangerine = null; break;
+            case "Tangerine (SDF)": font = tangerineSDF; tangerineSDF = null; break;
+            case "Yanone Kaffeesatz": font = kaffeesatz; kaffeesatz = null; break;
+            case "Yanone Kaffeesatz (MSDF)": font = kaffeesatzMSDF; kaffeesatzMSDF = null; break;
+            case "Yataghan (MSDF)": font = yataghanMSDF; yataghanMSDF = null; break;
+            default: return;
+        }
+        if (font == null) return;
+        ObjectSet<Texture> disposed = new ObjectSet<>(font.parents.size);
+        for (int i = 0; i < font.parents.size; i++) {
+            Texture texture = font.parents.get(i).getTexture();
+            if (disposed.add(texture))
+                texture.dispose();
+        }
+        font.dispose();
+    }
+
     @Override
     public void pause() {
 
@@ -2817,5 +3244,20 @@ public final class KnownFonts implements LifecycleListener {
             openMoji.dispose();
             openMoji = null;
         }
+        if(twemojiPrecompiled != null) {
+            twemojiPrecompiled.dispose();
+            twemojiPrecompiled = null;
+        }
+        if(gameIconsPrecompiled != null) {
+            gameIconsPrecompiled.dispose();
+            gameIconsPrecompiled = null;
+        }
+        if(openMojiPrecompiled != null) {
+            openMojiPrecompiled.dispose();
+            openMojiPrecompiled = null;
+        }
+        registry.clear();
+        registryTextureBytes = 0L;
+        registryHeapBytes = 0L;
     }
 }
\ No newline at end of file
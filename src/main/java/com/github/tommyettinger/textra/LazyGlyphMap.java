@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2023 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.tommyettinger.textra;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.Null;
+
+import java.util.Arrays;
+
+/**
+ * An IntMap of {@link Font.GlyphRegion}s that only creates each GlyphRegion the first time it is looked up. Until
+ * then, a glyph is just a row in a few primitive arrays, sorted by char code, holding its page, the edges of its region
+ * in pixels, its offsets, and its advance. This is used by {@link Font#mapping} for fonts with at least
+ * {@link Font#LAZY_GLYPH_THRESHOLD} glyphs, where most glyphs are never shown by any one program.
+ * <br>
+ * Looking up, adding, or removing a single glyph works as with any IntMap, except that the previous value returned
+ * by {@link #put(int, Font.GlyphRegion)} or {@link #remove(int)} is null if that glyph was never created. Iterating
+ * over the map (including with {@link #entries()}, {@link #values()}, or {@link #keys()}) first creates every glyph
+ * that hasn't been created yet, so the iteration sees everything. Until then, {@link #size} only counts glyphs that
+ * have been created.
+ */
+final class LazyGlyphMap extends IntMap<Font.GlyphRegion> implements Font.GlyphMapping {
+    private final TextureRegion[] pages;
+    private final TextureRegion extraPage;
+    private final int count;
+    private final int[] codes;
+    private final short[] pageIndices;
+    private final float[] lefts, tops, rights, bottoms, offsetXs, offsetYs, advances;
+    /**
+     * One bit per row; a set bit means that glyph has already been created, replaced, or removed.
+     */
+    private final long[] used;
+    private int remaining;
+
+    private LazyGlyphMap(TextureRegion[] pages, @Null TextureRegion extraPage, int count, int[] codes,
+                         short[] pageIndices, float[] lefts, float[] tops, float[] rights, float[] bottoms,
+                         float[] offsetXs, float[] offsetYs, float[] advances) {
+        super(Math.min(count, 64));
+        this.pages = pages;
+        this.extraPage = extraPage;
+        this.count = count;
+        this.codes = codes;
+        this.pageIndices = pageIndices;
+        this.lefts = lefts;
+        this.tops = tops;
+        this.rights = rights;
+        this.bottoms = bottoms;
+        this.offsetXs = offsetXs;
+        this.offsetYs = offsetYs;
+        this.advances = advances;
+        this.used = new long[count + 63 >>> 6];
+        this.remaining = count;
+    }
+
+    /**
+     * Copies another LazyGlyphMap, sharing its (never-modified) primitive arrays and copying any GlyphRegions it has
+     * already created.
+     *
+     * @param other another LazyGlyphMap to copy
+     */
+    LazyGlyphMap(LazyGlyphMap other) {
+        this(other.pages, other.extraPage, other.count, other.codes, other.pageIndices, other.lefts, other.tops,
+                other.rights, other.bottoms, other.offsetXs, other.offsetYs, other.advances);
+        System.arraycopy(other.used, 0, used, 0, used.length);
+        remaining = other.remaining;
+        for (Entry<Font.GlyphRegion> e : other.createdEntries()) {
+            super.put(e.key, e.value == null ? null : new Font.GlyphRegion(e.value));
+        }
+    }
+
+    /**
+     * Estimates the heap memory this uses, in bytes: the packed arrays for every row, whether or not its glyph has
+     * been created, plus a GlyphRegion and a map slot for each glyph that has been created.
+     *
+     * @return an estimate of the heap memory used by this, in bytes
+     */
+    long estimateMemory() {
+        // per row: a code, a page index, and 7 floats, plus one bit in used
+        return 34L * count + 8L * used.length + 88L * size;
+    }
+
+    @Override
+    public IntMap<Font.GlyphRegion> copyFor(Font font) {
+        return new LazyGlyphMap(this);
+    }
+
+    /**
+     * Gathers glyph rows, then sorts them into a LazyGlyphMap. If a char code is added more than once, the last row
+     * added for it wins, as it would with {@link IntMap#put(int, Object)}.
+     */
+    static class Builder {
+        private final TextureRegion[] pages;
+        private TextureRegion extraPage;
+        private int size;
+        private int[] codes;
+        private short[] pageIndices;
+        private float[] lefts, tops, rights, bottoms, offsetXs, offsetYs, advances;
+
+        /**
+         * @param pages the texture pages glyphs will refer to by index
+         * @param capacity how many rows to expect; more can be added
+         */
+        Builder(TextureRegion[] pages, int capacity) {
+            this.pages = pages;
+            capacity = Math.max(capacity, 16);
+            codes = new int[capacity];
+            pageIndices = new short[capacity];
+            lefts = new float[capacity];
+            tops = new float[capacity];
+            rights = new float[capacity];
+            bottoms = new float[capacity];
+            offsetXs = new float[capacity];
+            offsetYs = new float[capacity];
+            advances = new float[capacity];
+        }
+
+        /**
+         * Sets the region used by glyphs with a page index of -1, such as a Font's {@link Font#whiteBlock}.
+         */
+        Builder extraPage(TextureRegion extraPage) {
+            this.extraPage = extraPage;
+            return this;
+        }
+
+        /**
+         * Adds a glyph row. The edges are in pixels from the corner of the page's region, and are exactly what would
+         * be given to {@link TextureRegion#setRegion(float, float, float, float)} (after dividing by the texture size),
+         * so a 1x1 region has whole-pixel edges and gets the usual quarter-pixel inset when it is created.
+         */
+        void add(int code, int page, float left, float top, float right, float bottom,
+                 float offsetX, float offsetY, float xAdvance) {
+            if (size == codes.length) {
+                int cap = size + (size >>> 1) + 8;
+                codes = Arrays.copyOf(codes, cap);
+                pageIndices = Arrays.copyOf(pageIndices, cap);
+                lefts = Arrays.copyOf(lefts, cap);
+                tops = Arrays.copyOf(tops, cap);
+                rights = Arrays.copyOf(rights, cap);
+                bottoms = Arrays.copyOf(bottoms, cap);
+                offsetXs = Arrays.copyOf(offsetXs, cap);
+                offsetYs = Arrays.copyOf(offsetYs, cap);
+                advances = Arrays.copyOf(advances, cap);
+            }
+            codes[size] = code;
+            pageIndices[size] = (short) page;
+            lefts[size] = left;
+            tops[size] = top;
+            rights[size] = right;
+            bottoms[size] = bottom;
+            offsetXs[size] = offsetX;
+            offsetYs[size] = offsetY;
+            advances[size] = xAdvance;
+            size++;
+        }
+
+        LazyGlyphMap build() {
+            // sort by code, then by insertion order, and keep only the last row for each code
+            long[] order = new long[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = (long) codes[i] << 32 | i;
+            }
+            Arrays.sort(order);
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (i + 1 < size && (int) (order[i + 1] >>> 32) == (int) (order[i] >>> 32)) continue;
+                order[n++] = order[i];
+            }
+            int[] c = new int[n];
+            short[] p = new short[n];
+            float[] l = new float[n], t = new float[n], r = new float[n], b = new float[n],
+                    ox = new float[n], oy = new float[n], a = new float[n];
+            for (int i = 0; i < n; i++) {
+                int from = (int) order[i];
+                c[i] = codes[from];
+                p[i] = pageIndices[from];
+                l[i] = lefts[from];
+                t[i] = tops[from];
+                r[i] = rights[from];
+                b[i] = bottoms[from];
+                ox[i] = offsetXs[from];
+                oy[i] = offsetYs[from];
+                a[i] = advances[from];
+            }
+            return new LazyGlyphMap(pages, extraPage, n, c, p, l, t, r, b, ox, oy, a);
+        }
+    }
+
+    private int row(int key) {
+        int row = Arrays.binarySearch(codes, 0, count, key);
+        if (row < 0 || (used[row >>> 6] & 1L << row) != 0L) return -1;
+        return row;
+    }
+
+    private void markUsed(int row) {
+        used[row >>> 6] |= 1L << row;
+        remaining--;
+    }
+
+    private Font.GlyphRegion create(int row) {
+        markUsed(row);
+        TextureRegion parent = pageIndices[row] < 0 ? extraPage : pages[pageIndices[row]];
+        Texture texture = parent.getTexture();
+        Font.GlyphRegion gr = new Font.GlyphRegion(parent, offsetXs[row], offsetYs[row], advances[row]);
+        // this matches TextureRegion.setRegion(int, int, int, int) exactly when the edges are whole pixels
+        final float invWidth = 1f / texture.getWidth(), invHeight = 1f / texture.getHeight();
+        final float px = parent.getRegionX(), py = parent.getRegionY();
+        gr.setRegion((px + lefts[row]) * invWidth, (py + tops[row]) * invHeight,
+                (px + rights[row]) * invWidth, (py + bottoms[row]) * invHeight);
+        super.put(codes[row], gr);
+        return gr;
+    }
+
+    private void createAll() {
+        if (remaining == 0) return;
+        for (int row = 0; row < count; row++) {
+            if ((used[row >>> 6] & 1L << row) == 0L) create(row);
+        }
+    }
+
+    private Entries<Font.GlyphRegion> createdEntries() {
+        return super.entries();
+    }
+
+    @Override
+    public Font.GlyphRegion get(int key) {
+        Font.GlyphRegion gr = super.get(key);
+        if (gr != null || remaining == 0) return gr;
+        int row = row(key);
+        return row < 0 ? null : create(row);
+    }
+
+    @Override
+    public Font.GlyphRegion get(int key, @Null Font.GlyphRegion defaultValue) {
+        Font.GlyphRegion gr = get(key);
+        return gr == null && !super.containsKey(key) ? defaultValue : gr;
+    }
+
+    @Override
+    public boolean containsKey(int key) {
+        return super.containsKey(key) || (remaining != 0 && row(key) >= 0);
+    }
+
+    /**
+     * Replacing a glyph that hasn't been created yet doesn't create it, so this returns null in that case.
+     */
+    @Override
+    public Font.GlyphRegion put(int key, Font.GlyphRegion value) {
+        if (remaining != 0) {
+            int row = row(key);
+            if (row >= 0) markUsed(row);
+        }
+        return super.put(key, value);
+    }
+
+    /**
+     * Removing a glyph that hasn't been created yet doesn't create it, so this returns null in that case.
+     */
+    @Override
+    public Font.GlyphRegion remove(int key) {
+        if (remaining != 0) {
+            int row = row(key);
+            if (row >= 0) markUsed(row);
+        }
+        return super.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(used, -1L);
+        remaining = 0;
+        super.clear();
+    }
+
+    @Override
+    public void clear(int maximumCapacity) {
+        Arrays.fill(used, -1L);
+        remaining = 0;
+        super.clear(maximumCapacity);
+    }
+
+    @Override
+    public boolean containsValue(@Null Object value, boolean identity) {
+        createAll();
+        return super.containsValue(value, identity);
+    }
+
+    @Override
+    public int findKey(@Null Object value, boolean identity, int notFound) {
+        createAll();
+        return super.findKey(value, identity, notFound);
+    }
+
+    @Override
+    public Entries<Font.GlyphRegion> entries() {
+        createAll();
+        return super.entries();
+    }
+
+    @Override
+    public Values<Font.GlyphRegion> values() {
+        createAll();
+        return super.values();
+    }
+
+    @Override
+    public Keys keys() {
+        createAll();
+        return super.keys();
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2024 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.tommyettinger.textra;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongArray;
+
+/**
+ * A {@link TextraLabel} for numbers that change often, like scores, timers, FPS readouts, or resource counts. It is
+ * made from a markup template where each {@code {#}} is a slot for a number, such as
+ * {@code "[GOLD]Gold:[] {#}  [SKY]Mana:[] {#}/{#}"}. The template is marked up once; after that, setting a slot's value
+ * with {@link #setInt(int, int)}, {@link #setLong(int, long)}, or {@link #setFloat(int, float, int)} writes its digits
+ * straight into the existing glyphs, using the color and style the template gave that slot, and only measures the
+ * glyphs around that slot to update the line's width. Setting a value doesn't allocate anything, and setting the value
+ * a slot already shows does nothing at all.
+ * <br>
+ * Each slot starts out showing 0. Wrapping is not supported; lines only break where the template has line breaks.
+ * Calling {@link #setText(String)} replaces the template, and with it, all slots.
+ */
+public class NumberLabel extends TextraLabel {
+    /**
+     * What each {@code {#}} is replaced with before marking up a template, so the slot's glyph can be found in the
+     * layout afterwards with whatever color and style the markup gave it.
+     */
+    private static final char SLOT = '\u001F';
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L
+    };
+
+    /**
+     * The index of each slot's first glyph, counting glyphs across all lines.
+     */
+    private final IntArray slotStarts = new IntArray();
+    /**
+     * How many glyphs each slot currently uses.
+     */
+    private final IntArray slotLengths = new IntArray();
+    /**
+     * The color and style bits of each slot's glyphs, without a char.
+     */
+    private final LongArray slotTemplates = new LongArray();
+    private final char[] digits = new char[48];
+    private final Line span = new Line();
+    private final FloatArray spanAdvances = new FloatArray();
+
+    /**
+     * Creates a NumberLabel with the given template, using the default LabelStyle from the given Skin.
+     *
+     * @param template markup where each {@code {#}} is a slot for a number
+     * @param skin a Skin with a default LabelStyle
+     */
+    public NumberLabel(String template, Skin skin) {
+        super(prepare(template), skin);
+        findSlots(template);
+    }
+
+    /**
+     * Creates a NumberLabel with the given template, using the LabelStyle with the given name from the given Skin.
+     *
+     * @param template markup where each {@code {#}} is a slot for a number
+     * @param skin a Skin with a LabelStyle named styleName
+     * @param styleName the name of a LabelStyle in skin
+     */
+    public NumberLabel(String template, Skin skin, String styleName) {
+        super(prepare(template), skin, styleName);
+        findSlots(template);
+    }
+
+    /**
+     * Creates a NumberLabel with the given template and LabelStyle.
+     *
+     * @param template markup where each {@code {#}} is a slot for a number
+     * @param style the LabelStyle to use
+     */
+    public NumberLabel(String template, Styles.LabelStyle style) {
+        super(prepare(template), style);
+        findSlots(template);
+    }
+
+    /**
+     * Creates a NumberLabel with the given template, using the given Font.
+     *
+     * @param template markup where each {@code {#}} is a slot for a number
+     * @param font a Font from this library
+     */
+    public NumberLabel(String template, Font font) {
+        super(prepare(template), font);
+        findSlots(template);
+    }
+
+    /**
+     * Creates a NumberLabel with the given template, using the given Font and default color.
+     *
+     * @param template markup where each {@code {#}} is a slot for a number
+     * @param font a Font from this library
+     * @param color the color to use for the font when unspecified (at the start and when reset)
+     */
+    public NumberLabel(String template, Font font, Color color) {
+        super(prepare(template), font, color);
+        findSlots(template);
+    }
+
+    private static String prepare(String template) {
+        return template.replace("{#}", String.valueOf(SLOT));
+    }
+
+    /**
+     * Finds the glyph that markup made for each slot, remembers its color and style, and makes it show 0.
+     */
+    private void findSlots(String template) {
+        storedText = template;
+        slotStarts.clear();
+        slotLengths.clear();
+        slotTemplates.clear();
+        int index = 0;
+        for (int ln = 0, lines = layout.lines(); ln < lines; ln++) {
+            LongArray glyphs = layout.getLine(ln).glyphs;
+            for (int i = 0; i < glyphs.size; i++, index++) {
+                long glyph = glyphs.get(i);
+                if ((char) glyph == SLOT) {
+                    slotStarts.add(index);
+                    slotLengths.add(1);
+                    slotTemplates.add(glyph & 0xFFFFFFFFFFFF0000L);
+                    glyphs.set(i, (glyph & 0xFFFFFFFFFFFF0000L) | '0');
+                }
+            }
+        }
+        font.calculateSize(layout);
+    }
+
+    /**
+     * Replaces the template with new markup, where each {@code {#}} is a slot for a number. Every slot will show 0.
+     *
+     * @param template markup where each {@code {#}} is a slot for a number
+     */
+    @Override
+    public void setText(String template) {
+        super.setText(prepare(template));
+        findSlots(template);
+    }
+
+    /**
+     * @return how many slots for numbers the template has
+     */
+    public int getSlotCount() {
+        return slotStarts.size;
+    }
+
+    /**
+     * Shows {@code value} in the given slot.
+     *
+     * @param slot which slot to change, from 0 to {@link #getSlotCount()} - 1
+     * @param value the number to show
+     */
+    public void setInt(int slot, int value) {
+        setLong(slot, value, 1);
+    }
+
+    /**
+     * Shows {@code value} in the given slot, using at least {@code minDigits} digits by adding zeros to the left if
+     * needed, as timers often do.
+     *
+     * @param slot which slot to change, from 0 to {@link #getSlotCount()} - 1
+     * @param value the number to show
+     * @param minDigits the fewest digits to show, not counting a minus sign
+     */
+    public void setInt(int slot, int value, int minDigits) {
+        setLong(slot, value, minDigits);
+    }
+
+    /**
+     * Shows {@code value} in the given slot.
+     *
+     * @param slot which slot to change, from 0 to {@link #getSlotCount()} - 1
+     * @param value the number to show
+     */
+    public void setLong(int slot, long value) {
+        setLong(slot, value, 1);
+    }
+
+    /**
+     * Shows {@code value} in the given slot, using at least {@code minDigits} digits by adding zeros to the left if
+     * needed, as timers often do.
+     *
+     * @param slot which slot to change, from 0 to {@link #getSlotCount()} - 1
+     * @param value the number to show
+     * @param minDigits the fewest digits to show, not counting a minus sign
+     */
+    public void setLong(int slot, long value, int minDigits) {
+        int end = digits.length;
+        int start = writeDigits(value, minDigits, end);
+        if (value < 0) digits[--start] = '-';
+        showDigits(slot, start, end);
+    }
+
+    /**
+     * Shows {@code value} in the given slot, rounded to {@code decimals} digits after the decimal point (from 0 to 9).
+     * Values too large to be shown that way are shown like {@link Float#toString(float)} would, which allocates.
+     *
+     * @param slot which slot to change, from 0 to {@link #getSlotCount()} - 1
+     * @param value the number to show
+     * @param decimals how many digits to show after the decimal point, from 0 to 9
+     */
+    public void setFloat(int slot, float value, int decimals) {
+        decimals = Math.max(0, Math.min(decimals, 9));
+        int end = digits.length, start;
+        if (value != value) {
+            start = writeChars("NaN", end);
+        } else if (Float.isInfinite(value)) {
+            start = writeChars(value > 0 ? "Infinity" : "-Infinity", end);
+        } else {
+            final long power = POWERS_OF_TEN[decimals];
+            final double magnitude = Math.abs((double) value) * power;
+            if (magnitude >= 0x1p62) {
+                start = writeChars(Float.toString(value), end);
+            } else {
+                long scaled = Math.round(magnitude);
+                start = end;
+                if (decimals > 0) {
+                    start = writeDigits(scaled % power, decimals, start);
+                    digits[--start] = '.';
+                }
+                start = writeDigits(scaled / power, 1, start);
+                if (value < 0f && scaled != 0L) digits[--start] = '-';
+            }
+        }
+        showDigits(slot, start, end);
+    }
+
+    /**
+     * Writes the digits of the absolute value of {@code value} into {@link #digits}, ending just before {@code end},
+     * with at least {@code minDigits} digits. Returns the index of the first digit written.
+     */
+    private int writeDigits(long value, int minDigits, int end) {
+        // works with negative numbers so Long.MIN_VALUE doesn't overflow
+        if (value > 0) value = -value;
+        int start = end, lowest = end - Math.max(1, Math.min(minDigits, 20));
+        do {
+            digits[--start] = (char) ('0' - value % 10);
+            value /= 10;
+        } while (value != 0);
+        while (start > lowest) digits[--start] = '0';
+        return start;
+    }
+
+    private int writeChars(String text, int end) {
+        int start = end - Math.min(text.length(), end);
+        text.getChars(text.length() - (end - start), text.length(), digits, start);
+        return start;
+    }
+
+    /**
+     * Puts the chars from {@code start} to {@code end} in {@link #digits} into the given slot, if it doesn't already
+     * show them, and updates the width of the slot's line.
+     */
+    private void showDigits(int slot, int start, int end) {
+        final int length = end - start, oldLength = slotLengths.get(slot);
+        int offset = slotStarts.get(slot), ln = 0;
+        while (ln < layout.lines() - 1 && offset >= layout.getLine(ln).glyphs.size) {
+            offset -= layout.getLine(ln).glyphs.size;
+            ln++;
+        }
+        final Line line = layout.getLine(ln);
+        final LongArray glyphs = line.glyphs;
+        if (length == oldLength) {
+            boolean same = true;
+            for (int i = 0; i < length; i++) {
+                if ((char) glyphs.get(offset + i) != digits[start + i]) {
+                    same = false;
+                    break;
+                }
+            }
+            if (same) return;
+        }
+
+        final float before = measure(glyphs, offset, oldLength);
+        if (length > oldLength) glyphs.insertRange(offset + oldLength, length - oldLength);
+        else if (length < oldLength) glyphs.removeRange(offset + length, offset + oldLength - 1);
+        final long template = slotTemplates.get(slot);
+        for (int i = 0; i < length; i++) {
+            glyphs.items[offset + i] = template | digits[start + i];
+        }
+        final float change = measure(glyphs, offset, length) - before;
+
+        if (length != oldLength) {
+            slotLengths.set(slot, length);
+            for (int i = slot + 1; i < slotStarts.size; i++) {
+                slotStarts.incr(i, length - oldLength);
+            }
+        }
+        if (change != 0f) {
+            line.width += change;
+            invalidateHierarchy();
+        }
+    }
+
+    /**
+     * Measures the glyphs of a slot along with the glyph on each side, which is enough to include any kerning
+     * between the slot and its neighbors.
+     */
+    private float measure(LongArray glyphs, int offset, int length) {
+        final int from = Math.max(offset - 1, 0), to = Math.min(offset + length + 1, glyphs.size);
+        span.glyphs.clear();
+        span.glyphs.addAll(glyphs.items, from, to - from);
+        return font.calculateXAdvances(span, spanAdvances);
+    }
+}
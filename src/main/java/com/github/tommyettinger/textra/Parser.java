@@ -26,6 +26,8 @@ import regexodus.Pattern;
 import regexodus.REFlags;
 import regexodus.Replacer;
 
+import java.util.Comparator;
+
 /**
  * Utility class to parse tokens from a {@link TypingLabel}; not intended for external use in most situations.
  */
@@ -94,7 +96,10 @@ public class Parser {
         }
 
         // Remove any previous entries
-        label.tokenEntries.clear();
+        label.freeTokenEntries();
+        label.usedVariables.clear();
+        label.complexVariables.clear();
+        label.variableSlots.clear();
 
         // Parse all tokens with text replacements, namely color and var.
         parseReplacements(label);
@@ -107,6 +112,9 @@ public class Parser {
 
         label.setText(label.getIntermediateText().toString(), false, false);
 
+        // Find the glyphs for each plain variable value, so they can be changed without parsing again
+        locateVariableSlots(label);
+
         // Sort token entries
         label.tokenEntries.sort();
 //        label.tokenEntries.reverse();
@@ -166,25 +174,11 @@ public class Parser {
                     replacement = "[@]";
                     break;
                 case VAR:
-                    replacement = null;
-
-                    // Try to replace variable through listener.
-                    if (label.getTypingListener() != null) {
-                        replacement = label.getTypingListener().replaceVariable(param);
-                    }
-
-                    // If replacement is null, get value from maps.
-                    if (replacement == null) {
-                        replacement = label.getVariables().get(param.toUpperCase());
-                    }
-
-                    // If replacement is still null, get value from global scope
-                    if (replacement == null) {
-                        replacement = TypingConfig.GLOBAL_VARS.get(param.toUpperCase());
-                    }
+                    replacement = resolveVariable(label, param);
 
                     // Make sure we're not inserting "null" to the text.
                     if (replacement == null) replacement = param.toUpperCase();
+                    if (!VariableSlot.isPlain(replacement)) label.complexVariables.add(param.toUpperCase());
                     break;
                 case IF:
                     // Process token
@@ -206,8 +200,40 @@ public class Parser {
             }
 
             // Update text with replacement
-            m.setPosition(m.start());
+            final int start = m.start(), oldLength = text.length();
+            m.setPosition(start);
             text = m.replaceFirst(replacement);
+
+            // Move any variable values after the replacement, and track this one if it's plain text
+            final int change = text.length() - oldLength;
+            for (int i = 0; i < label.variableSlots.size; i++) {
+                VariableSlot slot = label.variableSlots.get(i);
+                if (slot.textStart >= start) slot.textStart += change;
+            }
+            if (internalToken == InternalToken.VAR && replacement.length() > 0 && VariableSlot.isPlain(replacement)) {
+                label.variableSlots.add(new VariableSlot(param, start, replacement.length()));
+            }
+        }
+
+        // Record where each variable value is once square-bracket markup has been stripped out, which matches the
+        // indices TokenEntry uses
+        if (label.variableSlots.size > 0) {
+            label.variableSlots.sort(SLOT_ORDER);
+            Matcher markup = PATTERN_MARKUP_STRIP.matcher(text);
+            int stripped = 0, s = 0;
+            while (markup.find()) {
+                final int ms = markup.start(), me = markup.end();
+                for (; s < label.variableSlots.size && label.variableSlots.get(s).textStart < ms; s++) {
+                    VariableSlot slot = label.variableSlots.get(s);
+                    if (slot.textStart + slot.length > ms) slot.length = -1; // overlaps markup; discarded later
+                    slot.rawStart = slot.textStart - stripped;
+                }
+                stripped += me - ms;
+            }
+            for (; s < label.variableSlots.size; s++) {
+                VariableSlot slot = label.variableSlots.get(s);
+                slot.rawStart = slot.textStart - stripped;
+            }
         }
 
         // Set new text
@@ -227,22 +253,8 @@ public class Parser {
         /*
             Get variable's value
          */
-        String variableValue = null;
-
-        // Try to get value through listener.
-        if(label.getTypingListener() != null) {
-            variableValue = label.getTypingListener().replaceVariable(variable);
-        }
-
-        // If value is null, get it from maps.
-        if(variableValue == null) {
-            variableValue = label.getVariables().get(variable.toUpperCase());
-        }
-
-        // If value is still null, get it from global scope
-        if(variableValue == null) {
-            variableValue = TypingConfig.GLOBAL_VARS.get(variable.toUpperCase());
-        }
+        String variableValue = resolveVariable(label, variable);
+        label.complexVariables.add(variable.toUpperCase());
 
         // Ensure variable is never null
         if(variableValue == null) {
@@ -279,6 +291,107 @@ public class Parser {
         return variable;
     }
 
+    /**
+     * Looks up the current value of the variable with the given name, first through the label's
+     * {@link TypingListener#replaceVariable(String)}, then the label's own variables, then
+     * {@link TypingConfig#GLOBAL_VARS}. The name and whatever it resolved to (possibly null) are recorded in the label,
+     * so a {@link CompiledTypingText} can tell later if its replacements are still valid.
+     * @param label the TypingLabel whose variables and listener will be checked
+     * @param name the name of a variable; case is only respected by a listener
+     * @return the value of the variable, or null if it isn't defined anywhere
+     */
+    static String resolveVariable(TypingLabel label, String name) {
+        String value = null;
+
+        // Try to get value through listener.
+        if (label.getTypingListener() != null) {
+            value = label.getTypingListener().replaceVariable(name);
+        }
+
+        // If value is null, get it from maps.
+        if (value == null) {
+            value = label.getVariables().get(name.toUpperCase());
+        }
+
+        // If value is still null, get it from global scope
+        if (value == null) {
+            value = TypingConfig.GLOBAL_VARS.get(name.toUpperCase());
+        }
+
+        label.usedVariables.put(name, value);
+        return value;
+    }
+
+    /**
+     * Moves the intermediate-text start of any variable slots after the point where {@code before} and {@code after}
+     * first differ, by the amount of text that was removed.
+     */
+    private static void shiftVariableSlots(TypingLabel label, CharSequence before, CharSequence after) {
+        final int removed = before.length() - after.length();
+        if (removed == 0) return;
+        int at = 0;
+        for (int n = after.length(); at < n && before.charAt(at) == after.charAt(at); at++) ;
+        for (int i = 0; i < label.variableSlots.size; i++) {
+            VariableSlot slot = label.variableSlots.get(i);
+            if (slot.textStart >= at) slot.textStart -= removed;
+        }
+    }
+
+    /**
+     * Finds the glyph index of each variable slot in the label's freshly marked-up text, and removes any slot whose
+     * glyphs don't exactly match its text in both the layout and the working layout. The variable of a removed slot is
+     * treated as complex from then on, so its other slots aren't updated without it. Slots are ordered by position.
+     */
+    static void locateVariableSlots(TypingLabel label) {
+        final Array<VariableSlot> slots = label.variableSlots;
+        if (slots.size == 0) return;
+        slots.sort(SLOT_ORDER);
+        final StringBuilder text = label.getIntermediateText();
+        Matcher markup = PATTERN_MARKUP_STRIP.matcher(text);
+        int stripped = 0, s = 0;
+        while (markup.find() && s < slots.size) {
+            final int ms = markup.start();
+            for (; s < slots.size && slots.get(s).textStart < ms; s++) {
+                slots.get(s).glyphStart = slots.get(s).textStart - stripped;
+            }
+            stripped += markup.end() - ms;
+        }
+        for (; s < slots.size; s++) {
+            slots.get(s).glyphStart = slots.get(s).textStart - stripped;
+        }
+        for (int i = slots.size - 1; i >= 0; i--) {
+            VariableSlot slot = slots.get(i);
+            if (label.complexVariables.contains(slot.key)) {
+                slots.removeIndex(i);
+                continue;
+            }
+            if (slot.length <= 0 || slot.textStart < 0 || slot.textStart + slot.length > text.length()) {
+                label.complexVariables.add(slot.key);
+                slots.removeIndex(i);
+                continue;
+            }
+            boolean matches = true;
+            for (int j = 0; j < slot.length && matches; j++) {
+                final char c = text.charAt(slot.textStart + j);
+                matches = (char) label.getInLayout(label.layout, slot.glyphStart + j) == c
+                        && (char) label.getInLayout(label.workingLayout, slot.glyphStart + j) == c;
+            }
+            if (matches) {
+                slot.template = label.getInLayout(label.layout, slot.glyphStart) & 0xFFFFFFFFFFFF0000L;
+            } else {
+                label.complexVariables.add(slot.key);
+                slots.removeIndex(i);
+            }
+        }
+    }
+
+    private static final Comparator<VariableSlot> SLOT_ORDER = new Comparator<VariableSlot>() {
+        @Override
+        public int compare(VariableSlot a, VariableSlot b) {
+            return Integer.compare(a.textStart, b.textStart);
+        }
+    };
+
     /**
      * Parses regular tokens that don't need replacement and register their indexes in the {@link TypingLabel}.
      */
@@ -335,6 +448,7 @@ public class Parser {
             float floatValue = 0;
             String stringValue = null;
             Effect effect = null;
+            String effectKey = null;
 
             switch (tokenCategory) {
                 case WAIT: {
@@ -382,10 +496,8 @@ public class Parser {
                     break;
                 }
                 case EFFECT_START: {
-                    Effect.EffectBuilder eb = TypingConfig.EFFECT_START_TOKENS.get(tokenName.toUpperCase());
-                    if (eb != null) {
-                        effect = eb.produce(label, params);
-                    }
+                    effectKey = TypingLabel.effectKey(tokenName, params);
+                    effect = label.obtainEffect(tokenName, params, effectKey);
                     break;
                 }
                 case EFFECT_END: {
@@ -394,14 +506,20 @@ public class Parser {
             }
 
             // Register token
-            TokenEntry entry = new TokenEntry(tokenName, tokenCategory, index + indexOffset, m.end(0), floatValue, stringValue);
+            TokenEntry entry = TokenEntry.obtain(tokenName, tokenCategory, index + indexOffset, m.end(0), floatValue, stringValue);
             entry.effect = effect;
+            if (tokenCategory == TokenCategory.EFFECT_START) {
+                entry.params = params;
+                entry.effectKey = effectKey;
+            }
             label.tokenEntries.add(entry);
 
             // Set new text without tokens
             matcherIndexOffset = m.end();
             m2.setPosition(0);
+            final CharSequence before = text2;
             text2 = m2.replaceFirst("");
+            if (label.variableSlots.size > 0) shiftVariableSlots(label, before, text2);
         }
 
 //        System.out.println("Modified: "+text);
@@ -421,7 +539,7 @@ public class Parser {
         while (m.find()) {
             final String tag = m.group(0);
             final int index = m.start(0);
-            label.tokenEntries.add(new TokenEntry("SKIP", TokenCategory.SKIP, index, m.end(0), 0, tag));
+            label.tokenEntries.add(TokenEntry.obtain("SKIP", TokenCategory.SKIP, index, m.end(0), 0, tag));
         }
     }
 
@@ -0,0 +1,384 @@
+/*
+ * Copyright (c) 2023 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.tommyettinger.textra;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.github.tommyettinger.textra.utils.CaseInsensitiveIntMap;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A compact binary form of a {@link TextureAtlas} of emoji or icons, such as the "Twemoji.atlas", "OpenMoji-color.atlas",
+ * or "Game-Icons.atlas" files used by {@link KnownFonts}, ready to be added to Fonts with
+ * {@link Font#addAtlas(PrecompiledAtlas)}. Loading one of these doesn't parse any text; the region rectangles are read
+ * into primitive arrays with bulk copies, and the names are read from one block of chars. Regions that share a
+ * position in the atlas (like the several names that can refer to one emoji) are already grouped into one glyph.
+ * <br>
+ * Adding a PrecompiledAtlas to a Font gives the same glyphs and names as adding the TextureAtlas it was made from. The
+ * name tables a Font uses to look up glyphs by name are built once per PrecompiledAtlas, and copied into each Font
+ * that gets the atlas as its first atlas with no prepended or appended text, instead of being rebuilt by putting
+ * thousands of names for each Font.
+ * <br>
+ * To make one of these files, call {@link #convert(FileHandle, FileHandle)} with an existing .atlas file; this
+ * doesn't need the atlas' images, or even for libGDX to have started. Then, load it with
+ * {@link #PrecompiledAtlas(FileHandle)}, which loads the page images next to the file (the same ones the .atlas file
+ * used). The usual file extension for these is {@link #EXTENSION}. Like a TextureAtlas, this owns its page textures,
+ * and {@link #dispose()} disposes them.
+ * <br>
+ * All values are big-endian. After a header holding {@link #MAGIC} and {@link #VERSION}, there are the pages (each
+ * with its image name, pixel format, filters, wrap modes, and whether it uses mipmaps), then the glyphs (page, left,
+ * top, width, height, whether it is flipped, x-offset, y-offset, and x-advance, each as its own array), then the
+ * regions in atlas order (the glyph each one belongs to, the length of each one's name, and then all names as one
+ * block of chars).
+ */
+public final class PrecompiledAtlas implements Disposable {
+    /**
+     * The first four bytes of any file this can read, "TTAB" in ASCII.
+     */
+    public static final int MAGIC = 0x54544142;
+    /**
+     * The version of the format this writes; files with a different version can't be read.
+     */
+    public static final int VERSION = 1;
+    /**
+     * The file extension used for precompiled atlases, including the leading period.
+     */
+    public static final String EXTENSION = ".tab";
+
+    private final Texture[] pages;
+    private final TextureRegion[] pageRegions;
+
+    final int glyphCount;
+    final short[] glyphPages;
+    final int[] lefts, tops, widths, heights;
+    final byte[] flips;
+    final float[] offsetXs, offsetYs, advances;
+
+    final int regionCount;
+    final int[] regionGlyphs;
+    final String[] names;
+
+    /**
+     * The name tables a fresh Font gets from this atlas, built the first time they are needed.
+     */
+    private CaseInsensitiveIntMap nameLookup;
+    private IntMap<String> namesByCharCode;
+    private int templateGlyphs;
+
+    /**
+     * Loads a precompiled atlas from the given file, loading its page images from the same folder.
+     *
+     * @param handle a file written by {@link #write(TextureAtlas.TextureAtlasData, FileHandle)} or
+     *               {@link #convert(FileHandle, FileHandle)}
+     */
+    public PrecompiledAtlas(FileHandle handle) {
+        this(handle, handle.parent());
+    }
+
+    /**
+     * Loads a precompiled atlas from the given file, loading its page images from {@code imagesDir}.
+     *
+     * @param handle    a file written by {@link #write(TextureAtlas.TextureAtlasData, FileHandle)} or
+     *                  {@link #convert(FileHandle, FileHandle)}
+     * @param imagesDir the folder that holds the page images
+     */
+    public PrecompiledAtlas(FileHandle handle, FileHandle imagesDir) {
+        ByteBuffer buffer = PrecompiledFont.open(handle);
+        if (buffer.getInt() != MAGIC)
+            throw new GdxRuntimeException("Not a precompiled atlas file: " + handle);
+        int version = buffer.getInt();
+        if (version != VERSION)
+            throw new GdxRuntimeException("Unsupported precompiled atlas version " + version + ": " + handle);
+
+        final int pageCount = buffer.getInt();
+        pages = new Texture[pageCount];
+        pageRegions = new TextureRegion[pageCount];
+        final Pixmap.Format[] formats = Pixmap.Format.values();
+        final Texture.TextureFilter[] filters = Texture.TextureFilter.values();
+        final Texture.TextureWrap[] wraps = Texture.TextureWrap.values();
+        for (int i = 0; i < pageCount; i++) {
+            FileHandle textureHandle = imagesDir.child(readString(buffer));
+            Pixmap.Format format = formats[buffer.get()];
+            Texture.TextureFilter minFilter = filters[buffer.get()], magFilter = filters[buffer.get()];
+            Texture.TextureWrap uWrap = wraps[buffer.get()], vWrap = wraps[buffer.get()];
+            boolean useMipMaps = buffer.get() != 0;
+            if (!textureHandle.exists())
+                throw new RuntimeException("Missing texture file: " + textureHandle);
+            pages[i] = new Texture(textureHandle, format, useMipMaps);
+            pages[i].setFilter(minFilter, magFilter);
+            pages[i].setWrap(uWrap, vWrap);
+            pageRegions[i] = new TextureRegion(pages[i]);
+        }
+
+        glyphCount = buffer.getInt();
+        glyphPages = new short[glyphCount];
+        lefts = new int[glyphCount];
+        tops = new int[glyphCount];
+        widths = new int[glyphCount];
+        heights = new int[glyphCount];
+        flips = new byte[glyphCount];
+        offsetXs = new float[glyphCount];
+        offsetYs = new float[glyphCount];
+        advances = new float[glyphCount];
+        buffer.asShortBuffer().get(glyphPages);
+        buffer.position(buffer.position() + (glyphCount << 1));
+        readInts(buffer, lefts);
+        readInts(buffer, tops);
+        readInts(buffer, widths);
+        readInts(buffer, heights);
+        buffer.get(flips);
+        readFloats(buffer, offsetXs);
+        readFloats(buffer, offsetYs);
+        readFloats(buffer, advances);
+
+        regionCount = buffer.getInt();
+        regionGlyphs = new int[regionCount];
+        final int[] nameLengths = new int[regionCount];
+        readInts(buffer, regionGlyphs);
+        readInts(buffer, nameLengths);
+        final char[] nameChars = new char[buffer.getInt()];
+        buffer.asCharBuffer().get(nameChars);
+        buffer.position(buffer.position() + (nameChars.length << 1));
+        names = new String[regionCount];
+        for (int i = 0, offset = 0; i < regionCount; i++) {
+            names[i] = new String(nameChars, offset, nameLengths[i]);
+            offset += nameLengths[i];
+        }
+    }
+
+    /**
+     * Reads the .atlas file {@code atlasFile} with UTF-8 encoding, as
+     * {@link KnownFonts#loadUnicodeAtlas(FileHandle, FileHandle, boolean)} does, and writes it to {@code output} in the
+     * precompiled format. This doesn't load the atlas' images, so it doesn't need libGDX to have started.
+     *
+     * @param atlasFile an existing .atlas file
+     * @param output    where to write the precompiled atlas; this will be overwritten
+     */
+    public static void convert(FileHandle atlasFile, FileHandle output) {
+        write(KnownFonts.loadUnicodeAtlasData(atlasFile, atlasFile.parent(), false), output);
+    }
+
+    /**
+     * Writes {@code data} to {@code output} in the precompiled format. Each page's image is stored by file name only,
+     * so the images must be in the same folder as the output file (or the folder given when loading it).
+     *
+     * @param data   the parsed contents of an .atlas file
+     * @param output where to write the precompiled atlas; this will be overwritten
+     */
+    public static void write(TextureAtlas.TextureAtlasData data, FileHandle output) {
+        final Array<TextureAtlas.TextureAtlasData.Page> pageData = data.getPages();
+        final Array<TextureAtlas.TextureAtlasData.Region> regions = data.getRegions();
+        final int regionCount = regions.size;
+        final short[] pages = new short[regionCount];
+        final int[] lefts = new int[regionCount], tops = new int[regionCount],
+                widths = new int[regionCount], heights = new int[regionCount], regionGlyphs = new int[regionCount];
+        final byte[] flips = new byte[regionCount];
+        final float[] offsetXs = new float[regionCount], offsetYs = new float[regionCount], advances = new float[regionCount];
+        int g = -1, previousX = 0, previousY = 0;
+        for (int a = 0; a < regionCount; a++) {
+            TextureAtlas.TextureAtlasData.Region region = regions.get(a);
+            int width = region.rotate ? region.height : region.width, height = region.rotate ? region.width : region.height;
+            // this is the position that Font.addAtlas() compares, which is the lower edge if the region is flipped
+            int x = region.left, y = region.flip ? region.top + height : region.top;
+            if (g == -1 || x != previousX || y != previousY) {
+                g++;
+                pages[g] = (short) pageData.indexOf(region.page, true);
+                lefts[g] = region.left;
+                tops[g] = region.top;
+                widths[g] = width;
+                heights[g] = height;
+                flips[g] = (byte) (region.flip ? 1 : 0);
+                offsetXs[g] = region.offsetX;
+                offsetYs[g] = region.offsetY;
+                advances[g] = region.originalWidth;
+                previousX = x;
+                previousY = y;
+            }
+            regionGlyphs[a] = g;
+        }
+        final int glyphCount = g + 1;
+
+        DataOutputStream out = new DataOutputStream(output.write(false, 8192));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(pageData.size);
+            for (TextureAtlas.TextureAtlasData.Page page : pageData) {
+                writeString(out, page.textureFile.name());
+                out.writeByte(page.format.ordinal());
+                out.writeByte(page.minFilter.ordinal());
+                out.writeByte(page.magFilter.ordinal());
+                out.writeByte(page.uWrap.ordinal());
+                out.writeByte(page.vWrap.ordinal());
+                out.writeByte(page.useMipMaps ? 1 : 0);
+            }
+
+            out.writeInt(glyphCount);
+            for (int i = 0; i < glyphCount; i++) out.writeShort(pages[i]);
+            for (int i = 0; i < glyphCount; i++) out.writeInt(lefts[i]);
+            for (int i = 0; i < glyphCount; i++) out.writeInt(tops[i]);
+            for (int i = 0; i < glyphCount; i++) out.writeInt(widths[i]);
+            for (int i = 0; i < glyphCount; i++) out.writeInt(heights[i]);
+            out.write(flips, 0, glyphCount);
+            for (int i = 0; i < glyphCount; i++) out.writeFloat(offsetXs[i]);
+            for (int i = 0; i < glyphCount; i++) out.writeFloat(offsetYs[i]);
+            for (int i = 0; i < glyphCount; i++) out.writeFloat(advances[i]);
+
+            out.writeInt(regionCount);
+            int nameChars = 0;
+            for (int i = 0; i < regionCount; i++) out.writeInt(regionGlyphs[i]);
+            for (int i = 0; i < regionCount; i++) {
+                int length = regions.get(i).name.length();
+                out.writeInt(length);
+                nameChars += length;
+            }
+            out.writeInt(nameChars);
+            for (int i = 0; i < regionCount; i++) out.writeChars(regions.get(i).name);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not write precompiled atlas: " + output, e);
+        } finally {
+            StreamUtils.closeQuietly(out);
+        }
+    }
+
+    /**
+     * Gets the page textures this owns; these will be disposed by {@link #dispose()}.
+     *
+     * @return the array of page textures used directly by this; do not modify
+     */
+    public Texture[] getTextures() {
+        return pages;
+    }
+
+    /**
+     * Adds the glyphs and names in this atlas to {@code font}, exactly as {@link Font#addAtlas(TextureAtlas, String,
+     * String, float, float, float)} would for the TextureAtlas this was made from.
+     */
+    void addTo(Font font, String prepend, String append, float offsetXChange, float offsetYChange, float xAdvanceChange) {
+        if (prepend == null) prepend = "";
+        if (append == null) append = "";
+        offsetXChange += font.inlineImageOffsetX;
+        offsetYChange += font.inlineImageOffsetY;
+        xAdvanceChange += font.inlineImageXAdvance;
+
+        final int start, glyphs;
+        if (font.nameLookup == null && font.namesByCharCode == null && prepend.isEmpty() && append.isEmpty()) {
+            // the common case, where copying tables built once is much faster than putting every name
+            if (nameLookup == null) {
+                nameLookup = new CaseInsensitiveIntMap(regionCount, 0.5f);
+                namesByCharCode = new IntMap<>(regionCount >> 1, 0.5f);
+                templateGlyphs = addNames(nameLookup, namesByCharCode, 0xE000, "", "");
+            }
+            font.nameLookup = new CaseInsensitiveIntMap(nameLookup);
+            font.namesByCharCode = new IntMap<>(namesByCharCode);
+            start = 0xE000;
+            glyphs = templateGlyphs;
+        } else {
+            if (font.nameLookup == null)
+                font.nameLookup = new CaseInsensitiveIntMap(regionCount, 0.5f);
+            else
+                font.nameLookup.ensureCapacity(regionCount);
+            if (font.namesByCharCode == null)
+                font.namesByCharCode = new IntMap<>(regionCount >> 1, 0.5f);
+            else
+                font.namesByCharCode.ensureCapacity(regionCount >> 1);
+            start = 0xE000 + font.namesByCharCode.size;
+            glyphs = addNames(font.nameLookup, font.namesByCharCode, start, prepend, append);
+        }
+        for (int g = 0; g < glyphs; g++) {
+            Font.GlyphRegion gr = new Font.GlyphRegion(pageRegions[glyphPages[g]], lefts[g], tops[g], widths[g], heights[g]);
+            if (flips[g] != 0) gr.flip(false, true);
+            gr.offsetX = offsetXs[g] + offsetXChange;
+            gr.offsetY = offsetYs[g] + offsetYChange;
+            gr.xAdvance = advances[g] + xAdvanceChange;
+            font.mapping.put(start + g, gr);
+        }
+    }
+
+    /**
+     * Puts the names of regions into the given tables, following the same rules as
+     * {@link Font#addAtlas(TextureAtlas, String, String, float, float, float)}.
+     *
+     * @return how many glyphs were given chars, starting at {@code start}
+     */
+    private int addNames(CaseInsensitiveIntMap lookup, IntMap<String> byCharCode, int start, String prepend, String append) {
+        if (regionCount == 0) return 0;
+        String name = prepend + names[0] + append;
+        lookup.put(name, start);
+        byCharCode.put(start, name);
+        int i = start, first = 0;
+        for (int a = 1; i < 0xF800 && a < regionCount; a++) {
+            name = prepend + names[a] + append;
+            if (regionGlyphs[a] == regionGlyphs[first]) {
+                lookup.put(name, i);
+                // names that start with emoji chars take priority over other names for the same glyph
+                if (names[first].charAt(0) < 0x2000)
+                    byCharCode.put(i, name);
+            } else {
+                ++i;
+                first = a;
+                lookup.put(name, i);
+                byCharCode.put(i, name);
+            }
+        }
+        return i - start + 1;
+    }
+
+    /**
+     * Disposes the page textures this loaded. Any Font this was added to will no longer draw its glyphs correctly.
+     */
+    @Override
+    public void dispose() {
+        for (Texture page : pages) {
+            page.dispose();
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) s = "";
+        out.writeInt(s.length());
+        out.writeChars(s);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        char[] chars = new char[buffer.getInt()];
+        buffer.asCharBuffer().get(chars);
+        buffer.position(buffer.position() + (chars.length << 1));
+        return String.valueOf(chars);
+    }
+
+    private static void readInts(ByteBuffer buffer, int[] into) {
+        buffer.asIntBuffer().get(into);
+        buffer.position(buffer.position() + (into.length << 2));
+    }
+
+    private static void readFloats(ByteBuffer buffer, float[] into) {
+        buffer.asFloatBuffer().get(into);
+        buffer.position(buffer.position() + (into.length << 2));
+    }
+}
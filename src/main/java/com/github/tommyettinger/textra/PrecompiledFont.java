@@ -0,0 +1,462 @@
+/*
+ * Copyright (c) 2023 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.tommyettinger.textra;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FileTextureData;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntFloatMap;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.Null;
+import com.badlogic.gdx.utils.StreamUtils;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Reads and writes a compact binary form of a {@link Font}'s metrics, glyph table, kerning, and texture page names.
+ * Loading one of these files doesn't parse any text; the glyph table is stored as one primitive array per field, so
+ * each field is read with a single bulk copy out of a {@link ByteBuffer}, which is memory-mapped when the file
+ * allows it (local, external, and absolute files on desktop, and internal files when they are on the filesystem).
+ * This is meant for large fonts, such as CJK fonts with tens of thousands of glyphs, where reading a .fnt or .json
+ * file is most of the time spent creating the Font.
+ * <br>
+ * To make one of these files, load a Font however you normally would (with any adjustments, descent changes, and so
+ * on), then call {@link #write(Font, FileHandle)}; {@link #convert(String, FileHandle)} can do this for a .fnt,
+ * .json, or .dat file with no adjustments. Then, load it with {@link Font#Font(FileHandle)}, or with
+ * {@link Font#Font(FileHandle, Array)} if you want to supply the texture pages yourself (such as from a TextureAtlas).
+ * The usual file extension for these is {@link #EXTENSION}. Things that aren't loaded from a font file, like
+ * {@link Font#addAtlas(com.badlogic.gdx.graphics.g2d.TextureAtlas) added atlases}, shaders, and font families, are
+ * not stored.
+ * <br>
+ * All values are big-endian. After a header holding {@link #MAGIC} and {@link #VERSION}, there is the font name, the
+ * distance field type, the float metrics, the flags, the page names, then the glyph table (char codes, pages, the
+ * four edges of each glyph's region in pixels from its page's corner, whether the region is one pixel in size,
+ * x-offset, y-offset, and x-advance, each as its own array), and finally the kerning keys and amounts.
+ */
+public final class PrecompiledFont {
+    /**
+     * The first four bytes of any file this can read, "TTFB" in ASCII.
+     */
+    public static final int MAGIC = 0x54544642;
+    /**
+     * The version of the format this writes; files with a different version can't be read.
+     */
+    public static final int VERSION = 1;
+    /**
+     * The file extension used for precompiled fonts, including the leading period.
+     */
+    public static final String EXTENSION = ".tfb";
+
+    private PrecompiledFont() {
+    }
+
+    /**
+     * Loads a Font from a .fnt, .json (Structured JSON), or .dat (LZB-compressed Structured JSON) file, with no
+     * adjustments, and writes it to {@code output} in the precompiled format. The texture for a .json or .dat file
+     * must be a .png with the same name. Like any Font loading, this must happen after libGDX has started.
+     *
+     * @param fontFile the path to a .fnt, .json, or .dat file; may be internal or local
+     * @param output where to write the precompiled font; this will be overwritten
+     * @return the Font that was loaded and written, which can be used normally
+     */
+    public static Font convert(String fontFile, FileHandle output) {
+        Font font;
+        String lower = fontFile.toLowerCase();
+        if (lower.endsWith(".fnt")) {
+            font = new Font(fontFile);
+        } else if (lower.endsWith(".json")) {
+            font = new Font(fontFile, true);
+        } else if (lower.endsWith(".dat")) {
+            FileHandle datHandle = Gdx.files.internal(fontFile);
+            if (!datHandle.exists()) datHandle = Gdx.files.local(fontFile);
+            String textureName = fontFile.substring(0, fontFile.length() - 4) + ".png";
+            FileHandle textureHandle = Gdx.files.internal(textureName);
+            if (!textureHandle.exists()) textureHandle = Gdx.files.local(textureName);
+            if (!textureHandle.exists())
+                throw new RuntimeException("Missing texture file: " + textureName);
+            font = new Font(datHandle, new TextureRegion(new Texture(textureHandle)), 0f, 0f, 0f, 0f, true, true);
+        } else {
+            throw new RuntimeException("Not a .fnt, .json, or .dat font file: " + fontFile);
+        }
+        write(font, output);
+        return font;
+    }
+
+    /**
+     * Writes {@code font} to {@code output} in the precompiled format, using the file paths of its texture pages if
+     * they were loaded from files. If a page wasn't loaded from a file, its name is stored as the empty String, and
+     * the pages will have to be given when loading.
+     *
+     * @param font a Font to store, typically one that was just loaded
+     * @param output where to write the precompiled font; this will be overwritten
+     */
+    public static void write(Font font, FileHandle output) {
+        String[] pageNames = new String[font.parents.size];
+        for (int i = 0; i < pageNames.length; i++) {
+            TextureData data = font.parents.get(i).getTexture().getTextureData();
+            pageNames[i] = data instanceof FileTextureData && ((FileTextureData) data).getFileHandle() != null
+                    ? ((FileTextureData) data).getFileHandle().path() : "";
+        }
+        write(font, output, pageNames);
+    }
+
+    /**
+     * Writes {@code font} to {@code output} in the precompiled format, storing the given names for its texture pages.
+     * Names are looked up, when loading, next to the precompiled file first, then as internal paths, then as local
+     * paths.
+     *
+     * @param font a Font to store, typically one that was just loaded
+     * @param output where to write the precompiled font; this will be overwritten
+     * @param pageNames one name per item in {@link Font#parents}; may contain empty Strings for unknown pages
+     */
+    public static void write(Font font, FileHandle output, String[] pageNames) {
+        final Array<TextureRegion> parents = font.parents;
+        // a lazily-loaded mapping only knows its full size after creating all its glyphs
+        font.mapping.entries();
+        final int count = font.mapping.size;
+        final int[] codes = new int[count];
+        final short[] pages = new short[count];
+        final float[] lefts = new float[count], tops = new float[count], rights = new float[count], bottoms = new float[count];
+        final byte[] units = new byte[count];
+        final float[] offsetXs = new float[count], offsetYs = new float[count], advances = new float[count];
+        int defaultCode = -1, g = 0;
+        for (IntMap.Entry<Font.GlyphRegion> e : font.mapping) {
+            Font.GlyphRegion gr = e.value;
+            if (gr == null) continue;
+            if (gr == font.defaultValue && (defaultCode == -1 || e.key == ' ')) defaultCode = e.key;
+            Texture texture = gr.getTexture();
+            int page = -1, parentX = 0, parentY = 0;
+            for (int i = 0; i < parents.size; i++) {
+                if (parents.get(i).getTexture() == texture) {
+                    page = i;
+                    parentX = parents.get(i).getRegionX();
+                    parentY = parents.get(i).getRegionY();
+                    break;
+                }
+            }
+            if (page == -1 && texture != font.whiteBlock)
+                throw new GdxRuntimeException("Glyph " + e.key + " uses a texture that isn't one of the font's pages.");
+            codes[g] = e.key;
+            pages[g] = (short) page;
+            // The edges are stored from the UVs rather than as whole pixels, which keeps flips and the sub-pixel
+            // adjustment TextureRegion makes to 1x1 regions (such as the solid block).
+            lefts[g] = gr.getU() * texture.getWidth() - parentX;
+            tops[g] = gr.getV() * texture.getHeight() - parentY;
+            rights[g] = gr.getU2() * texture.getWidth() - parentX;
+            bottoms[g] = gr.getV2() * texture.getHeight() - parentY;
+            units[g] = (byte) (gr.getRegionWidth() == 1 && gr.getRegionHeight() == 1 ? 1 : 0);
+            offsetXs[g] = gr.offsetX;
+            offsetYs[g] = gr.offsetY;
+            advances[g] = gr.xAdvance;
+            g++;
+        }
+
+        DataOutputStream out = new DataOutputStream(output.write(false, 8192));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, font.name);
+            out.writeByte(font.distanceField.ordinal());
+            out.writeFloat(font.actualCrispness);
+            out.writeFloat(font.distanceFieldCrispness);
+            out.writeFloat(font.cellWidth);
+            out.writeFloat(font.cellHeight);
+            out.writeFloat(font.originalCellWidth);
+            out.writeFloat(font.originalCellHeight);
+            out.writeFloat(font.scaleX);
+            out.writeFloat(font.scaleY);
+            out.writeFloat(font.descent);
+            out.writeFloat(font.xAdjust);
+            out.writeFloat(font.yAdjust);
+            out.writeFloat(font.widthAdjust);
+            out.writeFloat(font.heightAdjust);
+            out.writeFloat(font.underX);
+            out.writeFloat(font.underY);
+            out.writeFloat(font.underLength);
+            out.writeFloat(font.underBreadth);
+            out.writeFloat(font.strikeX);
+            out.writeFloat(font.strikeY);
+            out.writeFloat(font.strikeLength);
+            out.writeFloat(font.strikeBreadth);
+            out.writeFloat(font.fancyX);
+            out.writeFloat(font.fancyY);
+            out.writeFloat(font.boxDrawingBreadth);
+            out.writeFloat(font.boldStrength);
+            out.writeFloat(font.obliqueStrength);
+            out.writeFloat(font.inlineImageOffsetX);
+            out.writeFloat(font.inlineImageOffsetY);
+            out.writeFloat(font.inlineImageXAdvance);
+            out.writeByte((font.isMono ? 1 : 0) | (font.integerPosition ? 2 : 0)
+                    | (font.omitCurlyBraces ? 4 : 0) | (font.enableSquareBrackets ? 8 : 0));
+            out.writeChar(font.solidBlock);
+            out.writeInt(defaultCode);
+
+            out.writeInt(parents.size);
+            for (int i = 0; i < parents.size; i++) {
+                writeString(out, i < pageNames.length ? pageNames[i] : "");
+            }
+
+            out.writeInt(g);
+            for (int i = 0; i < g; i++) out.writeInt(codes[i]);
+            for (int i = 0; i < g; i++) out.writeShort(pages[i]);
+            for (int i = 0; i < g; i++) out.writeFloat(lefts[i]);
+            for (int i = 0; i < g; i++) out.writeFloat(tops[i]);
+            for (int i = 0; i < g; i++) out.writeFloat(rights[i]);
+            for (int i = 0; i < g; i++) out.writeFloat(bottoms[i]);
+            out.write(units, 0, g);
+            for (int i = 0; i < g; i++) out.writeFloat(offsetXs[i]);
+            for (int i = 0; i < g; i++) out.writeFloat(offsetYs[i]);
+            for (int i = 0; i < g; i++) out.writeFloat(advances[i]);
+
+            if (font.kerning == null) {
+                out.writeInt(0);
+            } else {
+                final int kernings = font.kerning.size;
+                final int[] keys = new int[kernings];
+                final float[] amounts = new float[kernings];
+                int k = 0;
+                for (IntFloatMap.Entry e : font.kerning) {
+                    keys[k] = e.key;
+                    amounts[k++] = e.value;
+                }
+                out.writeInt(kernings);
+                for (int i = 0; i < kernings; i++) out.writeInt(keys[i]);
+                for (int i = 0; i < kernings; i++) out.writeFloat(amounts[i]);
+            }
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not write precompiled font: " + output, e);
+        } finally {
+            StreamUtils.closeQuietly(out);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) s = "";
+        out.writeInt(s.length());
+        out.writeChars(s);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        char[] chars = new char[buffer.getInt()];
+        buffer.asCharBuffer().get(chars);
+        buffer.position(buffer.position() + (chars.length << 1));
+        return String.valueOf(chars);
+    }
+
+    /**
+     * Gets the contents of {@code handle} as a read-only ByteBuffer, memory-mapping the file if the backend and file
+     * type allow it, or reading it all into a heap buffer otherwise.
+     *
+     * @param handle a FileHandle that should exist
+     * @return a ByteBuffer positioned at the start of the file's contents
+     */
+    public static ByteBuffer open(FileHandle handle) {
+        try {
+            // FileHandle.map() uses the native byte order, but this format is always big-endian.
+            return handle.map().order(ByteOrder.BIG_ENDIAN);
+        } catch (RuntimeException e) {
+            // Classpath files, and files packed into an Android APK or a jar, can't be mapped.
+            return ByteBuffer.wrap(handle.readBytes());
+        }
+    }
+
+    /**
+     * Reads a precompiled font from {@code buffer} into {@code font}, replacing its metrics, glyphs, kerning, and
+     * (unless given) texture pages.
+     *
+     * @param font the Font to load into, typically one being constructed
+     * @param buffer a ByteBuffer positioned at the start of precompiled font data
+     * @param handle the file the data came from, used to find texture pages next to it; may be null
+     * @param textureRegions if non-null, used as the texture pages instead of loading them by name
+     */
+    static void read(Font font, ByteBuffer buffer, @Null FileHandle handle, @Null Array<TextureRegion> textureRegions) {
+        if (buffer.getInt() != MAGIC)
+            throw new GdxRuntimeException("Not a precompiled font file: " + handle);
+        int version = buffer.getInt();
+        if (version != VERSION)
+            throw new GdxRuntimeException("Unsupported precompiled font version " + version + ": " + handle);
+        font.name = readString(buffer);
+        font.setDistanceField(Font.DistanceFieldType.values()[buffer.get()]);
+        font.actualCrispness = buffer.getFloat();
+        font.distanceFieldCrispness = buffer.getFloat();
+        font.cellWidth = buffer.getFloat();
+        font.cellHeight = buffer.getFloat();
+        font.originalCellWidth = buffer.getFloat();
+        font.originalCellHeight = buffer.getFloat();
+        font.scaleX = buffer.getFloat();
+        font.scaleY = buffer.getFloat();
+        font.descent = buffer.getFloat();
+        font.xAdjust = buffer.getFloat();
+        font.yAdjust = buffer.getFloat();
+        font.widthAdjust = buffer.getFloat();
+        font.heightAdjust = buffer.getFloat();
+        font.underX = buffer.getFloat();
+        font.underY = buffer.getFloat();
+        font.underLength = buffer.getFloat();
+        font.underBreadth = buffer.getFloat();
+        font.strikeX = buffer.getFloat();
+        font.strikeY = buffer.getFloat();
+        font.strikeLength = buffer.getFloat();
+        font.strikeBreadth = buffer.getFloat();
+        font.fancyX = buffer.getFloat();
+        font.fancyY = buffer.getFloat();
+        font.boxDrawingBreadth = buffer.getFloat();
+        font.boldStrength = buffer.getFloat();
+        font.obliqueStrength = buffer.getFloat();
+        font.inlineImageOffsetX = buffer.getFloat();
+        font.inlineImageOffsetY = buffer.getFloat();
+        font.inlineImageXAdvance = buffer.getFloat();
+        int flags = buffer.get();
+        font.isMono = (flags & 1) != 0;
+        font.integerPosition = (flags & 2) != 0;
+        font.omitCurlyBraces = (flags & 4) != 0;
+        font.enableSquareBrackets = (flags & 8) != 0;
+        font.solidBlock = buffer.getChar();
+        int defaultCode = buffer.getInt();
+
+        int pageCount = buffer.getInt();
+        if (textureRegions != null) {
+            if (textureRegions.size < pageCount)
+                throw new GdxRuntimeException("Precompiled font needs " + pageCount + " pages, but was given "
+                        + textureRegions.size + ": " + handle);
+            font.parents = textureRegions;
+            for (int i = 0; i < pageCount; i++) readString(buffer);
+        } else {
+            font.parents = new Array<>(true, pageCount, TextureRegion.class);
+            for (int i = 0; i < pageCount; i++) {
+                String textureName = readString(buffer);
+                FileHandle textureHandle = null;
+                if (handle != null && !textureName.isEmpty())
+                    textureHandle = handle.sibling(new FileHandle(textureName).name());
+                if ((textureHandle != null && textureHandle.exists())
+                        || (textureHandle = Gdx.files.internal(textureName)).exists()
+                        || (textureHandle = Gdx.files.local(textureName)).exists()) {
+                    font.parents.add(new TextureRegion(new Texture(textureHandle, font.getPageFormat(), false)));
+                } else {
+                    throw new RuntimeException("Missing texture file: " + textureName);
+                }
+            }
+        }
+        if (font.getDistanceField() != Font.DistanceFieldType.STANDARD) {
+            for (int i = 0; i < font.parents.size; i++) {
+                font.parents.get(i).getTexture().setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+            }
+        }
+        font.checkAlphaPages();
+
+        final int count = buffer.getInt();
+        final int[] codes = new int[count];
+        final short[] pages = new short[count];
+        final float[] lefts = new float[count], tops = new float[count], rights = new float[count], bottoms = new float[count];
+        final byte[] units = new byte[count];
+        final float[] offsetXs = new float[count], offsetYs = new float[count], advances = new float[count];
+        readInts(buffer, codes);
+        buffer.asShortBuffer().get(pages);
+        buffer.position(buffer.position() + (count << 1));
+        readFloats(buffer, lefts);
+        readFloats(buffer, tops);
+        readFloats(buffer, rights);
+        readFloats(buffer, bottoms);
+        buffer.get(units);
+        readFloats(buffer, offsetXs);
+        readFloats(buffer, offsetYs);
+        readFloats(buffer, advances);
+
+        TextureRegion white = null;
+        if (Font.LAZY_GLYPH_THRESHOLD > 0 && count >= Font.LAZY_GLYPH_THRESHOLD) {
+            LazyGlyphMap.Builder lazyGlyphs = new LazyGlyphMap.Builder(font.parents.toArray(TextureRegion.class), count);
+            for (int i = 0; i < count; i++) {
+                if (pages[i] < 0 && white == null) lazyGlyphs.extraPage(white = new TextureRegion(obtainWhiteBlock(font)));
+                // setRegion() moves the edges of a 1x1 region a quarter-pixel inward, so they are moved outward first.
+                final float nudge = units[i] == 0 ? 0f : 0.25f;
+                lazyGlyphs.add(codes[i], pages[i], lefts[i] - nudge, tops[i] - nudge, rights[i] + nudge,
+                        bottoms[i] + nudge, offsetXs[i], offsetYs[i], advances[i]);
+            }
+            font.mapping = lazyGlyphs.build();
+        } else {
+            font.mapping = new IntMap<>(count);
+            for (int i = 0; i < count; i++) {
+                TextureRegion parent;
+                if (pages[i] < 0) {
+                    if (white == null) white = new TextureRegion(obtainWhiteBlock(font));
+                    parent = white;
+                } else {
+                    parent = font.parents.get(pages[i]);
+                }
+                final Texture texture = parent.getTexture();
+                final float invWidth = 1f / texture.getWidth(), invHeight = 1f / texture.getHeight();
+                // setRegion() moves the edges of a 1x1 region a quarter-pixel inward, so they are moved outward first.
+                final float nudge = units[i] == 0 ? 0f : 0.25f;
+                final float px = parent.getRegionX(), py = parent.getRegionY();
+                Font.GlyphRegion gr = new Font.GlyphRegion(parent, 0f, 0f, 0f);
+                gr.setRegion((px + lefts[i] - nudge) * invWidth, (py + tops[i] - nudge) * invHeight,
+                        (px + rights[i] + nudge) * invWidth, (py + bottoms[i] + nudge) * invHeight);
+                gr.offsetX = offsetXs[i];
+                gr.offsetY = offsetYs[i];
+                gr.xAdvance = advances[i];
+                font.mapping.put(codes[i], gr);
+            }
+        }
+        font.defaultValue = defaultCode == -1 ? null : font.mapping.get(defaultCode);
+
+        final int kernings = buffer.getInt();
+        if (kernings == 0) {
+            font.kerning = null;
+        } else {
+            final int[] keys = new int[kernings];
+            final float[] amounts = new float[kernings];
+            readInts(buffer, keys);
+            readFloats(buffer, amounts);
+            font.kerning = new IntFloatMap(kernings);
+            for (int i = 0; i < kernings; i++) {
+                font.kerning.put(keys[i], amounts[i]);
+            }
+        }
+    }
+
+    private static Texture obtainWhiteBlock(Font font) {
+        if (font.whiteBlock == null) {
+            Pixmap temp = new Pixmap(3, 3, Pixmap.Format.RGBA8888);
+            temp.setColor(Color.WHITE);
+            temp.fill();
+            font.whiteBlock = new Texture(3, 3, Pixmap.Format.RGBA8888);
+            font.whiteBlock.draw(temp, 0, 0);
+            temp.dispose();
+        }
+        return font.whiteBlock;
+    }
+
+    private static void readInts(ByteBuffer buffer, int[] into) {
+        buffer.asIntBuffer().get(into);
+        buffer.position(buffer.position() + (into.length << 2));
+    }
+
+    private static void readFloats(ByteBuffer buffer, float[] into) {
+        buffer.asFloatBuffer().get(into);
+        buffer.position(buffer.position() + (into.length << 2));
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2023 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.tommyettinger.textra;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.PixmapTextureData;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.IntMap;
+
+/**
+ * Copies the glyphs a group of Fonts actually use onto a few shared texture pages, and points those Fonts'
+ * {@link Font.GlyphRegion}s at the copies. When text switches between the Fonts in a {@link Font.FontFamily}, or
+ * between a Font and the emoji or icons it got from {@link Font#addAtlas(com.badlogic.gdx.graphics.g2d.TextureAtlas)},
+ * each switch to a different Texture makes the Batch flush; once the glyphs involved share pages, most of those flushes
+ * go away. Example code:
+ * <code>
+ *     SharedGlyphAtlas shared = new SharedGlyphAtlas();
+ *     shared.pack(storyText, font.family.connected);
+ * </code>
+ * <br>
+ * Packing is opt-in and can be done more than once; each call only copies glyphs that aren't on a shared page yet, and
+ * adds pages as needed. Glyphs that aren't packed keep using their original pages, so those Textures must not be
+ * disposed while any Font still uses them. The Fonts' glyph tables are {@link Font#unshareTables() unshared} first, so
+ * copies of a Font that weren't packed are unaffected. Each glyph is copied with a 1-pixel border from around it in its
+ * original page, so it looks exactly the same with linear filtering.
+ * <br>
+ * All Fonts packed into one SharedGlyphAtlas must use the same {@link Font.DistanceFieldType}. For distance field
+ * fonts, and for fonts that {@link Font#hasAlphaPages() have alpha pages}, only glyphs from the Font's own pages are
+ * packed, because inline images need a different shader; the page format should be {@link Pixmap.Format#Alpha} for
+ * the latter. Glyphs can only be copied from Textures that were loaded from a file, or from a Pixmap that hasn't been
+ * disposed; glyphs on other Textures, such as {@link Font#whiteBlock}, stay where they are.
+ * <br>
+ * Disposing this disposes the shared pages, so it should only be done when no Font packed here is used anymore.
+ */
+public class SharedGlyphAtlas implements Disposable {
+    private final PixmapPacker packer;
+    private final Array<TextureRegion> pageRegions = new Array<>(true, 4, TextureRegion.class);
+    private Texture.TextureFilter minFilter = null, magFilter = null;
+    private Font.DistanceFieldType distanceField = null;
+    private final IdentityMap<Texture, Integer> textureIds = new IdentityMap<>(8);
+
+    /**
+     * Creates an empty SharedGlyphAtlas with 1024x1024 RGBA8888 pages.
+     */
+    public SharedGlyphAtlas() {
+        this(1024, 1024, Pixmap.Format.RGBA8888);
+    }
+
+    /**
+     * Creates an empty SharedGlyphAtlas with pages of the given size and format. The format should be
+     * {@link Pixmap.Format#RGBA8888} unless every Font packed here {@link Font#hasAlphaPages() has alpha pages}, in
+     * which case it can be {@link Pixmap.Format#Alpha}.
+     *
+     * @param pageWidth  the width of each page, in pixels
+     * @param pageHeight the height of each page, in pixels
+     * @param format     the Pixmap format of each page
+     */
+    public SharedGlyphAtlas(int pageWidth, int pageHeight, Pixmap.Format format) {
+        packer = new PixmapPacker(pageWidth, pageHeight, format, 1, false);
+    }
+
+    /**
+     * Packs every glyph in each of the given Fonts, including any from atlases added to them. This creates every
+     * glyph in fonts that only create glyphs as they are needed, so it is better to use
+     * {@link #pack(CharSequence, Font...)} with the text you will show for those.
+     *
+     * @param fonts the Fonts to pack; null items are ignored, so this can be given {@link Font.FontFamily#connected}
+     * @return this, for chaining
+     */
+    public SharedGlyphAtlas packAll(Font... fonts) {
+        return pack(null, fonts);
+    }
+
+    /**
+     * Packs the glyphs for each char in {@code chars} that is present in each of the given Fonts, plus each Font's
+     * {@link Font#solidBlock} (which is used for underline, strikethrough, and box drawing). Chars in markup are also
+     * packed, but that does no harm. If chars is null, this packs every glyph, as {@link #packAll(Font...)} does.
+     *
+     * @param chars the text that will be shown with these Fonts, or any other chars to pack; may be null to pack all
+     * @param fonts the Fonts to pack; null items are ignored, so this can be given {@link Font.FontFamily#connected}
+     * @return this, for chaining
+     * @throws IllegalArgumentException if the Fonts don't all use the same DistanceFieldType as earlier Fonts
+     */
+    public SharedGlyphAtlas pack(CharSequence chars, Font... fonts) {
+        for (Font font : fonts) {
+            if (font == null) continue;
+            if (distanceField == null) distanceField = font.getDistanceField();
+            else if (distanceField != font.getDistanceField())
+                throw new IllegalArgumentException("All Fonts in a SharedGlyphAtlas must use the same DistanceFieldType.");
+        }
+        IdentityMap<Texture, Pixmap> sources = new IdentityMap<>(8);
+        Array<Pixmap> toDispose = new Array<>(false, 8, Pixmap.class);
+        IdentityMap<Font.GlyphRegion, PendingRegion> packed = new IdentityMap<>(256);
+        Array<Font.GlyphRegion> empty = new Array<>(false, 16, Font.GlyphRegion.class);
+        try {
+            for (Font font : fonts) {
+                if (font == null) continue;
+                font.unshareTables();
+                if (minFilter == null && font.parents != null && font.parents.notEmpty()) {
+                    Texture first = font.parents.first().getTexture();
+                    minFilter = first.getMinFilter();
+                    magFilter = first.getMagFilter();
+                }
+                boolean ownPagesOnly = font.getDistanceField() != Font.DistanceFieldType.STANDARD || font.hasAlphaPages();
+                if (chars == null) {
+                    for (IntMap.Entry<Font.GlyphRegion> e : font.mapping) {
+                        packGlyph(font, e.value, ownPagesOnly, sources, toDispose, packed, empty);
+                    }
+                } else {
+                    for (int i = 0, n = chars.length(); i < n; i++) {
+                        packGlyph(font, font.mapping.get(chars.charAt(i)), ownPagesOnly, sources, toDispose, packed, empty);
+                    }
+                    packGlyph(font, font.mapping.get(font.solidBlock), ownPagesOnly, sources, toDispose, packed, empty);
+                }
+            }
+            if (minFilter == null) {
+                minFilter = magFilter = Texture.TextureFilter.Nearest;
+            }
+            packer.updatePageTextures(minFilter, magFilter, false);
+            Array<PixmapPacker.Page> pages = packer.getPages();
+            for (int i = pageRegions.size; i < pages.size; i++) {
+                pageRegions.add(new TextureRegion(pages.get(i).getTexture()));
+            }
+            for (PendingRegion p : packed.values()) {
+                moveToPage(p);
+            }
+            if (pageRegions.notEmpty()) {
+                Texture page = pageRegions.first().getTexture();
+                for (Font.GlyphRegion gr : empty) {
+                    gr.setTexture(page);
+                    gr.setRegion(0f, 0f, 0f, 0f);
+                }
+            }
+            for (Font font : fonts) {
+                if (font == null) continue;
+                for (TextureRegion region : pageRegions) {
+                    if (!font.parents.contains(region, true)) font.parents.add(region);
+                }
+            }
+        } finally {
+            for (Pixmap p : toDispose) {
+                p.dispose();
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Gets the TextureRegions covering each shared page, in order. Fonts packed here also have these at the end of
+     * their {@link Font#parents}.
+     *
+     * @return the shared pages, which should not be modified
+     */
+    public Array<TextureRegion> getPages() {
+        return pageRegions;
+    }
+
+    private boolean isSharedPage(Texture texture) {
+        for (TextureRegion region : pageRegions) {
+            if (region.getTexture() == texture) return true;
+        }
+        return false;
+    }
+
+    private static boolean isFontPage(Font font, Texture texture) {
+        if (font.parents == null) return false;
+        for (TextureRegion parent : font.parents) {
+            if (parent.getTexture() == texture) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the pixels of a Texture, loading them again from its TextureData the first time each Texture is seen.
+     * Returns null if the TextureData can't provide a Pixmap, such as when it wraps a Pixmap that was disposed after
+     * being uploaded (as {@link Font#whiteBlock} does).
+     */
+    private static Pixmap pixmapOf(Texture texture, IdentityMap<Texture, Pixmap> sources, Array<Pixmap> toDispose) {
+        if (sources.containsKey(texture)) return sources.get(texture);
+        Pixmap pixmap = null;
+        TextureData data = texture.getTextureData();
+        if (data instanceof PixmapTextureData) {
+            // the Pixmap belongs to the TextureData (or whoever made it), and is already gone if it was disposed after
+            // uploading, so it is only read here if it still exists
+            pixmap = data.consumePixmap();
+            if (pixmap != null && pixmap.isDisposed()) pixmap = null;
+        } else if (data.getType() == TextureData.TextureDataType.Pixmap) {
+            if (!data.isPrepared()) data.prepare();
+            pixmap = data.consumePixmap();
+            if (pixmap != null && data.disposePixmap()) toDispose.add(pixmap);
+        }
+        sources.put(texture, pixmap);
+        return pixmap;
+    }
+
+    /**
+     * Gets a number for texture that no other Texture seen by this SharedGlyphAtlas has, to name packed pieces with.
+     */
+    private int textureId(Texture texture) {
+        Integer id = textureIds.get(texture);
+        if (id == null) textureIds.put(texture, id = textureIds.size);
+        return id;
+    }
+
+    private void packGlyph(Font font, Font.GlyphRegion gr, boolean ownPagesOnly, IdentityMap<Texture, Pixmap> sources,
+                           Array<Pixmap> toDispose, IdentityMap<Font.GlyphRegion, PendingRegion> packed,
+                           Array<Font.GlyphRegion> empty) {
+        if (gr == null || packed.containsKey(gr)) return;
+        Texture texture = gr.getTexture();
+        if (texture == null || isSharedPage(texture) || (ownPagesOnly && !isFontPage(font, texture))) return;
+        int texWidth = texture.getWidth(), texHeight = texture.getHeight();
+        float left = Math.min(gr.getU(), gr.getU2()) * texWidth, right = Math.max(gr.getU(), gr.getU2()) * texWidth;
+        float top = Math.min(gr.getV(), gr.getV2()) * texHeight, bottom = Math.max(gr.getV(), gr.getV2()) * texHeight;
+        if (right <= 0f || left >= texWidth || bottom <= 0f || top >= texHeight) {
+            // there is no texel under this region, so nothing visible is drawn, but switching to its texture would
+            // still flush the Batch
+            if (!empty.contains(gr, true)) empty.add(gr);
+            return;
+        }
+        Pixmap source = pixmapOf(texture, sources, toDispose);
+        if (source == null) return;
+        // regions with no width or height, like solid blocks, stretch the one texel they are centered on
+        boolean pointX = right - left < 0.5f, pointY = bottom - top < 0.5f;
+        if (pointX) {
+            left = Math.min(Math.max((int) Math.floor((left + right) * 0.5f), 0), texWidth - 1);
+            right = left + 1f;
+        }
+        if (pointY) {
+            top = Math.min(Math.max((int) Math.floor((top + bottom) * 0.5f), 0), texHeight - 1);
+            bottom = top + 1f;
+        }
+        int x = Math.max(0, (int) Math.floor(left) - 1), y = Math.max(0, (int) Math.floor(top) - 1);
+        int w = Math.min(texWidth, (int) Math.ceil(right) + 1) - x, h = Math.min(texHeight, (int) Math.ceil(bottom) + 1) - y;
+        String name = textureId(texture) + ":" + x + "," + y + "," + w + "," + h;
+        if (packer.getRect(name) == null) {
+            Pixmap piece = new Pixmap(w, h, source.getFormat());
+            piece.setBlending(Pixmap.Blending.None);
+            piece.drawPixmap(source, 0, 0, x, y, w, h);
+            packer.pack(name, piece);
+            piece.dispose();
+        }
+        if (pointX) left = right = left + 0.5f;
+        if (pointY) top = bottom = top + 0.5f;
+        // the glyph can only be moved once the page textures exist
+        packed.put(gr, new PendingRegion(gr, name, left - x, top - y, right - x, bottom - y));
+    }
+
+    private void moveToPage(PendingRegion p) {
+        Font.GlyphRegion gr = p.region;
+        Rectangle rect = packer.getRect(p.name);
+        Texture page = pageRegions.get(packer.getPageIndex(p.name)).getTexture();
+        float invWidth = 1f / page.getWidth(), invHeight = 1f / page.getHeight();
+        float u = (rect.x + p.left) * invWidth, u2 = (rect.x + p.right) * invWidth;
+        float v = (rect.y + p.top) * invHeight, v2 = (rect.y + p.bottom) * invHeight;
+        boolean flipX = gr.isFlipX(), flipY = gr.isFlipY();
+        gr.setTexture(page);
+        // setRegion() doesn't go through GlyphRegion.flip(), so the offsets stay the same
+        gr.setRegion(flipX ? u2 : u, flipY ? v2 : v, flipX ? u : u2, flipY ? v : v2);
+    }
+
+    /**
+     * Where a packed glyph goes on its packed piece, relative to the piece's top left corner, in pixels.
+     */
+    private static final class PendingRegion {
+        final Font.GlyphRegion region;
+        final String name;
+        final float left, top, right, bottom;
+
+        PendingRegion(Font.GlyphRegion region, String name, float left, float top, float right, float bottom) {
+            this.region = region;
+            this.name = name;
+            this.left = left;
+            this.top = top;
+            this.right = right;
+            this.bottom = bottom;
+        }
+    }
+
+    /**
+     * Disposes the shared pages. Fonts packed here can't be drawn afterwards.
+     */
+    @Override
+    public void dispose() {
+        // the packer leaves the pixmaps of pages with textures to those textures
+        for (TextureRegion region : pageRegions) {
+            region.getTexture().dispose();
+        }
+        packer.dispose();
+        pageRegions.clear();
+    }
+}
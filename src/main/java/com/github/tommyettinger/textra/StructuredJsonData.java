@@ -0,0 +1,409 @@
+/*
+ * Copyright (c) 2023 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.tommyettinger.textra;
+
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.SerializationException;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * The parts of a Structured JSON font file (as produced by msdf-atlas-gen or fontwriter) that {@link Font} uses, with
+ * every glyph and kerning pair stored in primitive arrays. This can be filled from a stream of chars by
+ * {@link #read(Reader)}, which never builds a String of the whole file or a {@link JsonValue} tree, or from an
+ * already-parsed JsonValue by {@link #from(JsonValue)}.
+ * <br>
+ * The streaming parser only accepts standard JSON, which is what those tools write; keys it doesn't use are skipped.
+ */
+final class StructuredJsonData {
+    /**
+     * The "type" of the "atlas" object, such as "msdf", "sdf", or "softmask".
+     */
+    String type = "";
+    /**
+     * Read from the "atlas" object.
+     */
+    float size = 16f, descender = -0.25f, lineHeight = 1f, underlineY = -0.1f;
+    /**
+     * Read from the "metrics" object.
+     */
+    float emSize = 1f;
+    /**
+     * The "unicode" of each glyph.
+     */
+    final IntArray codes = new IntArray();
+    /**
+     * The "advance" of each glyph.
+     */
+    final FloatArray advances = new FloatArray();
+    /**
+     * Four items per glyph: the left, bottom, right, and top of its "planeBounds", or NaN for the left if it had none.
+     */
+    final FloatArray planeBounds = new FloatArray();
+    /**
+     * Four items per glyph: the left, bottom, right, and top of its "atlasBounds", or NaN for the left if it had none.
+     */
+    final FloatArray atlasBounds = new FloatArray();
+    /**
+     * The "unicode1", "unicode2", and "advance" of each kerning pair.
+     */
+    final IntArray kernFirsts = new IntArray(), kernSeconds = new IntArray();
+    final FloatArray kernAmounts = new FloatArray();
+
+    /**
+     * Reads Structured JSON from {@code reader} as a stream, closing it when done.
+     * @param reader a Reader of a Structured JSON font file, such as from {@link com.badlogic.gdx.files.FileHandle#reader(String)}
+     *               or a {@link com.github.tommyettinger.textra.utils.LZBReader}
+     * @return a new StructuredJsonData holding everything Font uses from the file
+     * @throws SerializationException if the file can't be read or isn't valid JSON
+     */
+    static StructuredJsonData read(Reader reader) {
+        StructuredJsonData data = new StructuredJsonData();
+        try {
+            try {
+                new Parser(reader).parseRoot(data);
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            throw new SerializationException("Error reading Structured JSON font", e);
+        }
+        return data;
+    }
+
+    /**
+     * Gets the parts of an already-parsed Structured JSON font that {@link Font} uses.
+     * @param fnt the root of a parsed Structured JSON font file
+     * @return a new StructuredJsonData holding everything Font uses from {@code fnt}
+     */
+    static StructuredJsonData from(JsonValue fnt) {
+        StructuredJsonData data = new StructuredJsonData();
+        JsonValue atlas = fnt.get("atlas");
+        if (atlas != null) {
+            data.type = atlas.getString("type", "");
+            data.size = atlas.getFloat("size", 16f);
+            data.descender = atlas.getFloat("descender", -0.25f);
+            data.lineHeight = atlas.getFloat("lineHeight", 1f);
+            data.underlineY = atlas.getFloat("underlineY", -0.1f);
+        }
+        JsonValue metrics = fnt.get("metrics");
+        if (metrics != null) {
+            data.emSize = metrics.getFloat("emSize", 1f);
+        }
+        JsonValue glyphs = fnt.get("glyphs");
+        if (glyphs != null) {
+            for (JsonValue current = glyphs.child; current != null; current = current.next) {
+                data.codes.add(current.getInt("unicode", 65535));
+                data.advances.add(current.getFloat("advance", 1f));
+                addBounds(data.planeBounds, current.get("planeBounds"));
+                addBounds(data.atlasBounds, current.get("atlasBounds"));
+            }
+        }
+        JsonValue kern = fnt.get("kerning");
+        if (kern != null) {
+            for (JsonValue current = kern.child; current != null; current = current.next) {
+                data.kernFirsts.add(current.getInt("unicode1", 65535));
+                data.kernSeconds.add(current.getInt("unicode2", 65535));
+                data.kernAmounts.add(current.getFloat("advance", 0f));
+            }
+        }
+        return data;
+    }
+
+    private static void addBounds(FloatArray into, JsonValue bounds) {
+        if (bounds == null)
+            into.add(Float.NaN, 0f, 0f, 0f);
+        else
+            into.add(bounds.getFloat("left", 0f), bounds.getFloat("bottom", 0f),
+                    bounds.getFloat("right", 0f), bounds.getFloat("top", 0f));
+    }
+
+    /**
+     * A minimal pull parser that reads only the structure of a Structured JSON font.
+     */
+    private static final class Parser {
+        private final Reader reader;
+        private final char[] buffer = new char[8192];
+        private int position = 0, limit = 0;
+        private final StringBuilder sb = new StringBuilder(32);
+
+        Parser(Reader reader) {
+            this.reader = reader;
+        }
+
+        private int peek() throws IOException {
+            if (position == limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position];
+        }
+
+        /**
+         * Skips whitespace, then returns the next char without consuming it, or -1 at the end of the input.
+         */
+        private int peekToken() throws IOException {
+            int c;
+            while ((c = peek()) == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\uFEFF') {
+                position++;
+            }
+            return c;
+        }
+
+        private void expect(char c) throws IOException {
+            int n = peekToken();
+            if (n != c)
+                throw new SerializationException("Error parsing Structured JSON font: expected '" + c + "' but found "
+                        + (n == -1 ? "the end of the file" : "'" + (char) n + "'"));
+            position++;
+        }
+
+        private boolean comma() throws IOException {
+            if (peekToken() == ',') {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private String readString() throws IOException {
+            expect('"');
+            sb.setLength(0);
+            int c;
+            while ((c = peek()) != '"') {
+                if (c == -1)
+                    throw new SerializationException("Error parsing Structured JSON font: unterminated string");
+                position++;
+                if (c == '\\') {
+                    c = peek();
+                    if (c == -1)
+                        throw new SerializationException("Error parsing Structured JSON font: unterminated string");
+                    position++;
+                    switch (c) {
+                        case 'b': c = '\b'; break;
+                        case 'f': c = '\f'; break;
+                        case 'n': c = '\n'; break;
+                        case 'r': c = '\r'; break;
+                        case 't': c = '\t'; break;
+                        case 'u':
+                            int code = 0;
+                            for (int i = 0; i < 4; i++) {
+                                int h = Character.digit(peek(), 16);
+                                if (h < 0)
+                                    throw new SerializationException("Error parsing Structured JSON font: bad unicode escape");
+                                position++;
+                                code = code << 4 | h;
+                            }
+                            c = code;
+                            break;
+                    }
+                }
+                sb.append((char) c);
+            }
+            position++;
+            return sb.toString();
+        }
+
+        private String readKey() throws IOException {
+            String key = readString();
+            expect(':');
+            return key;
+        }
+
+        /**
+         * Reads a number, or a String holding a number, as a double.
+         */
+        private double readNumber() throws IOException {
+            int c = peekToken();
+            if (c == '"') {
+                try {
+                    return Double.parseDouble(readString());
+                } catch (NumberFormatException e) {
+                    throw new SerializationException("Error parsing Structured JSON font: expected a number", e);
+                }
+            }
+            sb.setLength(0);
+            while ((c = peek()) == '-' || c == '+' || c == '.' || c == 'e' || c == 'E' || (c >= '0' && c <= '9')) {
+                sb.append((char) c);
+                position++;
+            }
+            try {
+                return Double.parseDouble(sb.toString());
+            } catch (NumberFormatException e) {
+                throw new SerializationException("Error parsing Structured JSON font: expected a number", e);
+            }
+        }
+
+        private float readFloat() throws IOException {
+            return (float) readNumber();
+        }
+
+        private int readInt() throws IOException {
+            return (int) readNumber();
+        }
+
+        private void skipValue() throws IOException {
+            int c = peekToken();
+            if (c == '{') {
+                position++;
+                if (peekToken() != '}') {
+                    do {
+                        readKey();
+                        skipValue();
+                    } while (comma());
+                }
+                expect('}');
+            } else if (c == '[') {
+                position++;
+                if (peekToken() != ']') {
+                    do {
+                        skipValue();
+                    } while (comma());
+                }
+                expect(']');
+            } else if (c == '"') {
+                readString();
+            } else if (c == -1) {
+                throw new SerializationException("Error parsing Structured JSON font: unexpected end of the file");
+            } else {
+                // a number, true, false, or null
+                while ((c = peek()) != -1 && c != ',' && c != '}' && c != ']' && c > ' ') {
+                    position++;
+                }
+            }
+        }
+
+        void parseRoot(StructuredJsonData data) throws IOException {
+            expect('{');
+            if (peekToken() != '}') {
+                do {
+                    String key = readKey();
+                    if ("atlas".equals(key)) parseAtlas(data);
+                    else if ("metrics".equals(key)) parseMetrics(data);
+                    else if ("glyphs".equals(key)) parseGlyphs(data);
+                    else if ("kerning".equals(key)) parseKerning(data);
+                    else skipValue();
+                } while (comma());
+            }
+            expect('}');
+        }
+
+        private void parseAtlas(StructuredJsonData data) throws IOException {
+            expect('{');
+            if (peekToken() != '}') {
+                do {
+                    String key = readKey();
+                    if ("type".equals(key) && peekToken() == '"') data.type = readString();
+                    else if ("size".equals(key)) data.size = readFloat();
+                    else if ("descender".equals(key)) data.descender = readFloat();
+                    else if ("lineHeight".equals(key)) data.lineHeight = readFloat();
+                    else if ("underlineY".equals(key)) data.underlineY = readFloat();
+                    else skipValue();
+                } while (comma());
+            }
+            expect('}');
+        }
+
+        private void parseMetrics(StructuredJsonData data) throws IOException {
+            expect('{');
+            if (peekToken() != '}') {
+                do {
+                    String key = readKey();
+                    if ("emSize".equals(key)) data.emSize = readFloat();
+                    else skipValue();
+                } while (comma());
+            }
+            expect('}');
+        }
+
+        private void parseGlyphs(StructuredJsonData data) throws IOException {
+            expect('[');
+            if (peekToken() != ']') {
+                do {
+                    int code = 65535;
+                    float advance = 1f;
+                    int plane = data.planeBounds.size, atlas = data.atlasBounds.size;
+                    data.planeBounds.add(Float.NaN, 0f, 0f, 0f);
+                    data.atlasBounds.add(Float.NaN, 0f, 0f, 0f);
+                    expect('{');
+                    if (peekToken() != '}') {
+                        do {
+                            String key = readKey();
+                            if ("unicode".equals(key)) code = readInt();
+                            else if ("advance".equals(key)) advance = readFloat();
+                            else if ("planeBounds".equals(key)) parseBounds(data.planeBounds.items, plane);
+                            else if ("atlasBounds".equals(key)) parseBounds(data.atlasBounds.items, atlas);
+                            else skipValue();
+                        } while (comma());
+                    }
+                    expect('}');
+                    data.codes.add(code);
+                    data.advances.add(advance);
+                } while (comma());
+            }
+            expect(']');
+        }
+
+        private void parseBounds(float[] items, int start) throws IOException {
+            items[start] = 0f;
+            expect('{');
+            if (peekToken() != '}') {
+                do {
+                    String key = readKey();
+                    if ("left".equals(key)) items[start] = readFloat();
+                    else if ("bottom".equals(key)) items[start + 1] = readFloat();
+                    else if ("right".equals(key)) items[start + 2] = readFloat();
+                    else if ("top".equals(key)) items[start + 3] = readFloat();
+                    else skipValue();
+                } while (comma());
+            }
+            expect('}');
+        }
+
+        private void parseKerning(StructuredJsonData data) throws IOException {
+            expect('[');
+            if (peekToken() != ']') {
+                do {
+                    int first = 65535, second = 65535;
+                    float amount = 0f;
+                    expect('{');
+                    if (peekToken() != '}') {
+                        do {
+                            String key = readKey();
+                            if ("unicode1".equals(key)) first = readInt();
+                            else if ("unicode2".equals(key)) second = readInt();
+                            else if ("advance".equals(key)) amount = readFloat();
+                            else skipValue();
+                        } while (comma());
+                    }
+                    expect('}');
+                    data.kernFirsts.add(first);
+                    data.kernSeconds.add(second);
+                    data.kernAmounts.add(amount);
+                } while (comma());
+            }
+            expect(']');
+        }
+    }
+}
@@ -0,0 +1,1120 @@
+/*
+ * Copyright (c) 2024 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.tommyettinger.textra;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input.Keys;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.scenes.scene2d.InputEvent;
+import com.badlogic.gdx.scenes.scene2d.InputListener;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.scenes.scene2d.ui.TextField.TextFieldStyle;
+import com.badlogic.gdx.scenes.scene2d.ui.Widget;
+import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener.ChangeEvent;
+import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
+import com.badlogic.gdx.scenes.scene2d.utils.Disableable;
+import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
+import com.badlogic.gdx.scenes.scene2d.utils.UIUtils;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Clipboard;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.LongArray;
+import com.badlogic.gdx.utils.Null;
+import com.badlogic.gdx.utils.Pools;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.badlogic.gdx.utils.Timer;
+import com.badlogic.gdx.utils.Timer.Task;
+import regexodus.Category;
+
+import java.lang.StringBuilder;
+
+/**
+ * A multi-line text input area, meant for longer text such as notes, scripts, or chat messages being composed. Unlike
+ * {@link TextraField}, the text is not parsed as markup; every char typed is shown as-is, including square brackets and
+ * curly braces. Lines are not wrapped; the area scrolls vertically and horizontally to keep the cursor visible.
+ * <br>
+ * The text is stored as one buffer per line, and each line keeps its own glyphs and glyph positions. Editing only
+ * changes the lines the edit touches, and only visible lines that changed are measured again when drawn, so typing
+ * takes about the same time whether the text is one line or thousands. Undo and redo store only what each edit removed
+ * and inserted; typing and deleting in one place within a short time are merged into one undoable edit.
+ * <br>
+ * This uses a {@link TextFieldStyle}, the same as {@link TextraField}. The preferred height fits
+ * {@link #setPrefRows(int) a number of rows}, and the preferred width is 150, a relatively arbitrary size.
+ * A {@link ChangeEvent} is fired when the user changes the text; if it is cancelled, the change is reverted.
+ * Ctrl+Z undoes, and Ctrl+Y or Ctrl+Shift+Z redoes.
+ */
+public class TextraArea extends Widget implements Disableable {
+    static protected final char BACKSPACE = 8;
+    static protected final char CARRIAGE_RETURN = '\r';
+    static protected final char NEWLINE = '\n';
+    static protected final char TAB = '\t';
+    static protected final char DELETE = 127;
+
+    /**
+     * Edits closer together than this many milliseconds, in the same place, can be undone together.
+     */
+    static public long undoMergeTime = 750L;
+
+    /**
+     * One line of text, with the glyphs and positions used to draw it and place the cursor in it.
+     */
+    private static final class EditLine {
+        final StringBuilder text;
+        final Line line = new Line();
+        /**
+         * The x-position before each char, then the x-position after the last one.
+         */
+        final FloatArray positions = new FloatArray();
+        boolean dirty = true;
+
+        EditLine() {
+            text = new StringBuilder();
+        }
+
+        EditLine(CharSequence contents) {
+            text = new StringBuilder(contents);
+        }
+    }
+
+    /**
+     * One undoable change: at {@link #offset}, {@link #removed} was replaced by {@link #inserted}.
+     */
+    private static final class Edit {
+        int offset;
+        final StringBuilder removed = new StringBuilder(), inserted = new StringBuilder();
+    }
+
+    private final Array<EditLine> lines = new Array<>(true, 16, EditLine.class);
+    private final Array<Edit> undoStack = new Array<>(), redoStack = new Array<>();
+    /**
+     * The length of the whole text, counting the newline between each pair of lines.
+     */
+    private int length;
+    /**
+     * The whole text as a String, or null if it changed since it was last requested.
+     */
+    private @Null String text;
+    private long lastEditTime;
+    private int undoLimit = 200;
+
+    protected final Font font;
+    protected TextFieldStyle style;
+    protected int cursorLine, cursorColumn, selectionLine, selectionColumn;
+    protected boolean hasSelection;
+    protected float scrollX, scrollY;
+    /**
+     * The x-position the cursor tries to return to when it moves up or down, or negative if it hasn't moved vertically.
+     */
+    private float goalX = -1f;
+    private @Null String messageText;
+    private final Line messageLine = new Line();
+    private int maxLength;
+    private int prefRows = 4;
+
+    Clipboard clipboard;
+    InputListener inputListener;
+    TextraField.OnscreenKeyboard keyboard = new TextraField.DefaultOnscreenKeyboard();
+    boolean onlyFontChars = true, disabled;
+    boolean programmaticChangeEvents;
+
+    boolean focused;
+    boolean cursorOn;
+    float blinkTime = 0.32f;
+    final Task blinkTask = new Task() {
+        public void run () {
+            if (getStage() == null) {
+                cancel();
+                return;
+            }
+            cursorOn = !cursorOn;
+            Gdx.graphics.requestRendering();
+        }
+    };
+    final KeyRepeatTask keyRepeatTask = new KeyRepeatTask();
+
+    public TextraArea(@Null String text, Skin skin) {
+        this(text, skin.get(TextFieldStyle.class));
+    }
+
+    public TextraArea(@Null String text, Skin skin, String styleName) {
+        this(text, skin.get(styleName, TextFieldStyle.class));
+    }
+
+    public TextraArea(@Null String text, TextFieldStyle style) {
+        this(text, style, new Font(style.font));
+    }
+
+    /**
+     * Creates a TextraArea that draws with a copy of {@code replacementFont} instead of the style's BitmapFont.
+     * @param text the initial text; may be null
+     * @param style the style to use for everything but the font
+     * @param replacementFont a Font to copy and draw text with
+     */
+    public TextraArea(@Null String text, TextFieldStyle style, Font replacementFont) {
+        setStyle(style);
+        font = new Font(replacementFont);
+        // curly braces and square brackets are text here, not markup
+        font.omitCurlyBraces = false;
+        clipboard = Gdx.app.getClipboard();
+        lines.add(new EditLine());
+        initialize();
+        setText(text);
+        setSize(getPrefWidth(), getPrefHeight());
+    }
+
+    protected void initialize () {
+        addListener(inputListener = createInputListener());
+    }
+
+    protected InputListener createInputListener () {
+        return new TextAreaClickListener();
+    }
+
+    protected boolean isWordCharacter (char c) {
+        return Category.Word.contains(c);
+    }
+
+    public void setStyle (TextFieldStyle style) {
+        if (style == null) throw new IllegalArgumentException("style cannot be null.");
+        this.style = style;
+        invalidateHierarchy();
+    }
+
+    /** Returns the text area's style. Modifying the returned style may not have an effect until
+     * {@link #setStyle(TextFieldStyle)} is called. */
+    public TextFieldStyle getStyle () {
+        return style;
+    }
+
+    /**
+     * @return the Font this draws with; a copy of the one it was given
+     */
+    public Font getFont () {
+        return font;
+    }
+
+    // Positions and text
+
+    /**
+     * @return how many lines of text there are; always at least 1
+     */
+    public int getLines () {
+        return lines.size;
+    }
+
+    /**
+     * Gets one line of text, without its line break.
+     * @param line the index of a line, from 0 to {@link #getLines()} - 1
+     * @return the text of that line, as a new String
+     */
+    public String getLine (int line) {
+        return lines.get(line).text.toString();
+    }
+
+    /**
+     * @return the length of the whole text, including line breaks
+     */
+    public int length () {
+        return length;
+    }
+
+    /**
+     * Gets the offset in the whole text of the given column in the given line.
+     */
+    protected int offsetOf (int line, int column) {
+        int offset = column;
+        EditLine[] ls = lines.items;
+        for (int i = 0; i < line; i++) offset += ls[i].text.length() + 1;
+        return offset;
+    }
+
+    /**
+     * Gets the line and column of an offset in the whole text, as the line in the upper 32 bits and the column in the
+     * lower 32 bits. Offsets past the end are treated as the end.
+     */
+    protected long positionOf (int offset) {
+        EditLine[] ls = lines.items;
+        int last = lines.size - 1;
+        for (int i = 0; i < last; i++) {
+            int len = ls[i].text.length();
+            if (offset <= len) return (long) i << 32 | offset;
+            offset -= len + 1;
+        }
+        return (long) last << 32 | Math.max(0, Math.min(offset, ls[last].text.length()));
+    }
+
+    /**
+     * Gets the text between two offsets in the whole text.
+     * @param start the first offset, inclusive
+     * @param end the last offset, exclusive
+     * @return the text between start and end, using '\n' for line breaks
+     */
+    public String substring (int start, int end) {
+        if (end <= start) return "";
+        long s = positionOf(start), e = positionOf(end);
+        int startLine = (int) (s >>> 32), endLine = (int) (e >>> 32);
+        if (startLine == endLine) return lines.get(startLine).text.substring((int) s, (int) e);
+        StringBuilder sb = new StringBuilder(end - start);
+        sb.append(lines.get(startLine).text, (int) s, lines.get(startLine).text.length());
+        for (int i = startLine + 1; i < endLine; i++) sb.append('\n').append(lines.get(i).text);
+        return sb.append('\n').append(lines.get(endLine).text, 0, (int) e).toString();
+    }
+
+    /** @return Never null, might be an empty string. */
+    public String getText () {
+        if (text == null) {
+            StringBuilder sb = new StringBuilder(length);
+            for (int i = 0; i < lines.size; i++) {
+                if (i > 0) sb.append('\n');
+                sb.append(lines.get(i).text);
+            }
+            text = sb.toString();
+        }
+        return text;
+    }
+
+    /**
+     * Replaces all text, clearing the selection and any undo history. Line breaks can be "\n", "\r\n", or "\r".
+     * @param str If null, "" is used.
+     */
+    public void setText (@Null String str) {
+        if (str == null) str = "";
+        String oldText = getText();
+        if (str.equals(oldText)) return;
+        lines.clear();
+        length = 0;
+        EditLine current = new EditLine();
+        lines.add(current);
+        for (int i = 0, n = str.length(); i < n; i++) {
+            char c = str.charAt(i);
+            if (c == CARRIAGE_RETURN) {
+                if (i + 1 < n && str.charAt(i + 1) == NEWLINE) continue;
+                c = NEWLINE;
+            }
+            if (c == NEWLINE) lines.add(current = new EditLine());
+            else current.text.append(c);
+            length++;
+        }
+        text = null;
+        cursorLine = cursorColumn = 0;
+        scrollX = scrollY = 0f;
+        goalX = -1f;
+        clearSelection();
+        undoStack.clear();
+        redoStack.clear();
+        if (programmaticChangeEvents && !fireChange()) setText(oldText);
+    }
+
+    /**
+     * Adds text to the end, moving the cursor there. This can be undone.
+     * @param str If null, "" is used.
+     */
+    public void appendText (@Null String str) {
+        if (str == null) return;
+        clearSelection();
+        cursorLine = lines.size - 1;
+        cursorColumn = lines.peek().text.length();
+        insert(str, programmaticChangeEvents);
+    }
+
+    /**
+     * Replaces the selected text, or inserts at the cursor if nothing is selected, as typing or pasting would. Line
+     * breaks can be "\n", "\r\n", or "\r". This can be undone.
+     * @param str the text to insert; if null, this only deletes the selection
+     */
+    public void replaceSelection (@Null String str) {
+        insert(str == null ? "" : str, programmaticChangeEvents);
+    }
+
+    // Editing
+
+    /**
+     * Cleans up text being typed or pasted, and replaces the selection with it.
+     */
+    void insert (CharSequence content, boolean fireChangeEvent) {
+        int start = getSelectionStart(), end = getSelectionEnd();
+        StringBuilder buffer = new StringBuilder(content.length());
+        int newLength = length - (end - start);
+        for (int i = 0, n = content.length(); i < n; i++) {
+            if (maxLength > 0 && newLength + buffer.length() >= maxLength) break;
+            char c = content.charAt(i);
+            if (c == CARRIAGE_RETURN) {
+                if (i + 1 < n && content.charAt(i + 1) == NEWLINE) continue;
+                c = NEWLINE;
+            }
+            if (c != NEWLINE && c != TAB && onlyFontChars && !font.mapping.containsKey(c)) continue;
+            buffer.append(c);
+        }
+        if (start == end && buffer.length() == 0) return;
+        replace(start, end, buffer, true, fireChangeEvent);
+    }
+
+    /**
+     * Replaces the text from {@code start} to {@code end} with {@code replacement}, which must already be cleaned up,
+     * and puts the cursor after it. If {@code fireChangeEvent} is true and the ChangeEvent is cancelled, this is
+     * reverted.
+     * @return true if the text changed
+     */
+    boolean replace (int start, int end, CharSequence replacement, boolean record, boolean fireChangeEvent) {
+        String removed = substring(start, end);
+        replaceLines(start, end, replacement);
+        length += replacement.length() - removed.length();
+        text = null;
+        clearSelection();
+        goalX = -1f;
+        if (fireChangeEvent && !fireChange()) {
+            replaceLines(start, start + replacement.length(), removed);
+            length -= replacement.length() - removed.length();
+            long p = positionOf(start + removed.length());
+            cursorLine = (int) (p >>> 32);
+            cursorColumn = (int) p;
+            return false;
+        }
+        if (record) record(start, removed, replacement);
+        return true;
+    }
+
+    /**
+     * Changes only the lines that the replaced range touches, then puts the cursor after the replacement.
+     */
+    private void replaceLines (int start, int end, CharSequence replacement) {
+        long s = positionOf(start), e = positionOf(end);
+        int startLine = (int) (s >>> 32), endLine = (int) (e >>> 32);
+        EditLine current = lines.get(startLine);
+        EditLine last = lines.get(endLine);
+        String tail = last.text.substring((int) e);
+        current.text.setLength((int) s);
+        current.dirty = true;
+        if (endLine > startLine) lines.removeRange(startLine + 1, endLine);
+        int lineIndex = startLine;
+        for (int i = 0, n = replacement.length(); i < n; i++) {
+            char c = replacement.charAt(i);
+            if (c == NEWLINE) lines.insert(++lineIndex, current = new EditLine());
+            else current.text.append(c);
+        }
+        cursorLine = lineIndex;
+        cursorColumn = current.text.length();
+        current.text.append(tail);
+    }
+
+    private void record (int offset, String removed, CharSequence inserted) {
+        redoStack.clear();
+        long time = TimeUtils.millis();
+        Edit last = undoStack.size == 0 || time - lastEditTime > undoMergeTime ? null : undoStack.peek();
+        lastEditTime = time;
+        if (last != null) {
+            int ins = inserted.length(), rem = removed.length();
+            if (rem == 0 && ins == 1 && inserted.charAt(0) != NEWLINE
+                    && last.offset + last.inserted.length() == offset) {
+                // typing
+                last.inserted.append(inserted);
+                return;
+            }
+            if (ins == 0 && rem == 1 && last.inserted.length() == 0) {
+                if (offset + 1 == last.offset) {
+                    // backspace
+                    last.removed.insert(0, removed);
+                    last.offset = offset;
+                    return;
+                }
+                if (offset == last.offset) {
+                    // forward delete
+                    last.removed.append(removed);
+                    return;
+                }
+            }
+        }
+        Edit edit = new Edit();
+        edit.offset = offset;
+        edit.removed.append(removed);
+        edit.inserted.append(inserted);
+        undoStack.add(edit);
+        if (undoStack.size > undoLimit) undoStack.removeIndex(0);
+    }
+
+    /**
+     * Undoes the last edit, if there is one.
+     * @return true if something was undone
+     */
+    public boolean undo () {
+        if (undoStack.size == 0) return false;
+        Edit edit = undoStack.peek();
+        if (!replace(edit.offset, edit.offset + edit.inserted.length(), edit.removed, false, true)) return false;
+        redoStack.add(undoStack.pop());
+        lastEditTime = 0L;
+        return true;
+    }
+
+    /**
+     * Redoes the last edit undone, if there is one and nothing has been edited since.
+     * @return true if something was redone
+     */
+    public boolean redo () {
+        if (redoStack.size == 0) return false;
+        Edit edit = redoStack.peek();
+        if (!replace(edit.offset, edit.offset + edit.removed.length(), edit.inserted, false, true)) return false;
+        undoStack.add(redoStack.pop());
+        lastEditTime = 0L;
+        return true;
+    }
+
+    /**
+     * Sets how many edits can be undone; older ones are forgotten. Defaults to 200.
+     * @param undoLimit how many edits to remember, at least 0
+     */
+    public void setUndoLimit (int undoLimit) {
+        this.undoLimit = Math.max(0, undoLimit);
+        if (undoStack.size > this.undoLimit) undoStack.removeRange(0, undoStack.size - this.undoLimit - 1);
+    }
+
+    public int getUndoLimit () {
+        return undoLimit;
+    }
+
+    /** @return True if the text was not changed by a listener cancelling the change. */
+    boolean fireChange () {
+        ChangeEvent changeEvent = Pools.obtain(ChangeEvent.class);
+        boolean cancelled = fire(changeEvent);
+        Pools.free(changeEvent);
+        return !cancelled;
+    }
+
+    /** Copies the selected text to the {@link Clipboard} set on this TextraArea. */
+    public void copy () {
+        if (hasSelection) clipboard.setContents(getSelection());
+    }
+
+    /** Copies the selected text to the {@link Clipboard} set on this TextraArea, then removes it. */
+    public void cut () {
+        cut(programmaticChangeEvents);
+    }
+
+    void cut (boolean fireChangeEvent) {
+        if (hasSelection) {
+            copy();
+            insert("", fireChangeEvent);
+        }
+    }
+
+    // Selection and cursor
+
+    /** @return the offset in the whole text where the selection starts, or the cursor if nothing is selected */
+    public int getSelectionStart () {
+        int cursor = getCursorPosition();
+        return hasSelection ? Math.min(cursor, offsetOf(selectionLine, selectionColumn)) : cursor;
+    }
+
+    /** @return the offset in the whole text where the selection ends, or the cursor if nothing is selected */
+    public int getSelectionEnd () {
+        int cursor = getCursorPosition();
+        return hasSelection ? Math.max(cursor, offsetOf(selectionLine, selectionColumn)) : cursor;
+    }
+
+    public String getSelection () {
+        return hasSelection ? substring(getSelectionStart(), getSelectionEnd()) : "";
+    }
+
+    /** Sets the selected text, using offsets in the whole text. */
+    public void setSelection (int selectionStart, int selectionEnd) {
+        if (selectionStart < 0) throw new IllegalArgumentException("selectionStart must be >= 0");
+        if (selectionEnd < 0) throw new IllegalArgumentException("selectionEnd must be >= 0");
+        if (selectionEnd == selectionStart) {
+            setCursorPosition(selectionStart);
+            return;
+        }
+        long anchor = positionOf(Math.min(selectionStart, selectionEnd));
+        long cursor = positionOf(Math.max(selectionStart, selectionEnd));
+        selectionLine = (int) (anchor >>> 32);
+        selectionColumn = (int) anchor;
+        cursorLine = (int) (cursor >>> 32);
+        cursorColumn = (int) cursor;
+        hasSelection = true;
+        goalX = -1f;
+    }
+
+    public void selectAll () {
+        setSelection(0, length);
+    }
+
+    public void clearSelection () {
+        hasSelection = false;
+    }
+
+    /** Sets the cursor position as an offset in the whole text, and clears any selection. */
+    public void setCursorPosition (int cursorPosition) {
+        if (cursorPosition < 0) throw new IllegalArgumentException("cursorPosition must be >= 0");
+        clearSelection();
+        long p = positionOf(cursorPosition);
+        cursorLine = (int) (p >>> 32);
+        cursorColumn = (int) p;
+        goalX = -1f;
+    }
+
+    /** @return the cursor position as an offset in the whole text */
+    public int getCursorPosition () {
+        return offsetOf(cursorLine, cursorColumn);
+    }
+
+    /** @return the line the cursor is on, starting at 0 */
+    public int getCursorLine () {
+        return cursorLine;
+    }
+
+    /** @return the column in its line that the cursor is before, starting at 0 */
+    public int getCursorColumn () {
+        return cursorColumn;
+    }
+
+    /**
+     * Moves the cursor, starting or extending a selection if {@code select} is true, or clearing it otherwise.
+     */
+    protected void moveCursorTo (int line, int column, boolean select) {
+        if (select) {
+            if (!hasSelection) {
+                selectionLine = cursorLine;
+                selectionColumn = cursorColumn;
+                hasSelection = true;
+            }
+        } else clearSelection();
+        cursorLine = MathUtils.clamp(line, 0, lines.size - 1);
+        cursorColumn = MathUtils.clamp(column, 0, lines.get(cursorLine).text.length());
+        if (hasSelection && selectionLine == cursorLine && selectionColumn == cursorColumn) hasSelection = false;
+    }
+
+    protected void moveCursor (boolean forward, boolean jump, boolean select) {
+        int line = cursorLine, column = cursorColumn;
+        StringBuilder sb = lines.get(line).text;
+        if (forward) {
+            if (column < sb.length()) {
+                column++;
+                if (jump) while (column < sb.length() && isWordCharacter(sb.charAt(column - 1)) && isWordCharacter(sb.charAt(column))) column++;
+            } else if (line < lines.size - 1) {
+                line++;
+                column = 0;
+            }
+        } else {
+            if (column > 0) {
+                column--;
+                if (jump) while (column > 0 && isWordCharacter(sb.charAt(column)) && isWordCharacter(sb.charAt(column - 1))) column--;
+            } else if (line > 0) {
+                line--;
+                column = lines.get(line).text.length();
+            }
+        }
+        goalX = -1f;
+        moveCursorTo(line, column, select);
+    }
+
+    /**
+     * Moves the cursor up or down by some lines, keeping it as near as possible to the x-position it had when it
+     * started moving vertically.
+     */
+    protected void moveCursorVertically (int lineChange, boolean select) {
+        if (goalX < 0f) goalX = layout(cursorLine).positions.get(cursorColumn);
+        int line = MathUtils.clamp(cursorLine + lineChange, 0, lines.size - 1);
+        float keep = goalX;
+        moveCursorTo(line, columnAt(line, keep), select);
+        goalX = keep;
+    }
+
+    /**
+     * Gets the column in {@code line} whose position is nearest to {@code x}.
+     */
+    protected int columnAt (int line, float x) {
+        FloatArray positions = layout(line).positions;
+        float[] items = positions.items;
+        int lo = 0, hi = positions.size - 1;
+        while (lo < hi) {
+            int mid = lo + hi + 1 >>> 1;
+            if (items[mid] <= x) lo = mid;
+            else hi = mid - 1;
+        }
+        if (lo + 1 < positions.size && x - items[lo] > items[lo + 1] - x) lo++;
+        return lo;
+    }
+
+    /**
+     * Makes sure the glyphs and positions of a line match its text, then returns it. Only lines that changed since
+     * they were last laid out are measured again.
+     */
+    private EditLine layout (int line) {
+        EditLine el = lines.get(line);
+        if (el.dirty) {
+            StringBuilder sb = el.text;
+            LongArray glyphs = el.line.glyphs;
+            glyphs.clear();
+            glyphs.ensureCapacity(sb.length());
+            for (int i = 0, n = sb.length(); i < n; i++) {
+                char c = sb.charAt(i);
+                // tabs and chars the font doesn't have take up the space of a space
+                glyphs.add(0xFFFFFFFE00000000L | (c == TAB || !font.mapping.containsKey(c) ? ' ' : c));
+            }
+            float end = font.calculateXAdvances(el.line, el.positions);
+            el.positions.add(end);
+            el.line.width = end;
+            el.line.height = font.cellHeight;
+            el.dirty = false;
+        }
+        return el;
+    }
+
+    // Drawing
+
+    protected @Null Drawable getBackgroundDrawable () {
+        if (disabled && style.disabledBackground != null) return style.disabledBackground;
+        if (style.focusedBackground != null && hasKeyboardFocus()) return style.focusedBackground;
+        return style.background;
+    }
+
+    /**
+     * Scrolls so the cursor is inside the visible area, which is {@code width} by {@code height}.
+     */
+    protected void keepCursorVisible (float width, float height) {
+        float lineHeight = font.cellHeight;
+        float cursorWidth = style.cursor == null ? 0f : style.cursor.getMinWidth();
+        float top = cursorLine * lineHeight;
+        if (top < scrollY) scrollY = top;
+        else if (top + lineHeight > scrollY + height) scrollY = top + lineHeight - height;
+        float cursorX = layout(cursorLine).positions.get(cursorColumn);
+        if (cursorX < scrollX) scrollX = cursorX;
+        else if (cursorX + cursorWidth > scrollX + width) scrollX = cursorX + cursorWidth - width;
+        scrollY = Math.max(0f, Math.min(scrollY, lines.size * lineHeight - height));
+        scrollX = Math.max(0f, scrollX);
+    }
+
+    @Override
+    public void draw (Batch batch, float parentAlpha) {
+        boolean focused = hasKeyboardFocus();
+        if (focused != this.focused || (focused && !blinkTask.isScheduled())) {
+            this.focused = focused;
+            blinkTask.cancel();
+            cursorOn = focused;
+            if (focused)
+                Timer.schedule(blinkTask, blinkTime, blinkTime);
+            else
+                keyRepeatTask.cancel();
+        } else if (!focused)
+            cursorOn = false;
+
+        final Color fontColor = (disabled && style.disabledFontColor != null) ? style.disabledFontColor
+                : ((focused && style.focusedFontColor != null) ? style.focusedFontColor : style.fontColor);
+        final Drawable background = getBackgroundDrawable();
+
+        Color color = getColor();
+        float x = getX(), y = getY(), width = getWidth(), height = getHeight();
+
+        batch.setColor(color.r, color.g, color.b, color.a * parentAlpha);
+        float left = x, bottom = y, right = 0f, top = 0f;
+        if (background != null) {
+            background.draw(batch, x, y, width, height);
+            left += background.getLeftWidth();
+            bottom += background.getBottomHeight();
+            right = background.getRightWidth();
+            top = background.getTopHeight();
+        }
+        float areaWidth = width - (left - x) - right, areaHeight = height - (bottom - y) - top;
+        if (areaWidth <= 0f || areaHeight <= 0f) return;
+        keepCursorVisible(areaWidth, areaHeight);
+
+        float lineHeight = font.cellHeight;
+        int firstLine = Math.max(0, (int) (scrollY / lineHeight));
+        int lastLine = Math.min(lines.size - 1, (int) ((scrollY + areaHeight) / lineHeight));
+        // the y-position of the top of line 0
+        float textTop = bottom + areaHeight + scrollY;
+        float textLeft = left - scrollX;
+
+        if (!clipBegin(left, bottom, areaWidth, areaHeight)) return;
+
+        if (focused && hasSelection && style.selection != null) {
+            int startLine, startColumn, endLine, endColumn;
+            if (selectionLine < cursorLine || (selectionLine == cursorLine && selectionColumn < cursorColumn)) {
+                startLine = selectionLine; startColumn = selectionColumn; endLine = cursorLine; endColumn = cursorColumn;
+            } else {
+                startLine = cursorLine; startColumn = cursorColumn; endLine = selectionLine; endColumn = selectionColumn;
+            }
+            for (int i = Math.max(firstLine, startLine), n = Math.min(lastLine, endLine); i <= n; i++) {
+                FloatArray positions = layout(i).positions;
+                float from = i == startLine ? positions.get(startColumn) : 0f;
+                // selected line breaks are shown as a little extra width
+                float to = i == endLine ? positions.get(endColumn) : positions.peek() + font.cellWidth * 0.5f;
+                style.selection.draw(batch, textLeft + from, textTop - (i + 1) * lineHeight, to - from, lineHeight);
+            }
+        }
+
+        boolean resetShader = (font.getDistanceField() != Font.DistanceFieldType.STANDARD || font.hasAlphaPages())
+                && batch.getShader() != font.shader;
+        if (resetShader)
+            font.enableShader(batch);
+        if (length == 0) {
+            if ((!focused || disabled) && messageText != null) {
+                Color messageColor = style.messageFontColor;
+                if (messageColor != null)
+                    batch.setColor(messageColor.r * color.r, messageColor.g * color.g, messageColor.b * color.b,
+                            messageColor.a * color.a * parentAlpha);
+                else
+                    batch.setColor(0.7f * color.r, 0.7f * color.g, 0.7f * color.b, color.a * parentAlpha);
+                font.drawGlyphs(batch, messageLine, left, bottom + areaHeight - lineHeight);
+            }
+        } else {
+            if (fontColor != null)
+                batch.setColor(fontColor.r * color.r, fontColor.g * color.g, fontColor.b * color.b,
+                        fontColor.a * color.a * parentAlpha);
+            for (int i = firstLine; i <= lastLine; i++) {
+                font.drawGlyphs(batch, layout(i).line, textLeft, textTop - (i + 1) * lineHeight);
+            }
+        }
+        if (resetShader)
+            batch.setShader(null);
+        batch.setColor(color.r, color.g, color.b, color.a * parentAlpha);
+
+        if (!disabled && cursorOn && style.cursor != null) {
+            style.cursor.draw(batch, textLeft + layout(cursorLine).positions.get(cursorColumn),
+                    textTop - (cursorLine + 1) * lineHeight, style.cursor.getMinWidth(), lineHeight);
+        }
+        batch.flush();
+        clipEnd();
+    }
+
+    // Properties
+
+    public void setMaxLength (int maxLength) {
+        this.maxLength = maxLength;
+    }
+
+    public int getMaxLength () {
+        return this.maxLength;
+    }
+
+    /** When true (the default), characters not in the font are stripped when typed or pasted. When false, they are
+     * kept, and shown as spaces. */
+    public void setOnlyFontChars (boolean onlyFontChars) {
+        this.onlyFontChars = onlyFontChars;
+    }
+
+    /** @return May be null. */
+    public @Null String getMessageText () {
+        return messageText;
+    }
+
+    /** Sets the text that will be drawn in the text area if no text has been entered.
+     * @param messageText may be null. */
+    public void setMessageText (@Null String messageText) {
+        this.messageText = messageText;
+        messageLine.glyphs.clear();
+        if (messageText != null) {
+            for (int i = 0, n = messageText.length(); i < n; i++) {
+                char c = messageText.charAt(i);
+                if (c == NEWLINE) break;
+                messageLine.glyphs.add(0xFFFFFFFE00000000L | c);
+            }
+        }
+    }
+
+    /** If false, methods that change the text will not fire {@link ChangeEvent}, the event will be fired only when the
+     * user changes the text. */
+    public void setProgrammaticChangeEvents (boolean programmaticChangeEvents) {
+        this.programmaticChangeEvents = programmaticChangeEvents;
+    }
+
+    public boolean getProgrammaticChangeEvents () {
+        return programmaticChangeEvents;
+    }
+
+    /**
+     * Sets how many rows of text the preferred height fits. Defaults to 4.
+     */
+    public void setPrefRows (int prefRows) {
+        this.prefRows = Math.max(1, prefRows);
+        invalidateHierarchy();
+    }
+
+    public int getPrefRows () {
+        return prefRows;
+    }
+
+    public InputListener getDefaultInputListener () {
+        return inputListener;
+    }
+
+    /** Default is an instance of {@link TextraField.DefaultOnscreenKeyboard}. */
+    public TextraField.OnscreenKeyboard getOnscreenKeyboard () {
+        return keyboard;
+    }
+
+    public void setOnscreenKeyboard (TextraField.OnscreenKeyboard keyboard) {
+        this.keyboard = keyboard;
+    }
+
+    public void setClipboard (Clipboard clipboard) {
+        this.clipboard = clipboard;
+    }
+
+    public void setBlinkTime (float blinkTime) {
+        this.blinkTime = blinkTime;
+    }
+
+    public void setDisabled (boolean disabled) {
+        this.disabled = disabled;
+    }
+
+    public boolean isDisabled () {
+        return disabled;
+    }
+
+    public float getPrefWidth () {
+        return 150;
+    }
+
+    public float getPrefHeight () {
+        float topAndBottom = 0, minHeight = 0;
+        if (style.background != null) {
+            topAndBottom = Math.max(topAndBottom, style.background.getBottomHeight() + style.background.getTopHeight());
+            minHeight = Math.max(minHeight, style.background.getMinHeight());
+        }
+        if (style.focusedBackground != null) {
+            topAndBottom = Math.max(topAndBottom,
+                    style.focusedBackground.getBottomHeight() + style.focusedBackground.getTopHeight());
+            minHeight = Math.max(minHeight, style.focusedBackground.getMinHeight());
+        }
+        if (style.disabledBackground != null) {
+            topAndBottom = Math.max(topAndBottom,
+                    style.disabledBackground.getBottomHeight() + style.disabledBackground.getTopHeight());
+            minHeight = Math.max(minHeight, style.disabledBackground.getMinHeight());
+        }
+        return Math.max(topAndBottom + prefRows * font.cellHeight, minHeight);
+    }
+
+    class KeyRepeatTask extends Task {
+        int keycode;
+
+        public void run () {
+            if (getStage() == null) {
+                cancel();
+                return;
+            }
+            inputListener.keyDown(null, keycode);
+        }
+    }
+
+    /** Basic input listener for the text area. */
+    public class TextAreaClickListener extends ClickListener {
+        public void clicked (InputEvent event, float x, float y) {
+            int count = getTapCount() % 4;
+            if (count == 0) clearSelection();
+            if (count == 2) {
+                StringBuilder sb = lines.get(cursorLine).text;
+                int start = cursorColumn, end = cursorColumn;
+                while (start > 0 && isWordCharacter(sb.charAt(start - 1))) start--;
+                while (end < sb.length() && isWordCharacter(sb.charAt(end))) end++;
+                int lineStart = offsetOf(cursorLine, 0);
+                setSelection(lineStart + start, lineStart + end);
+            }
+            if (count == 3) selectAll();
+        }
+
+        public boolean touchDown (InputEvent event, float x, float y, int pointer, int button) {
+            if (!super.touchDown(event, x, y, pointer, button)) return false;
+            if (pointer == 0 && button != 0) return false;
+            if (disabled) return true;
+            setCursorPosition(x, y, false);
+            Stage stage = getStage();
+            if (stage != null) stage.setKeyboardFocus(TextraArea.this);
+            keyboard.show(true);
+            return true;
+        }
+
+        public void touchDragged (InputEvent event, float x, float y, int pointer) {
+            super.touchDragged(event, x, y, pointer);
+            setCursorPosition(x, y, true);
+        }
+
+        /**
+         * Moves the cursor to the char nearest to a point in local coordinates.
+         */
+        protected void setCursorPosition (float x, float y, boolean select) {
+            Drawable background = getBackgroundDrawable();
+            float left = 0f, top = getHeight();
+            if (background != null) {
+                left = background.getLeftWidth();
+                top -= background.getTopHeight();
+            }
+            int line = MathUtils.clamp((int) Math.floor((top - y + scrollY) / font.cellHeight), 0, lines.size - 1);
+            moveCursorTo(line, columnAt(line, x - left + scrollX), select);
+            goalX = -1f;
+
+            cursorOn = focused;
+            blinkTask.cancel();
+            if (focused) Timer.schedule(blinkTask, blinkTime, blinkTime);
+        }
+
+        public boolean keyDown (InputEvent event, int keycode) {
+            if (disabled) return false;
+
+            cursorOn = focused;
+            blinkTask.cancel();
+            if (focused) Timer.schedule(blinkTask, blinkTime, blinkTime);
+
+            if (!hasKeyboardFocus()) return false;
+
+            boolean repeat = false;
+            boolean ctrl = UIUtils.ctrl();
+            boolean shift = UIUtils.shift();
+            boolean handled = true;
+
+            if (ctrl) {
+                switch (keycode) {
+                    case Keys.V:
+                        insert(clipboard.getContents() == null ? "" : clipboard.getContents(), true);
+                        return true;
+                    case Keys.C:
+                    case Keys.INSERT:
+                        copy();
+                        return true;
+                    case Keys.X:
+                        cut(true);
+                        return true;
+                    case Keys.A:
+                        selectAll();
+                        return true;
+                    case Keys.Z:
+                        if (shift) redo();
+                        else undo();
+                        repeat = true;
+                        break;
+                    case Keys.Y:
+                        redo();
+                        repeat = true;
+                        break;
+                    default:
+                        handled = false;
+                }
+                if (handled) {
+                    if (repeat) scheduleKeyRepeatTask(keycode);
+                    return true;
+                }
+            }
+
+            if (shift) {
+                switch (keycode) {
+                    case Keys.INSERT:
+                        insert(clipboard.getContents() == null ? "" : clipboard.getContents(), true);
+                        return true;
+                    case Keys.FORWARD_DEL:
+                        cut(true);
+                        return true;
+                }
+            }
+
+            int visibleRows = Math.max(1, (int) (getHeight() / font.cellHeight) - 1);
+            switch (keycode) {
+                case Keys.LEFT:
+                    moveCursor(false, ctrl, shift);
+                    repeat = true;
+                    break;
+                case Keys.RIGHT:
+                    moveCursor(true, ctrl, shift);
+                    repeat = true;
+                    break;
+                case Keys.UP:
+                    moveCursorVertically(-1, shift);
+                    repeat = true;
+                    break;
+                case Keys.DOWN:
+                    moveCursorVertically(1, shift);
+                    repeat = true;
+                    break;
+                case Keys.PAGE_UP:
+                    moveCursorVertically(-visibleRows, shift);
+                    repeat = true;
+                    break;
+                case Keys.PAGE_DOWN:
+                    moveCursorVertically(visibleRows, shift);
+                    repeat = true;
+                    break;
+                case Keys.HOME:
+                    goalX = -1f;
+                    moveCursorTo(ctrl ? 0 : cursorLine, 0, shift);
+                    break;
+                case Keys.END:
+                    goalX = -1f;
+                    if (ctrl) moveCursorTo(lines.size - 1, lines.peek().text.length(), shift);
+                    else moveCursorTo(cursorLine, lines.get(cursorLine).text.length(), shift);
+                    break;
+                default:
+                    handled = false;
+            }
+
+            if (repeat) scheduleKeyRepeatTask(keycode);
+            return handled;
+        }
+
+        protected void scheduleKeyRepeatTask (int keycode) {
+            if (!keyRepeatTask.isScheduled() || keyRepeatTask.keycode != keycode) {
+                keyRepeatTask.keycode = keycode;
+                keyRepeatTask.cancel();
+                Timer.schedule(keyRepeatTask, keyRepeatInitialTime, keyRepeatTime);
+            }
+        }
+
+        public boolean keyUp (InputEvent event, int keycode) {
+            if (disabled) return false;
+            keyRepeatTask.cancel();
+            return true;
+        }
+
+        public boolean keyTyped (InputEvent event, char character) {
+            if (disabled) return false;
+
+            // Disallow "typing" most ASCII control characters, which would show up as a space.
+            switch (character) {
+                case BACKSPACE:
+                case TAB:
+                case NEWLINE:
+                case CARRIAGE_RETURN:
+                case DELETE:
+                    break;
+                default:
+                    if (character < 32) return false;
+            }
+
+            if (!hasKeyboardFocus()) return false;
+
+            if (UIUtils.isMac && Gdx.input.isKeyPressed(Keys.SYM)) return true;
+
+            if (character == BACKSPACE || character == DELETE) {
+                if (hasSelection)
+                    insert("", true);
+                else {
+                    int cursor = getCursorPosition();
+                    if (character == BACKSPACE && cursor > 0)
+                        replace(cursor - 1, cursor, "", true, true);
+                    else if (character == DELETE && cursor < length)
+                        replace(cursor, cursor + 1, "", true, true);
+                }
+            } else {
+                insert(String.valueOf(character == CARRIAGE_RETURN ? NEWLINE : character), true);
+            }
+            return true;
+        }
+    }
+
+    static public float keyRepeatInitialTime = 0.4f;
+    static public float keyRepeatTime = 0.1f;
+}
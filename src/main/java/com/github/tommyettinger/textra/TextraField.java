@@ -107,6 +107,11 @@ public class TextraField extends Widget implements Disableable {
 	TextFieldStyle style;
 	private String messageText;
 	protected String displayText;
+	/** True if the displayed glyphs are exactly the chars of {@link #displayText}, so {@link #patchDisplayText(String)}
+	 * can edit them in place. */
+	boolean plainDisplay;
+	private final Line patchLine = new Line();
+	private final FloatArray patchPositions = new FloatArray();
 	Clipboard clipboard;
 	InputListener inputListener;
 	@Null TextFieldListener listener;
@@ -295,15 +300,20 @@ public class TextraField extends Widget implements Disableable {
 		}
 		if (-renderOffset > maxOffset) renderOffset = -maxOffset;
 
-		// calculate first visible char based on render offset
+		// calculate first visible char based on render offset; positions only go up (apart from small kerning steps
+		// back), so this searches for it instead of walking from the start of long text
+		int low = 0, high = glyphCount;
+		while (low < high) {
+			int mid = low + high >>> 1;
+			if (glyphPositions[mid] >= -renderOffset) high = mid;
+			else low = mid + 1;
+		}
+		while (low > 0 && glyphPositions[low - 1] >= -renderOffset) low--;
 		visibleTextStart = 0;
 		float startX = 0;
-		for (int i = 0; i < glyphCount; i++) {
-			if (glyphPositions[i] >= -renderOffset) {
-				visibleTextStart = i;
-				startX = glyphPositions[i];
-				break;
-			}
+		if (low < glyphCount) {
+			visibleTextStart = low;
+			startX = glyphPositions[low];
 		}
 
 		// calculate last visible char based on visible width and render offset
@@ -386,6 +396,7 @@ public class TextraField extends Widget implements Disableable {
 				} else
 					label.setColor(0.7f, 0.7f, 0.7f, color.a);
 				label.setText(messageText, false, false);
+				plainDisplay = false;
 				label.setBounds(x + bgLeftWidth, y + textY + yOffset, width - bgLeftWidth - bgRightWidth, font.cellHeight);
 				label.draw(batch, parentAlpha);
 			}
@@ -430,53 +441,87 @@ public class TextraField extends Widget implements Disableable {
 
 	void updateDisplayText () {
 		Font font = label.font;
-//		String text = this.text;
-//		int textLength = text.length();
-
-//		StringBuilder buffer = new StringBuilder();
-//		for (int i = 0; i < textLength; i++) {
-//			char c = text.charAt(i);
-//			buffer.append(font.mapping.containsKey(c) ? c : ' ');
-//		}
-//		String newDisplayText = buffer.toString();
-
 		label.font.defaultValue = label.font.mapping.get(' ');
+		String shown = text.replace('\r', ' ').replace('\n', ' ');
+
+		if (!patchDisplayText(shown)) {
+			label.restart(shown);
 
-		label.restart(text
-				.replace('\r', ' ').replace('\n', ' ')
-		);
-
-		if (passwordMode && font.mapping.containsKey(passwordCharacter)) {
-//			if (passwordBuffer == null) passwordBuffer = new StringBuilder(newDisplayText.length());
-//			if (passwordBuffer.length() > textLength)
-//				passwordBuffer.setLength(textLength);
-//			else {
-//				for (int i = passwordBuffer.length(); i < textLength; i++)
-//					passwordBuffer.append(passwordCharacter);
-//			}
-//			displayText = passwordBuffer.toString();
-			for (int ln = 0; ln < label.workingLayout.lines(); ln++) {
-				Line line = label.workingLayout.getLine(ln);
-				for (int g = 0; g < line.glyphs.size; g++) {
-					line.glyphs.set(g, 0xFFFFFFFE00000000L | passwordCharacter);
+			if (passwordMode && font.mapping.containsKey(passwordCharacter)) {
+				for (int ln = 0; ln < label.workingLayout.lines(); ln++) {
+					Line line = label.workingLayout.getLine(ln);
+					for (int g = 0; g < line.glyphs.size; g++) {
+						line.glyphs.set(g, 0xFFFFFFFE00000000L | passwordCharacter);
+					}
 				}
 			}
+			displayText = label.toString();
+			label.skipToTheEnd(true, true);
+
+			float end = 0f;
+			if (label.workingLayout.lines.notEmpty()) {
+				end = font.calculateXAdvances(label.workingLayout.lines.first(), glyphPositions);
+			} else
+				fontOffset = 0;
+			glyphPositions.add(end);
+			plainDisplay = !passwordMode && shown.equals(displayText) && label.workingLayout.lines() == 1;
 		}
-		displayText = label.toString();
-		label.skipToTheEnd(true, true);
-
-		float end = 0f;
-		if(label.workingLayout.lines.notEmpty()) {
-			end = font.calculateXAdvances(label.workingLayout.lines.first(), glyphPositions);
-		} else
-			fontOffset = 0;
-		glyphPositions.add(end);
 		visibleTextStart = Math.min(visibleTextStart, glyphPositions.size - 1);
 		visibleTextEnd = MathUtils.clamp(visibleTextEnd, visibleTextStart, glyphPositions.size - 1);
 
 		selectionStart = Math.min(selectionStart, label.length());
 	}
 
+	/** Tries to change the displayed glyphs and {@link #glyphPositions} to match {@code shown} by only replacing the
+	 * span that differs from {@link #displayText}, instead of parsing and laying out the whole text again. This only
+	 * works when the displayed text has no markup and the new span doesn't either, which is the usual case for typing and
+	 * pasting into long fields.
+	 * @return true if the display was updated, or false if the whole text needs to be laid out again */
+	boolean patchDisplayText (String shown) {
+		if (!plainDisplay || passwordMode || displayText == null) return false;
+		final String old = displayText;
+		final int oldLength = old.length(), newLength = shown.length();
+		if (oldLength + 1 != glyphPositions.size) return false;
+		int prefix = 0, limit = Math.min(oldLength, newLength);
+		while (prefix < limit && old.charAt(prefix) == shown.charAt(prefix)) prefix++;
+		int suffix = 0;
+		limit -= prefix;
+		while (suffix < limit && old.charAt(oldLength - 1 - suffix) == shown.charAt(newLength - 1 - suffix)) suffix++;
+		final int removed = oldLength - suffix - prefix, added = newLength - suffix - prefix;
+		if (removed == 0 && added == 0) return true;
+		for (int i = prefix, n = prefix + added; i < n; i++) {
+			char c = shown.charAt(i);
+			if (c == '[' || c == '{' || c == '\u0002' || c == '\t') return false;
+		}
+		String replacement = shown.substring(prefix, prefix + added);
+		if (!label.replaceGlyphs(prefix, prefix + removed, replacement, shown)) return false;
+		displayText = shown;
+
+		// Positions before the change stay the same; the changed glyphs, and the glyph after them (whose kerning with
+		// the last changed glyph can differ), are measured along with the glyph before them for kerning. The rest of the
+		// positions only move over by how much the changed span grew or shrank.
+		final Font font = label.font;
+		final LongArray glyphs = label.workingLayout.getLine(0).glyphs;
+		final int from = Math.max(prefix - 1, 0), until = Math.min(prefix + added + 1, newLength);
+		final Line span = patchLine;
+		span.glyphs.clear();
+		span.glyphs.addAll(glyphs.items, from, until - from);
+		patchPositions.add(font.calculateXAdvances(span, patchPositions));
+		float[] measured = patchPositions.items;
+		float[] positions = glyphPositions.items;
+		float base = positions[prefix] - measured[prefix - from];
+		float anchor = base + measured[until - from];
+		int oldAnchor = until - added + removed;
+		float delta = anchor - positions[oldAnchor];
+		positions = glyphPositions.ensureCapacity(Math.max(0, added - removed));
+		System.arraycopy(positions, oldAnchor, positions, until, oldLength + 1 - oldAnchor);
+		for (int i = until + 1; i <= newLength; i++) positions[i] += delta;
+		for (int i = prefix; i < until; i++) positions[i] = base + measured[i - from];
+		positions[until] = anchor;
+		glyphPositions.size = newLength + 1;
+		return true;
+	}
+
 	/** Copies the contents of this TextraField to the {@link Clipboard} implementation set on this TextraField. */
 	public void copy () {
 		if (hasSelection && !passwordMode) {
@@ -818,7 +863,9 @@ public class TextraField extends Widget implements Disableable {
 	@Override
 	protected void sizeChanged() {
 		super.sizeChanged();
-		label.layout.setTargetWidth(getWidth());
+		// The field scrolls its one line instead of wrapping it; a target width would make markup cut the text off
+		// (losing it from the field) or search for a place to cut it after every glyph.
+		label.layout.setTargetWidth(0f);
 	}
 
 	@Override
@@ -19,15 +19,18 @@ package com.github.tommyettinger.textra;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.scenes.scene2d.Group;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.scenes.scene2d.ui.Widget;
+import com.badlogic.gdx.scenes.scene2d.utils.Cullable;
 import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
 import com.badlogic.gdx.scenes.scene2d.utils.TransformDrawable;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.LongArray;
+import com.badlogic.gdx.utils.Null;
 
 import static com.github.tommyettinger.textra.Font.ALTERNATE;
 
@@ -35,7 +38,7 @@ import static com.github.tommyettinger.textra.Font.ALTERNATE;
  * A scene2d.ui Widget that displays text using a {@link Font} rather than a libGDX BitmapFont. This supports being
  * laid out in a Table just like the typical Label (when {@link #isWrap() wrap} is false, which is the default).
  */
-public class TextraLabel extends Widget {
+public class TextraLabel extends Widget implements Cullable {
     public Layout layout;
     protected Font font;
     public int align = Align.left;
@@ -48,6 +51,16 @@ public class TextraLabel extends Widget {
     public boolean wrap = false;
     public String storedText;
     public Styles.LabelStyle style;
+    /**
+     * The area, in this label's local coordinates, that is visible, as set by a {@link Cullable} parent such as a
+     * ScrollPane. Lines (and glyphs on wide lines) outside this area are not drawn. May be null, which draws all.
+     */
+    protected @Null Rectangle cullingArea;
+    /**
+     * Remembers how the text was wrapped at the last few widths, so that {@link #layout()} doesn't wrap again when a
+     * Table tries a width it already tried, or a resize goes back to an earlier width.
+     */
+    final WrapCache wrapCache = new WrapCache();
 
     /**
      * Creates a TextraLabel that uses the default libGDX font (lsans-15 in the current version) with white color.
@@ -315,7 +328,7 @@ public class TextraLabel extends Widget {
         if (layout.lines.isEmpty() || parentAlpha <= 0f) return;
 
         // we only change the shader or batch color if we actually are drawing something.
-        boolean resetShader = font.getDistanceField() != Font.DistanceFieldType.STANDARD && batch.getShader() != font.shader;
+        boolean resetShader = (font.getDistanceField() != Font.DistanceFieldType.STANDARD || font.hasAlphaPages()) && batch.getShader() != font.shader;
         if (resetShader)
             font.enableShader(batch);
         batch.getColor().set(getColor()).a *= parentAlpha;
@@ -330,6 +343,10 @@ public class TextraLabel extends Widget {
 
         float single;
 
+        final Rectangle cull = cullingArea;
+        final float cullTop = cull == null ? 0f : cull.y + cull.height;
+        final float cullRight = cull == null ? 0f : cull.x + cull.width;
+
         for (int ln = 0; ln < lines; ln++) {
             Line glyphs = layout.getLine(ln);
 
@@ -348,6 +365,12 @@ public class TextraLabel extends Widget {
             x = cs * fx - sn * fy + worldOriginX;
             y = sn * fx + cs * fy + worldOriginY;
 
+            if (cull != null) {
+                // the line's bottom, un-rotated into this label's local coordinates, which cullingArea uses
+                float localY = cs * (y - getY() - originY) - sn * (x - getX() - originX) + originY;
+                if (localY > cullTop + glyphs.height || localY + glyphs.height * 2f < cull.y)
+                    continue;
+            }
 
             float xChange = 0, yChange = 0;
 
@@ -415,6 +438,17 @@ public class TextraLabel extends Widget {
                 bgc = 0;
                 float xx = x + xChange;
                 float yy = y + yChange;
+                if (cull != null) {
+                    float localX = cs * (xx - getX() - originX) + sn * (yy - getY() - originY) + originX;
+                    if (localX > cullRight + glyphs.height)
+                        break;
+                    single = f.drawnAdvance(glyph);
+                    if (localX + single + glyphs.height < cull.x) {
+                        xChange += cs * single;
+                        yChange += sn * single;
+                        continue;
+                    }
+                }
                 single = f.drawGlyph(batch, glyph, xx, yy, rot, 1f, 1f, bgc);
                 xChange += cs * single;
                 yChange += sn * single;
@@ -425,6 +459,24 @@ public class TextraLabel extends Widget {
             batch.setShader(null);
     }
 
+    /**
+     * Called by a {@link Cullable} parent, such as a ScrollPane, to tell this label which part of it is visible.
+     * Lines outside this area are skipped entirely when drawing, as are glyphs on long lines that are outside it.
+     * @param cullingArea the visible area in this label's local coordinates, or null to draw everything
+     */
+    @Override
+    public void setCullingArea(@Null Rectangle cullingArea) {
+        this.cullingArea = cullingArea;
+    }
+
+    /**
+     * @return May be null.
+     * @see #setCullingArea(Rectangle)
+     */
+    public Rectangle getCullingArea() {
+        return cullingArea;
+    }
+
     @Override
     public float getPrefWidth() {
         if(wrap) return 0f;
@@ -479,6 +531,7 @@ public class TextraLabel extends Widget {
 
     @Override
     public void setSize(float width, float height) {
+        if (getWidth() == width && getHeight() == height) return;
         super.setSize(width, height);
         if (wrap) {
             layout.setTargetWidth(width);
@@ -496,11 +549,15 @@ public class TextraLabel extends Widget {
         if (wrap && layout.getTargetWidth() != width) {
             if(width != 0f)
                 layout.setTargetWidth(width);
-            font.regenerateLayout(layout);
+            float oldHeight = layout.getHeight();
+            wrapCache.wrap(font, layout);
             // This was used earlier, but regenerateLayout() seems to work better in its place.
 //            font.markup(storedText, layout.clear());
 
-            invalidateHierarchy();
+            // the preferred width doesn't depend on the layout when wrapping, so only a new height needs the parent
+            // to lay out again.
+            if(layout.getHeight() != oldHeight)
+                invalidateHierarchy();
         }
     }
 
@@ -0,0 +1,643 @@
+/*
+ * Copyright (c) 2024 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.tommyettinger.textra;
+
+import com.badlogic.gdx.Input.Keys;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.InputEvent;
+import com.badlogic.gdx.scenes.scene2d.InputListener;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.scenes.scene2d.ui.Widget;
+import com.badlogic.gdx.scenes.scene2d.utils.ArraySelection;
+import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener.ChangeEvent;
+import com.badlogic.gdx.scenes.scene2d.utils.Cullable;
+import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
+import com.badlogic.gdx.scenes.scene2d.utils.UIUtils;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.Null;
+import com.badlogic.gdx.utils.ObjectSet;
+import com.github.tommyettinger.textra.Styles.ListStyle;
+import regexodus.Matcher;
+import regexodus.Pattern;
+import regexodus.REFlags;
+
+/**
+ * A list box for very many items, such as thousands of servers or every item in a game's database. Unlike
+ * {@link TextraListBox}, which needs a {@link TextraLabel} for every item, this holds items of any type and uses an
+ * {@link ItemAdapter} to get the markup to show for each one. Only the rows that can be seen get a TextraLabel, and
+ * those labels are reused as the list scrolls. A label stays bound to its item (compared by identity) until it is
+ * needed for another item, so scrolling back and forth over the same rows doesn't parse their markup again.
+ * <br>
+ * Every row is the same height, {@link #getRowHeight()}, which is the {@link ListStyle#font}'s
+ * {@link Font#cellHeight} unless set. Rows are only markup, so they should each fit on one line. Because finding the
+ * widest row would mean laying all of them out, the preferred width is the widest row laid out so far, unless
+ * {@link #setItemWidth(float)} sets it.
+ * <br>
+ * This should be put in a {@link com.badlogic.gdx.scenes.scene2d.ui.ScrollPane}, which sets the culling area; without a
+ * culling area, only the rows that the stage's camera can see are drawn (and need a label).
+ * <p>
+ * A {@link ChangeEvent} is fired when the list selection changes.
+ * @param <T> the type of items; items must not be null
+ */
+public class TextraVirtualListBox<T> extends Widget implements Cullable {
+	/**
+	 * Gets the markup to show for an item in a {@link TextraVirtualListBox}.
+	 * @param <T> the type of items
+	 */
+	public interface ItemAdapter<T> {
+		/**
+		 * @param item an item in the list; never null
+		 * @return the markup to show for item
+		 */
+		String toMarkup (T item);
+	}
+
+	/**
+	 * A label and the item it is showing, if any.
+	 */
+	private static final class Row<T> {
+		final TextraLabel label;
+		@Null T item;
+		/**
+		 * The frame this row was last drawn in; the row least recently drawn is reused first.
+		 */
+		long lastDrawn;
+
+		Row (TextraLabel label) {
+			this.label = label;
+		}
+	}
+
+	protected ListStyle style;
+	protected final Array<T> items = new Array<>();
+	protected ItemAdapter<? super T> adapter;
+	private ArraySelection<T> selection = new ArraySelection<>(items);
+	private Rectangle cullingArea;
+	private final Rectangle viewArea = new Rectangle();
+	private final Vector2 corner = new Vector2();
+	private float prefWidth, prefHeight;
+	private float rowHeight = -1f, itemWidth = -1f, widestRow;
+	private final IdentityMap<T, Row<T>> bound = new IdentityMap<>();
+	private final Array<Row<T>> rows = new Array<>(false, 32);
+	private int extraRows = 32;
+	private long frame;
+	public int pressedIndex = -1, overIndex = -1;
+	private final InputListener keyListener;
+	public boolean typeToSelect;
+
+	public TextraVirtualListBox (ItemAdapter<? super T> adapter, Skin skin) {
+		this(adapter, skin.get(ListStyle.class));
+	}
+
+	public TextraVirtualListBox (ItemAdapter<? super T> adapter, Skin skin, String styleName) {
+		this(adapter, skin.get(styleName, ListStyle.class));
+	}
+
+	public TextraVirtualListBox (ItemAdapter<? super T> adapter, ListStyle style) {
+		if (adapter == null) throw new IllegalArgumentException("adapter cannot be null.");
+		this.adapter = adapter;
+		selection.setActor(this);
+		selection.setRequired(true);
+
+		setStyle(style);
+		setSize(getPrefWidth(), getPrefHeight());
+
+		addListener(keyListener = new InputListener() {
+			long typeTimeout;
+			String prefix;
+
+			public boolean keyDown (InputEvent event, int keycode) {
+				if (items.isEmpty()) return false;
+				int index;
+				switch (keycode) {
+					case Keys.A:
+						if (UIUtils.ctrl() && selection.getMultiple()) {
+							selection.clear();
+							selection.addAll(items);
+							return true;
+						}
+						break;
+					case Keys.HOME:
+						setSelectedIndex(0);
+						return true;
+					case Keys.END:
+						setSelectedIndex(items.size - 1);
+						return true;
+					case Keys.DOWN:
+						index = getSelectedIndex() + 1;
+						if (index >= items.size) index = 0;
+						setSelectedIndex(index);
+						return true;
+					case Keys.UP:
+						index = getSelectedIndex() - 1;
+						if (index < 0) index = items.size - 1;
+						setSelectedIndex(index);
+						return true;
+					case Keys.ESCAPE:
+						if (getStage() != null) getStage().setKeyboardFocus(null);
+						return true;
+				}
+				return false;
+			}
+
+			public boolean keyTyped (InputEvent event, char character) {
+				if (!typeToSelect) return false;
+				long time = System.currentTimeMillis();
+				if (time > typeTimeout) prefix = "^(?:(?:({=brace}[\\[\\{])[^\\]\\}]*{\\:brace})|\\p{G}+)*";
+				typeTimeout = time + 300;
+				if(character == '\\') prefix += "\\\\";
+				else if(character == '?') prefix += "\\?";
+				else if(character == '*') prefix += "\\*";
+				else if(character == '+') prefix += "\\+";
+				else if(character == '|') prefix += "\\|";
+				else if(character == '(') prefix += "\\(";
+				else if(character == ')') prefix += "\\)";
+				else if(character == '[') prefix += "\\[";
+				else if(character == ']') prefix += "\\]";
+				else if(character == '{') prefix += "\\{";
+				else if(character == '}') prefix += "\\}";
+				else prefix += Character.toLowerCase(character);
+				Matcher matcher = Pattern.compile(prefix, REFlags.IGNORE_CASE | REFlags.UNICODE).matcher();
+				for (int i = 0, n = items.size; i < n; i++) {
+					matcher.setTarget(getMarkup(i));
+					if (matcher.matchesPrefix()) {
+						setSelectedIndex(i);
+						break;
+					}
+				}
+				return false;
+			}
+		});
+
+		addListener(new InputListener() {
+			public boolean touchDown (InputEvent event, float x, float y, int pointer, int button) {
+				if (pointer != 0 || button != 0) return true;
+				if (selection.isDisabled()) return true;
+				if (getStage() != null) getStage().setKeyboardFocus(TextraVirtualListBox.this);
+				if (items.size == 0) return true;
+				int index = getItemIndexAt(y);
+				if (index == -1) return true;
+				selection.choose(items.get(index));
+				pressedIndex = index;
+				return true;
+			}
+
+			public void touchUp (InputEvent event, float x, float y, int pointer, int button) {
+				if (pointer != 0 || button != 0) return;
+				pressedIndex = -1;
+			}
+
+			public void touchDragged (InputEvent event, float x, float y, int pointer) {
+				overIndex = getItemIndexAt(y);
+			}
+
+			public boolean mouseMoved (InputEvent event, float x, float y) {
+				overIndex = getItemIndexAt(y);
+				return false;
+			}
+
+			public void exit (InputEvent event, float x, float y, int pointer, Actor toActor) {
+				if (pointer == 0) pressedIndex = -1;
+				if (pointer == -1) overIndex = -1;
+			}
+		});
+	}
+
+	public void setStyle (ListStyle style) {
+		if (style == null) throw new IllegalArgumentException("style cannot be null.");
+		if (this.style != null && this.style.font != style.font) {
+			bound.clear();
+			rows.clear();
+			widestRow = 0f;
+		}
+		this.style = style;
+		invalidateHierarchy();
+	}
+
+	/** Returns the list's style. Modifying the returned style may not have an effect until {@link #setStyle(ListStyle)} is
+	 * called. */
+	public ListStyle getStyle () {
+		return style;
+	}
+
+	public ItemAdapter<? super T> getAdapter () {
+		return adapter;
+	}
+
+	/**
+	 * Sets the adapter that gets the markup for each item, and lays out visible rows again when they are next drawn.
+	 * @param adapter a non-null ItemAdapter
+	 */
+	public void setAdapter (ItemAdapter<? super T> adapter) {
+		if (adapter == null) throw new IllegalArgumentException("adapter cannot be null.");
+		this.adapter = adapter;
+		refreshItems();
+	}
+
+	/**
+	 * Gets the markup the adapter produces for the item at the given index.
+	 */
+	public String getMarkup (int index) {
+		return adapter.toMarkup(items.get(index));
+	}
+
+	public void layout () {
+		Drawable selectedDrawable = style.selection;
+
+		prefHeight = selectedDrawable.getTopHeight() + selectedDrawable.getBottomHeight() + items.size * getRowHeight();
+		prefWidth = (itemWidth >= 0f ? itemWidth : widestRow) + selectedDrawable.getLeftWidth() + selectedDrawable.getRightWidth();
+
+		Drawable background = style.background;
+		if (background != null) {
+			prefWidth = Math.max(prefWidth + background.getLeftWidth() + background.getRightWidth(), background.getMinWidth());
+			prefHeight = Math.max(prefHeight + background.getTopHeight() + background.getBottomHeight(), background.getMinHeight());
+		}
+	}
+
+	public void draw (Batch batch, float parentAlpha) {
+		validate();
+
+		drawBackground(batch, parentAlpha);
+
+		Drawable selectedDrawable = style.selection;
+		Color fontColorSelected = style.fontColorSelected;
+		Color fontColorUnselected = style.fontColorUnselected;
+
+		Color color = getColor();
+		batch.setColor(color.r, color.g, color.b, color.a * parentAlpha);
+
+		float x = getX(), y = getY(), width = getWidth();
+		float itemY = getHeight();
+
+		Drawable background = style.background;
+		if (background != null) {
+			float leftWidth = background.getLeftWidth();
+			x += leftWidth;
+			itemY -= background.getTopHeight();
+			width -= leftWidth + background.getRightWidth();
+		}
+
+		float textOffsetX = selectedDrawable.getLeftWidth();
+		float textOffsetY = selectedDrawable.getTopHeight();
+		float rowHeight = getRowHeight();
+		if (rowHeight <= 0f || items.size == 0) return;
+
+		Rectangle area = cullingArea != null ? cullingArea : viewArea();
+		if (area.height <= 0f) return;
+		int first = Math.max(0, (int) ((itemY - area.y - area.height) / rowHeight));
+		int last = Math.min(items.size - 1, (int) ((itemY - area.y) / rowHeight));
+		frame++;
+		float widest = widestRow;
+		for (int i = first; i <= last; i++) {
+			T item = items.get(i);
+			TextraLabel label = obtainLabel(item, last - first + 1);
+			widest = Math.max(widest, label.getPrefWidth());
+			float rowY = itemY - i * rowHeight;
+			label.setColor(fontColorUnselected.r, fontColorUnselected.g, fontColorUnselected.b, fontColorUnselected.a * parentAlpha);
+			boolean selected = selection.contains(item);
+			Drawable drawable = null;
+			if (pressedIndex == i && style.down != null)
+				drawable = style.down;
+			else if (selected) {
+				drawable = selectedDrawable;
+				label.setColor(fontColorSelected.r, fontColorSelected.g, fontColorSelected.b, fontColorSelected.a * parentAlpha);
+			} else if (overIndex == i && style.over != null) //
+				drawable = style.over;
+			drawSelection(batch, drawable, x, y + rowY - rowHeight, width, rowHeight);
+			label.setPosition(x + textOffsetX, y + rowY - textOffsetY - rowHeight * 0.5f);
+			label.draw(batch, 1f);
+		}
+		trimRows(last - first + 1 + extraRows);
+		if (widest > widestRow) {
+			widestRow = widest;
+			if (itemWidth < 0f) invalidateHierarchy();
+		}
+	}
+
+	/**
+	 * Gets a label showing {@code item}, reusing the one already bound to it if there is one. Otherwise, this takes the
+	 * label drawn least recently (if there are enough labels already) and lays out the item's markup in it.
+	 * @param item the item to show
+	 * @param visibleRows how many rows are being drawn now; this keeps that many labels plus {@link #getExtraRows()}
+	 * @return a label showing item
+	 */
+	protected TextraLabel obtainLabel (T item, int visibleRows) {
+		Row<T> row = bound.get(item);
+		if (row == null) {
+			String markup = adapter.toMarkup(item);
+			if (rows.size < visibleRows + extraRows) {
+				row = new Row<>(new TextraLabel(markup, style.font));
+				rows.add(row);
+			} else {
+				row = rows.first();
+				for (int i = 1; i < rows.size; i++) {
+					Row<T> r = rows.get(i);
+					if (r.lastDrawn < row.lastDrawn) row = r;
+				}
+				if (row.item != null) bound.remove(row.item);
+				row.label.setText(markup);
+			}
+			row.item = item;
+			bound.put(item, row);
+		}
+		row.lastDrawn = frame;
+		return row.label;
+	}
+
+	/**
+	 * Finds the part of this widget that the stage's camera can see, in local coordinates, for when there is no culling
+	 * area. Without a stage, or if the stage's camera isn't an {@link OrthographicCamera}, this is the whole widget.
+	 * @return the visible area of this widget; its height is 0 if none of it can be seen
+	 */
+	private Rectangle viewArea () {
+		viewArea.set(0f, 0f, getWidth(), getHeight());
+		Stage stage = getStage();
+		if (stage == null || !(stage.getCamera() instanceof OrthographicCamera)) return viewArea;
+		OrthographicCamera camera = (OrthographicCamera) stage.getCamera();
+		float halfWidth = camera.viewportWidth * camera.zoom * 0.5f, halfHeight = camera.viewportHeight * camera.zoom * 0.5f;
+		float low = Float.POSITIVE_INFINITY, high = Float.NEGATIVE_INFINITY;
+		for (int i = 0; i < 4; i++) {
+			corner.set(camera.position.x + ((i & 1) == 0 ? -halfWidth : halfWidth),
+				camera.position.y + ((i & 2) == 0 ? -halfHeight : halfHeight));
+			stageToLocalCoordinates(corner);
+			low = Math.min(low, corner.y);
+			high = Math.max(high, corner.y);
+		}
+		low = Math.max(low, 0f);
+		high = Math.min(high, getHeight());
+		return viewArea.set(0f, low, getWidth(), Math.max(0f, high - low));
+	}
+
+	/**
+	 * Drops rows that weren't drawn this frame until there are at most {@code limit}, so the labels kept for a tall
+	 * view don't stay around after it shrinks.
+	 * @param limit how many rows to keep
+	 */
+	private void trimRows (int limit) {
+		for (int i = rows.size - 1; i >= 0 && rows.size > limit; i--) {
+			Row<T> row = rows.get(i);
+			if (row.lastDrawn == frame) continue;
+			if (row.item != null) bound.remove(row.item);
+			rows.removeIndex(i);
+		}
+	}
+
+	protected void drawSelection (Batch batch, @Null Drawable drawable, float x, float y, float width, float height) {
+		if (drawable != null) drawable.draw(batch, x, y, width, height);
+	}
+
+	/** Called to draw the background. Default implementation draws the style background drawable. */
+	protected void drawBackground (Batch batch, float parentAlpha) {
+		if (style.background != null) {
+			Color color = getColor();
+			batch.setColor(color.r, color.g, color.b, color.a * parentAlpha);
+			style.background.draw(batch, getX(), getY(), getWidth(), getHeight());
+		}
+	}
+
+	public ArraySelection<T> getSelection () {
+		return selection;
+	}
+
+	public void setSelection (ArraySelection<T> selection) {
+		this.selection = selection;
+	}
+
+	/** Returns the first selected item, or null. */
+	public @Null T getSelected () {
+		return selection.first();
+	}
+
+	/** Sets the selection to only the passed item, if it is a possible choice.
+	 * @param item May be null. */
+	public void setSelected (@Null T item) {
+		if (items.contains(item, false))
+			selection.set(item);
+		else if (selection.getRequired() && items.size > 0)
+			selection.set(items.first());
+		else
+			selection.clear();
+	}
+
+	/** @return The index of the first selected item. The top item has an index of 0. Nothing selected has an index of -1. */
+	public int getSelectedIndex () {
+		ObjectSet<T> selected = selection.items();
+		return selected.size == 0 ? -1 : items.indexOf(selected.first(), false);
+	}
+
+	/** Sets the selection to only the selected index.
+	 * @param index -1 to clear the selection. */
+	public void setSelectedIndex (int index) {
+		if (index < -1 || index >= items.size)
+			throw new IllegalArgumentException("index must be >= -1 and < " + items.size + ": " + index);
+		if (index == -1) {
+			selection.clear();
+		} else {
+			selection.set(items.get(index));
+		}
+	}
+
+	/** @return May be null. */
+	public T getOverItem () {
+		return overIndex == -1 ? null : items.get(overIndex);
+	}
+
+	/** @return May be null. */
+	public T getPressedItem () {
+		return pressedIndex == -1 ? null : items.get(pressedIndex);
+	}
+
+	/** @return null if not over an item. */
+	public @Null T getItemAt (float y) {
+		int index = getItemIndexAt(y);
+		if (index == -1) return null;
+		return items.get(index);
+	}
+
+	/** Because every row has the same height, this doesn't need to look at any items.
+	 * @return -1 if not over an item. */
+	public int getItemIndexAt (float y) {
+		float height = getHeight();
+		Drawable background = style.background;
+		if (background != null) {
+			height -= background.getTopHeight() + background.getBottomHeight();
+			y -= background.getBottomHeight();
+		}
+		float h = height - y;
+		float rowHeight = getRowHeight();
+		if (h < 0 || rowHeight <= 0f) return -1;
+		int index = (int) (h / rowHeight);
+		return index < items.size ? index : -1;
+	}
+
+	/** Sets the items in the list, clearing the selection if it is no longer valid. If a selection is
+	 * {@link ArraySelection#getRequired()}, the first item is selected. Items that were already in the list (compared by
+	 * identity) keep their laid-out rows. This can safely be called with a (modified) array returned from
+	 * {@link #getItems()}. */
+	public void setItems (Array<? extends T> newItems) {
+		if (newItems == null) throw new IllegalArgumentException("newItems cannot be null.");
+		float oldPrefWidth = getPrefWidth(), oldPrefHeight = getPrefHeight();
+
+		if (newItems != items) {
+			items.clear();
+			items.addAll(newItems);
+		}
+		overIndex = -1;
+		pressedIndex = -1;
+		selection.validate();
+
+		invalidate();
+		if (oldPrefWidth != getPrefWidth() || oldPrefHeight != getPrefHeight()) invalidateHierarchy();
+	}
+
+	@SafeVarargs
+	public final void setItems (T... newItems) {
+		if (newItems == null) throw new IllegalArgumentException("newItems cannot be null.");
+		float oldPrefWidth = getPrefWidth(), oldPrefHeight = getPrefHeight();
+
+		items.clear();
+		items.ensureCapacity(newItems.length);
+		for (T item : newItems) {
+			items.add(item);
+		}
+		overIndex = -1;
+		pressedIndex = -1;
+		selection.validate();
+
+		invalidate();
+		if (oldPrefWidth != getPrefWidth() || oldPrefHeight != getPrefHeight()) invalidateHierarchy();
+	}
+
+	public void clearItems () {
+		if (items.size == 0) return;
+		items.clear();
+		overIndex = -1;
+		pressedIndex = -1;
+		selection.clear();
+		invalidateHierarchy();
+	}
+
+	/** Returns the internal items array. If modified, {@link #setItems(Array)} must be called to reflect the changes. */
+	public Array<T> getItems () {
+		return items;
+	}
+
+	/**
+	 * Call this when an item's markup has changed, so its row is laid out again the next time it is drawn.
+	 * @param item an item whose markup changed
+	 */
+	public void refreshItem (T item) {
+		Row<T> row = bound.remove(item);
+		if (row != null) {
+			row.item = null;
+			row.lastDrawn = 0L;
+		}
+	}
+
+	/**
+	 * Call this when the markup of many items may have changed, so every row is laid out again when next drawn.
+	 */
+	public void refreshItems () {
+		bound.clear();
+		for (int i = 0; i < rows.size; i++) {
+			Row<T> row = rows.get(i);
+			row.item = null;
+			row.lastDrawn = 0L;
+		}
+	}
+
+	/**
+	 * @return the height of every row; the style's font's cellHeight unless {@link #setRowHeight(float)} was called
+	 */
+	public float getRowHeight () {
+		return rowHeight >= 0f ? rowHeight : style.font.cellHeight;
+	}
+
+	/**
+	 * Sets the height of every row. A negative height uses the style's font's cellHeight.
+	 * @param rowHeight the height of every row, or negative to use the font's cellHeight
+	 */
+	public void setRowHeight (float rowHeight) {
+		this.rowHeight = rowHeight;
+		invalidateHierarchy();
+	}
+
+	/**
+	 * Sets the width used for the preferred width of this list, not counting the style's drawables. A negative width
+	 * (the default) uses the widest row laid out so far.
+	 * @param itemWidth the width of the widest item, or negative to use the widest row laid out so far
+	 */
+	public void setItemWidth (float itemWidth) {
+		this.itemWidth = itemWidth;
+		invalidateHierarchy();
+	}
+
+	public float getItemWidth () {
+		return itemWidth;
+	}
+
+	/**
+	 * @return how many labels are kept for rows that aren't visible, beyond the ones being drawn
+	 */
+	public int getExtraRows () {
+		return extraRows;
+	}
+
+	/**
+	 * Sets how many labels are kept for rows that aren't visible now, so scrolling back to them doesn't parse their
+	 * markup again. Defaults to 32.
+	 * @param extraRows how many labels to keep beyond the visible rows
+	 */
+	public void setExtraRows (int extraRows) {
+		this.extraRows = Math.max(0, extraRows);
+	}
+
+	public float getPrefWidth () {
+		validate();
+		return prefWidth;
+	}
+
+	public float getPrefHeight () {
+		validate();
+		return prefHeight;
+	}
+
+	public void setCullingArea (@Null Rectangle cullingArea) {
+		this.cullingArea = cullingArea;
+	}
+
+	/** @return May be null.
+	 * @see #setCullingArea(Rectangle) */
+	public Rectangle getCullingArea () {
+		return cullingArea;
+	}
+
+	public void setTypeToSelect (boolean typeToSelect) {
+		this.typeToSelect = typeToSelect;
+	}
+
+	public InputListener getKeyListener () {
+		return keyListener;
+	}
+}
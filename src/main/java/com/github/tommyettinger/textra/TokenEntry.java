@@ -16,10 +16,22 @@
 
 package com.github.tommyettinger.textra;
 
+import com.badlogic.gdx.utils.Pool;
+
 /**
  * Container representing a token, parsed parameters and its position in text.
  */
-class TokenEntry implements Comparable<TokenEntry> {
+class TokenEntry implements Comparable<TokenEntry>, Pool.Poolable {
+    /**
+     * Shared by every TypingLabel; entries are freed here once they have been processed or discarded.
+     */
+    static final Pool<TokenEntry> POOL = new Pool<TokenEntry>(64, 4096) {
+        @Override
+        protected TokenEntry newObject() {
+            return new TokenEntry(null, null, 0, 0, 0f, null);
+        }
+    };
+
     String token;
     TokenCategory category;
     int index;
@@ -27,6 +39,16 @@ class TokenEntry implements Comparable<TokenEntry> {
     float floatValue;
     String stringValue;
     Effect effect;
+    /**
+     * The parameters an {@link TokenCategory#EFFECT_START} token was given, kept so the effect can be produced again
+     * from a {@link CompiledTypingText}. This is null for other categories.
+     */
+    String[] params;
+    /**
+     * The key an {@link TokenCategory#EFFECT_START} token's Effect is pooled under, made once when the token is parsed
+     * so that obtaining the Effect again doesn't build a new String. This is null for other categories.
+     */
+    String effectKey;
 
     TokenEntry(String token, TokenCategory category, int index, int endIndex, float floatValue, String stringValue) {
         this.token = token;
@@ -37,6 +59,33 @@ class TokenEntry implements Comparable<TokenEntry> {
         this.stringValue = stringValue;
     }
 
+    /**
+     * Obtains a TokenEntry from {@link #POOL} and sets it to the given values.
+     */
+    static TokenEntry obtain(String token, TokenCategory category, int index, int endIndex, float floatValue, String stringValue) {
+        TokenEntry entry = POOL.obtain();
+        entry.token = token;
+        entry.category = category;
+        entry.index = index;
+        entry.endIndex = endIndex;
+        entry.floatValue = floatValue;
+        entry.stringValue = stringValue;
+        return entry;
+    }
+
+    @Override
+    public void reset() {
+        token = null;
+        category = null;
+        index = 0;
+        endIndex = 0;
+        floatValue = 0f;
+        stringValue = null;
+        effect = null;
+        params = null;
+        effectKey = null;
+    }
+
     @Override
     public int compareTo(TokenEntry o) {
         return Integer.compare(o.index, index);
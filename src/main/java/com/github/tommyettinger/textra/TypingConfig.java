@@ -60,6 +60,13 @@ public class TypingConfig {
      */
     public static Color DEFAULT_CLEAR_COLOR = new Color(Color.WHITE);
 
+    /**
+     * How many {@link CompiledTypingText} results of parsing can be cached at once, shared by all TypingLabels. The
+     * least-recently-used entries are evicted when this is exceeded. Use {@code 0} to disable the cache. Default value
+     * is {@code 128}.
+     */
+    public static int COMPILED_TEXT_CACHE_LIMIT = 128;
+
     /**
      * Returns a map of characters and their respective interval multipliers, of which the interval to the next char
      * should be multiplied for. The keys are technically primitive ints, but only a char is used for each key.
@@ -133,6 +140,7 @@ public class TypingConfig {
         EFFECT_START_TOKENS.put(name, b);
         EFFECT_END_TOKENS.put("END"+name, b);
         dirtyEffectMaps = true;
+        CompiledTypingText.clearCache();
     }
 
     /**
@@ -145,6 +153,7 @@ public class TypingConfig {
         EFFECT_START_TOKENS.remove(name);
         EFFECT_END_TOKENS.remove("END"+name);
         dirtyEffectMaps = true;
+        CompiledTypingText.clearCache();
     }
 
     static {
@@ -20,6 +20,7 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
@@ -32,7 +33,9 @@ import com.badlogic.gdx.utils.LongArray;
 import com.badlogic.gdx.utils.NumberUtils;
 import com.badlogic.gdx.utils.ObjectMap;
 import com.badlogic.gdx.utils.ObjectMap.Entry;
+import com.badlogic.gdx.utils.ObjectSet;
 import com.github.tommyettinger.textra.utils.ColorUtils;
+import com.github.tommyettinger.textra.utils.StringUtils;
 
 import java.lang.StringBuilder;
 import java.util.Arrays;
@@ -52,6 +55,23 @@ public class TypingLabel extends TextraLabel {
     // Collections
     private final ObjectMap<String, String> variables = new ObjectMap<>();
     final Array<TokenEntry> tokenEntries = new Array<>();
+    /**
+     * Every variable name looked up during the last parse, mapped to the value it resolved to (which may be null).
+     */
+    final ObjectMap<String, String> usedVariables = new ObjectMap<>();
+    /**
+     * Upper-case names of variables used during the last parse in a way that can't be updated in place, such as by
+     * an <code>{IF}</code> token or with a value containing markup.
+     */
+    final ObjectSet<String> complexVariables = new ObjectSet<>();
+    /**
+     * Where each plain-text variable value is in the parsed text, ordered by position.
+     */
+    final Array<VariableSlot> variableSlots = new Array<>(VariableSlot.class);
+    /**
+     * Effects that have been released by this label, keyed by token name and parameters, ready to be used again.
+     */
+    private final ObjectMap<String, Array<Effect>> effectPool = new ObjectMap<>();
 
     // Config
     private final Color clearColor = new Color(TypingConfig.DEFAULT_CLEAR_COLOR);
@@ -116,6 +136,15 @@ public class TypingLabel extends TextraLabel {
 
     private final Vector2 temp = new Vector2(0f, 0f);
 
+    private final GlyphHitIndex hitIndex = new GlyphHitIndex();
+    /**
+     * Holds the lines of a layout that {@link #rewrapFrom(Layout, int)} is wrapping again.
+     */
+    private final Layout rewrapLayout = new Layout();
+    private boolean hitIndexDirty = true;
+    private float hitIndexWidth, hitIndexHeight;
+    private int hitIndexAlign, hitIndexLines, hitIndexGlyphs;
+
     protected boolean dragging = false;
     protected final Array<Effect> activeEffects = new Array<>(Effect.class);
     private float textSpeed = TypingConfig.DEFAULT_SPEED_PER_CHAR;
@@ -235,6 +264,7 @@ public class TypingLabel extends TextraLabel {
      */
     public void setText(String newText, boolean modifyOriginalText, boolean restart) {
         final boolean hasEnded = this.hasEnded();
+        hitIndexDirty = true;
         newText = Parser.handleBracketMinusMarkup(newText);
         font.markup(newText, layout.clear());
         if (wrap) {
@@ -330,14 +360,24 @@ public class TypingLabel extends TextraLabel {
 
     /**
      * Parses all tokens of this label. Use this after setting the text and any variables that should be replaced.
+     * If the same text was parsed recently with the same Font and variable values, the cached
+     * {@link CompiledTypingText} is installed instead of parsing again.
      */
     public void parseTokens() {
         parsed = true;
         boolean actualEnd = ended;
         ended = false;
 //        activeEffects.clear();
-        this.setText(Parser.preprocess("{NORMAL}" + getDefaultToken() + originalText), false, false);
-        Parser.parseTokens(this);
+        final String source = Parser.preprocess("{NORMAL}" + getDefaultToken() + originalText);
+        CompiledTypingText compiled = CompiledTypingText.getCached(this, source);
+        if (compiled != null) {
+            compiled.installInto(this);
+        } else {
+            this.setText(source, false, false);
+            Parser.parseTokens(this);
+            if (TypingConfig.COMPILED_TEXT_CACHE_LIMIT > 0)
+                CompiledTypingText.compile(this, source);
+        }
         ended = actualEnd;
 //        setSize(workingLayout.getWidth(), workingLayout.getHeight());
     }
@@ -456,6 +496,9 @@ public class TypingLabel extends TextraLabel {
         offsets.clear();
         sizing.clear();
         rotations.clear();
+        for (int i = 0; i < activeEffects.size; i++) {
+            freeEffect(activeEffects.get(i));
+        }
         activeEffects.clear();
 
         // Reset state
@@ -494,8 +537,11 @@ public class TypingLabel extends TextraLabel {
      */
     public void setVariable(String var, String value) {
         if(var != null) {
-            String old = variables.put(var.toUpperCase(), value);
-            if (value.contains("[") || value.contains("{") || (old != null && (old.contains("[") || old.contains("{")))) {
+            final String key = var.toUpperCase();
+            String old = variables.put(key, value);
+            if (updateVariableSlots(key)) return;
+            if (complexVariables.contains(key) || value.contains("[") || value.contains("{")
+                    || (old != null && (old.contains("[") || old.contains("{")))) {
                 parsed = false;
             }
         }
@@ -506,8 +552,256 @@ public class TypingLabel extends TextraLabel {
      * @param var the String name of a variable to remove
      */
     public void removeVariable(String var) {
-        if(var != null)
-            variables.remove(var.toUpperCase());
+        if(var != null) {
+            final String key = var.toUpperCase();
+            variables.remove(key);
+            updateVariableSlots(key);
+        }
+    }
+
+    /**
+     * Registers or changes several variables at once, without removing any other variables. Any plain-text variable
+     * values shown by this label are replaced in place, re-wrapping once at the end, instead of parsing all the text
+     * again; if a changed variable is used in a way that needs parsing (such as in an <code>{IF}</code> token, or if
+     * the old or new value contains markup), the label will be parsed again on its next {@link #act(float)}.
+     * @param variableMap an ObjectMap of variable names to their replacement Strings
+     */
+    public void updateVariables(ObjectMap<String, String> variableMap) {
+        if (variableMap == null) return;
+        for (Entry<String, String> entry : variableMap.entries()) {
+            if (entry.key != null) {
+                this.variables.put(entry.key.toUpperCase(), entry.value);
+            }
+        }
+        refreshVariables();
+    }
+
+    /**
+     * Registers or changes several variables at once, without removing any other variables. Any plain-text variable
+     * values shown by this label are replaced in place, re-wrapping once at the end, instead of parsing all the text
+     * again; if a changed variable is used in a way that needs parsing (such as in an <code>{IF}</code> token, or if
+     * the old or new value contains markup), the label will be parsed again on its next {@link #act(float)}.
+     * @param variableMap a Map of variable names to their replacement Strings; null keys will be ignored silently
+     */
+    public void updateVariables(Map<String, String> variableMap) {
+        if (variableMap == null) return;
+        for (Map.Entry<String, String> entry : variableMap.entrySet()) {
+            if (entry.getKey() != null) {
+                this.variables.put(entry.getKey().toUpperCase(), entry.getValue());
+            }
+        }
+        refreshVariables();
+    }
+
+    /**
+     * Checks every variable this label used when it was last parsed against its current value, whether that comes
+     * from the {@link TypingListener}, {@link #getVariables()}, or {@link TypingConfig#GLOBAL_VARS}. Plain-text values
+     * that changed are replaced in place, without parsing the text again; if any other variable changed, the label
+     * will be parsed again on its next {@link #act(float)}. This is mainly useful after changing
+     * {@link TypingConfig#GLOBAL_VARS} or whatever a TypingListener uses to replace variables.
+     */
+    public void refreshVariables() {
+        if (!parsed) return;
+        for (Entry<String, String> entry : usedVariables.entries()) {
+            if (complexVariables.contains(entry.key.toUpperCase())) {
+                String current = currentVariableValue(entry.key, entry.key.toUpperCase());
+                if (current == null ? entry.value != null : !current.equals(entry.value)) {
+                    parsed = false;
+                    return;
+                }
+            }
+        }
+        if (!updateVariableSlots(null) && variableSlots.size > 0) {
+            parsed = false;
+        }
+    }
+
+    /**
+     * Looks up a variable the same way the Parser does, without recording it.
+     */
+    private String currentVariableValue(String name, String key) {
+        String value = null;
+        if (listener != null) value = listener.replaceVariable(name);
+        if (value == null) value = variables.get(key);
+        if (value == null) value = TypingConfig.GLOBAL_VARS.get(key);
+        return value;
+    }
+
+    /**
+     * Puts the current value of the variable with the given upper-case key (or all variables, if key is null) into
+     * each {@link VariableSlot} that shows it, changing only those glyphs and wrapping again from the first changed
+     * line. This returns false if
+     * the variable has no slots, or if its new value isn't plain text, in which case nothing is changed; it returns
+     * true if nothing more needs to be done to show the current value.
+     */
+    private boolean updateVariableSlots(String key) {
+        if (!parsed) return true; // the next parse will use the current value
+        if (key != null && complexVariables.contains(key)) return false;
+        boolean found = false;
+        for (int i = 0; i < variableSlots.size; i++) {
+            VariableSlot slot = variableSlots.get(i);
+            if (key != null && !key.equals(slot.key)) continue;
+            found = true;
+            String value = currentVariableValue(slot.name, slot.key);
+            if (value != null && !VariableSlot.isPlain(value)) return false;
+        }
+        if (!found) return false;
+        int firstChanged = -1;
+        for (int i = 0; i < variableSlots.size; i++) {
+            VariableSlot slot = variableSlots.get(i);
+            if (key != null && !key.equals(slot.key)) continue;
+            String value = currentVariableValue(slot.name, slot.key);
+            if (value == null) value = slot.key; // the Parser shows the name when there is no value
+            usedVariables.put(slot.name, value);
+            if (showsValue(slot, value)) continue;
+            // slots are ordered by position, so the first one changed has the lowest glyph index
+            if (firstChanged < 0) firstChanged = slot.glyphStart;
+            replaceSlot(i, value);
+        }
+        if (firstChanged >= 0) {
+            final boolean remarkLayout = !rewrapFrom(layout, firstChanged);
+            final boolean remarkWorking = !rewrapFrom(workingLayout, firstChanged);
+            if (remarkLayout || remarkWorking) {
+                // Lines were or could be cut off by the max lines, so mark those layouts up again from the updated
+                // text and wrap them as layout() would, which is still much cheaper than parsing tokens, then check
+                // that the slots still match.
+                final String text = Parser.handleBracketMinusMarkup(intermediateText.toString());
+                if (remarkLayout) remark(text, layout);
+                if (remarkWorking) remark(text, workingLayout);
+                Parser.locateVariableSlots(this);
+            }
+            font.calculateSize(layout);
+            font.calculateSize(workingLayout);
+            if (!wrap) {
+                setWidth(workingLayout.getWidth() + (style != null && style.background != null ?
+                        style.background.getLeftWidth() + style.background.getRightWidth() : 0.0f));
+            }
+            invalidateHierarchy();
+        }
+        return true;
+    }
+
+    private boolean showsValue(VariableSlot slot, String value) {
+        if (slot.length != value.length()) return false;
+        for (int i = 0; i < slot.length; i++) {
+            if (intermediateText.charAt(slot.textStart + i) != value.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the text and glyphs of the slot at the given index with value, and moves everything after it (tokens,
+     * later slots, effect ranges, and the typing progress) by the change in length.
+     */
+    private void replaceSlot(int index, String value) {
+        final VariableSlot slot = variableSlots.get(index);
+        final int oldLength = slot.length, newLength = value.length(), change = newLength - oldLength;
+        intermediateText.replace(slot.textStart, slot.textStart + oldLength, value);
+        spliceGlyphs(layout, slot.glyphStart, oldLength, value, slot.template);
+        spliceGlyphs(workingLayout, slot.glyphStart, oldLength, value, slot.template);
+        slot.length = newLength;
+        if (change == 0) return;
+
+        final int rawEnd = slot.rawStart + oldLength, glyphEnd = slot.glyphStart + oldLength;
+        for (int i = 0; i < tokenEntries.size; i++) {
+            TokenEntry entry = tokenEntries.get(i);
+            if (entry.index >= rawEnd) {
+                entry.index += change;
+                entry.endIndex += change;
+            }
+        }
+        for (int i = index + 1; i < variableSlots.size; i++) {
+            VariableSlot later = variableSlots.get(i);
+            later.textStart += change;
+            later.rawStart += change;
+            later.glyphStart += change;
+        }
+        for (int i = 0; i < activeEffects.size; i++) {
+            Effect effect = activeEffects.get(i);
+            if (effect.indexStart >= glyphEnd) effect.indexStart += change;
+            if (effect.indexEnd >= glyphEnd) effect.indexEnd += change;
+        }
+        if (glyphCharIndex >= glyphEnd) {
+            glyphCharIndex += change;
+            rawCharIndex += change;
+        } else if (glyphCharIndex >= slot.glyphStart + newLength) {
+            // part of the old value was shown, and the new value is shorter than that part
+            final int back = glyphCharIndex - (slot.glyphStart + newLength - 1);
+            glyphCharIndex -= back;
+            rawCharIndex -= back;
+        }
+    }
+
+    /**
+     * Replaces {@code oldLength} glyphs starting at the given glyph index in target with the chars of value, each
+     * using the color and style of template. A target with a target width must be wrapped again with
+     * {@link #rewrapFrom(Layout, int)} once all slots have been updated. This does nothing to a target that reached its
+     * max lines, because glyphs may have been cut off; rewrapFrom() returns false for those.
+     */
+    private void spliceGlyphs(Layout target, int start, int oldLength, String value, long template) {
+        if (target.atLimit) return;
+        final Array<Line> lines = target.lines;
+        int ln = 0, offset = start;
+        while (ln < lines.size - 1 && offset >= lines.get(ln).glyphs.size) {
+            offset -= lines.get(ln).glyphs.size;
+            ln++;
+        }
+        final LongArray glyphs = lines.get(ln).glyphs;
+        // a wrapped value can continue on the following lines
+        for (int i = ln, at = offset, left = oldLength; left > 0 && i < lines.size; i++, at = 0) {
+            final LongArray from = lines.get(i).glyphs;
+            final int removed = Math.min(left, from.size - at);
+            if (removed > 0) from.removeRange(at, at + removed - 1);
+            left -= Math.max(removed, 0);
+        }
+        final int n = value.length();
+        if (n > 0) {
+            glyphs.insertRange(offset, n);
+            for (int i = 0; i < n; i++) {
+                glyphs.items[offset + i] = template | value.charAt(i);
+            }
+        }
+    }
+
+    private void remark(String text, Layout target) {
+        font.markup(text, target.clear());
+        if (target.getTargetWidth() > 0f) font.regenerateLayout(target);
+    }
+
+    /**
+     * Wraps the lines of target again, starting from the line before the one with the given glyph index, since a
+     * shorter value can let the start of its line fit on the line before. Lines before that can't change, so they are
+     * left alone. This does nothing to a target without a target width. If the target is limited by its max lines,
+     * this does nothing and returns false, because glyphs may have been or may be cut off.
+     *
+     * @param target a Layout whose glyphs were just changed by {@link #spliceGlyphs(Layout, int, int, String, long)}
+     * @param start the glyph index of the first changed glyph
+     * @return true if target is correctly wrapped now, or false if it must be marked up again
+     */
+    private boolean rewrapFrom(Layout target, int start) {
+        if (target.atLimit) return false;
+        if (target.getTargetWidth() <= 0f) return true;
+        if (target.maxLines != Integer.MAX_VALUE) return false;
+        final Array<Line> lines = target.lines;
+        int ln = 0, offset = start;
+        while (ln < lines.size - 1 && offset >= lines.get(ln).glyphs.size) {
+            offset -= lines.get(ln).glyphs.size;
+            ln++;
+        }
+        final int from = Math.max(0, ln - 1);
+        final Layout tail = rewrapLayout;
+        tail.font = font;
+        tail.targetWidth = target.targetWidth;
+        tail.lines.clear();
+        for (int i = from; i < lines.size; i++) {
+            tail.lines.add(lines.get(i));
+        }
+        lines.truncate(from);
+        font.regenerateLayout(tail);
+        lines.addAll(tail.lines);
+        tail.lines.clear();
+        tail.lines.add(new Line());
+        return true;
     }
 
     /**
@@ -589,7 +883,7 @@ public class TypingLabel extends TextraLabel {
 
                 // If effect is finished, remove it
                 if (effect.isFinished()) {
-                    activeEffects.removeIndex(i);
+                    freeEffect(activeEffects.removeIndex(i));
                     continue;
                 }
 
@@ -663,21 +957,25 @@ public class TypingLabel extends TextraLabel {
             // Process tokens according to the current index
             if (tokenEntries.size > 0 && tokenEntries.peek().index == rawCharIndex) {
                 TokenEntry entry = tokenEntries.pop();
-                String token = entry.token;
-                TokenCategory category = entry.category;
+                final String token = entry.token;
+                final TokenCategory category = entry.category;
+                final float floatValue = entry.floatValue;
+                final String stringValue = entry.stringValue;
+                final Effect entryEffect = entry.effect;
                 rawCharIndex = entry.endIndex - 1;
+                TokenEntry.POOL.free(entry);
                 // Process tokens
                 switch (category) {
                     case SPEED: {
-                        textSpeed = entry.floatValue;
+                        textSpeed = floatValue;
                         continue;
                     }
                     case WAIT: {
-                        charCooldown += entry.floatValue;
+                        charCooldown += floatValue;
                         continue;
                     }
                     case EVENT: {
-                        triggerEvent(entry.stringValue, false);
+                        triggerEvent(stringValue, false);
                         continue;
                     }
                     case EFFECT_START:
@@ -698,8 +996,10 @@ public class TypingLabel extends TextraLabel {
 
                         // Create new effect if necessary
                         if (isStart) {
-                            entry.effect.indexStart = glyphCharIndex + 1;
-                            activeEffects.add(entry.effect);
+                            if (entryEffect != null) {
+                                entryEffect.indexStart = glyphCharIndex + 1;
+                                activeEffects.add(entryEffect);
+                            }
                         }
                         continue;
                     }
@@ -755,6 +1055,60 @@ public class TypingLabel extends TextraLabel {
         invalidate();
     }
 
+    /**
+     * Makes the key that Effects for the effect token with the given name and parameters are pooled under. This is
+     * called once per token when it is parsed, and the key is kept in its {@link TokenEntry}.
+     * @param name the name of an effect start token, such as {@code "WAVE"}
+     * @param params the parameters given to the token, as split on semicolons
+     * @return a key for {@link #obtainEffect(String, String[], String)}
+     */
+    static String effectKey(String name, String[] params) {
+        return name + '=' + StringUtils.join(";", params);
+    }
+
+    /**
+     * Gets an Effect for the effect token with the given name and parameters, reusing one released by this label if
+     * one is available for the exact same token and parameters, or producing a new one with the builder registered in
+     * {@link TypingConfig} otherwise. Returns null if no effect is registered with that name.
+     * @param name the name of an effect start token, such as {@code "WAVE"}
+     * @param params the parameters given to the token, as split on semicolons
+     * @param key the key from {@link #effectKey(String, String[])} for name and params
+     * @return an Effect in its freshly-constructed state, or null if the name is not a registered effect
+     */
+    Effect obtainEffect(String name, String[] params, String key) {
+        Array<Effect> pooled = effectPool.get(key);
+        if (pooled != null && pooled.size > 0) return pooled.pop();
+        Effect.EffectBuilder eb = TypingConfig.EFFECT_START_TOKENS.get(name.toUpperCase());
+        if (eb == null) return null;
+        Effect effect = eb.produce(this, params);
+        if (effect != null) effect.poolKey = key;
+        return effect;
+    }
+
+    /**
+     * Resets the given Effect and makes it available to {@link #obtainEffect(String, String[], String)} again.
+     * Does nothing if the Effect is null or wasn't obtained from this label.
+     * @param effect an Effect that is no longer used by this label; may be null
+     */
+    void freeEffect(Effect effect) {
+        if (effect == null || effect.poolKey == null || effect.label != this) return;
+        effect.reset();
+        Array<Effect> pooled = effectPool.get(effect.poolKey);
+        if (pooled == null) effectPool.put(effect.poolKey, pooled = new Array<>(false, 4, Effect.class));
+        pooled.add(effect);
+    }
+
+    /**
+     * Releases every pending token entry, and any Effect it holds that hasn't started yet, back to their pools.
+     */
+    void freeTokenEntries() {
+        for (int i = 0; i < tokenEntries.size; i++) {
+            freeEffect(tokenEntries.get(i).effect);
+        }
+        TokenEntry.POOL.freeAll(tokenEntries);
+        tokenEntries.clear();
+    }
+
     @Override
     public boolean remove() {
         return super.remove();
@@ -777,8 +1131,8 @@ public class TypingLabel extends TextraLabel {
             sizeChanged();
         }
         if (wrap && changed) {
-            workingLayout.setTargetWidth(width);
-            font.calculateSize(workingLayout);
+            // layout() wraps to the new width when this is validated, so a resize that sets the size many times
+            // before the next draw only wraps once.
             invalidateHierarchy();
         }
     }
@@ -809,6 +1163,7 @@ public class TypingLabel extends TextraLabel {
 
     @Override
     public void layout() {
+        hitIndexDirty = true;
         float width = getWidth();
         if (style != null && style.background != null) {
             width = (width - (style.background.getLeftWidth() + style.background.getRightWidth()));
@@ -816,11 +1171,175 @@ public class TypingLabel extends TextraLabel {
         if (wrap && (width == 0f || workingLayout.getTargetWidth() != width)) {
             if(width != 0f)
                 workingLayout.setTargetWidth(width);
-            font.regenerateLayout(workingLayout);
+            wrapCache.wrap(font, workingLayout);
 //            invalidateHierarchy();
         }
     }
 
+    /**
+     * Gets the global glyph index (as used by {@link #setInWorkingLayout(int, long)}) of the glyph at the given point,
+     * which is in this label's local coordinates (so rotation doesn't matter). Only glyphs that have already been
+     * typed out can be found. Effects that move glyphs temporarily, like {@code [WAVE]}, aren't considered; the point
+     * is checked against where each glyph would be without effects. This takes time proportional to the log of the
+     * number of lines plus the log of the number of glyphs in a line, unless the glyphs, size, or alignment changed
+     * since the last call, in which case it needs to rebuild its index first.
+     *
+     * @param x the x-coordinate to check, in local coordinates
+     * @param y the y-coordinate to check, in local coordinates
+     * @return the index of the glyph at the given point, or -1 if there is no visible glyph there
+     */
+    public int getGlyphIndexAt(float x, float y) {
+        if (!parsed) {
+            parseTokens();
+        }
+        updateHitIndex();
+        int index = hitIndex.find(x, y);
+        if (index > glyphCharIndex || index >= rotations.size) return -1;
+        return index;
+    }
+
+    /**
+     * Rebuilds {@link #hitIndex} if anything that affects where glyphs are placed has changed. This follows the same
+     * placement as {@link #draw(Batch, float)}, but without rotation or per-glyph effects, and relative to this
+     * label's own position.
+     */
+    private void updateHitIndex() {
+        final int lines = workingLayout.lines();
+        final int glyphCount = workingLayout.countGlyphs();
+        if (!hitIndexDirty && hitIndexWidth == getWidth() && hitIndexHeight == getHeight() && hitIndexAlign == align
+                && hitIndexLines == lines && hitIndexGlyphs == glyphCount)
+            return;
+        hitIndexDirty = false;
+        hitIndexWidth = getWidth();
+        hitIndexHeight = getHeight();
+        hitIndexAlign = align;
+        hitIndexLines = lines;
+        hitIndexGlyphs = glyphCount;
+        hitIndex.clear();
+
+        float baseX = 0f, baseY = 0f;
+        float height = workingLayout.getHeight();
+        if (Align.isBottom(align)) {
+            baseY += height;
+        } else if (Align.isCenterVertical(align)) {
+            baseY += height * 0.5f;
+        }
+        float width = getWidth();
+        height = getHeight();
+        if (Align.isRight(align)) {
+            baseX += width;
+        } else if (Align.isCenterHorizontal(align)) {
+            baseX += width * 0.5f;
+        }
+        if (Align.isTop(align)) {
+            baseY += height;
+        } else if (Align.isCenterVertical(align)) {
+            baseY += height * 0.5f;
+        }
+        if (style != null && style.background != null) {
+            Drawable background = style.background;
+            if (Align.isLeft(align)) {
+                baseX += background.getLeftWidth();
+            } else if (Align.isRight(align)) {
+                baseX -= background.getRightWidth();
+            } else {
+                baseX += (background.getLeftWidth() - background.getRightWidth()) * 0.5f;
+            }
+            if (Align.isBottom(align)) {
+                baseY += background.getBottomHeight();
+            } else if (Align.isTop(align)) {
+                baseY -= background.getTopHeight();
+            } else {
+                baseY += (background.getBottomHeight() - background.getTopHeight()) * 0.5f;
+            }
+        }
+
+        for (int ln = 0; ln < lines; ln++) {
+            Line glyphs = workingLayout.getLine(ln);
+            baseY -= glyphs.height;
+            hitIndex.addLine(baseY, glyphs.height);
+            if (glyphs.glyphs.size == 0)
+                continue;
+
+            float x = baseX;
+            if (Align.isCenterHorizontal(align)) {
+                x -= glyphs.width * 0.5f;
+            } else if (Align.isRight(align)) {
+                x -= glyphs.width;
+            }
+
+            Font f = null;
+            int kern = -1;
+            for (int i = 0, n = glyphs.glyphs.size; i < n; i++) {
+                long glyph = glyphs.glyphs.get(i);
+                if (font.family != null) f = font.family.connected[(int) (glyph >>> 16 & 15)];
+                if (f == null) f = font;
+                if (i == 0) {
+                    Font.GlyphRegion reg = font.mapping.get((char) glyph);
+                    if (reg != null && reg.offsetX < 0) {
+                        float ox = reg.offsetX * f.scaleX * ((glyph & ALTERNATE) != 0L ? 1f : ((glyph + 0x300000L >>> 20 & 15) + 1) * 0.25f);
+                        if (ox < 0) x -= ox;
+                    }
+                }
+                if (f.kerning != null) {
+                    kern = kern << 16 | (int) (glyph & 0xFFFF);
+                    x += f.kerning.get(kern, 0) * f.scaleX * ((glyph & ALTERNATE) != 0L ? 1f : ((glyph + 0x300000L >>> 20 & 15) + 1) * 0.25f);
+                } else {
+                    kern = -1;
+                }
+                float left = font.integerPosition ? (int) x : x;
+                float single = f.drawnAdvance(glyph);
+                hitIndex.addGlyph(left, left + single);
+                x += single;
+            }
+        }
+    }
+
+    /**
+     * Finds the glyph under the pointer and updates {@link #overIndex}, {@link #lastTouchedIndex}, and the selection.
+     * The pointer position is converted to local coordinates every time, since the camera, the viewport, or any
+     * ancestor's transform could have changed since the last frame.
+     */
+    private void trackInput() {
+        if (getStage() != null)
+            screenToLocalCoordinates(temp.set(Gdx.input.getX(), Gdx.input.getY()));
+        else
+            parentToLocalCoordinates(temp.set(Gdx.input.getX(), Gdx.graphics.getHeight() - Gdx.input.getY()));
+        final float inX = temp.x, inY = temp.y;
+
+        if(!Gdx.input.isTouched())
+            lastTouchedIndex = inY < 0f ? -2 : inY > getHeight() ? -1 :
+                    inX < 0f ? -1 : inX > getWidth() ? -2 : -1;
+        overIndex = -1;
+
+        final int globalIndex = getGlyphIndexAt(inX, inY);
+        if (globalIndex < 0) return;
+        overIndex = globalIndex;
+        if (isTouchable()) {
+            if (Gdx.input.justTouched()) {
+                lastTouchedIndex = globalIndex;
+                selectionStart = -1;
+                selectionEnd = -1;
+            }
+            else if(selectable) {
+                if (Gdx.input.isTouched()) {
+                    int adjustedIndex = (lastTouchedIndex == -2) ? workingLayout.countGlyphs() : lastTouchedIndex;
+                    selectionStart = Math.min(adjustedIndex, globalIndex);
+                    selectionEnd = Math.max(adjustedIndex, globalIndex);
+                    dragging = true;
+                } else if(dragging){
+                    dragging = false;
+                    if(selectionStart != selectionEnd){
+                        triggerEvent("*SELECTED", true);
+                    }
+                    else {
+                        selectionStart = selectionEnd = -1;
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * If your font uses {@link Font.DistanceFieldType#SDF} or {@link Font.DistanceFieldType#MSDF},
      * then this has to do some extra work to use the appropriate shader.
@@ -905,7 +1424,7 @@ public class TypingLabel extends TextraLabel {
 //        baseY += workingLayout.lines.first().height * 0.25f;
 
         int o = 0, s = 0, r = 0, gi = 0;
-        boolean resetShader = font.getDistanceField() != Font.DistanceFieldType.STANDARD && batch.getShader() != font.shader;
+        boolean resetShader = (font.getDistanceField() != Font.DistanceFieldType.STANDARD || font.hasAlphaPages()) && batch.getShader() != font.shader;
         if (resetShader)
             font.enableShader(batch);
         batch.getColor().set(getColor()).a *= parentAlpha;
@@ -913,26 +1432,15 @@ public class TypingLabel extends TextraLabel {
 
         int globalIndex = -1;
 
-        float inX = 0, inY = 0;
-        if(trackingInput) {
-            if(hasParent())
-                getParent().screenToLocalCoordinates(temp.set(Gdx.input.getX(), Gdx.input.getY()));
-            else {
-                // I have no idea why the y has to be flipped here, but not above.
-                screenToLocalCoordinates(temp.set(Gdx.input.getX(), Gdx.graphics.getHeight() - Gdx.input.getY()));
-            }
-
-            inX = temp.x;
-            inY = temp.y;
-
-            if(!Gdx.input.isTouched())
-                lastTouchedIndex = inY < getY() ? -2 : inY > getY() + getHeight() ? -1 :
-                        inX < getX() ? -1 : inX > getX() + getWidth() ? -2 : -1;
-            overIndex = -1;
-        }
+        if(trackingInput)
+            trackInput();
 
         float single;
 
+        final Rectangle cull = cullingArea;
+        final float cullTop = cull == null ? 0f : cull.y + cull.height;
+        final float cullRight = cull == null ? 0f : cull.x + cull.width;
+
         EACH_LINE:
         for (int ln = 0; ln < lines; ln++) {
             Line glyphs = workingLayout.getLine(ln);
@@ -952,6 +1460,21 @@ public class TypingLabel extends TextraLabel {
             x = cs * fx - sn * fy + worldOriginX;
             y = sn * fx + cs * fy + worldOriginY;
 
+            if (cull != null) {
+                // the line's bottom, un-rotated into this label's local coordinates, which cullingArea uses
+                float localY = cs * (y - getY() - originY) - sn * (x - getX() - originX) + originY;
+                if (localY > cullTop + glyphs.height || localY + glyphs.height * 2f < cull.y) {
+                    // skipped glyphs still need their effect data stepped past, as if they had been drawn
+                    final int n = glyphs.glyphs.size;
+                    if (gi + n > glyphCharIndex + 1) break;
+                    gi += n;
+                    globalIndex += n;
+                    o += n << 1;
+                    r += n;
+                    s += n << 1;
+                    continue;
+                }
+            }
 
             float xChange = 0, yChange = 0;
 
@@ -1006,6 +1529,28 @@ public class TypingLabel extends TextraLabel {
                 } else {
                     kern = -1;
                 }
+                if (cull != null) {
+                    float localX = cs * (x + xChange - getX() - originX) + sn * (y + yChange - getY() - originY) + originX;
+                    if (localX > cullRight + glyphs.height) {
+                        final int rest = n - i;
+                        gi += rest;
+                        globalIndex += rest;
+                        o += rest << 1;
+                        r += rest;
+                        s += rest << 1;
+                        continue EACH_LINE;
+                    }
+                    single = f.drawnAdvance(glyph);
+                    if (localX + single + glyphs.height < cull.x) {
+                        ++globalIndex;
+                        o += 2;
+                        r++;
+                        s += 2;
+                        xChange += cs * single;
+                        yChange += sn * single;
+                        continue;
+                    }
+                }
                 ++globalIndex;
                 if(selectable && selectionStart <= globalIndex && selectionEnd >= globalIndex)
                     bgc = ColorUtils.offsetLightness((int)(glyph >>> 32), 0.5f);
@@ -1017,34 +1562,6 @@ public class TypingLabel extends TextraLabel {
                     yy = (int)yy;
                 }
                 single = f.drawGlyph(batch, glyph, xx, yy, rotations.get(r++) + rot, sizing.get(s++), sizing.get(s++), bgc);
-                if(trackingInput){
-                    if(xx <= inX && inX <= xx + single && yy - glyphs.height * 0.5f <= inY && inY <= yy + glyphs.height * 0.5f) {
-                        overIndex = globalIndex;
-                        if (isTouchable()) {
-                            if (Gdx.input.justTouched()) {
-                                lastTouchedIndex = globalIndex;
-                                selectionStart = -1;
-                                selectionEnd = -1;
-                            }
-                            else if(selectable) {
-                                if (Gdx.input.isTouched()) {
-                                    int adjustedIndex = (lastTouchedIndex == -2) ? workingLayout.countGlyphs() : lastTouchedIndex;
-                                    selectionStart = Math.min(adjustedIndex, globalIndex);
-                                    selectionEnd = Math.max(adjustedIndex, globalIndex);
-                                    dragging = true;
-                                } else if(dragging){
-                                    dragging = false;
-                                    if(selectionStart != selectionEnd){
-                                        triggerEvent("*SELECTED", true);
-                                    }
-                                    else {
-                                        selectionStart = selectionEnd = -1;
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
                 xChange += cs * single;
                 yChange += sn * single;
             }
@@ -1295,6 +1812,9 @@ public class TypingLabel extends TextraLabel {
         for (int i = 0, n = workingLayout.lines(); i < n && index >= 0; i++) {
             LongArray glyphs = workingLayout.getLine(i).glyphs;
             if (i < workingLayout.lines() && index < glyphs.size) {
+                // a different char, font, scale, or mode can change where glyphs are; a different color can't
+                if (((glyphs.get(index) ^ newGlyph) & 0xFFFFFFFFL) != 0L)
+                    hitIndexDirty = true;
                 glyphs.set(index, newGlyph);
                 return;
             } else
@@ -1310,6 +1830,57 @@ public class TypingLabel extends TextraLabel {
         return workingLayout.countGlyphs();
     }
 
+    /**
+     * Replaces the glyphs from {@code start} (inclusive) to {@code end} (exclusive) in both layouts with one glyph for
+     * each char in {@code replacement}, without parsing any text again. New glyphs get the color and style of the glyph
+     * before {@code start}, or of the first replaced glyph if start is 0. This is only possible if this label has
+     * finished typing, has no active effects, and is showing one line; {@code replacement} must not contain any markup
+     * or tokens. The other layout, {@link #layout}, is made to match the working layout afterwards, even if it was
+     * already changed. TextraField uses this so editing long text doesn't have to lay all of it out again.
+     *
+     * @param start the first glyph index to replace, inclusive
+     * @param end the last glyph index to replace, exclusive
+     * @param replacement plain text with no markup, tokens, or line breaks
+     * @param newText the whole text this label will have after the change, without any markup
+     * @return true if the glyphs were replaced, or false if this label can't be edited this way
+     */
+    boolean replaceGlyphs(int start, int end, CharSequence replacement, CharSequence newText) {
+        if (!ended || activeEffects.size != 0 || workingLayout.lines() != 1 || layout.lines() != 1)
+            return false;
+        LongArray working = workingLayout.getLine(0).glyphs, glyphs = layout.getLine(0).glyphs;
+        if (start < 0 || end < start || end > working.size)
+            return false;
+        long template;
+        if (start > 0) template = working.get(start - 1) & 0xFFFFFFFFFFFF0000L;
+        else if (end > 0) template = working.get(0) & 0xFFFFFFFFFFFF0000L;
+        else return false;
+        spliceGlyphs(working, start, end, replacement, template);
+        glyphs.clear();
+        glyphs.addAll(working);
+        saveOriginalText(newText);
+        glyphCharIndex = working.size;
+        hitIndexDirty = true;
+        int glyphCount = working.size;
+        offsets.setSize(glyphCount + glyphCount);
+        Arrays.fill(offsets.items, 0, glyphCount + glyphCount, 0f);
+        sizing.setSize(glyphCount + glyphCount);
+        Arrays.fill(sizing.items, 0, glyphCount + glyphCount, 1f);
+        rotations.setSize(glyphCount);
+        Arrays.fill(rotations.items, 0, glyphCount, 0f);
+        invalidate();
+        return true;
+    }
+
+    private static void spliceGlyphs(LongArray glyphs, int start, int end, CharSequence replacement, long template) {
+        int added = replacement.length(), oldSize = glyphs.size, newSize = oldSize - (end - start) + added;
+        long[] items = glyphs.ensureCapacity(Math.max(0, newSize - oldSize));
+        System.arraycopy(items, end, items, start + added, oldSize - end);
+        for (int i = 0; i < added; i++) {
+            items[start + i] = template | replacement.charAt(i);
+        }
+        glyphs.size = newSize;
+    }
+
     /**
      * Triggers an event with the given String name. If {@code always} is true, this will trigger the event even if the
      * typing animation has already ended. This requires a {@link TypingListener} to be set.
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2023 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.tommyettinger.textra;
+
+/**
+ * Tracks where the plain-text value of a <code>{VAR=NAME}</code> token ended up after parsing, so that the value can
+ * be swapped out in place without parsing the whole text again. Only values without any markup, tokens, or line
+ * breaks get a slot; the same variable can have more than one slot if it appears more than once.
+ */
+class VariableSlot {
+    /**
+     * The variable name as written in the token, which is what a {@link TypingListener} receives.
+     */
+    final String name;
+    /**
+     * The variable name in upper case, as used by {@link TypingLabel#getVariables()} and
+     * {@link TypingConfig#GLOBAL_VARS}.
+     */
+    final String key;
+    /**
+     * The index of the first char of the value, in the label's intermediate text (or, while parsing, in whatever
+     * text is being worked on).
+     */
+    int textStart;
+    /**
+     * The index of the first char of the value, in the same coordinates as {@link TokenEntry#index}.
+     */
+    int rawStart;
+    /**
+     * The index of the first glyph of the value, as used by {@link TypingLabel#getInLayout(Layout, int)}.
+     */
+    int glyphStart;
+    /**
+     * How many chars (and glyphs) the value currently uses.
+     */
+    int length;
+    /**
+     * The color and style bits of the first glyph of the value, without a char; new values use this.
+     */
+    long template;
+
+    VariableSlot(String name, int textStart, int length) {
+        this.name = name;
+        this.key = name.toUpperCase();
+        this.textStart = textStart;
+        this.length = length;
+    }
+
+    VariableSlot(VariableSlot other) {
+        this.name = other.name;
+        this.key = other.key;
+        this.textStart = other.textStart;
+        this.rawStart = other.rawStart;
+        this.glyphStart = other.glyphStart;
+        this.length = other.length;
+        this.template = other.template;
+    }
+
+    /**
+     * Returns true if {@code value} can be placed in a slot, meaning it is non-null and contains nothing that would
+     * be interpreted as markup, a token, or a line break.
+     */
+    static boolean isPlain(String value) {
+        if (value == null) return false;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            switch (value.charAt(i)) {
+                case '[':
+                case ']':
+                case '{':
+                case '}':
+                case '\n':
+                case '\r':
+                case '\u0002':
+                case '$':
+                case '\\':
+                    return false;
+            }
+        }
+        return true;
+    }
+}
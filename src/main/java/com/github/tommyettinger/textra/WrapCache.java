@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2024 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.tommyettinger.textra;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongArray;
+
+/**
+ * Remembers how a label's {@link Layout} was wrapped at the last few target widths, so that a {@code Table} probing
+ * several widths, or a widget being resized back and forth, doesn't need {@link Font#regenerateLayout(Layout)} again
+ * for a width it has already seen. Each entry stores where each line starts and the size of each line; it doesn't
+ * store glyphs, so glyphs that only changed color (as many effects do) keep their current colors when an entry is
+ * used.
+ * <br>
+ * An entry is only used if the Font, its scale, the target width, the max lines, and the glyphs (ignoring color) are
+ * all the same as when it was stored. The glyphs are compared by a hash that is cheap to compute next to wrapping, so
+ * nothing needs to tell this when the text changes.
+ */
+class WrapCache {
+    /**
+     * How many target widths are remembered; the least-recently used one is replaced first.
+     */
+    static final int CAPACITY = 4;
+
+    private static final class Entry {
+        Font font;
+        float scaleX, scaleY, targetWidth;
+        int maxLines, glyphCount;
+        long hash, used;
+        final IntArray lineSizes = new IntArray();
+        final FloatArray lineWidths = new FloatArray();
+        final FloatArray lineHeights = new FloatArray();
+    }
+
+    private final Array<Entry> entries = new Array<>(false, CAPACITY, Entry.class);
+    private final LongArray flat = new LongArray();
+    private long clock = 0L;
+    private int glyphCount;
+
+    /**
+     * Wraps {@code layout} to its current target width using {@code font}, either by reusing line breaks from an
+     * earlier call with the same font, scale, width, and glyphs, or by calling {@link Font#regenerateLayout(Layout)}.
+     *
+     * @param font the Font to wrap with
+     * @param layout a Layout that will be modified in-place
+     * @return true if a stored entry was used, or false if the layout was regenerated
+     */
+    boolean wrap(Font font, Layout layout) {
+        if (layout.font == null) {
+            font.regenerateLayout(layout);
+            return false;
+        }
+        final long hash = hash(layout);
+        final int count = glyphCount;
+        for (int i = 0; i < entries.size; i++) {
+            Entry e = entries.get(i);
+            if (e.font == font && e.hash == hash && e.glyphCount == count && e.targetWidth == layout.targetWidth
+                    && e.maxLines == layout.maxLines && e.scaleX == font.scaleX && e.scaleY == font.scaleY) {
+                e.used = ++clock;
+                apply(e, layout);
+                return true;
+            }
+        }
+        font.regenerateLayout(layout);
+        // when lines were cut off, glyphs may have been removed or replaced by an ellipsis, so this can't be reused.
+        if (!layout.atLimit)
+            store(font, layout, hash, count);
+        return false;
+    }
+
+    /**
+     * Hashes every glyph in layout without its color, except for whether its color is entirely 0, which
+     * {@link Font#regenerateLayout(Layout)} treats as a place it can break a line. Newlines are hashed only by their
+     * char, since wrapping can change their other bits. Also sets {@link #glyphCount}.
+     */
+    private long hash(Layout layout) {
+        long h = 0x9E3779B97F4A7C15L;
+        int count = 0;
+        for (int ln = 0, lines = layout.lines(); ln < lines; ln++) {
+            LongArray glyphs = layout.getLine(ln).glyphs;
+            long[] items = glyphs.items;
+            for (int i = 0, n = glyphs.size; i < n; i++) {
+                long g = items[i];
+                long k = (char) g == '\n' ? '\n' : (g & 0xFFFFFFFFL) | (g >>> 32 == 0L ? 0x100000000L : 0L);
+                h = (h ^ k) * 0xF1357AEA2E62A9C5L;
+                h ^= h >>> 29;
+            }
+            count += glyphs.size;
+        }
+        glyphCount = count;
+        return h;
+    }
+
+    private void store(Font font, Layout layout, long hash, int count) {
+        Entry e;
+        if (entries.size < CAPACITY) {
+            e = new Entry();
+            entries.add(e);
+        } else {
+            e = entries.first();
+            for (int i = 1; i < entries.size; i++) {
+                if (entries.get(i).used < e.used) e = entries.get(i);
+            }
+        }
+        e.font = font;
+        e.scaleX = font.scaleX;
+        e.scaleY = font.scaleY;
+        e.targetWidth = layout.targetWidth;
+        e.maxLines = layout.maxLines;
+        e.hash = hash;
+        e.glyphCount = count;
+        e.used = ++clock;
+        e.lineSizes.clear();
+        e.lineWidths.clear();
+        e.lineHeights.clear();
+        for (int ln = 0, lines = layout.lines(); ln < lines; ln++) {
+            Line line = layout.getLine(ln);
+            e.lineSizes.add(line.glyphs.size);
+            e.lineWidths.add(line.width);
+            e.lineHeights.add(line.height);
+        }
+    }
+
+    /**
+     * Breaks the glyphs in layout into lines the way they were when e was stored, keeping the glyphs themselves.
+     */
+    private void apply(Entry e, Layout layout) {
+        final Array<Line> lines = layout.lines;
+        final int lineCount = e.lineSizes.size;
+        boolean same = lines.size == lineCount;
+        for (int ln = 0; same && ln < lineCount; ln++) {
+            same = lines.get(ln).glyphs.size == e.lineSizes.get(ln);
+        }
+        if (!same) {
+            flat.clear();
+            for (int ln = 0; ln < lines.size; ln++) {
+                flat.addAll(lines.get(ln).glyphs);
+            }
+            lines.truncate(lineCount);
+            while (lines.size < lineCount) {
+                lines.add(new Line());
+            }
+            for (int ln = 0, start = 0; ln < lineCount; ln++) {
+                int size = e.lineSizes.get(ln);
+                LongArray glyphs = lines.get(ln).glyphs;
+                glyphs.clear();
+                glyphs.addAll(flat.items, start, size);
+                start += size;
+            }
+        }
+        for (int ln = 0; ln < lineCount; ln++) {
+            lines.get(ln).size(e.lineWidths.get(ln), e.lineHeights.get(ln));
+        }
+        layout.atLimit = false;
+    }
+}
@@ -23,6 +23,8 @@ import com.badlogic.gdx.utils.IntFloatMap;
 import com.github.tommyettinger.textra.Effect;
 import com.github.tommyettinger.textra.TypingLabel;
 
+import java.util.Arrays;
+
 /**
  * Starts the text large and shrinks into the final position/size, arcing up and then ending moving down.
  * Doesn't repeat itself.
@@ -101,7 +103,7 @@ public class CannonEffect extends Effect {
         else {
             // Make sure we can hold enough entries for the current index
             if (localIndex >= lastOffsets.size / 2) {
-                lastOffsets.setSize(lastOffsets.size + 16);
+                lastOffsets.setSize(Math.max(localIndex + 1, label.layout.countGlyphs() - indexStart) << 1);
             }
 
             // Get last offsets
@@ -135,4 +137,12 @@ public class CannonEffect extends Effect {
         }
     }
 
+    @Override
+    public void reset() {
+        super.reset();
+        timePassedByGlyphIndex.clear();
+        Arrays.fill(lastOffsets.items, 0, lastOffsets.size, 0f);
+        lastOffsets.clear();
+    }
+
 }
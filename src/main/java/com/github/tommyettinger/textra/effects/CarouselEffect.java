@@ -65,4 +65,10 @@ public class CarouselEffect extends Effect {
         label.offsets.incr(globalIndex << 1, font.mapping.get((char) glyph, font.defaultValue).xAdvance * (0.125f * s));
     }
 
+    @Override
+    public void reset() {
+        super.reset();
+        timePassedByGlyphIndex.clear();
+    }
+
 }
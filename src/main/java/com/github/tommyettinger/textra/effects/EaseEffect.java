@@ -71,4 +71,10 @@ public class EaseEffect extends Effect {
         label.offsets.incr(globalIndex << 1 | 1, y);
     }
 
+    @Override
+    public void reset() {
+        super.reset();
+        timePassedByGlyphIndex.clear();
+    }
+
 }
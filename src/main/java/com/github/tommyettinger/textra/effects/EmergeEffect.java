@@ -63,4 +63,10 @@ public class EmergeEffect extends Effect {
         label.sizing.incr(globalIndex << 1 | 1, interpolatedValue - 1.0f);
     }
 
+    @Override
+    public void reset() {
+        super.reset();
+        timePassedByGlyphIndex.clear();
+    }
+
 }
@@ -84,4 +84,10 @@ public class FadeEffect extends Effect {
         }
     }
 
+    @Override
+    public void reset() {
+        super.reset();
+        timePassedByGlyphIndex.clear();
+    }
+
 }
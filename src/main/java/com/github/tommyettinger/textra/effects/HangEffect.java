@@ -77,4 +77,10 @@ public class HangEffect extends Effect {
         label.offsets.incr(globalIndex << 1 | 1, y);
     }
 
+    @Override
+    public void reset() {
+        super.reset();
+        timePassedByGlyphIndex.clear();
+    }
+
 }
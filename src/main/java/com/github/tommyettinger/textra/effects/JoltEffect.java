@@ -23,6 +23,8 @@ import com.badlogic.gdx.utils.TimeUtils;
 import com.github.tommyettinger.textra.Effect;
 import com.github.tommyettinger.textra.TypingLabel;
 
+import java.util.Arrays;
+
 /**
  * Randomly selects and shakes individual characters in the text.
  */
@@ -79,7 +81,7 @@ public class JoltEffect extends Effect {
     protected void onApply(long glyph, int localIndex, int globalIndex, float delta) {
         // Make sure we can hold enough entries for the current index
         if (localIndex >= lastOffsets.size / 2) {
-            lastOffsets.setSize(lastOffsets.size + 16);
+            lastOffsets.setSize(Math.max(localIndex + 1, label.layout.countGlyphs() - indexStart) << 1);
         }
 
         // Get last offsets
@@ -128,4 +130,11 @@ public class JoltEffect extends Effect {
         return ((((state = (((state * 0x632BE59BD9B4E019L) ^ 0x9E3779B97F4A7C15L) * 0xC6BC279692B5CC83L)) ^ state >>> 27) * 0xAEF17502108EF2D9L) >>> 40) * 0x1p-24f;
     }
 
+    @Override
+    public void reset() {
+        super.reset();
+        Arrays.fill(lastOffsets.items, 0, lastOffsets.size, 0f);
+        lastOffsets.clear();
+    }
+
 }
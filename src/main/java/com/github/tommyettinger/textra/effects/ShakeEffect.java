@@ -22,6 +22,8 @@ import com.badlogic.gdx.utils.FloatArray;
 import com.github.tommyettinger.textra.Effect;
 import com.github.tommyettinger.textra.TypingLabel;
 
+import java.util.Arrays;
+
 /**
  * Shakes the text in a random pattern.
  */
@@ -57,7 +59,7 @@ public class ShakeEffect extends Effect {
     protected void onApply(long glyph, int localIndex, int globalIndex, float delta) {
         // Make sure we can hold enough entries for the current index
         if (localIndex >= lastOffsets.size / 2) {
-            lastOffsets.setSize(lastOffsets.size + 16);
+            lastOffsets.setSize(Math.max(localIndex + 1, label.layout.countGlyphs() - indexStart) << 1);
         }
 
         // Get last offsets
@@ -89,4 +91,11 @@ public class ShakeEffect extends Effect {
         label.offsets.incr(globalIndex << 1 | 1, y);
     }
 
+    @Override
+    public void reset() {
+        super.reset();
+        Arrays.fill(lastOffsets.items, 0, lastOffsets.size, 0f);
+        lastOffsets.clear();
+    }
+
 }
@@ -72,4 +72,10 @@ public class ShrinkEffect extends Effect {
         label.sizing.incr(globalIndex << 1 | 1, interpolatedValue);
     }
 
+    @Override
+    public void reset() {
+        super.reset();
+        timePassedByGlyphIndex.clear();
+    }
+
 }
@@ -95,4 +95,10 @@ public class SickEffect extends Effect {
         label.offsets.incr(globalIndex << 1 | 1, -y);
     }
 
+    @Override
+    public void reset() {
+        super.reset();
+        indices.clear();
+    }
+
 }
@@ -72,4 +72,10 @@ public class SlideEffect extends Effect {
         label.offsets.incr(globalIndex << 1, x);
     }
 
+    @Override
+    public void reset() {
+        super.reset();
+        timePassedByGlyphIndex.clear();
+    }
+
 }
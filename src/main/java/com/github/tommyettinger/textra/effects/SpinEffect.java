@@ -69,4 +69,10 @@ public class SpinEffect extends Effect {
         label.rotations.incr(globalIndex, interpolatedValue);
     }
 
+    @Override
+    public void reset() {
+        super.reset();
+        timePassedByGlyphIndex.clear();
+    }
+
 }
@@ -72,4 +72,10 @@ public class SpiralEffect extends Effect {
         label.offsets.incr(globalIndex << 1 | 1, y);
     }
 
+    @Override
+    public void reset() {
+        super.reset();
+        timePassedByGlyphIndex.clear();
+    }
+
 }
@@ -77,4 +77,10 @@ public class SquashEffect extends Effect {
     {
     }
 
+    @Override
+    public void reset() {
+        super.reset();
+        timePassedByGlyphIndex.clear();
+    }
+
 }
@@ -108,4 +108,12 @@ public class WindEffect extends Effect {
         label.offsets.incr(globalIndex << 1, x);
         label.offsets.incr(globalIndex << 1 | 1, y);
     }
+
+    @Override
+    public void reset() {
+        super.reset();
+        noiseCursorX = 0f;
+        noiseCursorY = 0f;
+    }
+
 }
@@ -435,7 +435,20 @@ public class ColorUtils {
         return colors;
     }
 
-    private static final IntArray mixing = new IntArray(8);
+    /**
+     * Remembers recent results of {@link #describe(String)}, since the same few descriptions tend to be used over and
+     * over in markup.
+     */
+    private static final StringIntCache DESCRIBED = new StringIntCache(256);
+
+    /**
+     * Forgets any results {@link #describe(String)} has cached. {@link Palette#addColor(String, int)} calls this
+     * already; you only need to call it if you change {@link Palette#NAMED} some other way, such as by putting a new
+     * value for an existing name.
+     */
+    public static void clearDescribeCache() {
+        DESCRIBED.clear();
+    }
 
     /**
      * Parses a color description and returns the approximate color it describes, as an RGBA8888 int color.
@@ -471,6 +484,9 @@ public class ColorUtils {
      * invalid, this returns the RGBA8888 int value {@code 256} (used as a placeholder by
      * {@link com.github.tommyettinger.textra.ColorLookup}).
      * <br>
+     * Results are cached, so describing the same String again is just a lookup; this is safe to call from multiple
+     * threads. See {@link #clearDescribeCache()} if you change {@link Palette#NAMED}.
+     * <br>
      * Examples of valid descriptions include "blue", "dark green", "DULLER RED", "peach pink", "indigo purple mauve",
      * "lightest, richer apricot-olive", "BRIGHT GOLD", "palest cyan blue", "Deep fern black", "weakmost celery",
      * "LIGHTMOST rich MAROON 2 indigo 3", "red:3 orange", and "dark deep (blue 7) (cyan 3)".
@@ -478,11 +494,35 @@ public class ColorUtils {
      * @return an RGBA8888 int color as described
      */
     public static int describe(final String description) {
+        final long cached = DESCRIBED.get(description);
+        if (cached != -1L) return (int) cached;
+        final int result = parseDescription(description);
+        DESCRIBED.put(description, result);
+        return result;
+    }
+
+    /**
+     * Checks if {@code c} can be part of a term in a color description; only ASCII letters, digits, and the underscore
+     * can be.
+     */
+    private static boolean isTermChar(final char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    /**
+     * Does the work for {@link #describe(String)} when a description isn't cached.
+     */
+    private static int parseDescription(final String description) {
         float lightness = 0f, saturation = 0f;
-        final String[] terms = description.split("[^a-zA-Z0-9_]+");
-        mixing.clear();
-        for(String term : terms) {
-            if (term == null || term.isEmpty()) continue;
+        // local, so that this can run on several threads at once
+        final IntArray mixing = new IntArray(8);
+        final int length = description.length();
+        for (int start = 0, end; start < length; start = end) {
+            while (start < length && !isTermChar(description.charAt(start))) start++;
+            end = start;
+            while (end < length && isTermChar(description.charAt(end))) end++;
+            if (start == end) continue;
+            final String term = description.substring(start, end);
             final int len = term.length();
             switch (term.charAt(0)) {
                 case 'L':
@@ -18,12 +18,14 @@ package com.github.tommyettinger.textra.utils;
 
 import com.badlogic.gdx.utils.ByteArray;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
 
 /**
  * Compresses Strings to byte arrays using a type of LZ-compression.
- * This is the counterpart to {@link LZBDecompression}.
+ * This is the counterpart to {@link LZBDecompression}. To compress a stream of chars without holding them all in
+ * memory, use {@link #compress(Reader, OutputStream)} or an {@link LZBWriter} directly.
  * <br>
  * This is loosely based on LZ-String.
  * The LZ-String algorithm was formulated by <a href="https://github.com/pieroxy/lz-string">pieroxy</a>.
@@ -55,205 +57,48 @@ public final class LZBCompression {
     public static ByteArray compressToByteArray(String uncompressedStr) {
         if (uncompressedStr == null) return null;
         if (uncompressedStr.isEmpty()) return new ByteArray(0);
-        final int bitsPerChar = 8;
-        int i, value;
-        HashMap<String, Integer> context_dictionary = new HashMap<>(1024, 0.5f);
-        HashSet<String> context_dictionaryToCreate = new HashSet<>(1024, 0.5f);
-        String context_c;
-        String context_wc;
-        String context_w = "";
-        int context_enlargeIn = 2; // Compensate for the first entry which should not count
-        int context_dictSize = 3;
-        int context_numBits = 2;
-        ByteArray context_data = new ByteArray(uncompressedStr.length() >>> 1);
-        byte context_data_val = 0;
-        int context_data_position = 0;
-        int ii, ucl = uncompressedStr.length();
-
-        for (ii = 0; ii < ucl; ii++) {
-            context_c = String.valueOf(uncompressedStr.charAt(ii));
-            if (!context_dictionary.containsKey(context_c)) {
-                context_dictionary.put(context_c, context_dictSize++);
-                context_dictionaryToCreate.add(context_c);
-            }
-
-            context_wc = context_w + context_c;
-            if (context_dictionary.containsKey(context_wc)) {
-                context_w = context_wc;
-            } else {
-                if (context_dictionaryToCreate.contains(context_w)) {
-                    if ((value = context_w.charAt(0)) < 256) {
-                        for (i = 0; i < context_numBits; i++) {
-                            context_data_val = (byte)(context_data_val << 1);
-                            if (context_data_position == bitsPerChar - 1) {
-                                context_data_position = 0;
-                                context_data.add(context_data_val);
-                                context_data_val = 0;
-                            } else {
-                                context_data_position++;
-                            }
-                        }
-                        for (i = 0; i < 8; i++) {
-                            context_data_val = (byte)(context_data_val << 1 | (value & 1));
-                            if (context_data_position == bitsPerChar - 1) {
-                                context_data_position = 0;
-                                context_data.add(context_data_val);
-                                context_data_val = 0;
-                            } else {
-                                context_data_position++;
-                            }
-                            value >>>= 1;
-                        }
-                    } else {
-                        value = 1;
-                        for (i = 0; i < context_numBits; i++) {
-                            context_data_val = (byte)((context_data_val << 1) | value);
-                            if (context_data_position == bitsPerChar - 1) {
-                                context_data_position = 0;
-                                context_data.add(context_data_val);
-                                context_data_val = 0;
-                            } else {
-                                context_data_position++;
-                            }
-                            value = 0;
-                        }
-                        value = context_w.charAt(0);
-                        for (i = 0; i < 16; i++) {
-                            context_data_val = (byte)((context_data_val << 1) | (value & 1));
-                            if (context_data_position == bitsPerChar - 1) {
-                                context_data_position = 0;
-                                context_data.add(context_data_val);
-                                context_data_val = 0;
-                            } else {
-                                context_data_position++;
-                            }
-                            value >>>= 1;
-                        }
-                    }
-                    context_enlargeIn--;
-                    if (context_enlargeIn == 0) {
-                        context_enlargeIn = 1 << context_numBits++;
-                    }
-                    context_dictionaryToCreate.remove(context_w);
-                } else {
-                    value = context_dictionary.get(context_w);
-                    for (i = 0; i < context_numBits; i++) {
-                        context_data_val = (byte)((context_data_val << 1) | (value & 1));
-                        if (context_data_position == bitsPerChar - 1) {
-                            context_data_position = 0;
-                            context_data.add(context_data_val);
-                            context_data_val = 0;
-                        } else {
-                            context_data_position++;
-                        }
-                        value >>>= 1;
-                    }
-
-                }
-                context_enlargeIn--;
-                if (context_enlargeIn == 0) {
-                    context_enlargeIn = 1 << context_numBits++;
-                }
-                // Add wc to the dictionary.
-                context_dictionary.put(context_wc, context_dictSize++);
-                context_w = context_c;
+        final ByteArray data = new ByteArray(uncompressedStr.length() >>> 1);
+        LZBWriter writer = new LZBWriter(new OutputStream() {
+            @Override
+            public void write(int b) {
+                data.add((byte) b);
             }
-        }
-
-        // Output the code for w.
-        if (!context_w.isEmpty()) {
-            if (context_dictionaryToCreate.contains(context_w)) {
-                if (context_w.charAt(0) < 256) {
-                    for (i = 0; i < context_numBits; i++) {
-                        context_data_val = (byte)(context_data_val << 1);
-                        if (context_data_position == bitsPerChar - 1) {
-                            context_data_position = 0;
-                            context_data.add(context_data_val);
-                            context_data_val = 0;
-                        } else {
-                            context_data_position++;
-                        }
-                    }
-                    value = context_w.charAt(0);
-                    for (i = 0; i < 8; i++) {
-                        context_data_val = (byte)((context_data_val << 1) | (value & 1));
-                        if (context_data_position == bitsPerChar - 1) {
-                            context_data_position = 0;
-                            context_data.add(context_data_val);
-                            context_data_val = 0;
-                        } else {
-                            context_data_position++;
-                        }
-                        value >>>= 1;
-                    }
-                } else {
-                    value = 1;
-                    for (i = 0; i < context_numBits; i++) {
-                        context_data_val = (byte)((context_data_val << 1) | value);
-                        if (context_data_position == bitsPerChar - 1) {
-                            context_data_position = 0;
-                            context_data.add(context_data_val);
-                            context_data_val = 0;
-                        } else {
-                            context_data_position++;
-                        }
-                        value = 0;
-                    }
-                    value = context_w.charAt(0);
-                    for (i = 0; i < 16; i++) {
-                        context_data_val = (byte)((context_data_val << 1) | (value & 1));
-                        if (context_data_position == bitsPerChar - 1) {
-                            context_data_position = 0;
-                            context_data.add(context_data_val);
-                            context_data_val = 0;
-                        } else {
-                            context_data_position++;
-                        }
-                        value >>>= 1;
-                    }
-                }
-
-                context_dictionaryToCreate.remove(context_w);
-            } else {
-                value = context_dictionary.get(context_w);
-                for (i = 0; i < context_numBits; i++) {
-                    context_data_val = (byte)((context_data_val << 1) | (value & 1));
-                    if (context_data_position == bitsPerChar - 1) {
-                        context_data_position = 0;
-                        context_data.add(context_data_val);
-                        context_data_val = 0;
-                    } else {
-                        context_data_position++;
-                    }
-                    value >>>= 1;
-                }
 
+            @Override
+            public void write(byte[] b, int off, int len) {
+                data.addAll(b, off, len);
             }
+        });
+        try {
+            writer.write(uncompressedStr);
+            writer.finish();
+        } catch (IOException e) {
+            // can't happen when writing to a ByteArray
+            throw new IllegalStateException(e);
         }
+        return data;
+    }
 
-        // Mark the end of the stream
-        value = 2;
-        for (i = 0; i < context_numBits; i++) {
-            context_data_val = (byte)((context_data_val << 1) | (value & 1));
-            if (context_data_position == bitsPerChar - 1) {
-                context_data_position = 0;
-                context_data.add(context_data_val);
-                context_data_val = 0;
-            } else {
-                context_data_position++;
+    /**
+     * Compresses all chars from {@code in} using LZB, writing the compressed bytes to {@code out}. The bytes are the
+     * same as {@link #compressToBytes(String)} would produce for the whole contents of {@code in}, and can be read
+     * back with {@link LZBDecompression#decompress(java.io.InputStream, java.io.Writer)} or an {@link LZBReader}.
+     * This closes {@code in}, but leaves {@code out} open.
+     * @param in a Reader of chars to compress; does not need to be buffered
+     * @param out where to write the compressed bytes; does not need to be buffered
+     * @throws IOException if reading or writing fails
+     */
+    public static void compress(Reader in, OutputStream out) throws IOException {
+        LZBWriter writer = new LZBWriter(out);
+        char[] buffer = new char[4096];
+        try {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                writer.write(buffer, 0, n);
             }
-            value >>>= 1;
-        }
-
-        // Flush the last char
-        while (true) {
-            context_data_val = (byte)(context_data_val << 1);
-            if (context_data_position == bitsPerChar - 1) {
-                context_data.add(context_data_val);
-                break;
-            } else
-                context_data_position++;
+        } finally {
+            in.close();
         }
-        return context_data;
+        writer.finish();
     }
 }
@@ -18,13 +18,14 @@ package com.github.tommyettinger.textra.utils;
 
 import com.badlogic.gdx.utils.ByteArray;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
 
 /**
  * Decompresses byte arrays to Strings using a type of LZ-compression.
- * This is the counterpart to {@link LZBCompression}.
+ * This is the counterpart to {@link LZBCompression}. To decompress a stream of bytes without holding them all in
+ * memory, use {@link #decompress(InputStream, Writer)} or an {@link LZBReader} directly.
  * <br>
  * This is loosely based on LZ-String.
  * The LZ-String algorithm was formulated by <a href="https://github.com/pieroxy/lz-string">pieroxy</a>.
@@ -66,152 +67,28 @@ public final class LZBDecompression {
             return null;
         if(length <= 0)
             return "";
-        final int resetValue = 128;
-        ArrayList<String> dictionary = new ArrayList<>(256);
-        int enlargeIn = 4, dictSize = 4, numBits = 3, position = resetValue, index = offset+1, resb, maxpower, power;
-        String entry, w, c;
-        StringBuilder res = new StringBuilder(length);
-        char bits;
-        int val = compressedBytes[offset];
-
-        for (char i = 0; i < 3; i++) {
-            dictionary.add(String.valueOf(i));
-        }
-
-        bits = 0;
-        maxpower = 2;
-        power = 0;
-        while (power != maxpower) {
-            resb = val & position;
-            position >>>= 1;
-            if (position == 0) {
-                position = resetValue;
-                val = compressedBytes[index++];
-            }
-            bits |= (resb != 0 ? 1 : 0) << power++;
-        }
-
-        switch (bits) {
-            case 0:
-                bits = 0;
-                maxpower = 8;
-                power = 0;
-                while (power != maxpower) {
-                    resb = val & position;
-                    position >>>= 1;
-                    if (position == 0) {
-                        position = resetValue;
-                        val = compressedBytes[index++];
-                    }
-                    bits |= (resb != 0 ? 1 : 0) << power++;
-                }
-                c = String.valueOf(bits);
-                break;
-            case 1:
-                bits = 0;
-                maxpower = 16;
-                power = 0;
-                while (power != maxpower) {
-                    resb = val & position;
-                    position >>>= 1;
-                    if (position == 0) {
-                        position = resetValue;
-                        val = compressedBytes[index++];
-                    }
-                    bits |= (resb != 0 ? 1 : 0) << power++;
-                }
-                c = String.valueOf(bits);
-                break;
-            default:
-                return "";
+        try (LZBReader reader = new LZBReader(compressedBytes, offset, length)) {
+            return reader.readFully(length << 2);
+        } catch (IOException e) {
+            // malformed or truncated data
+            return "";
         }
-        dictionary.add(c);
-        w = c;
-        res.append(w);
-        while (true) {
-            if (index - offset > length) {
-                return "";
-            }
-            int cc = 0;
-            maxpower = numBits;
-            power = 0;
-            while (power != maxpower) {
-                resb = val & position;
-                position >>>= 1;
-                if (position == 0) {
-                    position = resetValue;
-                    val = compressedBytes[index++];
-                }
-                cc |= (resb != 0 ? 1 : 0) << power++;
-            }
-            switch (cc) {
-                case 0:
-                    bits = 0;
-                    maxpower = 8;
-                    power = 0;
-                    while (power != maxpower) {
-                        resb = val & position;
-                        position >>>= 1;
-                        if (position == 0) {
-                            position = resetValue;
-                            val = compressedBytes[index++];
-                        }
-                        bits |= (resb != 0 ? 1 : 0) << power++;
-                    }
-
-                    dictionary.add(String.valueOf(bits));
-                    cc = dictSize++;
-                    enlargeIn--;
-                    break;
-                case 1:
-                    bits = 0;
-                    maxpower = 16;
-                    power = 0;
-                    while (power != maxpower) {
-                        resb = val & position;
-                        position >>>= 1;
-                        if (position == 0) {
-                            position = resetValue;
-                            val = compressedBytes[index++];
-                        }
-                        bits |= (resb != 0 ? 1 : 0) << power++;
-                    }
-                    dictionary.add(String.valueOf(bits));
-                    cc = dictSize++;
-                    enlargeIn--;
-                    break;
-                case 2:
-                    return res.toString();
-            }
-
-            if (enlargeIn == 0) {
-                enlargeIn = 1 << numBits;
-                numBits++;
-            }
-
-            if (cc < dictionary.size() && dictionary.get(cc) != null) {
-                entry = dictionary.get(cc);
-            } else {
-                if (cc == dictSize) {
-                    entry = w + w.charAt(0);
-                } else {
-                    return "";
-                }
-            }
-            res.append(entry);
-
-            // Add w+entry[0] to the dictionary.
-            dictionary.add(w + entry.charAt(0));
-            dictSize++;
-            enlargeIn--;
-
-            w = entry;
+    }
 
-            if (enlargeIn == 0) {
-                enlargeIn = 1 << numBits;
-                numBits++;
+    /**
+     * Decompresses LZB-compressed bytes from {@code in}, writing the original chars to {@code out}. This closes
+     * {@code in}, but leaves {@code out} open.
+     * @param in an InputStream of LZB-compressed bytes; does not need to be buffered
+     * @param out where to write the decompressed chars
+     * @throws IOException if reading or writing fails, or if the compressed data is malformed or ends too early
+     */
+    public static void decompress(InputStream in, Writer out) throws IOException {
+        char[] buffer = new char[4096];
+        try (LZBReader reader = new LZBReader(in)) {
+            int n;
+            while ((n = reader.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
             }
-
         }
     }
 }
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2020-2024 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.tommyettinger.textra.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * A Reader that decompresses LZB-compressed bytes as they are read, producing the same chars that
+ * {@link LZBDecompression#decompressFromBytes(byte[])} would return, but without ever holding the whole decompressed
+ * String (or the whole compressed input, if reading from an InputStream) in memory. This is useful for reading large
+ * compressed files, such as Structured JSON fonts stored as .dat files, directly into a parser.
+ * <br>
+ * If the compressed data is malformed or ends too early, reading throws an IOException.
+ */
+public final class LZBReader extends Reader {
+    /**
+     * Null when reading directly from a byte array given to the constructor.
+     */
+    private final InputStream in;
+    private final byte[] inBuffer;
+    private int inPosition, inLimit;
+
+    /*
+     * The dictionary, as a table of prefix codes: each entry is the entry at prefixes[code] followed by lasts[code],
+     * with firsts[code] and lengths[code] stored so they don't need to be found by following the prefixes.
+     */
+    private int[] prefixes = new int[256], lengths = new int[256];
+    private char[] lasts = new char[256], firsts = new char[256];
+    private int enlargeIn = 4, dictSize = 4, numBits = 3;
+    /**
+     * Bits read from the input but not yet used, with the next one in the lowest bit. Each byte stores its bits from
+     * highest to lowest, so bytes are reversed before they are added here.
+     */
+    private long bitBuffer = 0L;
+    private int bitCount = 0;
+    private int w = -1;
+    private char[] pending = new char[64];
+    private int pendingIndex = 0, pendingLength = 0;
+    private boolean finished = false;
+
+    /**
+     * Reads LZB-compressed bytes from the given InputStream, which will be closed when this Reader is.
+     * @param in an InputStream of LZB-compressed bytes; does not need to be buffered
+     */
+    public LZBReader(InputStream in) {
+        this.in = in;
+        inBuffer = new byte[4096];
+    }
+
+    /**
+     * Reads LZB-compressed bytes from the given array.
+     * @param compressedBytes a byte array compressed with LZB
+     */
+    public LZBReader(byte[] compressedBytes) {
+        this(compressedBytes, 0, compressedBytes.length);
+    }
+
+    /**
+     * Reads LZB-compressed bytes from part of the given array.
+     * @param compressedBytes a byte array compressed with LZB
+     * @param offset where to start reading in compressedBytes
+     * @param length how many bytes to read from compressedBytes
+     */
+    public LZBReader(byte[] compressedBytes, int offset, int length) {
+        in = null;
+        inBuffer = compressedBytes;
+        inPosition = offset;
+        inLimit = offset + length;
+    }
+
+    private int nextByte() throws IOException {
+        if (inPosition == inLimit) {
+            if (in == null) return -1;
+            inLimit = in.read(inBuffer, 0, inBuffer.length);
+            inPosition = 0;
+            if (inLimit <= 0) {
+                inLimit = 0;
+                return -1;
+            }
+        }
+        return inBuffer[inPosition++] & 0xFF;
+    }
+
+    private int readBits(int count) throws IOException {
+        while (bitCount < count) {
+            int b = nextByte();
+            if (b == -1)
+                throw new IOException("LZB data ended too early");
+            bitBuffer |= (long) (Integer.reverse(b) >>> 24) << bitCount;
+            bitCount += 8;
+        }
+        int bits = (int) bitBuffer & (1 << count) - 1;
+        bitBuffer >>>= count;
+        bitCount -= count;
+        return bits;
+    }
+
+    /**
+     * Adds an entry to the dictionary at the given code, growing the tables if needed.
+     * @param code the code of the new entry; always the current dictionary size
+     * @param prefix the code of the entry this extends, or -1 for a single char
+     * @param last the char this adds to the end of prefix
+     */
+    private void addEntry(int code, int prefix, char last) {
+        if (code == prefixes.length) {
+            int capacity = code << 1;
+            prefixes = Arrays.copyOf(prefixes, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            lasts = Arrays.copyOf(lasts, capacity);
+            firsts = Arrays.copyOf(firsts, capacity);
+        }
+        prefixes[code] = prefix;
+        lasts[code] = last;
+        if (prefix < 0) {
+            firsts[code] = last;
+            lengths[code] = 1;
+        } else {
+            firsts[code] = firsts[prefix];
+            lengths[code] = lengths[prefix] + 1;
+        }
+    }
+
+    /**
+     * Decodes the next entry, adding to the dictionary as needed.
+     * @return the code of the next entry, or -1 if there are no more entries
+     */
+    private int decodeNext() throws IOException {
+        if (finished) return -1;
+        int cc;
+        if (w == -1) {
+            int first = nextByte();
+            if (first == -1) {
+                finished = true;
+                return -1;
+            }
+            bitBuffer = Integer.reverse(first) >>> 24;
+            bitCount = 8;
+            switch (readBits(2)) {
+                case 0:
+                    addEntry(3, -1, (char) readBits(8));
+                    break;
+                case 1:
+                    addEntry(3, -1, (char) readBits(16));
+                    break;
+                default:
+                    finished = true;
+                    return -1;
+            }
+            cc = 3;
+        } else {
+            cc = readBits(numBits);
+            switch (cc) {
+                case 0:
+                    addEntry(dictSize, -1, (char) readBits(8));
+                    cc = dictSize++;
+                    enlargeIn--;
+                    break;
+                case 1:
+                    addEntry(dictSize, -1, (char) readBits(16));
+                    cc = dictSize++;
+                    enlargeIn--;
+                    break;
+                case 2:
+                    finished = true;
+                    return -1;
+            }
+
+            if (enlargeIn == 0) {
+                enlargeIn = 1 << numBits;
+                numBits++;
+            }
+
+            char next;
+            if (cc < dictSize) {
+                next = firsts[cc];
+            } else if (cc == dictSize) {
+                next = firsts[w];
+            } else {
+                throw new IOException("Malformed LZB data");
+            }
+
+            // Add w+entry[0] to the dictionary.
+            addEntry(dictSize, w, next);
+            dictSize++;
+            enlargeIn--;
+
+            if (enlargeIn == 0) {
+                enlargeIn = 1 << numBits;
+                numBits++;
+            }
+        }
+        w = cc;
+        return cc;
+    }
+
+    /**
+     * Writes the chars of the entry for {@code code} into {@code dest}, ending just before {@code end}.
+     */
+    private void copyEntry(int code, char[] dest, int end) {
+        for (int i = end - 1, start = end - lengths[code]; i >= start; i--, code = prefixes[code]) {
+            dest[i] = lasts[code];
+        }
+    }
+
+    /**
+     * Decompresses everything into one String; this must be called before anything else is read. Every entry in the
+     * dictionary has already been written contiguously to the output by the time it can be used, so this copies each
+     * entry from where it starts in the output instead of following its chain of prefixes, which is much faster. This
+     * is what {@link LZBDecompression} uses.
+     * @param sizeHint how many chars to expect; only used for the starting capacity
+     * @return all decompressed chars
+     */
+    String readFully(int sizeHint) throws IOException {
+        char[] out = new char[Math.max(16, sizeHint)];
+        int[] starts = new int[prefixes.length];
+        int size = 0, wStart = 0, code, added = 3;
+        while ((code = decodeNext()) != -1) {
+            if (starts.length < prefixes.length) {
+                starts = Arrays.copyOf(starts, prefixes.length);
+            }
+            // a new single char starts where it is about to be written, anything else is the previous entry plus one
+            for (; added < dictSize; added++) {
+                starts[added] = prefixes[added] < 0 ? size : wStart;
+            }
+            int length = lengths[code], end = size + length;
+            if (end > out.length) {
+                out = Arrays.copyOf(out, Math.max(end, out.length << 1));
+            }
+            if (length == 1) {
+                out[size] = lasts[code];
+            } else {
+                // the entry just added can end with the char being written now, which is its own first char
+                System.arraycopy(out, starts[code], out, size, length - 1);
+                out[end - 1] = lasts[code];
+            }
+            wStart = size;
+            size = end;
+        }
+        return new String(out, 0, size);
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        int n = 0;
+        while (n < len) {
+            if (pendingIndex == pendingLength) {
+                int code = decodeNext();
+                if (code == -1) break;
+                int length = lengths[code];
+                if (pending.length < length) {
+                    pending = new char[Math.max(length, pending.length << 1)];
+                }
+                copyEntry(code, pending, length);
+                pendingIndex = 0;
+                pendingLength = length;
+            }
+            int take = Math.min(len - n, pendingLength - pendingIndex);
+            System.arraycopy(pending, pendingIndex, cbuf, off + n, take);
+            pendingIndex += take;
+            n += take;
+        }
+        return n == 0 && len > 0 ? -1 : n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        pendingIndex = pendingLength = 0;
+        if (in != null) in.close();
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2020-2024 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.tommyettinger.textra.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * A Writer that compresses chars with LZB as they are written, sending the compressed bytes to an OutputStream. The
+ * bytes are exactly what {@link LZBCompression#compressToBytes(String)} would produce for all the chars written, and
+ * can be read back with {@link LZBDecompression} or an {@link LZBReader}. The compressed data isn't complete until
+ * {@link #finish()} or {@link #close()} is called.
+ * <br>
+ * The dictionary is a hash table from a prefix's code and one more char (packed into a long) to a code, so compressing
+ * doesn't create any Strings.
+ */
+public final class LZBWriter extends Writer {
+    private static final long EMPTY = -1L;
+    /**
+     * Set on the code of a single char that has been added to the dictionary but not yet written out as a literal.
+     */
+    private static final int PENDING = 0x80000000;
+
+    private final OutputStream out;
+    private final byte[] outBuffer = new byte[4096];
+    private int outSize = 0;
+    private int bitValue = 0, bitPosition = 0;
+
+    private long[] keys;
+    private int[] values;
+    private int mask, shift, size = 0, threshold;
+
+    private int dictSize = 3, numBits = 2, enlargeIn = 2;
+    /**
+     * The key and code of the current phrase, or {@link #EMPTY} if no chars have been written yet.
+     */
+    private long wKey = EMPTY;
+    private int wCode = 0;
+    private boolean finished = false;
+
+    /**
+     * Compresses chars written to this and writes the compressed bytes to {@code out}, which will be closed when this
+     * Writer is.
+     * @param out where to write compressed bytes; does not need to be buffered
+     */
+    public LZBWriter(OutputStream out) {
+        this.out = out;
+        keys = new long[1024];
+        Arrays.fill(keys, EMPTY);
+        values = new int[1024];
+        mask = 1023;
+        shift = Long.numberOfLeadingZeros(mask);
+        threshold = 512;
+    }
+
+    private int place(long key) {
+        return (int) (key * 0x9E3779B97F4A7C15L >>> shift);
+    }
+
+    private int find(long key) {
+        for (int i = place(key); ; i = i + 1 & mask) {
+            long k = keys[i];
+            if (k == key) return i;
+            if (k == EMPTY) return -1;
+        }
+    }
+
+    private void put(long key, int value) {
+        if (size >= threshold) resize();
+        int i = place(key);
+        while (keys[i] != EMPTY) i = i + 1 & mask;
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        int capacity = oldKeys.length << 1;
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new int[capacity];
+        mask = capacity - 1;
+        shift = Long.numberOfLeadingZeros(mask);
+        threshold = capacity >>> 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            long key = oldKeys[j];
+            if (key != EMPTY) {
+                int i = place(key);
+                while (keys[i] != EMPTY) i = i + 1 & mask;
+                keys[i] = key;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private void writeBits(int value, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            bitValue = bitValue << 1 | (value & 1);
+            value >>>= 1;
+            if (bitPosition == 7) {
+                bitPosition = 0;
+                writeByte(bitValue);
+                bitValue = 0;
+            } else {
+                bitPosition++;
+            }
+        }
+    }
+
+    private void writeByte(int b) throws IOException {
+        if (outSize == outBuffer.length) {
+            out.write(outBuffer, 0, outSize);
+            outSize = 0;
+        }
+        outBuffer[outSize++] = (byte) b;
+    }
+
+    /**
+     * Writes the code for the current phrase, or a literal if it is a single char that hasn't been written yet.
+     * @param countLiteral if true, writing a literal counts towards enlarging the code size
+     */
+    private void writePhrase(boolean countLiteral) throws IOException {
+        int slot = find(wKey);
+        int value = values[slot];
+        if ((value & PENDING) != 0) {
+            // only single chars can be pending, and their keys are just the char
+            int c = (int) wKey;
+            if (c < 256) {
+                writeBits(0, numBits);
+                writeBits(c, 8);
+            } else {
+                writeBits(1, numBits);
+                writeBits(c, 16);
+            }
+            if (countLiteral && --enlargeIn == 0) {
+                enlargeIn = 1 << numBits++;
+            }
+            values[slot] = value & ~PENDING;
+        } else {
+            writeBits(value, numBits);
+        }
+    }
+
+    private void encode(char c) throws IOException {
+        long cKey = c;
+        int cSlot = find(cKey);
+        int cCode;
+        if (cSlot < 0) {
+            cCode = dictSize++;
+            put(cKey, cCode | PENDING);
+        } else {
+            cCode = values[cSlot] & ~PENDING;
+        }
+        if (wKey == EMPTY) {
+            wKey = cKey;
+            wCode = cCode;
+            return;
+        }
+        long wcKey = (long) (wCode + 1) << 16 | c;
+        int wcSlot = find(wcKey);
+        if (wcSlot >= 0) {
+            wKey = wcKey;
+            wCode = values[wcSlot];
+            return;
+        }
+        writePhrase(true);
+        if (--enlargeIn == 0) {
+            enlargeIn = 1 << numBits++;
+        }
+        put(wcKey, dictSize++);
+        wKey = cKey;
+        wCode = cCode;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        if (finished) throw new IOException("LZBWriter is already finished");
+        encode((char) c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        if (finished) throw new IOException("LZBWriter is already finished");
+        for (int i = off, n = off + len; i < n; i++) {
+            encode(cbuf[i]);
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        if (finished) throw new IOException("LZBWriter is already finished");
+        for (int i = off, n = off + len; i < n; i++) {
+            encode(str.charAt(i));
+        }
+    }
+
+    /**
+     * Writes any bytes that are complete to the OutputStream, and flushes it. The compressed data still isn't
+     * complete until {@link #finish()} is called.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (outSize > 0) {
+            out.write(outBuffer, 0, outSize);
+            outSize = 0;
+        }
+        out.flush();
+    }
+
+    /**
+     * Finishes writing the compressed data, including the end marker, without closing the OutputStream. Nothing more
+     * can be written after this. If no chars were written, this writes no bytes, matching
+     * {@link LZBCompression#compressToBytes(String)} for an empty String.
+     */
+    public void finish() throws IOException {
+        if (finished) return;
+        finished = true;
+        if (wKey != EMPTY) {
+            writePhrase(false);
+            // Mark the end of the stream
+            writeBits(2, numBits);
+            // Flush the last char
+            while (true) {
+                bitValue <<= 1;
+                if (bitPosition == 7) {
+                    writeByte(bitValue);
+                    break;
+                }
+                bitPosition++;
+            }
+        }
+        flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            keys = null;
+            values = null;
+            out.close();
+        }
+    }
+}
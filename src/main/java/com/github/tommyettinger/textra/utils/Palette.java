@@ -1026,6 +1026,7 @@ public final class Palette {
         LIST.add(rgba8888);
         NAMES.add(name);
         NAMES.sort();
+        ColorUtils.clearDescribeCache();
         return true;
     }
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2024 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.tommyettinger.textra.utils;
+
+import com.badlogic.gdx.math.MathUtils;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size cache from String keys to int values, meant to remember the results of parsing the same Strings over
+ * and over, such as color descriptions. It never grows: each key can only go in one of a few slots near where its hash
+ * points, and when all of those are full, putting a new key replaces whatever was in the first of them. This means
+ * some entries get forgotten, but looking one up is only ever a few String comparisons.
+ * <br>
+ * This can be read and written from multiple threads without locking. Each entry is an immutable object that is
+ * written to its slot all at once, so a reader sees either a complete entry or none; racing writes can only cause an
+ * entry to be forgotten sooner, which a cache is allowed to do.
+ */
+public final class StringIntCache {
+    /**
+     * How many slots, starting from the one a key hashes to, may hold that key.
+     */
+    private static final int PROBES = 4;
+
+    private static final class Entry {
+        final String key;
+        final int value;
+
+        Entry(String key, int value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private final Entry[] table;
+    private final int shift;
+
+    /**
+     * Creates a StringIntCache that can hold at least {@code capacity} entries (rounded up to a power of two), before
+     * any need to be forgotten.
+     * @param capacity how many entries this should be able to hold; will be at least 16
+     */
+    public StringIntCache(int capacity) {
+        int size = MathUtils.nextPowerOfTwo(Math.max(capacity, 16));
+        table = new Entry[size];
+        shift = Long.numberOfLeadingZeros(size - 1L);
+    }
+
+    /**
+     * Gets the value remembered for {@code key}, if there is one. Because any int can be a value, this returns a long;
+     * the value is in the low 32 bits, or if key isn't in this cache, this returns -1L.
+     * @param key a non-null String to look up
+     * @return the value as an int in the low 32 bits of the returned long, or -1L if key isn't present
+     */
+    public long get(String key) {
+        final Entry[] t = table;
+        final int mask = t.length - 1;
+        final int place = place(key);
+        for (int i = 0; i < PROBES; i++) {
+            Entry e = t[place + i & mask];
+            if (e == null) return -1L;
+            if (e.key.equals(key)) return e.value & 0xFFFFFFFFL;
+        }
+        return -1L;
+    }
+
+    /**
+     * Remembers {@code value} for {@code key}, replacing any other value key had. If the slots key can go in are all
+     * holding other keys, the first of those is forgotten.
+     * @param key a non-null String key
+     * @param value any int value
+     */
+    public void put(String key, int value) {
+        final Entry[] t = table;
+        final int mask = t.length - 1;
+        final int place = place(key);
+        final Entry entry = new Entry(key, value);
+        for (int i = 0; i < PROBES; i++) {
+            Entry e = t[place + i & mask];
+            if (e == null || e.key.equals(key)) {
+                t[place + i & mask] = entry;
+                return;
+            }
+        }
+        t[place] = entry;
+    }
+
+    /**
+     * Forgets every entry. This should be called if whatever produced the values would now produce different ones.
+     */
+    public void clear() {
+        Arrays.fill(table, null);
+    }
+
+    private int place(String key) {
+        return (int) (key.hashCode() * 0xD1B54A32D192ED03L >>> shift);
+    }
+}
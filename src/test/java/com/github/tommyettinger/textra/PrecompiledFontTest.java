@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2023 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.tommyettinger.textra;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
+import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.scenes.scene2d.ui.Table;
+import com.badlogic.gdx.utils.ScreenUtils;
+
+/**
+ * Converts a large .fnt file to the precompiled binary format (once), then shows how long loading each took.
+ */
+public class PrecompiledFontTest extends ApplicationAdapter {
+    Stage stage;
+
+    @Override
+    public void create() {
+        FileHandle precompiled = Gdx.files.local("knownFonts/Hanazono-standard" + PrecompiledFont.EXTENSION);
+        long start = System.nanoTime();
+        Font text = new Font("knownFonts/Hanazono-standard.fnt", "knownFonts/Hanazono-standard.png");
+        long textTime = System.nanoTime() - start;
+        if (!precompiled.exists()) {
+            PrecompiledFont.write(text, precompiled);
+        }
+        start = System.nanoTime();
+        Font binary = new Font(precompiled);
+        long binaryTime = System.nanoTime() - start;
+
+        stage = new Stage();
+        Table table = new Table();
+        table.setFillParent(true);
+        table.add(new TextraLabel("Loaded from .fnt in " + textTime / 1000000 + " ms: 漢字かな", text)).row();
+        table.add(new TextraLabel("Loaded from " + PrecompiledFont.EXTENSION + " in " + binaryTime / 1000000 + " ms: 漢字かな", binary));
+        stage.addActor(table);
+    }
+
+    @Override
+    public void resize(int width, int height) {
+        stage.getViewport().update(width, height, true);
+    }
+
+    @Override
+    public void render() {
+        ScreenUtils.clear(Color.BLACK);
+        stage.act();
+        stage.draw();
+    }
+
+    public static void main(String[] arg) {
+        Lwjgl3ApplicationConfiguration config = new Lwjgl3ApplicationConfiguration();
+        config.setTitle("Precompiled Font Test");
+        config.setWindowedMode(720, 480);
+        config.setResizable(true);
+        config.setForegroundFPS(0);
+        config.useVsync(true);
+        config.disableAudio(true);
+        new Lwjgl3Application(new PrecompiledFontTest(), config);
+    }
+}